@@ -0,0 +1,75 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Every {@code *ContentReader} on a generated file of about 16 KB, 256 KB and 2 MB of text.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContentReaderBenchmark {
+
+    private static final Map<String, String> READERS = Map.of(
+            "md", "MarkdownContentReader",
+            "csv", "CsvContentReader",
+            "json", "JsonContentReader",
+            "pdf", "PdfContentReader",
+            "docx", "WordContentReader");
+
+    @Param({"md", "csv", "json", "pdf", "docx"})
+    String format;
+
+    @Param({"16", "256", "2048"})
+    int kilobytes;
+
+    private Path directory;
+    private Path file;
+    private MethodHandle reader;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("reader-bench");
+        file = Corpus.write(directory, format, kilobytes * 1024L);
+        reader = Playground.reader(READERS.get(format));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<?> read() throws Throwable {
+        return (List<?>) reader.invoke(file);
+    }
+}
@@ -0,0 +1,144 @@
+package benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic IT-operations prose and documents of a given size in every format the readers support.
+ */
+final class Corpus {
+
+    private static final String[] WORDS = {
+            "server", "firewall", "ldap", "lookup", "deployment", "latency", "certificate", "token", "gateway",
+            "cluster", "database", "backup", "incident", "outbound", "traffic", "logging", "module", "patch",
+            "kernel", "container", "network", "policy", "access", "account", "rotation", "alert", "threshold",
+            "queue", "replica", "failover", "vpn", "endpoint", "scanner", "payload", "session", "timeout"};
+    private static final int LINES_PER_PAGE = 50;
+
+    private Corpus() {
+    }
+
+    static String sentences(Random random, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int s = 0; s < count; s++) {
+            int words = 8 + random.nextInt(12);
+            for (int w = 0; w < words; w++) {
+                String word = WORDS[random.nextInt(WORDS.length)];
+                sb.append(w == 0 ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : word);
+                sb.append(w == words - 1 ? ". " : " ");
+            }
+        }
+        return sb.toString().strip();
+    }
+
+    /**
+     * Lines of one or two sentences each, adding up to roughly {@code bytes} characters.
+     */
+    static List<String> lines(long bytes) {
+        Random random = new Random(42);
+        List<String> lines = new ArrayList<>();
+        long size = 0;
+        while (size < bytes) {
+            String line = sentences(random, 1 + random.nextInt(2));
+            lines.add(line);
+            size += line.length() + 1;
+        }
+        return lines;
+    }
+
+    /**
+     * Writes about {@code bytes} of text as a file of the given format ({@code md}, {@code csv},
+     * {@code json}, {@code pdf} or {@code docx}).
+     */
+    static Path write(Path directory, String format, long bytes) throws IOException {
+        Path file = directory.resolve("corpus-" + bytes + "." + format);
+        List<String> lines = lines(bytes);
+        switch (format) {
+            case "md" -> writeMarkdown(file, lines);
+            case "csv" -> writeCsv(file, lines);
+            case "json" -> writeJson(file, lines);
+            case "pdf" -> writePdf(file, lines);
+            case "docx" -> writeDocx(file, lines);
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        }
+        return file;
+    }
+
+    private static void writeMarkdown(Path file, List<String> lines) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < lines.size(); i++) {
+            if (i % 20 == 0) sb.append("\n## Section ").append(i / 20 + 1).append("\n\n");
+            sb.append(i % 5 == 0 ? "- " : "").append(lines.get(i))
+                    .append(i % 7 == 0 ? " See [the runbook](https://runbooks.example.com/" + i + ")." : "")
+                    .append("\n");
+        }
+        Files.writeString(file, sb);
+    }
+
+    private static void writeCsv(Path file, List<String> lines) throws IOException {
+        StringBuilder sb = new StringBuilder("id,host,severity,description\n");
+        for (int i = 0; i < lines.size(); i++) {
+            sb.append(i).append(",host-").append(i % 40).append(',').append(i % 3 == 0 ? "high" : "low")
+                    .append(",\"").append(lines.get(i)).append("\"\n");
+        }
+        Files.writeString(file, sb);
+    }
+
+    private static void writeJson(Path file, List<String> lines) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        ArrayNode events = mapper.createArrayNode();
+        for (int i = 0; i < lines.size(); i++) {
+            ObjectNode event = events.addObject();
+            event.put("id", i);
+            event.put("host", "host-" + i % 40);
+            event.putObject("details").put("message", lines.get(i)).put("acknowledged", i % 2 == 0);
+        }
+        mapper.writeValue(file.toFile(), events);
+    }
+
+    private static void writePdf(Path file, List<String> lines) throws IOException {
+        PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+        try (PDDocument document = new PDDocument()) {
+            for (int start = 0; start < lines.size(); start += LINES_PER_PAGE) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(font, 6);
+                    content.setLeading(7);
+                    content.newLineAtOffset(20, 760);
+                    for (String line : lines.subList(start, Math.min(start + LINES_PER_PAGE, lines.size()))) {
+                        content.showText(line);
+                        content.newLine();
+                    }
+                    content.endText();
+                }
+            }
+            document.save(file.toFile());
+        }
+    }
+
+    private static void writeDocx(Path file, List<String> lines) throws IOException {
+        try (XWPFDocument document = new XWPFDocument(); OutputStream out = Files.newOutputStream(file)) {
+            for (String line : lines) {
+                document.createParagraph().createRun().setText(line);
+            }
+            document.write(out);
+        }
+    }
+}
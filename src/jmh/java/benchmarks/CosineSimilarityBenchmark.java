@@ -0,0 +1,50 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code TextSimilarityRanker.calculateCosineSimilarity} for common embedding sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CosineSimilarityBenchmark {
+
+    @Param({"64", "256", "768", "1536"})
+    int dimension;
+
+    private float[] a;
+    private float[] b;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        a = new float[dimension];
+        b = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            a[i] = (float) random.nextGaussian();
+            b[i] = (float) random.nextGaussian();
+        }
+    }
+
+    @Benchmark
+    public double cosineSimilarity() throws Throwable {
+        return (double) Playground.COSINE_SIMILARITY.invokeExact(a, b);
+    }
+}
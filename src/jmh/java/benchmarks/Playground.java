@@ -0,0 +1,74 @@
+package benchmarks;
+
+import dev.langchain4j.model.embedding.EmbeddingModel;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Handles to the application classes. JMH rejects benchmarks in the default package, and a named
+ * package cannot refer to the default one, so the benchmarks call through {@code static final}
+ * {@link MethodHandle}s; the JIT inlines those like direct calls.
+ */
+final class Playground {
+
+    static final MethodHandle COSINE_SIMILARITY = method("TextSimilarityRanker", "calculateCosineSimilarity",
+            float[].class, float[].class);
+    static final MethodHandle RANK_SEGMENTS = method("TextSimilarityRanker", "rankSegments",
+            EmbeddingModel.class, String.class, List.class);
+    static final MethodHandle GENERATE_PROMPT = method("TextSummarizer", "generatePrompt",
+            String.class, String.class, String.class);
+
+    private Playground() {
+    }
+
+    /**
+     * The static {@code read(Path)} method of a {@code *ContentReader}.
+     */
+    static MethodHandle reader(String className) {
+        return method(className, "read", Path.class);
+    }
+
+    /**
+     * {@code TokenCounter.count(CharSequence)} bound to a counter instance.
+     */
+    static MethodHandle tokenCounter() {
+        try {
+            Constructor<?> constructor = Class.forName("TokenCounter").getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return method("TokenCounter", "count", CharSequence.class).bindTo(constructor.newInstance());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static EmbeddingModel hashingEmbeddingModel() {
+        try {
+            Constructor<?> constructor = Class.forName("HashingEmbeddingModel").getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return (EmbeddingModel) constructor.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<Object, Double> rankSegments(EmbeddingModel model, String query, List<?> segments) throws Throwable {
+        return (Map<Object, Double>) RANK_SEGMENTS.invokeExact(model, query, (List) segments);
+    }
+
+    private static MethodHandle method(String className, String name, Class<?>... parameterTypes) {
+        try {
+            Method method = Class.forName(className).getDeclaredMethod(name, parameterTypes);
+            method.setAccessible(true);
+            return MethodHandles.lookup().unreflect(method);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot bind " + className + "." + name, e);
+        }
+    }
+}
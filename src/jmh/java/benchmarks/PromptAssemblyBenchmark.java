@@ -0,0 +1,56 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code TextSummarizer.generatePrompt}: a (cached) file read plus rendering of the summary template,
+ * i.e. everything a summary job does locally before the first byte goes to the model.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PromptAssemblyBenchmark {
+
+    @Param({"4", "64", "1024"})
+    int kilobytes;
+
+    private Path file;
+    private String fileName;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("prompt-bench", ".txt");
+        Files.write(file, Corpus.lines(kilobytes * 1024L));
+        // Absolute, so it is not resolved against the resource directory
+        fileName = file.toAbsolutePath().toString();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public String generatePrompt() throws Throwable {
+        return (String) Playground.GENERATE_PROMPT.invokeExact(fileName, "executive", "English");
+    }
+}
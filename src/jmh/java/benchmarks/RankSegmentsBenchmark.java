@@ -0,0 +1,55 @@
+package benchmarks;
+
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code TextSimilarityRanker.rankSegments} with the in-process {@code HashingEmbeddingModel}: embeds the
+ * query and every segment, scores and sorts them, as every query in the ranker CLI does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RankSegmentsBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    int segments;
+
+    private EmbeddingModel model;
+    private List<TextSegment> corpus;
+
+    @Setup
+    public void setUp() {
+        model = Playground.hashingEmbeddingModel();
+        corpus = new ArrayList<>(segments);
+        Random random = new Random(42);
+        for (int i = 0; i < segments; i++) {
+            corpus.add(TextSegment.from(Corpus.sentences(random, 4)));
+        }
+    }
+
+    @Benchmark
+    public Map<Object, Double> rankSegments() throws Throwable {
+        return Playground.rankSegments(model, "ldap lookup from the web server after a logging update", corpus);
+    }
+}
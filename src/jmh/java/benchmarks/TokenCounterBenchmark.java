@@ -0,0 +1,60 @@
+package benchmarks;
+
+import dev.langchain4j.model.openai.OpenAiTokenCountEstimator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code TokenCounter} against the exact BPE count of {@link OpenAiTokenCountEstimator} on 1 KB to 1 MB of text.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenCounterBenchmark {
+
+    @Param({"1", "64", "1024"})
+    int kilobytes;
+
+    private String text;
+    private StringBuilder builder;
+    private MethodHandle tokenCounter;
+    private OpenAiTokenCountEstimator bpe;
+
+    @Setup
+    public void setUp() {
+        text = String.join("\n", Corpus.lines(kilobytes * 1024L));
+        builder = new StringBuilder(text);
+        tokenCounter = Playground.tokenCounter();
+        bpe = new OpenAiTokenCountEstimator("gpt-4");
+    }
+
+    @Benchmark
+    public int tokenCounter() throws Throwable {
+        return (int) tokenCounter.invokeExact((CharSequence) text);
+    }
+
+    @Benchmark
+    public int tokenCounterOnStringBuilder() throws Throwable {
+        return (int) tokenCounter.invokeExact((CharSequence) builder);
+    }
+
+    @Benchmark
+    public int bpe() {
+        return bpe.estimateTokenCountInText(text);
+    }
+}
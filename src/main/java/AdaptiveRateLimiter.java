@@ -0,0 +1,368 @@
+import dev.langchain4j.exception.HttpException;
+import dev.langchain4j.exception.RateLimitException;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <h2>AdaptiveRateLimiter</h2>
+ * <p>
+ * Client-side admission control for one provider quota. A call may start only when the
+ * requests-per-minute and tokens-per-minute buckets both have room <i>and</i> fewer than the
+ * current concurrency limit are in flight. The limit adapts AIMD-style: it grows by one per
+ * window of successful calls and is halved on a 429, so throughput settles right below the quota
+ * instead of oscillating between bursts and retry storms.
+ * </p>
+ * <b>Features:</b>
+ * <ul>
+ * <li>Token buckets refilled continuously; token reservations are corrected with the real usage</li>
+ * <li>AIMD concurrency from 429s and from latency far above the running average</li>
+ * <li>Fair queuing: waiting callers are served round-robin, FIFO within a caller</li>
+ * </ul>
+ * Callers are identified by {@link #CALLER}, which virtual threads inherit from the thread that created them.
+ */
+class AdaptiveRateLimiter {
+
+    /**
+     * Name of the logical caller (e.g. a summary job). Unset threads share the "default" queue.
+     */
+    static final InheritableThreadLocal<String> CALLER = new InheritableThreadLocal<>() {
+        @Override
+        protected String initialValue() {
+            return "default";
+        }
+    };
+
+    private static final double DECREASE_ON_429 = 0.5;
+    private static final double DECREASE_ON_SLOW = 0.9;
+    private static final double SLOW_FACTOR = 2.0;
+    private static final double LATENCY_ALPHA = 0.1;
+    // Latency swings below this are jitter, not a sign of provider-side queueing
+    private static final long MIN_SLOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final String name;
+    private final Bucket requests;
+    private final Bucket tokens;
+    private final double minConcurrency;
+    private final double maxConcurrency;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final LinkedHashMap<String, ArrayDeque<Permit>> waiting = new LinkedHashMap<>();
+
+    // Guarded by lock
+    private double limit;
+    private int inFlight;
+    private int queued;
+    private double averageLatencyNanos;
+
+    private AdaptiveRateLimiter(Builder builder) {
+        this.name = builder.name;
+        this.requests = new Bucket(builder.requestsPerMinute);
+        this.tokens = new Bucket(builder.tokensPerMinute);
+        this.minConcurrency = builder.minConcurrency;
+        this.maxConcurrency = builder.maxConcurrency;
+        this.limit = builder.initialConcurrency;
+    }
+
+    static Builder builder(String name) {
+        return new Builder(name);
+    }
+
+    /**
+     * Permission to make one call. Exactly one of the outcome methods must be called when the call ends.
+     */
+    final class Permit {
+        private final int reservedTokens;
+        private final AtomicBoolean released = new AtomicBoolean();
+        private boolean granted;
+        private long grantedNanos;
+
+        private Permit(int reservedTokens) {
+            this.reservedTokens = reservedTokens;
+        }
+
+        /**
+         * The call succeeded. {@code actualTokens} corrects the reservation; pass -1 if unknown.
+         */
+        void success(int actualTokens) {
+            release(this, Outcome.SUCCESS, actualTokens);
+        }
+
+        /**
+         * The provider answered 429: the limit is halved and the buckets are drained.
+         */
+        void rateLimited() {
+            release(this, Outcome.RATE_LIMITED, -1);
+        }
+
+        /**
+         * Any other failure; the reservation is kept because the provider may still have counted it.
+         */
+        void failed() {
+            release(this, Outcome.FAILED, -1);
+        }
+
+        /**
+         * The caller abandoned the call (a cancelled stream); the reservation is kept, the limit is left alone.
+         */
+        void cancelled() {
+            release(this, Outcome.CANCELLED, -1);
+        }
+    }
+
+    private enum Outcome { SUCCESS, RATE_LIMITED, FAILED, CANCELLED }
+
+    Permit acquire(int estimatedTokens) throws InterruptedException {
+        return acquire(CALLER.get(), estimatedTokens);
+    }
+
+    /**
+     * Waits for this caller's turn and for room in both buckets and the concurrency limit.
+     */
+    Permit acquire(String caller, int estimatedTokens) throws InterruptedException {
+        // A request larger than the whole minute budget would otherwise wait forever
+        Permit permit = new Permit((int) Math.min(estimatedTokens, tokens.capacity));
+        lock.lock();
+        try {
+            waiting.computeIfAbsent(caller, k -> new ArrayDeque<>()).add(permit);
+            queued++;
+            while (true) {
+                long waitNanos = dispatch();
+                if (permit.granted) return permit;
+                if (waitNanos > 0) {
+                    changed.awaitNanos(waitNanos);
+                } else {
+                    changed.await();
+                }
+            }
+        } catch (InterruptedException e) {
+            if (!permit.granted) {
+                ArrayDeque<Permit> queue = waiting.get(caller);
+                if (queue != null && queue.remove(permit)) {
+                    queued--;
+                    if (queue.isEmpty()) waiting.remove(caller);
+                }
+                changed.signalAll();
+            } else {
+                // Granted while being interrupted: hand the slot back (the lock is reentrant)
+                permit.failed();
+            }
+            throw e;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Grants permits round-robin across callers while there is capacity.
+     * @return Nanoseconds until the buckets can serve the next permit, or 0 to wait for a release.
+     */
+    private long dispatch() {
+        boolean grantedAny = false;
+        while (!waiting.isEmpty() && inFlight < Math.floor(limit)) {
+            Iterator<Map.Entry<String, ArrayDeque<Permit>>> it = waiting.entrySet().iterator();
+            Map.Entry<String, ArrayDeque<Permit>> next = it.next();
+            Permit head = next.getValue().peek();
+
+            long now = System.nanoTime();
+            long wait = Math.max(requests.nanosUntil(1, now), tokens.nanosUntil(head.reservedTokens, now));
+            if (wait > 0) {
+                if (grantedAny) changed.signalAll();
+                return wait;
+            }
+
+            requests.take(1, now);
+            tokens.take(head.reservedTokens, now);
+            next.getValue().poll();
+            it.remove();
+            // Move the caller to the back of the round-robin order if it is still waiting
+            if (!next.getValue().isEmpty()) waiting.put(next.getKey(), next.getValue());
+
+            head.granted = true;
+            head.grantedNanos = now;
+            inFlight++;
+            queued--;
+            grantedAny = true;
+        }
+        if (grantedAny) changed.signalAll();
+        return 0;
+    }
+
+    private void release(Permit permit, Outcome outcome, int actualTokens) {
+        if (!permit.released.compareAndSet(false, true)) return;
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            inFlight--;
+            switch (outcome) {
+                case SUCCESS -> {
+                    if (actualTokens >= 0) tokens.refund(permit.reservedTokens - actualTokens);
+                    long latency = now - permit.grantedNanos;
+                    if (latency > MIN_SLOW_NANOS && averageLatencyNanos > 0 && latency > SLOW_FACTOR * averageLatencyNanos) {
+                        limit = Math.max(minConcurrency, limit * DECREASE_ON_SLOW);
+                    } else {
+                        // Additive increase: +1 after roughly one limit's worth of successes
+                        limit = Math.min(maxConcurrency, limit + 1.0 / limit);
+                    }
+                    averageLatencyNanos = averageLatencyNanos == 0
+                            ? latency
+                            : (1 - LATENCY_ALPHA) * averageLatencyNanos + LATENCY_ALPHA * latency;
+                }
+                case RATE_LIMITED -> {
+                    limit = Math.max(minConcurrency, limit * DECREASE_ON_429);
+                    requests.drain(now);
+                    tokens.drain(now);
+                }
+                case FAILED, CANCELLED -> { }
+            }
+            dispatch();
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    String name() {
+        return name;
+    }
+
+    /**
+     * The minute token budget; the provider rejects any single request larger than that.
+     */
+    int tokensPerMinute() {
+        return (int) tokens.capacity;
+    }
+
+    double concurrencyLimit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int queued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * True if the error, or any of its causes, is an HTTP 429 from the provider.
+     */
+    static boolean isRateLimit(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof RateLimitException) return true;
+            if (t instanceof HttpException http && http.statusCode() == 429) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "%s[limit=%.1f, inFlight=%d, queued=%d]".formatted(name, concurrencyLimit(), inFlight(), queued());
+    }
+
+    /**
+     * Continuously refilled budget of {@code capacity} units per minute. The level may go negative
+     * when a call used more than it reserved; that debt is paid off by later refills.
+     */
+    private static final class Bucket {
+        private final double capacity;
+        private final double perNano;
+        private double level;
+        private long updatedNanos = System.nanoTime();
+
+        Bucket(int perMinute) {
+            this.capacity = perMinute;
+            this.perNano = perMinute / (double) TimeUnit.MINUTES.toNanos(1);
+            this.level = perMinute;
+        }
+
+        private void refill(long now) {
+            level = Math.min(capacity, level + (now - updatedNanos) * perNano);
+            updatedNanos = now;
+        }
+
+        long nanosUntil(int amount, long now) {
+            refill(now);
+            return level >= amount ? 0 : (long) Math.ceil((amount - level) / perNano);
+        }
+
+        void take(int amount, long now) {
+            refill(now);
+            level -= amount;
+        }
+
+        void refund(int amount) {
+            level = Math.min(capacity, level + amount);
+        }
+
+        void drain(long now) {
+            refill(now);
+            level = Math.min(level, 0);
+        }
+    }
+
+    static final class Builder {
+        private final String name;
+        private int requestsPerMinute = 30;
+        private int tokensPerMinute = 12_000;
+        private double initialConcurrency = 4;
+        private double minConcurrency = 1;
+        private double maxConcurrency = 32;
+
+        private Builder(String name) {
+            this.name = name;
+        }
+
+        Builder requestsPerMinute(int requestsPerMinute) {
+            this.requestsPerMinute = requestsPerMinute;
+            return this;
+        }
+
+        Builder tokensPerMinute(int tokensPerMinute) {
+            this.tokensPerMinute = tokensPerMinute;
+            return this;
+        }
+
+        Builder initialConcurrency(double initialConcurrency) {
+            this.initialConcurrency = initialConcurrency;
+            return this;
+        }
+
+        Builder minConcurrency(double minConcurrency) {
+            this.minConcurrency = minConcurrency;
+            return this;
+        }
+
+        Builder maxConcurrency(double maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        AdaptiveRateLimiter build() {
+            return new AdaptiveRateLimiter(this);
+        }
+    }
+}
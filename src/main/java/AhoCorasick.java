@@ -0,0 +1,164 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <h2>AhoCorasick</h2>
+ * <p>
+ * Case-insensitive multi-pattern matcher over raw bytes. All patterns are compiled into one
+ * deterministic automaton, so a buffer is scanned in a single pass at a fixed cost per byte,
+ * no matter how many patterns there are; no decoding to {@code String} is needed.
+ * </p>
+ * ASCII letters are folded to lower case; other bytes (including UTF-8 sequences) must match exactly.
+ */
+final class AhoCorasick {
+
+    /**
+     * Receives every match; {@code end} is the index just after the last byte of the match.
+     */
+    @FunctionalInterface
+    interface MatchHandler {
+        void onMatch(int pattern, int end);
+    }
+
+    private static final byte[] FOLD = new byte[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            FOLD[i] = (byte) (i >= 'A' && i <= 'Z' ? i + 32 : i);
+        }
+    }
+
+    private final List<String> patterns;
+    // transitions[state * 256 + byte] -> next state; dense, so a step is one array load
+    private final int[] transitions;
+    // Patterns ending in each state, including those inherited through failure links
+    private final int[][] outputs;
+
+    private AhoCorasick(List<String> patterns, int[] transitions, int[][] outputs) {
+        this.patterns = patterns;
+        this.transitions = transitions;
+        this.outputs = outputs;
+    }
+
+    static AhoCorasick compile(List<String> patterns) {
+        // 1. Trie
+        List<int[]> trie = new ArrayList<>();
+        List<List<Integer>> out = new ArrayList<>();
+        trie.add(newRow());
+        out.add(new ArrayList<>());
+        for (int p = 0; p < patterns.size(); p++) {
+            byte[] bytes = patterns.get(p).getBytes(StandardCharsets.UTF_8);
+            if (bytes.length == 0) throw new IllegalArgumentException("Empty pattern");
+            int state = 0;
+            for (byte b : bytes) {
+                int c = FOLD[b & 0xFF] & 0xFF;
+                if (trie.get(state)[c] < 0) {
+                    trie.get(state)[c] = trie.size();
+                    trie.add(newRow());
+                    out.add(new ArrayList<>());
+                }
+                state = trie.get(state)[c];
+            }
+            out.get(state).add(p);
+        }
+
+        // 2. Failure links in BFS order, turning the trie into a full transition table
+        int states = trie.size();
+        int[] fail = new int[states];
+        int[] transitions = new int[states * 256];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < 256; c++) {
+            int next = trie.get(0)[c];
+            if (next < 0) {
+                transitions[c] = 0;
+            } else {
+                transitions[c] = next;
+                fail[next] = 0;
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            out.get(state).addAll(out.get(fail[state]));
+            for (int c = 0; c < 256; c++) {
+                int next = trie.get(state)[c];
+                if (next < 0) {
+                    transitions[state * 256 + c] = transitions[fail[state] * 256 + c];
+                } else {
+                    transitions[state * 256 + c] = next;
+                    fail[next] = transitions[fail[state] * 256 + c];
+                    queue.add(next);
+                }
+            }
+        }
+
+        // Upper-case letters step like their lower-case twins, so scanning needs no separate folding
+        for (int state = 0; state < states; state++) {
+            for (int c = 'A'; c <= 'Z'; c++) {
+                transitions[state * 256 + c] = transitions[state * 256 + c + 32];
+            }
+        }
+
+        int[][] outputs = new int[states][];
+        for (int s = 0; s < states; s++) {
+            outputs[s] = out.get(s).isEmpty() ? null : out.get(s).stream().mapToInt(Integer::intValue).toArray();
+        }
+        return new AhoCorasick(List.copyOf(patterns), transitions, outputs);
+    }
+
+    private static int[] newRow() {
+        int[] row = new int[256];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    /**
+     * Scans {@code [from, to)} of the buffer without changing its position.
+     */
+    void scan(ByteBuffer buffer, int from, int to, MatchHandler handler) {
+        int[] transitions = this.transitions;
+        int[][] outputs = this.outputs;
+        int state = 0;
+        for (int i = from; i < to; i++) {
+            state = transitions[(state << 8) | (buffer.get(i) & 0xFF)];
+            int[] matched = outputs[state];
+            if (matched != null) {
+                for (int pattern : matched) handler.onMatch(pattern, i + 1);
+            }
+        }
+    }
+
+    /**
+     * One step of the automaton, for callers that need their own loop (e.g. to track lines).
+     */
+    int next(int state, byte b) {
+        return transitions[(state << 8) | (b & 0xFF)];
+    }
+
+    /**
+     * Patterns that end in {@code state}, or {@code null}.
+     */
+    int[] matches(int state) {
+        return outputs[state];
+    }
+
+    void scan(byte[] bytes, MatchHandler handler) {
+        scan(ByteBuffer.wrap(bytes), 0, bytes.length, handler);
+    }
+
+    String pattern(int index) {
+        return patterns.get(index);
+    }
+
+    int size() {
+        return patterns.size();
+    }
+
+    int states() {
+        return outputs.length;
+    }
+}
@@ -0,0 +1,102 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * <h2>CompiledTemplate</h2>
+ * <p>
+ * A prompt template with {@code {{name}}} placeholders that is parsed once, at class-load time,
+ * into literal and variable parts. Rendering is a single pass over those parts into a
+ * pre-sized {@link StringBuilder}: no regex, no re-parsing and no intermediate map per call.
+ * </p>
+ * Missing variables fail fast, like LangChain4j's {@code PromptTemplate}.
+ */
+final class CompiledTemplate {
+
+    private final String source;
+    private final String[] literals;   // literals[i] precedes variables[i]; one extra trailing literal
+    private final String[] variables;
+    private final int literalLength;
+
+    private CompiledTemplate(String source, List<String> literals, List<String> variables) {
+        this.source = source;
+        this.literals = literals.toArray(String[]::new);
+        this.variables = variables.toArray(String[]::new);
+        this.literalLength = literals.stream().mapToInt(String::length).sum();
+    }
+
+    static CompiledTemplate compile(String template) {
+        List<String> literals = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            int open = template.indexOf("{{", position);
+            int close = open < 0 ? -1 : template.indexOf("}}", open + 2);
+            if (close < 0) break;
+            literals.add(template.substring(position, open));
+            variables.add(template.substring(open + 2, close).trim());
+            position = close + 2;
+        }
+        literals.add(template.substring(position));
+        return new CompiledTemplate(template, literals, variables);
+    }
+
+    /**
+     * Names of the placeholders in order of appearance (duplicates included).
+     */
+    List<String> variables() {
+        return List.of(variables);
+    }
+
+    String render(Map<String, ?> values) {
+        return render(values::get);
+    }
+
+    /**
+     * Renders from name/value pairs, e.g. {@code render("level", level, "language", language)}.
+     * The pairs are scanned directly; with a handful of variables that beats building a map.
+     */
+    String render(Object... namesAndValues) {
+        if (namesAndValues.length % 2 != 0) {
+            throw new IllegalArgumentException("Expected name/value pairs");
+        }
+        return render(name -> {
+            for (int i = 0; i < namesAndValues.length; i += 2) {
+                if (name.equals(namesAndValues[i])) return namesAndValues[i + 1];
+            }
+            return null;
+        });
+    }
+
+    private String render(Function<String, ?> lookup) {
+        Object[] resolved = new Object[variables.length];
+        int length = literalLength;
+        for (int i = 0; i < variables.length; i++) {
+            Object value = lookup.apply(variables[i]);
+            if (value == null) {
+                throw new IllegalArgumentException("Value for the variable '" + variables[i] + "' is missing");
+            }
+            resolved[i] = value;
+            if (value instanceof CharSequence text) length += text.length();
+        }
+
+        StringBuilder sb = new StringBuilder(length + 16);
+        for (int i = 0; i < variables.length; i++) {
+            sb.append(literals[i]).append(resolved[i]);
+        }
+        return sb.append(literals[variables.length]).toString();
+    }
+
+    /**
+     * Short fingerprint of the template text; changes whenever the wording does, e.g. for cache keys.
+     */
+    String version() {
+        return Integer.toHexString(source.hashCode());
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
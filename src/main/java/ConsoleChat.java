@@ -0,0 +1,77 @@
+import dev.langchain4j.service.TokenStream;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * <h2>ConsoleChat</h2>
+ * <p>
+ * Plays one streamed assistant answer on the console. Text goes to a {@link StreamingRenderer}, so
+ * the callback thread never waits on the terminal. Meanwhile the console is watched through
+ * {@link ConsoleInput}, and typing stops the stream via {@link StreamControl}, or, once the model
+ * has finished, the drawing of the rest. The call returns once the answer has been drawn and the
+ * turn's metrics have been printed.
+ * </p>
+ */
+final class ConsoleChat {
+
+    private ConsoleChat() {
+    }
+
+    /**
+     * Starts the answer and blocks until it has completed, failed or been stopped.
+     *
+     * @param answer     The assistant's token stream, not yet started.
+     * @param pacer      Typing effect of the renderer.
+     * @param auditTitle Heading of the turn metrics printed after the answer.
+     * @return A question typed while the answer was streaming, to be asked next; {@code null} if there is none.
+     */
+    static String stream(TokenStream answer, ConsoleInput console, StreamingRenderer.Pacer pacer,
+                         String modelLabel, String sessionId, String auditTitle) {
+        StreamControl control = LlmProviders.streamControl();
+        StreamingRenderer renderer = StreamingRenderer.start(System.out, pacer);
+        LatencyMetrics.Turn turn = LatencyMetrics.startTurn(modelLabel, sessionId);
+
+        // Hands the turn summary from whichever thread ends the stream to the console loop; null after an error
+        CompletableFuture<LatencyMetrics.TurnSummary> summary = new CompletableFuture<>();
+
+        answer.onPartialResponseWithContext((partial, context) -> {
+                    turn.onToken();
+                    control.accept(partial, context, renderer::onToken);
+                })
+                .onCompleteResponse(response -> {
+                    if (!control.complete(renderer::onToken)) return;
+                    summary.complete(turn.complete(response));
+                    renderer.complete();
+                })
+                .onError(e -> {
+                    if (!control.fail()) return;
+                    renderer.complete();
+                    System.err.printf("%n[ERROR] %s%n", e.getMessage());
+                    summary.complete(null);
+                })
+                .start();
+
+        String next = console.awaitStream(control);
+        StreamControl.Cancellation cancellation = control.cancellation();
+        if (cancellation != null) {
+            // Text accepted before the cancellation is already queued; a user stop drops what is not drawn yet
+            if (cancellation.reason().byUser()) renderer.abort();
+            renderer.complete();
+            summary.complete(turn.complete(cancellation.outputTokens()));
+        }
+        LatencyMetrics.TurnSummary result = summary.join();
+        // A paced answer can take much longer to draw than to generate: keep listening meanwhile
+        if (next == null && (cancellation == null || !cancellation.reason().byUser())) {
+            next = console.awaitRendered(renderer);
+        }
+        renderer.awaitRendered();
+        if (cancellation != null) {
+            System.out.printf("%n[STOPPED: %s after %d ms, ~%d tokens saved]%n",
+                    cancellation.reason(), cancellation.millis(), cancellation.tokensSaved());
+        }
+        if (result != null) {
+            LatencyMetrics.printTurn(System.out, auditTitle, result, sessionId);
+        }
+        return next;
+    }
+}
@@ -0,0 +1,127 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h2>ConsoleInput</h2>
+ * <p>
+ * Reads console lines on a daemon thread, so the chat loop can keep listening while an answer is
+ * streaming. Input typed during a stream cancels it through {@link StreamControl}: an empty line
+ * or {@value #STOP_COMMAND} interrupts the answer, any other line interrupts it and becomes the
+ * next question, and a closed input (Ctrl+D, a dropped SSH session) ends it as a disconnect.
+ * The same input stops the drawing of an answer whose stream has already completed.
+ * </p>
+ */
+final class ConsoleInput {
+
+    static final String STOP_COMMAND = "/stop";
+
+    // Identity-compared marker for the end of the input
+    private static final String END = new String("<end-of-input>");
+
+    // How often a waiting chat loop checks the stream while nothing is typed
+    private static final long POLL_MILLIS = 50;
+    private static final Duration POLL_DURATION = Duration.ofMillis(POLL_MILLIS);
+
+    private final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+
+    private ConsoleInput(InputStream in) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, Charset.defaultCharset()));
+        Thread thread = new Thread(() -> read(reader), "console-input");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    static ConsoleInput start(InputStream in) {
+        return new ConsoleInput(in);
+    }
+
+    /**
+     * The next line, or {@code null} once the input is closed.
+     */
+    String nextLine() {
+        try {
+            String line = lines.take();
+            if (line == END) {
+                lines.add(END);
+                return null;
+            }
+            return line;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Waits for a stream while listening to the console, and cancels the stream if the user types.
+     *
+     * @return A question typed during the stream, to be asked next; {@code null} if there is none.
+     */
+    String awaitStream(StreamControl control) {
+        try {
+            while (!control.await(POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                String line = lines.poll();
+                if (line == null) continue;
+                StreamControl.Reason reason = reason(line);
+                control.cancel(reason);
+                return reason == StreamControl.Reason.SUPERSEDED ? line.trim() : null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            control.cancel(StreamControl.Reason.INTERRUPTED);
+        }
+        return null;
+    }
+
+    /**
+     * Waits until a paced answer has been drawn while listening to the console; typing stops the
+     * drawing, since the model has already finished and only the display is left.
+     *
+     * @return A question typed meanwhile, to be asked next; {@code null} if there is none.
+     */
+    String awaitRendered(StreamingRenderer renderer) {
+        try {
+            while (!renderer.awaitRendered(POLL_DURATION)) {
+                String line = lines.poll();
+                if (line == null) continue;
+                renderer.abort();
+                return reason(line) == StreamControl.Reason.SUPERSEDED ? line.trim() : null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            renderer.abort();
+        }
+        return null;
+    }
+
+    // How a line typed during an answer stops it; the end marker stays queued for nextLine()
+    private StreamControl.Reason reason(String line) {
+        if (line == END) {
+            lines.add(END);
+            return StreamControl.Reason.DISCONNECTED;
+        }
+        String question = line.trim();
+        return question.isEmpty() || question.equalsIgnoreCase(STOP_COMMAND)
+                ? StreamControl.Reason.INTERRUPTED : StreamControl.Reason.SUPERSEDED;
+    }
+
+    private void read(BufferedReader reader) {
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        } catch (IOException e) {
+            // A broken console is the same as a closed one
+        } finally {
+            lines.add(END);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * <h2>ExtractiveSummarizer</h2>
+ * <p>
+ * In-process TextRank summarizer for the levels that only select sentences from the source:
+ * "extractive" (verbatim key sentences) and "ultra-brief" (the single most central sentence).
+ * Sentences are TF-IDF vectors; their cosine similarities form a weighted graph, and PageRank on
+ * that graph scores how central each sentence is. The top sentences are returned in document order.
+ * </p>
+ * <b>Features:</b>
+ * <ul>
+ * <li>No network call: a typical document is ranked in milliseconds</li>
+ * <li>Sparse similarity through an inverted index, so only sentences sharing a term are compared</li>
+ * <li>Graph construction and each PageRank iteration run in parallel above {@value #PARALLEL_THRESHOLD} sentences</li>
+ * </ul>
+ */
+class ExtractiveSummarizer {
+
+    static final int PARALLEL_THRESHOLD = 256;
+
+    private static final double DAMPING = 0.85;
+    private static final double CONVERGENCE = 1e-6;
+    private static final int MAX_ITERATIONS = 100;
+    // Edges weaker than this are noise and only slow down the power iteration
+    private static final double MIN_SIMILARITY = 0.05;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "from", "has", "have", "he", "her",
+            "his", "i", "in", "is", "it", "its", "of", "on", "or", "our", "she", "so", "that", "the", "their",
+            "them", "they", "this", "to", "was", "we", "were", "will", "with", "you", "your");
+
+    /**
+     * Selected sentences joined in document order, plus how many sentences were ranked.
+     */
+    record Result(String summary, int sentences, int selected, long micros) {
+    }
+
+    /**
+     * True for the levels this class can serve without a model: extractive and ultra-brief,
+     * including variants such as "extractive (verbatim)" or "ultra brief".
+     */
+    static boolean supports(String level) {
+        String normalized = normalize(level);
+        return normalized.equals("extractive") || normalized.equals("ultra-brief");
+    }
+
+    private static String normalize(String level) {
+        return level.toLowerCase(Locale.ROOT).replaceAll("\\(.*\\)", "").trim().replaceAll("[\\s_]+", "-");
+    }
+
+    /**
+     * Summarizes at a supported level: one sentence for ultra-brief, about a tenth of the text
+     * (3 to 15 sentences) for extractive.
+     */
+    Result summarize(String text, String level) {
+        if (!supports(level)) {
+            throw new IllegalArgumentException("Not an extractive level: " + level);
+        }
+        List<String> sentences = sentences(text);
+        int count = normalize(level).equals("ultra-brief")
+                ? 1
+                : Math.min(15, Math.max(3, Math.round(sentences.size() * 0.1f)));
+        return summarize(sentences, count);
+    }
+
+    Result summarize(String text, int maxSentences) {
+        return summarize(sentences(text), maxSentences);
+    }
+
+    private Result summarize(List<String> sentences, int maxSentences) {
+        long start = System.nanoTime();
+        double[] scores = rank(sentences);
+        Integer[] order = IntStream.range(0, sentences.size()).boxed().toArray(Integer[]::new);
+        // Ties go to the earlier sentence
+        Arrays.sort(order, (a, b) -> scores[a] != scores[b] ? Double.compare(scores[b], scores[a]) : Integer.compare(a, b));
+
+        int selected = Math.min(maxSentences, sentences.size());
+        int[] picked = new int[selected];
+        for (int i = 0; i < selected; i++) {
+            picked[i] = order[i];
+        }
+        Arrays.sort(picked);
+
+        StringBuilder sb = new StringBuilder();
+        for (int index : picked) {
+            if (!sb.isEmpty()) sb.append(' ');
+            sb.append(sentences.get(index));
+        }
+        return new Result(sb.toString(), sentences.size(), selected, (System.nanoTime() - start) / 1_000);
+    }
+
+    /**
+     * Splits text into trimmed, non-blank sentences.
+     */
+    List<String> sentences(String text) {
+        BreakIterator iterator = BreakIterator.getSentenceInstance(Locale.ROOT);
+        // Line breaks inside paragraphs would otherwise survive into the output
+        String flat = text.replaceAll("\\s+", " ");
+        iterator.setText(flat);
+        List<String> sentences = new ArrayList<>();
+        for (int start = iterator.first(), end = iterator.next(); end != BreakIterator.DONE; start = end, end = iterator.next()) {
+            String sentence = flat.substring(start, end).trim();
+            if (!sentence.isEmpty()) sentences.add(sentence);
+        }
+        return sentences;
+    }
+
+    /**
+     * TextRank centrality of each sentence; the scores sum to 1.
+     */
+    double[] rank(List<String> sentences) {
+        int n = sentences.size();
+        if (n == 0) return new double[0];
+        boolean parallel = n >= PARALLEL_THRESHOLD;
+
+        SparseVector[] vectors = vectorize(sentences);
+        Graph graph = graph(vectors, parallel);
+
+        double[] scores = new double[n];
+        Arrays.fill(scores, 1.0 / n);
+        double[] next = new double[n];
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            // Mass of sentences without edges is spread evenly, so the scores keep summing to 1
+            double dangling = 0;
+            for (int i = 0; i < n; i++) {
+                if (graph.weightSum[i] == 0) dangling += scores[i];
+            }
+            double base = (1 - DAMPING) / n + DAMPING * dangling / n;
+            double[] current = scores;
+            double[] target = next;
+            // The graph is symmetric, so incoming edges of j are the edges stored in row j
+            range(n, parallel).forEach(j -> {
+                double sum = 0;
+                int[] neighbours = graph.neighbours[j];
+                double[] weights = graph.weights[j];
+                for (int k = 0; k < neighbours.length; k++) {
+                    int i = neighbours[k];
+                    sum += weights[k] / graph.weightSum[i] * current[i];
+                }
+                target[j] = base + DAMPING * sum;
+            });
+
+            double delta = 0;
+            for (int i = 0; i < n; i++) {
+                delta += Math.abs(next[i] - scores[i]);
+            }
+            double[] swap = scores;
+            scores = next;
+            next = swap;
+            if (delta < CONVERGENCE) break;
+        }
+        return scores;
+    }
+
+    private static IntStream range(int n, boolean parallel) {
+        IntStream range = IntStream.range(0, n);
+        return parallel ? range.parallel() : range;
+    }
+
+    /**
+     * Unit-length TF-IDF vector with term ids sorted ascending.
+     */
+    private record SparseVector(int[] terms, double[] weights) {
+    }
+
+    /**
+     * Adjacency lists of the similarity graph; {@code weightSum[i]} is the total weight of row i.
+     */
+    private record Graph(int[][] neighbours, double[][] weights, double[] weightSum) {
+    }
+
+    private static SparseVector[] vectorize(List<String> sentences) {
+        int n = sentences.size();
+        Map<String, Integer> termIds = new HashMap<>();
+        List<Map<Integer, Integer>> counts = new ArrayList<>(n);
+        List<Integer> documentFrequency = new ArrayList<>();
+        for (String sentence : sentences) {
+            Map<Integer, Integer> tf = new HashMap<>();
+            for (String word : sentence.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+                if (word.length() < 2 || STOP_WORDS.contains(word)) continue;
+                int id = termIds.computeIfAbsent(word, w -> termIds.size());
+                if (tf.merge(id, 1, Integer::sum) == 1) {
+                    if (id == documentFrequency.size()) documentFrequency.add(0);
+                    documentFrequency.set(id, documentFrequency.get(id) + 1);
+                }
+            }
+            counts.add(tf);
+        }
+
+        SparseVector[] vectors = new SparseVector[n];
+        for (int s = 0; s < n; s++) {
+            int[] terms = counts.get(s).keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+            double[] weights = new double[terms.length];
+            double norm = 0;
+            for (int k = 0; k < terms.length; k++) {
+                double idf = Math.log((double) n / documentFrequency.get(terms[k])) + 1;
+                weights[k] = counts.get(s).get(terms[k]) * idf;
+                norm += weights[k] * weights[k];
+            }
+            norm = Math.sqrt(norm);
+            for (int k = 0; k < weights.length; k++) {
+                weights[k] /= norm;
+            }
+            vectors[s] = new SparseVector(terms, weights);
+        }
+        return vectors;
+    }
+
+    /**
+     * Cosine similarities via an inverted index: each row only visits sentences that share a term.
+     */
+    private static Graph graph(SparseVector[] vectors, boolean parallel) {
+        int n = vectors.length;
+        int termCount = 0;
+        for (SparseVector v : vectors) {
+            if (v.terms().length > 0) termCount = Math.max(termCount, v.terms()[v.terms().length - 1] + 1);
+        }
+
+        // Postings: for every term, the sentences containing it and the term's weight there
+        int[] postingSizes = new int[termCount];
+        for (SparseVector v : vectors) {
+            for (int term : v.terms()) postingSizes[term]++;
+        }
+        int[][] postingSentences = new int[termCount][];
+        double[][] postingWeights = new double[termCount][];
+        for (int t = 0; t < termCount; t++) {
+            postingSentences[t] = new int[postingSizes[t]];
+            postingWeights[t] = new double[postingSizes[t]];
+        }
+        int[] fill = new int[termCount];
+        for (int s = 0; s < n; s++) {
+            SparseVector v = vectors[s];
+            for (int k = 0; k < v.terms().length; k++) {
+                int t = v.terms()[k];
+                postingSentences[t][fill[t]] = s;
+                postingWeights[t][fill[t]++] = v.weights()[k];
+            }
+        }
+
+        int[][] neighbours = new int[n][];
+        double[][] weights = new double[n][];
+        double[] weightSum = new double[n];
+        ThreadLocal<double[]> accumulators = ThreadLocal.withInitial(() -> new double[n]);
+        range(n, parallel).forEach(i -> {
+            double[] acc = accumulators.get();
+            int[] touched = new int[16];
+            int touchedCount = 0;
+            SparseVector v = vectors[i];
+            for (int k = 0; k < v.terms().length; k++) {
+                int t = v.terms()[k];
+                double w = v.weights()[k];
+                int[] sentences = postingSentences[t];
+                double[] termWeights = postingWeights[t];
+                for (int p = 0; p < sentences.length; p++) {
+                    int j = sentences[p];
+                    if (j == i) continue;
+                    if (acc[j] == 0) {
+                        if (touchedCount == touched.length) touched = Arrays.copyOf(touched, touchedCount * 2);
+                        touched[touchedCount++] = j;
+                    }
+                    acc[j] += w * termWeights[p];
+                }
+            }
+
+            int[] rowNeighbours = new int[touchedCount];
+            double[] rowWeights = new double[touchedCount];
+            int size = 0;
+            double sum = 0;
+            for (int k = 0; k < touchedCount; k++) {
+                int j = touched[k];
+                if (acc[j] >= MIN_SIMILARITY) {
+                    rowNeighbours[size] = j;
+                    rowWeights[size++] = acc[j];
+                    sum += acc[j];
+                }
+                acc[j] = 0;
+            }
+            neighbours[i] = Arrays.copyOf(rowNeighbours, size);
+            weights[i] = Arrays.copyOf(rowWeights, size);
+            weightSum[i] = sum;
+        });
+        return new Graph(neighbours, weights, weightSum);
+    }
+}
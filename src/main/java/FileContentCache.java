@@ -0,0 +1,162 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <h2>FileContentCache</h2>
+ * <p>
+ * Keeps decoded file contents in memory so the same document can be summarised at several
+ * levels without touching the disk again. An entry is valid while the file's size and
+ * modification time are unchanged; checking that is a metadata lookup, not a read.
+ * </p>
+ * <b>Features:</b>
+ * <ul>
+ * <li>LRU eviction under a memory cap (counted as 2 bytes per cached char)</li>
+ * <li>Files of {@value #MMAP_THRESHOLD_BYTES} bytes and more are decoded straight from a memory-mapped buffer</li>
+ * <li>Pluggable loaders, so extracted PDF/DOCX text is cached the same way as plain text</li>
+ * <li>Hit, miss and eviction counters</li>
+ * </ul>
+ */
+class FileContentCache {
+
+    static final long MMAP_THRESHOLD_BYTES = 1 << 20;
+
+    /**
+     * Turns a file into text, e.g. by extracting the text of a PDF.
+     */
+    @FunctionalInterface
+    interface Loader {
+        String load(Path file) throws IOException;
+    }
+
+    private record Entry(long size, long modifiedMillis, String content) {
+        long footprint() {
+            return 2L * content.length();
+        }
+    }
+
+    private final long maxBytes;
+    // Access-ordered: iteration starts at the least recently used entry
+    private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    FileContentCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Reads a UTF-8 text file through the cache.
+     */
+    String read(Path file) throws IOException {
+        return read(file, FileContentCache::readText);
+    }
+
+    /**
+     * Returns the cached text for the file, loading it with {@code loader} if it is missing or stale.
+     * Two callers may load the same file concurrently on a miss; the last one wins, which is harmless.
+     */
+    String read(Path file, Loader loader) throws IOException {
+        Path key = file.toAbsolutePath().normalize();
+        BasicFileAttributes attributes = Files.readAttributes(key, BasicFileAttributes.class);
+        long size = attributes.size();
+        long modified = attributes.lastModifiedTime().toMillis();
+
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.size() == size && entry.modifiedMillis() == modified) {
+                hits.increment();
+                return entry.content();
+            }
+        }
+
+        misses.increment();
+        String content = loader.load(key);
+        put(key, new Entry(size, modified, content));
+        return content;
+    }
+
+    private synchronized void put(Path key, Entry entry) {
+        Entry previous = entries.remove(key);
+        if (previous != null) usedBytes -= previous.footprint();
+        // A single file larger than the whole cache is served but not kept
+        if (entry.footprint() > maxBytes) return;
+
+        entries.put(key, entry);
+        usedBytes += entry.footprint();
+        Iterator<Map.Entry<Path, Entry>> it = entries.entrySet().iterator();
+        while (usedBytes > maxBytes && it.hasNext()) {
+            Entry eldest = it.next().getValue();
+            it.remove();
+            usedBytes -= eldest.footprint();
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Small files are read normally; large ones are mapped and decoded without an intermediate byte[] copy.
+     */
+    static String readText(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < MMAP_THRESHOLD_BYTES) {
+                return Files.readString(file, StandardCharsets.UTF_8);
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File too large to summarise: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            try {
+                // Same strictness as Files.readString: malformed input is an error, not silently replaced
+                return StandardCharsets.UTF_8.newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPORT)
+                        .onUnmappableCharacter(CodingErrorAction.REPORT)
+                        .decode(buffer)
+                        .toString();
+            } catch (CharacterCodingException e) {
+                throw new IOException("Not valid UTF-8: " + file, e);
+            }
+        }
+    }
+
+    synchronized long usedBytes() {
+        return usedBytes;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+
+    long evictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        long total = hits() + misses();
+        return "FileContentCache[entries=%d, used=%d KB, hits=%d, misses=%d, hitRate=%.0f%%, evictions=%d]".formatted(
+                size(), usedBytes() / 1024, hits(), misses(), total == 0 ? 0.0 : 100.0 * hits() / total, evictions());
+    }
+}
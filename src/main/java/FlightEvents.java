@@ -0,0 +1,278 @@
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.chat.listener.ChatModelErrorContext;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.chat.listener.ChatModelRequestContext;
+import dev.langchain4j.model.chat.listener.ChatModelResponseContext;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.util.List;
+
+/**
+ * <h2>FlightEvents</h2>
+ * <p>
+ * Custom JDK Flight Recorder events for the stages of a request: reading a document, embedding
+ * segments, the similarity scan, every chat model call and the lifecycle of a streamed turn,
+ * including streams stopped early.
+ * They show up in JDK Mission Control under <i>LangChain4j Playground</i>, next to GC, I/O and
+ * socket events of the same recording.
+ * </p>
+ * <b>Overhead:</b>
+ * <ul>
+ * <li>Fields are only computed after {@link Event#shouldCommit()}; with recording off an event
+ * is an allocation the JIT removes and a flag check</li>
+ * <li>No stack traces are captured; the thresholds of a {@code .jfc} settings file apply as usual</li>
+ * </ul>
+ * <b>Recording:</b>
+ * <ul>
+ * <li>{@code -XX:StartFlightRecording=filename=playground.jfr,settings=profile}</li>
+ * <li>{@code jcmd <pid> JFR.start} / {@code JFR.dump} on a running process</li>
+ * <li>{@code jfr print --categories "LangChain4j Playground" playground.jfr}</li>
+ * </ul>
+ */
+final class FlightEvents {
+
+    static final String CATEGORY = "LangChain4j Playground";
+
+    private FlightEvents() {
+    }
+
+    @Name("playground.ContentRead")
+    @Label("Content Read")
+    @Category({CATEGORY, "Ingestion"})
+    @Description("One document read by its *ContentReader")
+    @StackTrace(false)
+    static final class ContentReadEvent extends Event {
+        @Label("File")
+        String file;
+
+        @Label("Format")
+        String format;
+
+        @Label("File Size")
+        @DataAmount
+        long bytes;
+
+        @Label("Lines")
+        int lines;
+
+        @Label("Characters")
+        long characters;
+    }
+
+    @Name("playground.Embedding")
+    @Label("Embedding")
+    @Category({CATEGORY, "Ingestion"})
+    @Description("One embedAll call")
+    @StackTrace(false)
+    static final class EmbeddingEvent extends Event {
+        @Label("Model")
+        String model;
+
+        @Label("Segments")
+        int segments;
+
+        @Label("Characters")
+        long characters;
+
+        @Label("Dimension")
+        int dimension;
+    }
+
+    @Name("playground.Ranking")
+    @Label("Ranking")
+    @Category({CATEGORY, "Retrieval"})
+    @Description("Scoring of candidate segments against a query vector")
+    @StackTrace(false)
+    static final class RankingEvent extends Event {
+        @Label("Source")
+        @Description("rankSegments for a full scan, index for a SegmentIndex search")
+        String source;
+
+        @Label("Candidates")
+        int candidates;
+
+        @Label("Top K")
+        int topK;
+
+        @Label("Dimension")
+        int dimension;
+    }
+
+    @Name("playground.ChatCall")
+    @Label("Chat Call")
+    @Category({CATEGORY, "Chat Model"})
+    @Description("One request to a chat model provider, blocking or streaming, including retried attempts")
+    @StackTrace(false)
+    static final class ChatCallEvent extends Event {
+        @Label("Provider")
+        String provider;
+
+        @Label("Model")
+        String model;
+
+        @Label("Streaming")
+        boolean streaming;
+
+        @Label("Messages")
+        int messages;
+
+        @Label("Input Tokens")
+        int inputTokens;
+
+        @Label("Output Tokens")
+        int outputTokens;
+
+        @Label("Finish Reason")
+        String finishReason;
+
+        @Label("Error")
+        String error;
+    }
+
+    @Name("playground.StreamFirstToken")
+    @Label("Stream First Token")
+    @Category({CATEGORY, "Chat Model"})
+    @Description("The first partial response of a streamed turn")
+    @StackTrace(false)
+    static final class StreamFirstTokenEvent extends Event {
+        @Label("Model")
+        String model;
+
+        @Label("Session")
+        String session;
+
+        @Label("Time to First Token")
+        @Timespan(Timespan.NANOSECONDS)
+        long ttft;
+    }
+
+    @Name("playground.StreamTurn")
+    @Label("Stream Turn")
+    @Category({CATEGORY, "Chat Model"})
+    @Description("A streamed turn from start to the complete response")
+    @StackTrace(false)
+    static final class StreamTurnEvent extends Event {
+        @Label("Model")
+        String model;
+
+        @Label("Session")
+        String session;
+
+        @Label("Time to First Token")
+        @Timespan(Timespan.NANOSECONDS)
+        long ttft;
+
+        @Label("Chunks")
+        int chunks;
+
+        @Label("Output Tokens")
+        int outputTokens;
+    }
+
+    @Name("playground.StreamCancelled")
+    @Label("Stream Cancelled")
+    @Category({CATEGORY, "Chat Model"})
+    @Description("A streamed response stopped before the model finished, from request start to cancellation")
+    @StackTrace(false)
+    static final class StreamCancelledEvent extends Event {
+        @Label("Reason")
+        String reason;
+
+        @Label("Output Tokens")
+        int outputTokens;
+
+        @Label("Tokens Saved")
+        @Description("Unused part of the output budget")
+        int tokensSaved;
+    }
+
+    /**
+     * {@link EmbeddingModel#embedAll} wrapped in an {@link EmbeddingEvent}.
+     */
+    static Response<List<Embedding>> embedAll(EmbeddingModel model, List<TextSegment> segments) {
+        EmbeddingEvent event = new EmbeddingEvent();
+        event.begin();
+        Response<List<Embedding>> response = model.embedAll(segments);
+        event.end();
+        if (event.shouldCommit()) {
+            long characters = 0;
+            for (TextSegment segment : segments) characters += segment.text().length();
+            event.model = model.modelName();
+            event.segments = segments.size();
+            event.characters = characters;
+            event.dimension = response.content().isEmpty() ? 0 : response.content().get(0).dimension();
+            event.commit();
+        }
+        return response;
+    }
+
+    /**
+     * Emits a {@link ChatCallEvent} per provider request. Registered on every model built by
+     * {@link LlmProviders}; the event travels from request to response in the listener attributes.
+     */
+    static final class ChatListener implements ChatModelListener {
+
+        private static final String ATTRIBUTE = ChatCallEvent.class.getName();
+
+        private final boolean streaming;
+
+        ChatListener(boolean streaming) {
+            this.streaming = streaming;
+        }
+
+        @Override
+        public void onRequest(ChatModelRequestContext context) {
+            ChatCallEvent event = new ChatCallEvent();
+            if (!event.isEnabled()) return;
+            event.begin();
+            context.attributes().put(ATTRIBUTE, event);
+        }
+
+        @Override
+        public void onResponse(ChatModelResponseContext context) {
+            if (!(context.attributes().remove(ATTRIBUTE) instanceof ChatCallEvent event)) return;
+            event.end();
+            if (!event.shouldCommit()) return;
+            ChatResponse response = context.chatResponse();
+            TokenUsage usage = response.tokenUsage();
+            fill(event, context.chatRequest(), String.valueOf(context.modelProvider()), response.modelName());
+            if (usage != null) {
+                event.inputTokens = usage.inputTokenCount() == null ? 0 : usage.inputTokenCount();
+                event.outputTokens = usage.outputTokenCount() == null ? 0 : usage.outputTokenCount();
+            }
+            event.finishReason = response.finishReason() == null ? null : response.finishReason().name();
+            event.commit();
+        }
+
+        @Override
+        public void onError(ChatModelErrorContext context) {
+            if (!(context.attributes().remove(ATTRIBUTE) instanceof ChatCallEvent event)) return;
+            event.end();
+            if (!event.shouldCommit()) return;
+            fill(event, context.chatRequest(), String.valueOf(context.modelProvider()), null);
+            Throwable error = context.error();
+            event.error = error.getClass().getSimpleName() + ": " + error.getMessage();
+            event.commit();
+        }
+
+        private void fill(ChatCallEvent event, ChatRequest request, String provider, String responseModel) {
+            event.provider = provider;
+            event.model = responseModel != null ? responseModel : request.modelName();
+            event.streaming = streaming;
+            event.messages = request.messages().size();
+        }
+    }
+}
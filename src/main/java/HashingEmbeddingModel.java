@@ -0,0 +1,107 @@
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+
+import java.util.List;
+
+/**
+ * <h2>HashingEmbeddingModel</h2>
+ * <p>
+ * An in-process {@link EmbeddingModel} based on the hashing trick: lower-cased word unigrams
+ * and bigrams are hashed into a fixed number of signed buckets, weighted sub-linearly and
+ * L2-normalised. It needs no network call or model download and embeds a query in
+ * microseconds, which keeps retrieval inside the latency budget of a chat turn.
+ * </p>
+ * Lexical rather than semantic: good for runbooks full of product names, error codes and commands.
+ */
+class HashingEmbeddingModel implements EmbeddingModel {
+
+    static final int DEFAULT_DIMENSION = 256;
+
+    private final int dimension;
+
+    HashingEmbeddingModel() {
+        this(DEFAULT_DIMENSION);
+    }
+
+    HashingEmbeddingModel(int dimension) {
+        this.dimension = dimension;
+    }
+
+    @Override
+    public Response<Embedding> embed(String text) {
+        return Response.from(Embedding.from(vectorize(text)));
+    }
+
+    @Override
+    public Response<List<Embedding>> embedAll(List<TextSegment> segments) {
+        return Response.from(segments.parallelStream()
+                .map(s -> Embedding.from(vectorize(s.text())))
+                .toList());
+    }
+
+    @Override
+    public int dimension() {
+        return dimension;
+    }
+
+    @Override
+    public String modelName() {
+        return "hashing-" + dimension;
+    }
+
+    /**
+     * Tokenises without allocating substrings: word hashes are computed while scanning.
+     */
+    float[] vectorize(String text) {
+        float[] vector = new float[dimension];
+        int previous = 0;
+        int hash = 0;
+        int length = 0;
+
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                hash = 31 * hash + Character.toLowerCase(c);
+                length++;
+                continue;
+            }
+            if (length > 1) {
+                add(vector, mix(hash));
+                if (previous != 0) add(vector, mix(previous * 0x9E3779B1 + hash));
+                previous = hash;
+            }
+            hash = 0;
+            length = 0;
+        }
+
+        double norm = 0;
+        for (int i = 0; i < dimension; i++) {
+            // Sub-linear term frequency: log(1 + |tf|), keeping the sign from the hash
+            float v = vector[i];
+            vector[i] = (float) Math.copySign(Math.log1p(Math.abs(v)), v);
+            norm += vector[i] * vector[i];
+        }
+        if (norm > 0) {
+            float inverse = (float) (1.0 / Math.sqrt(norm));
+            for (int i = 0; i < dimension; i++) vector[i] *= inverse;
+        }
+        return vector;
+    }
+
+    private void add(float[] vector, int hash) {
+        int bucket = Math.floorMod(hash, dimension);
+        vector[bucket] += (hash & 0x4000_0000) == 0 ? 1f : -1f;
+    }
+
+    // Murmur3 finalizer: spreads similar words across buckets
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EB_CA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2_AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
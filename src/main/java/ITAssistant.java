@@ -1,16 +1,13 @@
-import dev.langchain4j.memory.chat.MessageWindowChatMemory;
 import dev.langchain4j.model.chat.StreamingChatModel;
-import dev.langchain4j.model.openai.OpenAiStreamingChatModel;
 import dev.langchain4j.service.AiServices;
 import dev.langchain4j.service.SystemMessage;
 import dev.langchain4j.service.TokenStream;
 import dev.langchain4j.service.UserMessage;
 
-import java.time.Duration;
-import java.util.Scanner;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Set;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.UUID;
 
 /**
  * <h2>ITAssistant</h2>
@@ -22,7 +19,10 @@ import java.util.concurrent.atomic.AtomicLong;
  * <ul>
  * <li>Reactive streaming responses via {@link TokenStream}</li>
  * <li>Performance benchmarking (TTFT and Total Latency)</li>
- * <li>Contextual memory (20-message window)</li>
+ * <li>Early termination ({@link StreamControl}): Enter or {@code /stop} interrupts an answer, a new question
+ * replaces it, and deadlines and stop sequences end it; the HTTP stream is aborted every time</li>
+ * <li>Contextual memory, bounded in tokens ({@link LlmProviders#chatMemory()})</li>
+ * <li>Optional retrieval from internal runbooks ({@code -Drag.dir} or {@code RAG_DIR})</li>
  * <li>Clean resource management and thread synchronization</li>
  * </ul>
  */
@@ -52,117 +52,97 @@ public class ITAssistant {
     }
 
     private static final Set<String> EXIT_COMMANDS = Set.of("exit", "quit", "bye");
+    private static final String SESSION_ID = UUID.randomUUID().toString().substring(0, 8);
+
+    private static String modelLabel;
 
     public static void main(String[] args) {
+        LatencyMetrics.startPeriodicLoggingIfConfigured();
+
         // Build the underlying LLM client
         StreamingChatModel model = createModel();
+        modelLabel = LlmProviders.label(model);
 
-        // Build the AI Service with a memory buffer
-        Assistant assistant = AiServices.builder(Assistant.class)
-                .streamingChatModel(model)
-                .chatMemory(MessageWindowChatMemory.withMaxMessages(20))
-                .build();
-
-        runChatLoop(assistant);
+        runChatLoop(createAssistant(model, createRetriever()));
     }
 
     /**
-     * Initializes the Groq-hosted Llama 3 model.
-     * @return An instance of {@link StreamingChatModel}
+     * Builds the AI Service with its own token-bounded memory; one instance per user session.
+     * @param retriever Runbook retriever, or {@code null} to answer without retrieval.
      */
-    private static StreamingChatModel createModel() {
-        return OpenAiStreamingChatModel.builder()
-                .apiKey(System.getenv("GROQ_API_KEY"))
-                .baseUrl("https://api.groq.com/openai/v1")
-                .modelName("llama-3.3-70b-versatile")
-                .timeout(Duration.ofSeconds(120))
-                .maxTokens(1024)
-                .build();
+    static Assistant createAssistant(StreamingChatModel model, RunbookRetriever retriever) {
+        AiServices<Assistant> builder = AiServices.builder(Assistant.class)
+                .streamingChatModel(model)
+                .chatMemory(LlmProviders.chatMemory());
+        if (retriever != null) {
+            builder.contentRetriever(retriever);
+        }
+        return builder.build();
     }
 
     /**
-     * Manages the user input loop and terminal UI.
-     * @param assistant The initialized AI service.
+     * Initializes the Groq-hosted Llama 3 model, routed together with any other configured providers.
+     * @return An instance of {@link StreamingChatModel}
      */
-    private static void runChatLoop(Assistant assistant) {
-        try (Scanner scanner = new Scanner(System.in)) {
-            System.out.println(">>> IT GURU SYSTEM ONLINE (Type 'exit' to terminate) <<<");
-
-            while (true) {
-                System.out.print("\nAsk> ");
-                String input = scanner.nextLine().trim();
-
-                if (EXIT_COMMANDS.contains(input.toLowerCase())) {
-                    System.out.println("Terminating session. Stay secure.");
-                    break;
-                }
-
-                if (input.isBlank()) continue;
-
-                executeStreamingChat(assistant, input);
-            }
-        }
+    private static StreamingChatModel createModel() {
+        return ModelRegistry.streamingChatModel();
     }
 
     /**
-     * Handles the asynchronous streaming response and captures performance metrics.
-     * * @param assistant The AI service instance
-     * @param question  The user's query
+     * Opens the runbook index when a document directory is configured.
+     * @return The retriever, or {@code null} if retrieval is disabled or the directory cannot be indexed.
      */
-    private static void executeStreamingChat(Assistant assistant, String question) {
-        CountDownLatch latch = new CountDownLatch(1);
-        AtomicLong startTime = new AtomicLong(System.currentTimeMillis());
-        AtomicLong firstTokenTime = new AtomicLong(0);
-
-        assistant.doChat(question)
-                .onPartialResponse(token -> {
-                    // Capture Time to First Token (TTFT)
-                    if (firstTokenTime.get() == 0) {
-                        firstTokenTime.set(System.currentTimeMillis());
-                    }
-                    System.out.print(token);
-                })
-                .onCompleteResponse(response -> {
-                    long endTime = System.currentTimeMillis();
-                    printBenchmark(startTime.get(), firstTokenTime.get(), endTime);
-                    latch.countDown();
-                })
-                .onError(e -> {
-                    System.err.printf("\n[ALERT] System Error: %s%n", e.getMessage());
-                    latch.countDown();
-                })
-                .start();
+    static RunbookRetriever createRetriever() {
+        String directory = ModelRegistry.config("rag.dir", "RAG_DIR", "");
+        if (directory.isBlank()) return null;
 
+        long start = System.nanoTime();
         try {
-            latch.await();
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+            RunbookRetriever retriever = RunbookRetriever.open(Path.of(directory),
+                    new HashingEmbeddingModel(),
+                    TokenCounter.INSTANCE,
+                    Integer.parseInt(ModelRegistry.config("rag.top.k", "RAG_TOP_K", "5")),
+                    Integer.parseInt(ModelRegistry.config("rag.token.budget", "RAG_TOKEN_BUDGET", "1024")),
+                    Double.parseDouble(ModelRegistry.config("rag.min.score", "RAG_MIN_SCORE", "0.1")));
+            System.out.printf("Runbook index: %d segments from %s (%d ms)%n",
+                    retriever.size(), directory, (System.nanoTime() - start) / 1_000_000);
+            return retriever;
+        } catch (IOException e) {
+            System.err.println("[ALERT] Runbook retrieval disabled: " + e.getMessage());
+            return null;
         }
     }
 
     /**
-     * Logs performance data to the terminal for audit purposes.
+     * Manages the user input loop and terminal UI.
+     * @param assistant The initialized AI service.
      */
-    private static void printBenchmark(long start, long firstToken, long end) {
-        System.out.println("\n\n--- [GURU PERFORMANCE AUDIT] ---");
-        System.out.printf("Time to First Token (TTFT): %d ms%n", (firstToken - start));
-        System.out.printf("Total Response Latency:     %d ms%n", (end - start));
-        System.out.println("--------------------------------");
-    }
+    private static void runChatLoop(Assistant assistant) {
+        ConsoleInput console = ConsoleInput.start(System.in);
+        System.out.println(">>> IT GURU SYSTEM ONLINE (Type 'exit' to terminate, Enter to interrupt an answer) <<<");
+
+        String next = null;
+        while (true) {
+            String input;
+            if (next != null) {
+                input = next;
+                next = null;
+            } else {
+                System.out.print("\nAsk> ");
+                String line = console.nextLine();
+                input = line == null ? "exit" : line.trim();
+            }
 
-    /**
-     * Utility method for a "teletype" style output effect if desired.
-     * * @param chunk   The string to print
-     * @param delayMs Delay between characters
-     */
-    @SuppressWarnings("unused")
-    static void chatWriter(String chunk, int delayMs) {
-        for (char c : chunk.toCharArray()) {
-            System.out.print(c);
-            try {
-                Thread.sleep(delayMs);
-            } catch (InterruptedException ignored) {}
+            if (EXIT_COMMANDS.contains(input.toLowerCase())) {
+                System.out.println("\n" + LatencyMetrics.report());
+                System.out.println("Terminating session. Stay secure.");
+                break;
+            }
+
+            if (input.isBlank()) continue;
+
+            next = ConsoleChat.stream(assistant.doChat(input), console, StreamingRenderer.Pacer.NONE,
+                    modelLabel, SESSION_ID, "GURU PERFORMANCE AUDIT");
         }
-        System.out.flush();
     }
-}
\ No newline at end of file
+}
@@ -1,19 +1,13 @@
-import dev.langchain4j.memory.chat.MessageWindowChatMemory;
 import dev.langchain4j.model.chat.StreamingChatModel;
-import dev.langchain4j.model.chat.response.ChatResponse;
-import dev.langchain4j.model.openai.OpenAiStreamingChatModel;
 import dev.langchain4j.service.AiServices;
 import dev.langchain4j.service.SystemMessage;
 import dev.langchain4j.service.TokenStream;
 import dev.langchain4j.service.UserMessage;
 
-import java.time.Duration;
 import java.util.Random;
-import java.util.Scanner;
 import java.util.Set;
-import java.util.concurrent.CompletableFuture;
+import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
-import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * <h1>ITAssistantEnhancedHumanLike</h1>
@@ -26,7 +20,7 @@ import java.util.concurrent.atomic.AtomicLong;
  * <li><b>Stochastic Typing:</b> Implements variable delays and contextual pausing (punctuation/whitespace)
  * to mimic human cadence rather than mechanical output.</li>
  * <li><b>Synchronous UX:</b> Orchestrates asynchronous LLM streams into a stable CLI flow
- * using {@link CompletableFuture}.</li>
+ * through {@link ConsoleChat}; Enter, {@code /stop} or a new question cancels an answer ({@link StreamControl}).</li>
  * <li><b>Zero-Trust Persona:</b> Strict system prompting to ensure safe, expert-level IT advice.</li>
  * </ul>
  * * @author IT Supervisor
@@ -34,6 +28,8 @@ import java.util.concurrent.atomic.AtomicLong;
 public class ITAssistantEnhancedHumanLike {
 
     private static final Set<String> EXIT_COMMANDS = Set.of("exit", "quit", "bye");
+    private static final String SESSION_ID = UUID.randomUUID().toString().substring(0, 8);
+    private static String modelLabel;
 
     /**
      * AI Service contract for the IT Guru.
@@ -58,25 +54,22 @@ public class ITAssistantEnhancedHumanLike {
     }
 
     public static void main(String[] args) {
+        LatencyMetrics.startPeriodicLoggingIfConfigured();
+
         Assistant assistant = initializeAssistant();
         runConversationLoop(assistant);
     }
 
     /**
-     * Initializes the LangChain4j service with Groq/Llama-3 and Chat Memory.
+     * Initializes the LangChain4j service with Groq/Llama-3 (plus any other configured providers) and Chat Memory.
      */
     private static Assistant initializeAssistant() {
-        StreamingChatModel model = OpenAiStreamingChatModel.builder()
-                .apiKey(System.getenv("GROQ_API_KEY"))
-                .baseUrl("https://api.groq.com/openai/v1")
-                .modelName("llama-3.3-70b-versatile")
-                .timeout(Duration.ofSeconds(120))
-                .maxTokens(1024)
-                .build();
+        StreamingChatModel model = ModelRegistry.streamingChatModel();
+        modelLabel = LlmProviders.label(model);
 
         return AiServices.builder(Assistant.class)
                 .streamingChatModel(model)
-                .chatMemory(MessageWindowChatMemory.withMaxMessages(20))
+                .chatMemory(LlmProviders.chatMemory())
                 .build();
     }
 
@@ -84,95 +77,56 @@ public class ITAssistantEnhancedHumanLike {
      * Standard CLI loop for user interaction.
      */
     private static void runConversationLoop(Assistant assistant) {
-        try (Scanner scanner = new Scanner(System.in)) {
-            System.out.println("--- [ IT GURU SYSTEM ONLINE ] ---");
-
-            while (true) {
+        ConsoleInput console = ConsoleInput.start(System.in);
+        System.out.println("--- [ IT GURU SYSTEM ONLINE ] ---");
+
+        String next = null;
+        while (true) {
+            String question = next;
+            next = null;
+            if (question == null) {
                 System.out.print("\nAsk> ");
-                String question = scanner.nextLine().trim();
-
-                if (EXIT_COMMANDS.contains(question.toLowerCase())) break;
-                if (question.isBlank()) continue;
+                String line = console.nextLine();
+                question = line == null ? "exit" : line.trim();
+            }
 
-                executeStreamingChat(assistant, question);
+            if (EXIT_COMMANDS.contains(question.toLowerCase())) {
+                System.out.println("\n" + LatencyMetrics.report());
+                break;
             }
-        }
-    }
+            if (question.isBlank()) continue;
 
-    /**
-     * Executes the LLM request and applies the typing effect.
-     * Captures performance metrics for TTFT (Time to First Token).
-     */
-    private static void executeStreamingChat(Assistant assistant, String question) {
-        AtomicLong startTime = new AtomicLong(System.currentTimeMillis());
-        AtomicLong firstTokenTime = new AtomicLong(0);
-        CompletableFuture<Void> future = new CompletableFuture<>();
-
-        assistant.doChat(question)
-                .onPartialResponse(token -> {
-                    if (firstTokenTime.get() == 0) {
-                        firstTokenTime.set(System.currentTimeMillis());
-                    }
-                    stochasticPrint(token);
-                })
-                .onCompleteResponse(response -> {
-                    long endTime = System.currentTimeMillis();
-                    // printBenchmark(startTime.get(), firstTokenTime.get(), endTime);
-                    future.complete(null);
-                })
-                .onError(err -> {
-                    System.err.println("\n[ERROR]: " + err.getMessage());
-                    future.complete(null);
-                })
-                .start();
-
-        future.join(); // Blocks CLI prompt until typing is complete
+            next = ConsoleChat.stream(assistant.doChat(question), console, ITAssistantEnhancedHumanLike::stochasticDelay,
+                    modelLabel, SESSION_ID, "PERFORMANCE AUDIT");
+        }
     }
 
     /**
      * Stochastic Typing Engine.
      * Mimics human typing by varying delays based on character context and randomness.
-     * * @param chunk The text fragment emitted by the LLM.
+     * * @param c The character that was just typed.
+     * @return Delay in milliseconds before the next character.
      */
-    private static void stochasticPrint(String chunk) {
+    private static long stochasticDelay(char c) {
         Random random = ThreadLocalRandom.current();
 
-        for (char c : chunk.toCharArray()) {
-            System.out.print(c);
-            System.out.flush();
-
-            try {
-                // Base typing speed (40-80ms per char)
-                int delay = 40 + random.nextInt(40);
-
-                // Contextual Delays
-                if (c == '.' || c == '?' || c == '!') {
-                    delay += 350; // Thoughts end with a pause
-                } else if (c == ',' || c == ':' || c == ';') {
-                    delay += 150; // Mid-sentence breath
-                } else if (Character.isWhitespace(c)) {
-                    delay += 30;  // Natural gap between words
-                }
-
-                // Stochastic Burst: 10% chance to type very fast (muscle memory simulation)
-                if (random.nextDouble() > 0.90) {
-                    delay = 10;
-                }
-
-                Thread.sleep(delay);
-            } catch (InterruptedException ignored) {
-                Thread.currentThread().interrupt();
-            }
+        // Base typing speed (40-80ms per char)
+        int delay = 40 + random.nextInt(40);
+
+        // Contextual Delays
+        if (c == '.' || c == '?' || c == '!') {
+            delay += 350; // Thoughts end with a pause
+        } else if (c == ',' || c == ':' || c == ';') {
+            delay += 150; // Mid-sentence breath
+        } else if (Character.isWhitespace(c)) {
+            delay += 30;  // Natural gap between words
         }
-    }
 
-    /**
-     * Performance audit logger.
-     */
-    private static void printBenchmark(long start, long firstToken, long end) {
-        System.out.println("\n\n--- [PERFORMANCE AUDIT] ---");
-        System.out.printf("Time to First Token: %d ms%n", (firstToken - start));
-        System.out.printf("Total Latency:       %d ms%n", (end - start));
-        System.out.println("---------------------------");
+        // Stochastic Burst: 10% chance to type very fast (muscle memory simulation)
+        if (random.nextDouble() > 0.90) {
+            delay = 10;
+        }
+
+        return delay;
     }
-}
\ No newline at end of file
+}
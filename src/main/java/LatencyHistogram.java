@@ -0,0 +1,86 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <h2>LatencyHistogram</h2>
+ * <p>
+ * A lock-free, HDR-style histogram for non-negative long values (typically microseconds).
+ * Values are counted in log-linear buckets: every power of two is split into 32 linear
+ * sub-buckets, which keeps the relative error of any reported percentile below ~3%
+ * while using a fixed ~15 KB footprint regardless of how many values are recorded.
+ * </p>
+ * Recording is a single atomic increment, so it is safe to call from model callback threads.
+ */
+class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    /**
+     * Point-in-time view of the histogram.
+     */
+    record Snapshot(long count, double mean, long p50, long p95, long p99, long max) {
+    }
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a value. Negative values are clamped to zero.
+     */
+    void record(long value) {
+        long v = Math.max(0, value);
+        counts.incrementAndGet(bucketOf(v));
+        total.increment();
+        sum.add(v);
+        max.accumulateAndGet(v, Math::max);
+    }
+
+    long count() {
+        return total.sum();
+    }
+
+    /**
+     * Returns the value at the given percentile (0-100), or 0 if nothing was recorded.
+     * The result is the upper bound of the bucket that holds the percentile.
+     */
+    long percentile(double percentile) {
+        long n = count();
+        if (n == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    Snapshot snapshot() {
+        long n = count();
+        double mean = n == 0 ? 0 : (double) sum.sum() / n;
+        return new Snapshot(n, mean, percentile(50), percentile(95), percentile(99), max.get());
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int mantissa = (int) (value >>> shift) - SUB_BUCKETS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + mantissa;
+    }
+
+    static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        long mantissa = SUB_BUCKETS + (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,241 @@
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.TokenUsage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <h2>LatencyMetrics</h2>
+ * <p>
+ * Shared instrumentation for LLM chat turns. Every turn is recorded twice: once under its model
+ * and once under its session, so percentiles can be compared across models and across runs.
+ * </p>
+ * <b>Recorded per series:</b>
+ * <ul>
+ * <li>TTFT – time to first token (µs)</li>
+ * <li>Inter-token latency – gap between consecutive partial responses (µs)</li>
+ * <li>Tokens/sec – output throughput of the turn</li>
+ * <li>Total latency – request start to completion (µs)</li>
+ * </ul>
+ * All timings use {@link System#nanoTime()} and are stored in lock-free {@link LatencyHistogram}s.
+ * Named counters (e.g. cancelled streams and the tokens they saved) are reported alongside.
+ */
+class LatencyMetrics {
+
+    private static final Logger log = LoggerFactory.getLogger(LatencyMetrics.class);
+
+    private static final ConcurrentMap<String, Series> SERIES = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, LatencyHistogram> TIMERS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, LongAdder> COUNTERS = new ConcurrentHashMap<>();
+
+    private static volatile ScheduledExecutorService reporter;
+
+    /**
+     * The four histograms kept for one model or one session.
+     */
+    record Series(LatencyHistogram ttft,
+                  LatencyHistogram interToken,
+                  LatencyHistogram tokensPerSecond,
+                  LatencyHistogram total) {
+
+        Series() {
+            this(new LatencyHistogram(), new LatencyHistogram(), new LatencyHistogram(), new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Result of a single finished turn, in milliseconds.
+     */
+    record TurnSummary(long ttftMillis, long totalMillis, int outputTokens, double tokensPerSecond) {
+    }
+
+    /**
+     * Tracks one request/response turn. {@link #onToken()} is cheap enough to call from the
+     * streaming callback thread for every partial response. The turn and its first token are also
+     * emitted as {@link FlightEvents.StreamTurnEvent} / {@link FlightEvents.StreamFirstTokenEvent}.
+     */
+    static final class Turn {
+        private final String modelName;
+        private final String sessionId;
+        private final Series model;
+        private final Series session;
+        private final FlightEvents.StreamTurnEvent event = new FlightEvents.StreamTurnEvent();
+        private final long startNanos;
+        private long firstTokenNanos;
+        private long lastTokenNanos;
+        private int chunks;
+
+        private Turn(String modelName, String sessionId) {
+            this.modelName = modelName;
+            this.sessionId = sessionId;
+            this.model = series("model:" + modelName);
+            this.session = series("session:" + sessionId);
+            // The clock starts after the event, so the event always spans the whole TTFT
+            event.begin();
+            this.startNanos = System.nanoTime();
+        }
+
+        void onToken() {
+            long now = System.nanoTime();
+            if (firstTokenNanos == 0) {
+                firstTokenNanos = now;
+                long ttftMicros = (now - startNanos) / 1_000;
+                model.ttft().record(ttftMicros);
+                session.ttft().record(ttftMicros);
+                FlightEvents.StreamFirstTokenEvent firstToken = new FlightEvents.StreamFirstTokenEvent();
+                if (firstToken.shouldCommit()) {
+                    firstToken.model = modelName;
+                    firstToken.session = sessionId;
+                    firstToken.ttft = now - startNanos;
+                    firstToken.commit();
+                }
+            } else {
+                long gapMicros = (now - lastTokenNanos) / 1_000;
+                model.interToken().record(gapMicros);
+                session.interToken().record(gapMicros);
+            }
+            lastTokenNanos = now;
+            chunks++;
+        }
+
+        /**
+         * Completes the turn, preferring the provider's output token count over the chunk count.
+         */
+        TurnSummary complete(ChatResponse response) {
+            TokenUsage usage = response == null ? null : response.tokenUsage();
+            Integer outputTokens = usage == null ? null : usage.outputTokenCount();
+            return complete(outputTokens == null ? chunks : outputTokens);
+        }
+
+        TurnSummary complete(int outputTokens) {
+            long end = System.nanoTime();
+            long totalMicros = (end - startNanos) / 1_000;
+            model.total().record(totalMicros);
+            session.total().record(totalMicros);
+
+            // Throughput is measured over the generation phase, after the first token arrived
+            long generationNanos = firstTokenNanos == 0 ? 0 : end - firstTokenNanos;
+            double tokensPerSecond = generationNanos == 0 ? 0 : outputTokens * 1e9 / generationNanos;
+            model.tokensPerSecond().record(Math.round(tokensPerSecond));
+            session.tokensPerSecond().record(Math.round(tokensPerSecond));
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.model = modelName;
+                event.session = sessionId;
+                event.ttft = firstTokenNanos == 0 ? -1 : firstTokenNanos - startNanos;
+                event.chunks = chunks;
+                event.outputTokens = outputTokens;
+                event.commit();
+            }
+
+            long ttftMillis = firstTokenNanos == 0 ? -1 : (firstTokenNanos - startNanos) / 1_000_000;
+            return new TurnSummary(ttftMillis, totalMicros / 1_000, outputTokens, tokensPerSecond);
+        }
+    }
+
+    /**
+     * Starts timing a turn for the given model and session.
+     */
+    static Turn startTurn(String modelName, String sessionId) {
+        return new Turn(modelName, sessionId);
+    }
+
+    static Series series(String key) {
+        return SERIES.computeIfAbsent(key, k -> new Series());
+    }
+
+    /**
+     * A named histogram (µs) for a pipeline stage outside the chat turn, e.g. retrieval.
+     */
+    static LatencyHistogram timer(String name) {
+        return TIMERS.computeIfAbsent(name, k -> new LatencyHistogram());
+    }
+
+    /**
+     * A named counter, e.g. for events that have no duration.
+     */
+    static LongAdder counter(String name) {
+        return COUNTERS.computeIfAbsent(name, k -> new LongAdder());
+    }
+
+    /**
+     * Prints the result of one turn together with the running session percentiles.
+     */
+    static void printTurn(PrintStream out, String title, TurnSummary turn, String sessionId) {
+        LatencyHistogram.Snapshot ttft = series("session:" + sessionId).ttft().snapshot();
+        String rule = "-".repeat(title.length() + 10);
+
+        out.println("\n\n--- [" + title + "] ---");
+        out.printf("Time to First Token (TTFT): %d ms%n", turn.ttftMillis());
+        out.printf("Total Response Latency:     %d ms%n", turn.totalMillis());
+        out.printf("Throughput:                 %.1f tokens/s (%d tokens)%n", turn.tokensPerSecond(), turn.outputTokens());
+        out.printf("Session TTFT p50/p95/p99:   %d / %d / %d ms%n",
+                ttft.p50() / 1_000, ttft.p95() / 1_000, ttft.p99() / 1_000);
+        out.println(rule);
+    }
+
+    /**
+     * Renders p50/p95/p99 for every model and session series, followed by the stage timers and counters.
+     */
+    static String report() {
+        StringBuilder sb = new StringBuilder();
+        Map<String, Series> sorted = new TreeMap<>(SERIES);
+        sorted.forEach((key, s) -> {
+            sb.append(key).append('\n');
+            appendLine(sb, "ttft_ms", s.ttft().snapshot(), 1_000);
+            appendLine(sb, "inter_token_ms", s.interToken().snapshot(), 1_000);
+            appendLine(sb, "tokens_per_sec", s.tokensPerSecond().snapshot(), 1);
+            appendLine(sb, "total_ms", s.total().snapshot(), 1_000);
+        });
+        if (!TIMERS.isEmpty()) {
+            sb.append("stages\n");
+            new TreeMap<>(TIMERS).forEach((name, h) -> appendLine(sb, name + "_ms", h.snapshot(), 1_000));
+        }
+        if (!COUNTERS.isEmpty()) {
+            sb.append("counters\n");
+            new TreeMap<>(COUNTERS).forEach((name, c) -> sb.append(String.format("  %-22s %d%n", name, c.sum())));
+        }
+        return sb.toString();
+    }
+
+    private static void appendLine(StringBuilder sb, String name, LatencyHistogram.Snapshot s, double divisor) {
+        sb.append(String.format("  %-15s n=%-6d p50=%-9.1f p95=%-9.1f p99=%-9.1f max=%.1f%n",
+                name, s.count(), s.p50() / divisor, s.p95() / divisor, s.p99() / divisor, s.max() / divisor));
+    }
+
+    /**
+     * Enables periodic logging when {@code -Dmetrics.interval.seconds=N} is set.
+     */
+    static void startPeriodicLoggingIfConfigured() {
+        String seconds = System.getProperty("metrics.interval.seconds");
+        if (seconds != null && !seconds.isBlank()) {
+            startPeriodicLogging(Duration.ofSeconds(Long.parseLong(seconds.trim())));
+        }
+    }
+
+    /**
+     * Logs a snapshot of all series at a fixed interval on a daemon thread. Calling it again is a no-op.
+     */
+    static synchronized void startPeriodicLogging(Duration interval) {
+        if (reporter != null) return;
+        reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "latency-metrics");
+            t.setDaemon(true);
+            return t;
+        });
+        reporter.scheduleAtFixedRate(() -> {
+            if (!SERIES.isEmpty() || !TIMERS.isEmpty() || !COUNTERS.isEmpty()) log.info("Latency snapshot\n{}", report());
+        }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,300 @@
+import dev.langchain4j.http.client.HttpClientBuilder;
+import dev.langchain4j.memory.ChatMemory;
+import dev.langchain4j.memory.chat.TokenWindowChatMemory;
+import dev.langchain4j.model.anthropic.AnthropicChatModel;
+import dev.langchain4j.model.anthropic.AnthropicStreamingChatModel;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.googleai.GoogleAiGeminiChatModel;
+import dev.langchain4j.model.googleai.GoogleAiGeminiStreamingChatModel;
+import dev.langchain4j.model.mistralai.MistralAiChatModel;
+import dev.langchain4j.model.mistralai.MistralAiStreamingChatModel;
+import dev.langchain4j.model.openai.OpenAiChatModel;
+import dev.langchain4j.model.openai.OpenAiStreamingChatModel;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * <h2>LlmProviders</h2>
+ * <p>
+ * Builds chat models for every provider that has credentials in the environment.
+ * Groq is always the primary backend; OpenAI, Gemini, Anthropic, Mistral and a local
+ * Ollama are added when their variables are set. With more than one provider the
+ * result is a latency-aware {@link RoutingChatModel} / {@link RoutingStreamingChatModel}.
+ * All Groq calls, blocking and streaming, share one {@link AdaptiveRateLimiter} sized to the account quota.
+ * Every model reports its provider calls as {@link FlightEvents.ChatCallEvent}s.
+ * Entry points get their models from {@link ModelRegistry}, which builds them once.
+ * </p>
+ * <b>Environment:</b>
+ * <ul>
+ * <li>{@code GROQ_API_KEY}, {@code OPENAI_API_KEY}, {@code GOOGLE_AI_GEMINI_API_KEY},
+ * {@code ANTHROPIC_API_KEY}, {@code MISTRAL_AI_API_KEY}</li>
+ * <li>{@code OLLAMA_BASE_URL} – e.g. {@code http://localhost:11434/v1} (OpenAI-compatible endpoint)</li>
+ * <li>{@code <PROVIDER>_MODEL} – overrides the default model name, e.g. {@code OPENAI_MODEL}</li>
+ * <li>{@code GROQ_RPM}, {@code GROQ_TPM} – Groq requests and tokens per minute (default 30 / 12000)</li>
+ * <li>{@code ASSISTANT_MEMORY_TOKENS} – conversation memory of the assistants in tokens (default 4096)</li>
+ * <li>{@code ASSISTANT_DEADLINE_SECONDS} – streamed answers are cancelled after this long (default 60, 0 for none)</li>
+ * <li>{@code ASSISTANT_STOP} – comma-separated stop sequences that end a streamed answer early ({@code \n} for a line break)</li>
+ * <li>{@code LLM_BASE_URL} / {@code -Dllm.base.url} – sends the Groq traffic to another OpenAI-compatible
+ * endpoint instead, e.g. an {@link OpenAiStubServer} for offline latency tests</li>
+ * </ul>
+ */
+class LlmProviders {
+
+    static final String GROQ_MODEL = "llama-3.3-70b-versatile";
+    static final String GROQ_BASE_URL =
+            ModelRegistry.config("llm.base.url", "LLM_BASE_URL", "https://api.groq.com/openai/v1");
+
+    // Streaming settings shared by the IT Guru assistants
+    private static final Duration STREAMING_TIMEOUT = Duration.ofSeconds(120);
+    static final int STREAMING_MAX_TOKENS = 1024;
+    static final int MEMORY_TOKENS =
+            Integer.parseInt(ModelRegistry.config("assistant.memory.tokens", "ASSISTANT_MEMORY_TOKENS", "4096"));
+    static final Duration STREAM_DEADLINE = Duration.ofSeconds(
+            Long.parseLong(ModelRegistry.config("assistant.deadline.seconds", "ASSISTANT_DEADLINE_SECONDS", "60")));
+    static final List<String> STOP_SEQUENCES =
+            stopSequences(ModelRegistry.config("assistant.stop", "ASSISTANT_STOP", ""));
+
+    // Retries on 429 go through the limiter, so the Groq clients themselves never retry
+    private static final int GROQ_MAX_ATTEMPTS = 4;
+
+    // Every provider call becomes a FlightEvents.ChatCallEvent in a JFR recording
+    private static final List<ChatModelListener> CHAT_LISTENERS = List.of(new FlightEvents.ChatListener(false));
+    private static final List<ChatModelListener> STREAMING_LISTENERS = List.of(new FlightEvents.ChatListener(true));
+
+    static final AdaptiveRateLimiter GROQ_LIMITER = AdaptiveRateLimiter.builder("groq")
+            .requestsPerMinute(Integer.parseInt(ModelRegistry.config("groq.rpm", "GROQ_RPM", "30")))
+            .tokensPerMinute(Integer.parseInt(ModelRegistry.config("groq.tpm", "GROQ_TPM", "12000")))
+            .maxConcurrency(Integer.parseInt(ModelRegistry.config("groq.max.concurrency", "GROQ_MAX_CONCURRENCY", "32")))
+            .build();
+
+    /**
+     * Blocking model for one-shot calls (summaries, incident analysis).
+     * @param http Supplies a fresh builder per model; all of them share one connection pool
+     */
+    static ChatModel chatModel(Supplier<HttpClientBuilder> http) {
+        Map<String, ChatModel> models = new LinkedHashMap<>();
+        models.put("groq", new RateLimitedChatModel(OpenAiChatModel.builder()
+                .httpClientBuilder(http.get())
+                .apiKey(System.getenv("GROQ_API_KEY"))
+                .baseUrl(GROQ_BASE_URL)
+                .modelName(GROQ_MODEL)
+                .maxRetries(0)
+                .listeners(CHAT_LISTENERS)
+                .build(), GROQ_LIMITER, GROQ_MAX_ATTEMPTS));
+
+        if (isSet("OPENAI_API_KEY")) {
+            models.put("openai", OpenAiChatModel.builder()
+                    .httpClientBuilder(http.get())
+                    .apiKey(System.getenv("OPENAI_API_KEY"))
+                    .modelName(providerModel("openai"))
+                    .listeners(CHAT_LISTENERS)
+                    .build());
+        }
+        if (isSet("GOOGLE_AI_GEMINI_API_KEY")) {
+            models.put("gemini", GoogleAiGeminiChatModel.builder()
+                    .httpClientBuilder(http.get())
+                    .apiKey(System.getenv("GOOGLE_AI_GEMINI_API_KEY"))
+                    .modelName(providerModel("gemini"))
+                    .listeners(CHAT_LISTENERS)
+                    .build());
+        }
+        if (isSet("ANTHROPIC_API_KEY")) {
+            models.put("anthropic", AnthropicChatModel.builder()
+                    .httpClientBuilder(http.get())
+                    .apiKey(System.getenv("ANTHROPIC_API_KEY"))
+                    .modelName(providerModel("anthropic"))
+                    .listeners(CHAT_LISTENERS)
+                    .build());
+        }
+        if (isSet("MISTRAL_AI_API_KEY")) {
+            models.put("mistral", MistralAiChatModel.builder()
+                    .httpClientBuilder(http.get())
+                    .apiKey(System.getenv("MISTRAL_AI_API_KEY"))
+                    .modelName(providerModel("mistral"))
+                    .listeners(CHAT_LISTENERS)
+                    .build());
+        }
+        if (isSet("OLLAMA_BASE_URL")) {
+            models.put("ollama", OpenAiChatModel.builder()
+                    .httpClientBuilder(http.get())
+                    .apiKey("ollama")
+                    .baseUrl(System.getenv("OLLAMA_BASE_URL"))
+                    .modelName(providerModel("ollama"))
+                    .listeners(CHAT_LISTENERS)
+                    .build());
+        }
+
+        if (models.size() == 1) return models.get("groq");
+
+        ProviderPool.Builder<ChatModel> pool = ProviderPool.builder();
+        models.forEach(pool::provider);
+        return new RoutingChatModel(pool.build());
+    }
+
+    /**
+     * Streaming model for the interactive assistants (120s timeout, 1024 output tokens).
+     * @param http Supplies a fresh builder per model; all of them share one connection pool
+     */
+    static StreamingChatModel streamingChatModel(Supplier<HttpClientBuilder> http) {
+        Map<String, StreamingChatModel> models = new LinkedHashMap<>();
+        models.put("groq", new RateLimitedStreamingChatModel(OpenAiStreamingChatModel.builder()
+                .httpClientBuilder(http.get())
+                .apiKey(System.getenv("GROQ_API_KEY"))
+                .baseUrl(GROQ_BASE_URL)
+                .modelName(GROQ_MODEL)
+                .timeout(STREAMING_TIMEOUT)
+                .maxTokens(STREAMING_MAX_TOKENS)
+                .listeners(STREAMING_LISTENERS)
+                .build(), GROQ_LIMITER, GROQ_MAX_ATTEMPTS));
+
+        if (isSet("OPENAI_API_KEY")) {
+            models.put("openai", OpenAiStreamingChatModel.builder()
+                    .httpClientBuilder(http.get())
+                    .apiKey(System.getenv("OPENAI_API_KEY"))
+                    .modelName(providerModel("openai"))
+                    .timeout(STREAMING_TIMEOUT)
+                    .maxTokens(STREAMING_MAX_TOKENS)
+                    .listeners(STREAMING_LISTENERS)
+                    .build());
+        }
+        if (isSet("GOOGLE_AI_GEMINI_API_KEY")) {
+            models.put("gemini", GoogleAiGeminiStreamingChatModel.builder()
+                    .httpClientBuilder(http.get())
+                    .apiKey(System.getenv("GOOGLE_AI_GEMINI_API_KEY"))
+                    .modelName(providerModel("gemini"))
+                    .timeout(STREAMING_TIMEOUT)
+                    .maxOutputTokens(STREAMING_MAX_TOKENS)
+                    .listeners(STREAMING_LISTENERS)
+                    .build());
+        }
+        if (isSet("ANTHROPIC_API_KEY")) {
+            models.put("anthropic", AnthropicStreamingChatModel.builder()
+                    .httpClientBuilder(http.get())
+                    .apiKey(System.getenv("ANTHROPIC_API_KEY"))
+                    .modelName(providerModel("anthropic"))
+                    .timeout(STREAMING_TIMEOUT)
+                    .maxTokens(STREAMING_MAX_TOKENS)
+                    .listeners(STREAMING_LISTENERS)
+                    .build());
+        }
+        if (isSet("MISTRAL_AI_API_KEY")) {
+            models.put("mistral", MistralAiStreamingChatModel.builder()
+                    .httpClientBuilder(http.get())
+                    .apiKey(System.getenv("MISTRAL_AI_API_KEY"))
+                    .modelName(providerModel("mistral"))
+                    .timeout(STREAMING_TIMEOUT)
+                    .maxTokens(STREAMING_MAX_TOKENS)
+                    .listeners(STREAMING_LISTENERS)
+                    .build());
+        }
+        if (isSet("OLLAMA_BASE_URL")) {
+            models.put("ollama", OpenAiStreamingChatModel.builder()
+                    .httpClientBuilder(http.get())
+                    .apiKey("ollama")
+                    .baseUrl(System.getenv("OLLAMA_BASE_URL"))
+                    .modelName(providerModel("ollama"))
+                    .timeout(STREAMING_TIMEOUT)
+                    .maxTokens(STREAMING_MAX_TOKENS)
+                    .listeners(STREAMING_LISTENERS)
+                    .build());
+        }
+
+        if (models.size() == 1) return models.get("groq");
+
+        ProviderPool.Builder<StreamingChatModel> pool = ProviderPool.builder();
+        models.forEach(pool::provider);
+        return new RoutingStreamingChatModel(pool.build());
+    }
+
+    /**
+     * Conversation memory for one assistant session: the oldest messages are evicted once the history
+     * exceeds {@link #MEMORY_TOKENS}, counted with {@link TokenCounter}, so every request stays bounded.
+     */
+    static ChatMemory chatMemory() {
+        return TokenWindowChatMemory.withMaxTokens(MEMORY_TOKENS, TokenCounter.INSTANCE);
+    }
+
+    /**
+     * Early termination for one streamed answer of an assistant: {@link #STREAM_DEADLINE}, {@link #STOP_SEQUENCES}
+     * and the tokens saved measured against {@link #STREAMING_MAX_TOKENS}.
+     */
+    static StreamControl streamControl() {
+        return StreamControl.start(STREAMING_MAX_TOKENS, STREAM_DEADLINE, STOP_SEQUENCES);
+    }
+
+    static List<String> stopSequences(String value) {
+        return Arrays.stream(value.split(","))
+                .map(s -> s.replace("\\n", "\n"))
+                .filter(s -> !s.isBlank())
+                .toList();
+    }
+
+    /**
+     * Label used for latency metrics: the Groq model name, or "router" when several providers are active.
+     */
+    static String label(Object model) {
+        return model instanceof RoutingChatModel || model instanceof RoutingStreamingChatModel ? "router" : GROQ_MODEL;
+    }
+
+    /**
+     * Identifies what generates a model's text, for caches of model output: endpoint and model name
+     * of every provider it may route to, in a stable order. Unlike {@link #label}, two deployments
+     * only share an identity if they really call the same models.
+     */
+    static String cacheIdentity(Object model) {
+        List<String> providers;
+        if (model instanceof RoutingChatModel router) {
+            providers = router.pool().providers().stream().map(ProviderPool.Provider::name).toList();
+        } else if (model instanceof RoutingStreamingChatModel router) {
+            providers = router.pool().providers().stream().map(ProviderPool.Provider::name).toList();
+        } else {
+            providers = List.of("groq");
+        }
+        return cacheIdentity(GROQ_BASE_URL, providers);
+    }
+
+    /**
+     * @param groqBaseUrl Endpoint the Groq provider talks to, see {@code LLM_BASE_URL}.
+     * @param providers   Names of the providers the model routes to, in any order.
+     */
+    static String cacheIdentity(String groqBaseUrl, Collection<String> providers) {
+        return providers.stream()
+                .sorted()
+                .map(name -> name + "=" + switch (name) {
+                    case "groq" -> groqBaseUrl + "#" + GROQ_MODEL;
+                    case "ollama" -> System.getenv("OLLAMA_BASE_URL") + "#" + providerModel(name);
+                    default -> providerModel(name);
+                })
+                .collect(Collectors.joining(","));
+    }
+
+    private static String providerModel(String provider) {
+        return switch (provider) {
+            case "groq" -> GROQ_MODEL;
+            case "openai" -> modelName("OPENAI_MODEL", "gpt-4o-mini");
+            case "gemini" -> modelName("GEMINI_MODEL", "gemini-2.0-flash");
+            case "anthropic" -> modelName("ANTHROPIC_MODEL", "claude-3-5-haiku-latest");
+            case "mistral" -> modelName("MISTRAL_MODEL", "mistral-small-latest");
+            case "ollama" -> modelName("OLLAMA_MODEL", "llama3.2");
+            default -> throw new IllegalArgumentException("Unknown provider: " + provider);
+        };
+    }
+
+    private static boolean isSet(String variable) {
+        String value = System.getenv(variable);
+        return value != null && !value.isBlank();
+    }
+
+    private static String modelName(String variable, String defaultName) {
+        return isSet(variable) ? System.getenv(variable) : defaultName;
+    }
+}
@@ -0,0 +1,295 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import dev.langchain4j.model.chat.response.ChatResponse;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * <h2>LoadGenerator</h2>
+ * <p>
+ * Replays a corpus of questions against {@link ITAssistant.Assistant#doChat} from many concurrent
+ * virtual-thread sessions and measures what the users would see: time to first token, total latency,
+ * throughput and errors, next to the heap and GC cost inside the JVM.
+ * </p>
+ * <b>Modes:</b>
+ * <ul>
+ * <li>Closed loop – {@code sessions} users each ask, wait for the full answer, think, and ask again.
+ * Answers "how many concurrent users can one JVM sustain"</li>
+ * <li>Open loop – new single-question sessions arrive at {@code ratePerSecond}, whether or not earlier
+ * answers are done. Latency counts from the scheduled arrival, so a saturated system cannot hide
+ * its queueing delay (no coordinated omission)</li>
+ * </ul>
+ * Every run produces a {@link Report} that is written as JSON, so runs can be compared field by field.
+ */
+class LoadGenerator {
+
+    enum Mode {CLOSED, OPEN}
+
+    /**
+     * @param sessions      Concurrent users (closed loop).
+     * @param ratePerSecond Arrivals per second (open loop).
+     * @param thinkTime     Pause between two questions of one user (closed loop).
+     * @param timeout       A request not completed within this time counts as a timeout; its stream is aborted.
+     */
+    record Settings(Mode mode, int sessions, double ratePerSecond, Duration duration, Duration thinkTime, Duration timeout) {
+    }
+
+    /**
+     * Latency distribution in milliseconds.
+     */
+    record Percentiles(double mean, long p50, long p95, long p99, long max) {
+
+        static Percentiles of(LatencyHistogram histogram) {
+            LatencyHistogram.Snapshot s = histogram.snapshot();
+            return new Percentiles(s.mean() / 1_000, s.p50() / 1_000, s.p95() / 1_000, s.p99() / 1_000, s.max() / 1_000);
+        }
+    }
+
+    record Jvm(String javaVersion, int processors, long heapStartMb, long heapPeakMb, long heapEndMb,
+               long gcCount, long gcMillis, int peakPlatformThreads) {
+    }
+
+    record Report(String startedAt, String label, Mode mode, int sessions, double ratePerSecond, long durationMillis,
+                  long requests, long errors, long timeouts, int peakInFlight, double requestsPerSecond,
+                  double tokensPerSecond, Percentiles ttftMillis, Percentiles totalMillis, Jvm jvm) {
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final long SAMPLE_MILLIS = 200;
+
+    private final Function<String, ITAssistant.Assistant> sessions;
+    private final List<String> questions;
+    private final Settings settings;
+
+    private final LatencyHistogram ttft = new LatencyHistogram();
+    private final LatencyHistogram total = new LatencyHistogram();
+    private final AtomicInteger nextQuestion = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder outputTokens = new LongAdder();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+
+    /**
+     * @param sessions Creates the assistant of a new session (with its own chat memory) from a session id.
+     */
+    LoadGenerator(Function<String, ITAssistant.Assistant> sessions, List<String> questions, Settings settings) {
+        if (questions.isEmpty()) throw new IllegalArgumentException("No questions to replay");
+        this.sessions = sessions;
+        this.questions = List.copyOf(questions);
+        this.settings = settings;
+    }
+
+    /**
+     * Runs the load for the configured duration and waits for the requests still in flight.
+     */
+    Report run(String label) throws InterruptedException {
+        JvmSampler jvm = new JvmSampler();
+        Instant startedAt = Instant.now();
+        long start = System.nanoTime();
+        long end = start + settings.duration().toNanos();
+
+        List<Thread> threads = settings.mode() == Mode.CLOSED ? closedLoop(end) : openLoop(start, end);
+        for (Thread thread : threads) thread.join();
+
+        long elapsedNanos = System.nanoTime() - start;
+        Jvm jvmStats = jvm.stop();
+        long requests = completed.sum() + errors.sum() + timeouts.sum();
+        double seconds = elapsedNanos / 1e9;
+        return new Report(startedAt.toString(), label, settings.mode(), settings.sessions(), settings.ratePerSecond(),
+                elapsedNanos / 1_000_000, requests, errors.sum(), timeouts.sum(), peakInFlight.get(),
+                completed.sum() / seconds, outputTokens.sum() / seconds,
+                Percentiles.of(ttft), Percentiles.of(total), jvmStats);
+    }
+
+    private List<Thread> closedLoop(long end) {
+        List<Thread> users = new ArrayList<>(settings.sessions());
+        for (int i = 0; i < settings.sessions(); i++) {
+            String sessionId = "load-" + i;
+            users.add(Thread.ofVirtual().name(sessionId).start(() -> {
+                ITAssistant.Assistant assistant = sessions.apply(sessionId);
+                try {
+                    while (System.nanoTime() < end) {
+                        ask(assistant, nextQuestion(), System.nanoTime());
+                        if (!settings.thinkTime().isZero()) Thread.sleep(settings.thinkTime());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+        return users;
+    }
+
+    private List<Thread> openLoop(long start, long end) throws InterruptedException {
+        List<Thread> requests = new ArrayList<>();
+        long intervalNanos = (long) (1e9 / settings.ratePerSecond());
+        for (long n = 0; ; n++) {
+            long scheduled = start + n * intervalNanos;
+            if (scheduled >= end) break;
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+            String sessionId = "load-" + n;
+            requests.add(Thread.ofVirtual().name(sessionId)
+                    .start(() -> ask(sessions.apply(sessionId), nextQuestion(), scheduled)));
+        }
+        return requests;
+    }
+
+    private String nextQuestion() {
+        return questions.get(Math.floorMod(nextQuestion.getAndIncrement(), questions.size()));
+    }
+
+    /**
+     * Sends one question and records its latencies, measured from {@code startNanos}.
+     */
+    private void ask(ITAssistant.Assistant assistant, String question, long startNanos) {
+        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        AtomicLong firstToken = new AtomicLong();
+        AtomicInteger chunks = new AtomicInteger();
+        CompletableFuture<ChatResponse> done = new CompletableFuture<>();
+        // The timeout is enforced here, the control only aborts the abandoned HTTP stream
+        StreamControl control = StreamControl.start(LlmProviders.STREAMING_MAX_TOKENS, Duration.ZERO, List.of());
+        try {
+            assistant.doChat(question)
+                    .onPartialResponseWithContext((partial, context) -> {
+                        firstToken.compareAndSet(0, System.nanoTime());
+                        chunks.incrementAndGet();
+                        control.accept(partial, context, text -> { });
+                    })
+                    .onCompleteResponse(done::complete)
+                    .onError(done::completeExceptionally)
+                    .start();
+            long remaining = settings.timeout().toNanos() - (System.nanoTime() - startNanos);
+            ChatResponse response = done.get(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+
+            long now = System.nanoTime();
+            if (firstToken.get() != 0) ttft.record((firstToken.get() - startNanos) / 1_000);
+            total.record((now - startNanos) / 1_000);
+            Integer tokens = response.tokenUsage() == null ? null : response.tokenUsage().outputTokenCount();
+            outputTokens.add(tokens == null ? chunks.get() : tokens);
+            completed.increment();
+        } catch (TimeoutException e) {
+            control.cancel(StreamControl.Reason.DEADLINE);
+            timeouts.increment();
+        } catch (ExecutionException | RuntimeException e) {
+            errors.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    static void write(Report report, Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        MAPPER.writeValue(file.toFile(), report);
+    }
+
+    static Report read(Path file) throws IOException {
+        return MAPPER.readValue(file.toFile(), Report.class);
+    }
+
+    /**
+     * Prints the report; with a baseline every key figure is followed by its change against it.
+     */
+    static void print(PrintStream out, Report report, Report baseline) {
+        out.printf("%n--- [LOAD TEST] %s: %s loop, %s, %.1f s ---%n", report.label(), report.mode().name().toLowerCase(),
+                report.mode() == Mode.CLOSED ? report.sessions() + " sessions" : report.ratePerSecond() + " arrivals/s",
+                report.durationMillis() / 1e3);
+        out.printf("Requests    %d (%d errors, %d timeouts), peak %d in flight%n",
+                report.requests(), report.errors(), report.timeouts(), report.peakInFlight());
+        line(out, "Throughput", "%.2f req/s", report.requestsPerSecond(), baseline == null ? null : baseline.requestsPerSecond());
+        line(out, "Tokens", "%.1f tok/s", report.tokensPerSecond(), baseline == null ? null : baseline.tokensPerSecond());
+        percentiles(out, "TTFT", report.ttftMillis(), baseline == null ? null : baseline.ttftMillis());
+        percentiles(out, "Total", report.totalMillis(), baseline == null ? null : baseline.totalMillis());
+        Jvm jvm = report.jvm();
+        out.printf("JVM         heap %d -> peak %d -> %d MB | %d GCs, %d ms | %d platform threads (Java %s, %d cpus)%n",
+                jvm.heapStartMb(), jvm.heapPeakMb(), jvm.heapEndMb(), jvm.gcCount(), jvm.gcMillis(),
+                jvm.peakPlatformThreads(), jvm.javaVersion(), jvm.processors());
+        if (baseline != null) {
+            out.printf("Baseline    %s (%s)%n", baseline.label(), baseline.startedAt());
+        }
+        out.println("-".repeat(40));
+    }
+
+    private static void percentiles(PrintStream out, String name, Percentiles p, Percentiles baseline) {
+        out.printf("%-11s p50 %6d | p95 %6d | p99 %6d | max %6d ms%s%n", name, p.p50(), p.p95(), p.p99(), p.max(),
+                baseline == null ? "" : " (p95 " + change(p.p95(), baseline.p95()) + ")");
+    }
+
+    private static void line(PrintStream out, String name, String format, double value, Double baseline) {
+        out.printf("%-11s " + format + "%s%n", name, value, baseline == null ? "" : " (" + change(value, baseline) + ")");
+    }
+
+    private static String change(double value, double baseline) {
+        return baseline == 0 ? "n/a" : "%+.1f%%".formatted(100 * (value - baseline) / baseline);
+    }
+
+    /**
+     * Samples heap use and platform threads during the run and takes GC counters before and after it.
+     */
+    private static final class JvmSampler {
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        private final long heapStart = heapUsed();
+        private final long gcCountStart = gcCount();
+        private final long gcMillisStart = gcMillis();
+        private final AtomicLong heapPeak = new AtomicLong(heapStart);
+        private final AtomicInteger threadPeak = new AtomicInteger(threads.getThreadCount());
+        private final Thread sampler = Thread.ofVirtual().name("load-jvm-sampler").start(() -> {
+            try {
+                while (true) {
+                    heapPeak.accumulateAndGet(heapUsed(), Math::max);
+                    threadPeak.accumulateAndGet(threads.getThreadCount(), Math::max);
+                    Thread.sleep(SAMPLE_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                // Run finished
+            }
+        });
+
+        Jvm stop() throws InterruptedException {
+            sampler.interrupt();
+            sampler.join();
+            long heapEnd = heapUsed();
+            return new Jvm(Runtime.version().toString(), Runtime.getRuntime().availableProcessors(),
+                    heapStart >> 20, Math.max(heapPeak.get(), heapEnd) >> 20, heapEnd >> 20,
+                    gcCount() - gcCountStart, gcMillis() - gcMillisStart, threadPeak.get());
+        }
+
+        private long heapUsed() {
+            return memory.getHeapMemoryUsage().getUsed();
+        }
+
+        private static long gcCount() {
+            return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                    .mapToLong(GarbageCollectorMXBean::getCollectionCount).filter(c -> c > 0).sum();
+        }
+
+        private static long gcMillis() {
+            return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                    .mapToLong(GarbageCollectorMXBean::getCollectionTime).filter(t -> t > 0).sum();
+        }
+    }
+}
@@ -0,0 +1,344 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <h2>LogScanner</h2>
+ * <p>
+ * Pre-filter for web-server and SIEM logs in front of the incident analyst. Log files are
+ * memory-mapped in line-aligned chunks that are scanned on all cores with one {@link AhoCorasick}
+ * automaton holding every indicator (JNDI lookups, LDAP/RMI URLs, shell and SQL injection markers,
+ * ...). Matching lines are scored and grouped by source IP into incidents, so only a handful of
+ * incidents, not millions of lines, ever reach the model.
+ * </p>
+ * <b>Features:</b>
+ * <ul>
+ * <li>Files of any size: each chunk is mapped separately, bytes are never decoded unless a line matches</li>
+ * <li>Tailing: {@link #scan(Path, long, long)} continues from the offset returned by the previous scan</li>
+ * <li>Incidents carry per-indicator counts, line range and sample lines for the analyst prompt</li>
+ * </ul>
+ */
+class LogScanner {
+
+    /**
+     * A pattern to look for; several patterns may share a name. {@code weight} adds to the line's score.
+     */
+    record Indicator(String name, String pattern, int weight) {
+    }
+
+    static final List<Indicator> DEFAULT_INDICATORS = List.of(
+            new Indicator("jndi-lookup", "${jndi:", 10),
+            new Indicator("jndi-lookup", "%24%7bjndi", 10),
+            new Indicator("jndi-obfuscated", "${lower:", 8),
+            new Indicator("jndi-obfuscated", "${upper:", 8),
+            new Indicator("jndi-obfuscated", "${::-", 8),
+            new Indicator("env-lookup", "${env:", 6),
+            new Indicator("env-lookup", "${sys:", 6),
+            new Indicator("ldap-url", "ldap://", 5),
+            new Indicator("ldap-url", "ldaps://", 5),
+            new Indicator("rmi-url", "rmi://", 5),
+            new Indicator("dns-url", "dns://", 3),
+            new Indicator("placeholder", "${", 1),
+            new Indicator("shell", "/bin/sh", 4),
+            new Indicator("shell", "/bin/bash", 4),
+            new Indicator("shell", "cmd.exe", 4),
+            new Indicator("shell", "powershell -e", 6),
+            new Indicator("sql-injection", "union select", 6),
+            new Indicator("sql-injection", "' or '1'='1", 6),
+            new Indicator("sql-injection", "%27%20or%20", 6),
+            new Indicator("path-traversal", "../../", 4),
+            new Indicator("path-traversal", "%2e%2e%2f", 4),
+            new Indicator("xss", "<script", 4));
+
+    /**
+     * Matching lines of one source. Line numbers are 1-based file line numbers.
+     */
+    record Incident(String source, long score, long matchedLines, long firstLine, long lastLine,
+                    Map<String, Long> indicators, List<String> samples) {
+
+        /**
+         * Incident background for the analyst prompt.
+         */
+        String background(Path file) {
+            StringBuilder sb = new StringBuilder("Background:\n")
+                    .append("The SIEM pre-filter flagged ").append(matchedLines).append(" log line(s) in ")
+                    .append(file.getFileName()).append(" (lines ").append(firstLine).append('-').append(lastLine)
+                    .append(") from source ").append(source).append(".\nIndicators: ");
+            indicators.forEach((name, count) -> sb.append(name).append(" x").append(count).append(", "));
+            sb.setLength(sb.length() - 2);
+            sb.append("\nSample lines:\n");
+            samples.forEach(line -> sb.append("  ").append(line).append('\n'));
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Outcome of one scan; {@code endOffset} is where the next (tailing) scan should start.
+     * {@code restarted} tells that the file had shrunk below the requested offset (truncated or
+     * rotated) and was scanned from its start, so line numbers count from the first line again.
+     */
+    record ScanResult(List<Incident> incidents, long bytes, long lines, long matchedLines, long endOffset,
+                      boolean restarted, long nanos) {
+
+        double megabytesPerSecond() {
+            return nanos == 0 ? 0 : bytes / 1e6 / (nanos / 1e9);
+        }
+    }
+
+    static final int MAX_SAMPLES = 5;
+    static final int MAX_SAMPLE_BYTES = 400;
+
+    private static final long MIN_CHUNK_BYTES = 8L << 20;
+    private static final long MAX_CHUNK_BYTES = 1L << 30;
+    private static final Pattern IPV4 = Pattern.compile("\\b((?:25[0-5]|2[0-4]\\d|1?\\d?\\d)(?:\\.(?:25[0-5]|2[0-4]\\d|1?\\d?\\d)){3})\\b");
+
+    private final List<Indicator> indicators;
+    private final AhoCorasick automaton;
+    private final int threads;
+
+    /**
+     * @param threads Number of chunks scanned at once; the scan is CPU-bound, so typically the core count.
+     */
+    LogScanner(List<Indicator> indicators, int threads) {
+        if (indicators.size() > 64) {
+            throw new IllegalArgumentException("At most 64 indicators are supported, got " + indicators.size());
+        }
+        this.indicators = List.copyOf(indicators);
+        this.automaton = AhoCorasick.compile(indicators.stream().map(Indicator::pattern).toList());
+        this.threads = threads;
+    }
+
+    ScanResult scan(Path file) throws IOException, InterruptedException {
+        return scan(file, 0, 0);
+    }
+
+    /**
+     * Scans the complete lines from {@code fromOffset} to the last newline of the file. A file that
+     * is now shorter than {@code fromOffset} has been truncated or rotated and is scanned from the start.
+     *
+     * @param linesBefore Number of lines before {@code fromOffset}, so incidents report file line numbers when tailing.
+     */
+    ScanResult scan(Path file, long fromOffset, long linesBefore) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            boolean restarted = size < fromOffset;
+            if (restarted) {
+                fromOffset = 0;
+                linesBefore = 0;
+            }
+            long end = lastLineEnd(channel, fromOffset, size);
+            List<long[]> chunks = chunks(channel, fromOffset, end);
+
+            List<ChunkResult> results = new ArrayList<>(chunks.size());
+            ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, chunks.size())));
+            try {
+                List<Future<ChunkResult>> futures = new ArrayList<>(chunks.size());
+                for (long[] chunk : chunks) {
+                    futures.add(executor.submit(() -> scanChunk(channel, chunk[0], chunk[1])));
+                }
+                for (Future<ChunkResult> future : futures) {
+                    results.add(future.get());
+                }
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException io) throw io;
+                throw new IllegalStateException("Log scan failed", e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+
+            // Chunks count lines locally; shift them by the lines of all earlier chunks
+            Map<String, IncidentBuilder> merged = new LinkedHashMap<>();
+            long lineBase = linesBefore;
+            long matched = 0;
+            for (ChunkResult result : results) {
+                for (IncidentBuilder builder : result.incidents().values()) {
+                    merged.computeIfAbsent(builder.source, IncidentBuilder::new).merge(builder, lineBase);
+                }
+                lineBase += result.lines();
+                matched += result.matchedLines();
+            }
+            List<Incident> incidents = merged.values().stream()
+                    .map(IncidentBuilder::build)
+                    .sorted(Comparator.comparingLong(Incident::score).reversed())
+                    .toList();
+            return new ScanResult(incidents, end - fromOffset, lineBase - linesBefore, matched, end, restarted,
+                    System.nanoTime() - start);
+        }
+    }
+
+    private record ChunkResult(long lines, long matchedLines, Map<String, IncidentBuilder> incidents) {
+    }
+
+    /**
+     * The hot loop: one automaton step per byte, state reset at every newline. Matches only set a
+     * bit per indicator; the line is decoded and attributed when it ends.
+     */
+    private ChunkResult scanChunk(FileChannel channel, long from, long to) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+        int length = buffer.limit();
+        Map<String, IncidentBuilder> incidents = new HashMap<>();
+        long lines = 0;
+        long matchedLines = 0;
+        int state = 0;
+        long mask = 0;
+        int lineStart = 0;
+        for (int i = 0; i < length; i++) {
+            byte b = buffer.get(i);
+            if (b == '\n') {
+                lines++;
+                if (mask != 0) {
+                    matchedLines++;
+                    record(incidents, buffer, lineStart, i, lines, mask);
+                    mask = 0;
+                }
+                state = 0;
+                lineStart = i + 1;
+                continue;
+            }
+            state = automaton.next(state, b);
+            int[] found = automaton.matches(state);
+            if (found != null) {
+                for (int pattern : found) mask |= 1L << pattern;
+            }
+        }
+        return new ChunkResult(lines, matchedLines, incidents);
+    }
+
+    private void record(Map<String, IncidentBuilder> incidents, ByteBuffer buffer, int start, int end, long line, long mask) {
+        byte[] bytes = new byte[Math.min(end - start, MAX_SAMPLE_BYTES)];
+        buffer.get(start, bytes);
+        String text = new String(bytes, StandardCharsets.UTF_8).strip();
+        Matcher ip = IPV4.matcher(text);
+        String source = ip.find() ? ip.group(1) : "unknown";
+
+        IncidentBuilder incident = incidents.computeIfAbsent(source, IncidentBuilder::new);
+        // Several patterns of one indicator on the same line count once
+        Map<String, Integer> lineIndicators = new LinkedHashMap<>();
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            Indicator indicator = indicators.get(Long.numberOfTrailingZeros(bits));
+            lineIndicators.merge(indicator.name(), indicator.weight(), Math::max);
+        }
+        incident.add(line, text, lineIndicators);
+    }
+
+    /**
+     * Offset just after the last newline in {@code [from, size)}, or {@code from} if there is none.
+     */
+    private static long lastLineEnd(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(64 * 1024);
+        long position = size;
+        while (position > from) {
+            int length = (int) Math.min(window.capacity(), position - from);
+            window.clear().limit(length);
+            channel.read(window, position - length);
+            for (int i = length - 1; i >= 0; i--) {
+                if (window.get(i) == '\n') return position - length + i + 1;
+            }
+            position -= length;
+        }
+        return from;
+    }
+
+    /**
+     * Splits {@code [from, to)} into about four chunks per thread, each ending right after a newline.
+     */
+    private List<long[]> chunks(FileChannel channel, long from, long to) throws IOException {
+        long target = Math.min(MAX_CHUNK_BYTES, Math.max(MIN_CHUNK_BYTES, (to - from) / (threads * 4L)));
+        List<long[]> chunks = new ArrayList<>();
+        ByteBuffer window = ByteBuffer.allocate(64 * 1024);
+        long start = from;
+        while (start < to) {
+            long end = Math.min(to, start + target);
+            // Move the boundary forward to the end of the line it falls into
+            while (end < to) {
+                window.clear().limit((int) Math.min(window.capacity(), to - end));
+                channel.read(window, end);
+                int newline = -1;
+                for (int i = 0; i < window.position(); i++) {
+                    if (window.get(i) == '\n') {
+                        newline = i;
+                        break;
+                    }
+                }
+                if (newline >= 0) {
+                    end += newline + 1;
+                    break;
+                }
+                end += window.position();
+            }
+            if (end - start > Integer.MAX_VALUE) {
+                throw new IOException("Log line longer than 2 GB near offset " + start);
+            }
+            chunks.add(new long[]{start, end});
+            start = end;
+        }
+        return chunks;
+    }
+
+    /**
+     * Mutable per-source accumulator; chunk results are merged into one builder per source.
+     */
+    private static final class IncidentBuilder {
+        private final String source;
+        private final Map<String, Long> indicators = new LinkedHashMap<>();
+        private final List<String> samples = new ArrayList<>();
+        private long score;
+        private long matchedLines;
+        private long firstLine = Long.MAX_VALUE;
+        private long lastLine;
+
+        IncidentBuilder(String source) {
+            this.source = source;
+        }
+
+        void add(long line, String text, Map<String, Integer> lineIndicators) {
+            matchedLines++;
+            firstLine = Math.min(firstLine, line);
+            lastLine = Math.max(lastLine, line);
+            lineIndicators.forEach((name, weight) -> {
+                indicators.merge(name, 1L, Long::sum);
+                score += weight;
+            });
+            if (samples.size() < MAX_SAMPLES) samples.add(text);
+        }
+
+        void merge(IncidentBuilder other, long lineBase) {
+            matchedLines += other.matchedLines;
+            firstLine = Math.min(firstLine, other.firstLine + lineBase);
+            lastLine = Math.max(lastLine, other.lastLine + lineBase);
+            score += other.score;
+            other.indicators.forEach((name, count) -> indicators.merge(name, count, Long::sum));
+            for (String sample : other.samples) {
+                if (samples.size() < MAX_SAMPLES) samples.add(sample);
+            }
+        }
+
+        Incident build() {
+            // Most frequent indicator first, which is also how the analyst prompt lists them
+            Map<String, Long> sorted = new LinkedHashMap<>();
+            indicators.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                    .forEach(e -> sorted.put(e.getKey(), e.getValue()));
+            return new Incident(source, score, matchedLines, firstLine, lastLine,
+                    Collections.unmodifiableMap(sorted), List.copyOf(samples));
+        }
+    }
+}
@@ -0,0 +1,238 @@
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.DocumentSplitter;
+import dev.langchain4j.data.document.splitter.DocumentSplitters;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.TokenCountEstimator;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.StreamingChatModel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * <h2>MapReduceSummarizer</h2>
+ * <p>
+ * Summarises documents that do not fit into one prompt. The text is split into token-bounded
+ * chunks, every chunk is condensed in parallel (map), and the partial summaries are combined
+ * group by group until a single summary at the requested level and language remains (reduce).
+ * </p>
+ * <b>Features:</b>
+ * <ul>
+ * <li>Chunks never exceed the configured token limit; reduce groups are packed up to it, but may go
+ * over when two partial summaries alone are larger, since every group combines at least two</li>
+ * <li>At most {@code maxConcurrency} model calls in flight, each on its own virtual thread</li>
+ * <li>Progress callbacks per stage and per-stage latency in {@link LatencyMetrics}</li>
+ * <li>Optionally streams the final reduce call, so the answer starts appearing as soon as it is generated</li>
+ * </ul>
+ */
+class MapReduceSummarizer {
+
+    private static final SystemMessage SYSTEM = SystemMessage.from("You are an expert text summarizer.");
+
+    private static final CompiledTemplate MAP_TEMPLATE = CompiledTemplate.compile("""
+            This is part {{part}} of {{parts}} of a longer document.
+            Condense it into dense notes that keep every key fact, name, number and decision.
+            Respond in {{language}}.
+
+            {{text}}
+            """);
+
+    private static final CompiledTemplate REDUCE_TEMPLATE = CompiledTemplate.compile("""
+            The following are summaries of consecutive parts of one document.
+            Combine them into a single summary at a {{level}} level that captures the core ideas,
+            emphasizes key themes, and provides actionable insights. Do not mention the parts.
+            Respond in {{language}}.
+
+            {{summaries}}
+            """);
+
+    /**
+     * Receives progress updates; called from worker threads.
+     */
+    @FunctionalInterface
+    interface Progress {
+        Progress NONE = (stage, done, total) -> { };
+
+        void update(String stage, int done, int total);
+    }
+
+    /**
+     * Final summary plus how it was produced. {@code finalTurn} is set when the last call was streamed.
+     */
+    record Result(String summary, int chunks, int reduceRounds, long mapMillis, long reduceMillis,
+                  LatencyMetrics.TurnSummary finalTurn) {
+    }
+
+    /**
+     * Where to stream the final reduce call: the model, the token consumer and the turn that times it.
+     */
+    record FinalStream(StreamingChatModel model, Consumer<String> onToken, LatencyMetrics.Turn turn) {
+    }
+
+    private final ChatModel model;
+    private final TokenCountEstimator tokenCounter;
+    private final DocumentSplitter splitter;
+    private final int chunkTokens;
+    private final Semaphore permits;
+    private final LatencyHistogram mapLatency = LatencyMetrics.timer("summary_map");
+    private final LatencyHistogram reduceLatency = LatencyMetrics.timer("summary_reduce");
+
+    /**
+     * @param chunkTokens    Upper bound for the source text of one map call and for the input of one reduce call.
+     * @param maxConcurrency Maximum number of model calls in flight.
+     */
+    MapReduceSummarizer(ChatModel model, TokenCountEstimator tokenCounter, int chunkTokens, int maxConcurrency) {
+        this.model = model;
+        this.tokenCounter = tokenCounter;
+        this.chunkTokens = chunkTokens;
+        this.splitter = DocumentSplitters.recursive(chunkTokens, chunkTokens / 20, tokenCounter);
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    /**
+     * Version of the map and reduce prompts, so cached results are not reused after a wording change.
+     */
+    static String templateVersion() {
+        return MAP_TEMPLATE.version() + "-" + REDUCE_TEMPLATE.version();
+    }
+
+    int countTokens(String text) {
+        return tokenCounter.estimateTokenCountInText(text);
+    }
+
+    Result summarize(String text, String level, String language, Progress progress) throws InterruptedException {
+        return summarize(text, level, language, progress, null);
+    }
+
+    /**
+     * @param stream If not null, the last reduce call is streamed through it instead of called blocking.
+     */
+    Result summarize(String text, String level, String language, Progress progress,
+                     FinalStream stream) throws InterruptedException {
+        List<String> chunks = splitter.split(Document.from(text)).stream().map(TextSegment::text).toList();
+
+        long mapStart = System.nanoTime();
+        List<String> partials = map(chunks, language, progress);
+        long mapMillis = (System.nanoTime() - mapStart) / 1_000_000;
+
+        long reduceStart = System.nanoTime();
+        int rounds = 0;
+        LatencyMetrics.TurnSummary finalTurn = null;
+        // Always reduce at least once, so the level and language of the final summary are applied
+        do {
+            List<List<String>> groups = group(partials);
+            rounds++;
+            if (stream != null && groups.size() == 1) {
+                progress.update("reduce " + rounds + " (streaming)", 0, 1);
+                String prompt = reducePrompt(groups.get(0), level, language);
+                StreamingCompletion.Result last = StreamingCompletion.stream(stream.model(),
+                        List.of(SYSTEM, UserMessage.from(prompt)), stream.onToken(), stream.turn());
+                finalTurn = last.summary();
+                partials = List.of(last.text());
+                progress.update("reduce " + rounds + " (streaming)", 1, 1);
+            } else {
+                partials = reduce(groups, level, language, progress, rounds);
+            }
+        } while (partials.size() > 1);
+        long reduceMillis = (System.nanoTime() - reduceStart) / 1_000_000;
+
+        return new Result(partials.get(0), chunks.size(), rounds, mapMillis, reduceMillis, finalTurn);
+    }
+
+    private List<String> map(List<String> chunks, String language, Progress progress) throws InterruptedException {
+        int total = chunks.size();
+        AtomicInteger done = new AtomicInteger();
+        progress.update("map", 0, total);
+
+        List<String> prompts = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            prompts.add(MAP_TEMPLATE.render("part", i + 1, "parts", total, "language", language, "text", chunks.get(i)));
+        }
+        return callAll(prompts, mapLatency, () -> progress.update("map", done.incrementAndGet(), total));
+    }
+
+    private List<String> reduce(List<List<String>> groups, String level, String language,
+                                Progress progress, int round) throws InterruptedException {
+        String stage = "reduce " + round;
+        int total = groups.size();
+        AtomicInteger done = new AtomicInteger();
+        progress.update(stage, 0, total);
+
+        List<String> prompts = groups.stream().map(group -> reducePrompt(group, level, language)).toList();
+        return callAll(prompts, reduceLatency, () -> progress.update(stage, done.incrementAndGet(), total));
+    }
+
+    private static String reducePrompt(List<String> group, String level, String language) {
+        return REDUCE_TEMPLATE.render("level", level, "language", language,
+                "summaries", String.join("\n\n---\n\n", group));
+    }
+
+    /**
+     * Packs consecutive summaries into groups of up to the chunk limit. A group always takes at least
+     * two summaries so that every round makes progress, which can push it over the limit: a group is
+     * closed only once it holds two, and a single summary left at the end joins the last group.
+     */
+    List<List<String>> group(List<String> summaries) {
+        List<List<String>> groups = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        int tokens = 0;
+        for (String summary : summaries) {
+            int size = countTokens(summary);
+            if (current.size() >= 2 && tokens + size > chunkTokens) {
+                groups.add(current);
+                current = new ArrayList<>();
+                tokens = 0;
+            }
+            current.add(summary);
+            tokens += size;
+        }
+        if (current.size() == 1 && !groups.isEmpty()) {
+            groups.get(groups.size() - 1).add(current.get(0));
+        } else if (!current.isEmpty()) {
+            groups.add(current);
+        }
+        return groups;
+    }
+
+    /**
+     * Runs every prompt on a virtual thread, limited by the semaphore, and returns the answers in order.
+     */
+    private List<String> callAll(List<String> prompts, LatencyHistogram latency, Runnable onDone) throws InterruptedException {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> futures = new ArrayList<>(prompts.size());
+            for (String prompt : prompts) {
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    long start = System.nanoTime();
+                    try {
+                        return model.chat(List.of(SYSTEM, UserMessage.from(prompt))).aiMessage().text();
+                    } finally {
+                        latency.record((System.nanoTime() - start) / 1_000);
+                        permits.release();
+                        onDone.run();
+                    }
+                }));
+            }
+
+            List<String> results = new ArrayList<>(futures.size());
+            for (Future<String> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    futures.forEach(f -> f.cancel(true));
+                    throw new IllegalStateException("Summarization call failed: " + e.getCause().getMessage(), e.getCause());
+                }
+            }
+            return results;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.http.client.HttpClientBuilder;
+import dev.langchain4j.http.client.jdk.JdkHttpClientBuilder;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.InetAddress;
+import java.net.ProxySelector;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * <h2>ModelRegistry</h2>
+ * <p>
+ * Process-wide home of the chat models. Models are built once from configuration
+ * (see {@link LlmProviders}) and every provider talks through a single pooled
+ * {@link HttpClient}, so TLS sessions and keep-alive connections are reused across
+ * requests, providers and threads.
+ * </p>
+ * <b>Warm-up:</b> when enabled, the first lookup of a model fires a one-token request
+ * per provider on a virtual thread. The TLS handshake, connection setup and class loading
+ * are then paid before the user's first question instead of inflating its TTFT.
+ * <ul>
+ * <li>{@code -Dllm.warmup=true} / {@code LLM_WARMUP=true} – enable the warm-up; it is off by default
+ * because every warm-up request is a billed call</li>
+ * <li>{@code -Dllm.keepalive.seconds} / {@code LLM_KEEPALIVE_SECONDS} – idle connection lifetime (default 120)</li>
+ * </ul>
+ */
+class ModelRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(ModelRegistry.class);
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(15);
+
+    private static volatile HttpClient sharedHttpClient;
+    private static volatile ChatModel chatModel;
+    private static volatile StreamingChatModel streamingChatModel;
+
+    /**
+     * The shared blocking model, built on first use.
+     */
+    static ChatModel chatModel() {
+        ChatModel model = chatModel;
+        if (model == null) {
+            synchronized (ModelRegistry.class) {
+                if (chatModel == null) {
+                    chatModel = LlmProviders.chatModel(httpClientBuilders());
+                    if (warmUpEnabled()) warmUp(chatModel);
+                }
+                model = chatModel;
+            }
+        }
+        return model;
+    }
+
+    /**
+     * The shared streaming model, built on first use.
+     */
+    static StreamingChatModel streamingChatModel() {
+        StreamingChatModel model = streamingChatModel;
+        if (model == null) {
+            synchronized (ModelRegistry.class) {
+                if (streamingChatModel == null) {
+                    streamingChatModel = LlmProviders.streamingChatModel(httpClientBuilders());
+                    if (warmUpEnabled()) warmUp(streamingChatModel);
+                }
+                model = streamingChatModel;
+            }
+        }
+        return model;
+    }
+
+    /**
+     * Fresh langchain4j builders that all hand out the same underlying JDK client.
+     * Read timeouts stay per model because the JDK client applies them per request.
+     */
+    static Supplier<HttpClientBuilder> httpClientBuilders() {
+        HttpClient shared = sharedHttpClient();
+        return () -> new JdkHttpClientBuilder().httpClientBuilder(new SharedClientBuilder(shared));
+    }
+
+    static HttpClient sharedHttpClient() {
+        HttpClient client = sharedHttpClient;
+        if (client == null) {
+            synchronized (ModelRegistry.class) {
+                if (sharedHttpClient == null) {
+                    // Must be set before the JDK HTTP client initialises its connection pool
+                    if (System.getProperty("jdk.httpclient.keepalive.timeout") == null) {
+                        System.setProperty("jdk.httpclient.keepalive.timeout", config("llm.keepalive.seconds", "LLM_KEEPALIVE_SECONDS", "120"));
+                    }
+                    sharedHttpClient = HttpClient.newBuilder()
+                            .version(HttpClient.Version.HTTP_2)
+                            .connectTimeout(CONNECT_TIMEOUT)
+                            .followRedirects(HttpClient.Redirect.NORMAL)
+                            .build();
+                }
+                client = sharedHttpClient;
+            }
+        }
+        return client;
+    }
+
+    /**
+     * Sends a one-token request to every provider behind the model, in the background.
+     */
+    static void warmUp(ChatModel model) {
+        for (ChatModel target : targets(model)) {
+            Thread.ofVirtual().name("model-warmup").start(() -> {
+                long start = System.nanoTime();
+                try {
+                    target.chat(warmUpRequest());
+                    log.debug("Warm-up of {} finished in {} ms", target.getClass().getSimpleName(), (System.nanoTime() - start) / 1_000_000);
+                } catch (RuntimeException e) {
+                    log.debug("Warm-up of {} failed: {}", target.getClass().getSimpleName(), e.getMessage());
+                }
+            });
+        }
+    }
+
+    static void warmUp(StreamingChatModel model) {
+        for (StreamingChatModel target : targets(model)) {
+            Thread.ofVirtual().name("model-warmup").start(() -> {
+                try {
+                    target.chat(warmUpRequest(), new StreamingChatResponseHandler() {
+                        @Override
+                        public void onCompleteResponse(ChatResponse completeResponse) {
+                            log.debug("Warm-up of {} finished", target.getClass().getSimpleName());
+                        }
+
+                        @Override
+                        public void onError(Throwable error) {
+                            log.debug("Warm-up of {} failed: {}", target.getClass().getSimpleName(), error.getMessage());
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    log.debug("Warm-up of {} failed: {}", target.getClass().getSimpleName(), e.getMessage());
+                }
+            });
+        }
+    }
+
+    private static ChatRequest warmUpRequest() {
+        return ChatRequest.builder()
+                .messages(UserMessage.from("ping"))
+                .maxOutputTokens(1)
+                .build();
+    }
+
+    // Warm every backend directly so the router's latency statistics only see real traffic
+    private static List<ChatModel> targets(ChatModel model) {
+        return model instanceof RoutingChatModel router
+                ? router.pool().providers().stream().map(ProviderPool.Provider::model).toList()
+                : List.of(model);
+    }
+
+    private static List<StreamingChatModel> targets(StreamingChatModel model) {
+        return model instanceof RoutingStreamingChatModel router
+                ? router.pool().providers().stream().map(ProviderPool.Provider::model).toList()
+                : List.of(model);
+    }
+
+    private static boolean warmUpEnabled() {
+        return Boolean.parseBoolean(config("llm.warmup", "LLM_WARMUP", "false"));
+    }
+
+    /**
+     * Reads a setting from a system property, then an environment variable, then the default.
+     */
+    static String config(String property, String variable, String defaultValue) {
+        String value = System.getProperty(property);
+        if (value == null || value.isBlank()) value = System.getenv(variable);
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    /**
+     * A JDK client builder that ignores per-model settings and always returns the shared client.
+     */
+    private static final class SharedClientBuilder implements HttpClient.Builder {
+        private final HttpClient shared;
+
+        SharedClientBuilder(HttpClient shared) {
+            this.shared = shared;
+        }
+
+        @Override
+        public HttpClient.Builder cookieHandler(CookieHandler cookieHandler) {
+            return this;
+        }
+
+        @Override
+        public HttpClient.Builder connectTimeout(Duration duration) {
+            return this;
+        }
+
+        @Override
+        public HttpClient.Builder sslContext(SSLContext sslContext) {
+            return this;
+        }
+
+        @Override
+        public HttpClient.Builder sslParameters(SSLParameters sslParameters) {
+            return this;
+        }
+
+        @Override
+        public HttpClient.Builder executor(Executor executor) {
+            return this;
+        }
+
+        @Override
+        public HttpClient.Builder followRedirects(HttpClient.Redirect policy) {
+            return this;
+        }
+
+        @Override
+        public HttpClient.Builder version(HttpClient.Version version) {
+            return this;
+        }
+
+        @Override
+        public HttpClient.Builder priority(int priority) {
+            return this;
+        }
+
+        @Override
+        public HttpClient.Builder proxy(ProxySelector proxySelector) {
+            return this;
+        }
+
+        @Override
+        public HttpClient.Builder authenticator(Authenticator authenticator) {
+            return this;
+        }
+
+        @Override
+        public HttpClient.Builder localAddress(InetAddress localAddr) {
+            return this;
+        }
+
+        @Override
+        public HttpClient build() {
+            return shared;
+        }
+    }
+}
@@ -0,0 +1,383 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <h2>OpenAiStubServer</h2>
+ * <p>
+ * An embeddable fake of the OpenAI-compatible API on localhost, for load and latency tests that must
+ * not depend on (or pay for) a real provider. It serves {@code /v1/chat/completions}, blocking and
+ * as SSE stream, {@code /v1/embeddings} and {@code /v1/models}. Latency is modelled as a
+ * first-token delay followed by a steady token rate, so TTFT and tokens/sec measured by the
+ * applications are reproducible.
+ * </p>
+ * <b>Features:</b>
+ * <ul>
+ * <li>Configurable first-token delay, tokens/sec and number of output tokens (capped by {@code max_tokens})</li>
+ * <li>Injected failures: a share of requests answers 500 or 429 (with {@code Retry-After}), from a seeded random</li>
+ * <li>Streams the client closes early stop generating and are counted with the tokens they did not send</li>
+ * <li>Deterministic embeddings from {@link HashingEmbeddingModel}</li>
+ * <li>One virtual thread per request, so thousands of slow streams cost no platform threads</li>
+ * </ul>
+ * Point the applications at it with {@code -Dllm.base.url=http://127.0.0.1:<port>/v1} (see {@link LlmProviders}),
+ * or run {@code main} to start it standalone.
+ */
+public class OpenAiStubServer implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String[] WORDS = {
+            "the", "incident", "shows", "outbound", "ldap", "traffic", "from", "the", "web", "server", "and",
+            "the", "first", "step", "is", "to", "block", "egress", "rotate", "credentials", "patch", "the",
+            "logging", "library", "then", "review", "access", "logs", "for", "further", "exfiltration."};
+
+    private final Builder settings;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Random random;
+    private final AtomicLong ids = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong streams = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+    private final AtomicLong aborted = new AtomicLong();
+    private final AtomicLong unsentTokens = new AtomicLong();
+
+    private OpenAiStubServer(Builder settings) throws IOException {
+        this.settings = settings;
+        this.random = new Random(settings.seed);
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), settings.port), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    public static void main(String[] args) throws Exception {
+        OpenAiStubServer stub = builder()
+                .port(Integer.parseInt(ModelRegistry.config("stub.port", "STUB_PORT", "8089")))
+                .firstTokenDelay(Duration.ofMillis(Long.parseLong(ModelRegistry.config("stub.ttft.ms", "STUB_TTFT_MS", "300"))))
+                .tokensPerSecond(Double.parseDouble(ModelRegistry.config("stub.tokens.per.second", "STUB_TOKENS_PER_SECOND", "50")))
+                .outputTokens(Integer.parseInt(ModelRegistry.config("stub.output.tokens", "STUB_OUTPUT_TOKENS", "128")))
+                .errorRate(Double.parseDouble(ModelRegistry.config("stub.error.rate", "STUB_ERROR_RATE", "0")))
+                .rateLimitRate(Double.parseDouble(ModelRegistry.config("stub.rate.limit.rate", "STUB_RATE_LIMIT_RATE", "0")))
+                .seed(Long.parseLong(ModelRegistry.config("stub.seed", "STUB_SEED", "42")))
+                .start();
+        System.out.printf("OpenAI stub listening on %s%n", stub.baseUrl());
+        System.out.printf("Run the applications with -Dllm.base.url=%s (and a high groq.rpm / groq.tpm)%n", stub.baseUrl());
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> System.out.println("\n" + stub.stats())));
+        Thread.currentThread().join();
+    }
+
+    String baseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/v1";
+    }
+
+    long requests() {
+        return requests.get();
+    }
+
+    /**
+     * Streams the client closed before the end.
+     */
+    long aborted() {
+        return aborted.get();
+    }
+
+    /**
+     * Output tokens the aborted streams did not generate.
+     */
+    long unsentTokens() {
+        return unsentTokens.get();
+    }
+
+    String stats() {
+        return "stub: %d requests, %d streamed, %d failed with 500, %d with 429, %d aborted (%d tokens not sent)"
+                .formatted(requests.get(), streams.get(), errors.get(), rateLimited.get(), aborted.get(), unsentTokens.get());
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            if (path.endsWith("/models")) {
+                ObjectNode list = MAPPER.createObjectNode().put("object", "list");
+                list.putArray("data").addObject().put("id", settings.model).put("object", "model");
+                sendJson(exchange, 200, list);
+                return;
+            }
+            if (!"POST".equals(exchange.getRequestMethod())
+                    || !(path.endsWith("/chat/completions") || path.endsWith("/embeddings"))) {
+                sendError(exchange, 404, "not_found", "No stub for " + exchange.getRequestMethod() + " " + path);
+                return;
+            }
+
+            JsonNode request;
+            try (InputStream body = exchange.getRequestBody()) {
+                request = MAPPER.readTree(body);
+            }
+            requests.incrementAndGet();
+            double roll;
+            synchronized (random) {
+                roll = random.nextDouble();
+            }
+            if (roll < settings.rateLimitRate) {
+                rateLimited.incrementAndGet();
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                sendError(exchange, 429, "rate_limit_exceeded", "Rate limit reached (stub)");
+                return;
+            }
+            if (roll < settings.rateLimitRate + settings.errorRate) {
+                errors.incrementAndGet();
+                sendError(exchange, 500, "server_error", "Injected failure (stub)");
+                return;
+            }
+
+            if (path.endsWith("/embeddings")) {
+                embeddings(exchange, request);
+            } else if (request.path("stream").asBoolean(false)) {
+                streams.incrementAndGet();
+                stream(exchange, request);
+            } else {
+                complete(exchange, request);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void complete(HttpExchange exchange, JsonNode request) throws IOException, InterruptedException {
+        List<String> tokens = tokens(request);
+        Thread.sleep(settings.firstTokenDelay.toMillis() + millisFor(tokens.size()));
+
+        ObjectNode response = MAPPER.createObjectNode()
+                .put("id", "chatcmpl-stub-" + ids.incrementAndGet())
+                .put("object", "chat.completion")
+                .put("created", System.currentTimeMillis() / 1_000)
+                .put("model", request.path("model").asText(settings.model));
+        ObjectNode choice = response.putArray("choices").addObject().put("index", 0);
+        choice.putObject("message").put("role", "assistant").put("content", String.join("", tokens));
+        choice.put("finish_reason", finishReason(tokens));
+        usage(response.putObject("usage"), request, tokens.size());
+        sendJson(exchange, 200, response);
+    }
+
+    private void stream(HttpExchange exchange, JsonNode request) throws IOException, InterruptedException {
+        List<String> tokens = tokens(request);
+        String id = "chatcmpl-stub-" + ids.incrementAndGet();
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+
+        OutputStream out = exchange.getResponseBody();
+        Thread.sleep(settings.firstTokenDelay.toMillis());
+        long start = System.nanoTime();
+        event(out, chunk(id, request, "role", "assistant", null));
+        for (int i = 0; i < tokens.size(); i++) {
+            // Paced against the stream start, so the rate holds even if a write is slow
+            long due = start + (long) (i * 1e9 / settings.tokensPerSecond);
+            long wait = due - System.nanoTime();
+            if (wait > 0) Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+            try {
+                event(out, chunk(id, request, "content", tokens.get(i), null));
+            } catch (IOException e) {
+                // The client cancelled the stream: a real server stops generating here
+                aborted.incrementAndGet();
+                unsentTokens.addAndGet(tokens.size() - i);
+                return;
+            }
+        }
+        event(out, chunk(id, request, null, null, finishReason(tokens)));
+        if (request.path("stream_options").path("include_usage").asBoolean(false)) {
+            ObjectNode usage = chunk(id, request, null, null, null);
+            usage.putArray("choices");
+            usage(usage.putObject("usage"), request, tokens.size());
+            event(out, usage);
+        }
+        out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private void embeddings(HttpExchange exchange, JsonNode request) throws IOException, InterruptedException {
+        List<String> inputs = new ArrayList<>();
+        JsonNode input = request.path("input");
+        if (input.isArray()) input.forEach(n -> inputs.add(n.asText()));
+        else inputs.add(input.asText());
+        Thread.sleep(settings.firstTokenDelay.toMillis());
+
+        HashingEmbeddingModel model = new HashingEmbeddingModel(request.path("dimensions").asInt(HashingEmbeddingModel.DEFAULT_DIMENSION));
+        ObjectNode response = MAPPER.createObjectNode().put("object", "list").put("model", request.path("model").asText(settings.model));
+        ArrayNode data = response.putArray("data");
+        int promptTokens = 0;
+        for (int i = 0; i < inputs.size(); i++) {
+            ArrayNode vector = data.addObject().put("object", "embedding").put("index", i).putArray("embedding");
+            for (float value : model.embed(inputs.get(i)).content().vector()) vector.add(value);
+            promptTokens += estimateTokens(inputs.get(i));
+        }
+        response.putObject("usage").put("prompt_tokens", promptTokens).put("total_tokens", promptTokens);
+        sendJson(exchange, 200, response);
+    }
+
+    /**
+     * The reply, one element per token: words with their trailing space, capped by {@code max_tokens}.
+     */
+    private List<String> tokens(JsonNode request) {
+        int limit = settings.outputTokens;
+        for (String field : List.of("max_tokens", "max_completion_tokens")) {
+            if (request.hasNonNull(field)) limit = Math.min(limit, request.get(field).asInt());
+        }
+        List<String> tokens = new ArrayList<>(limit);
+        for (int i = 0; i < limit; i++) {
+            tokens.add(WORDS[i % WORDS.length] + (i == limit - 1 ? "" : " "));
+        }
+        return tokens;
+    }
+
+    private String finishReason(List<String> tokens) {
+        return tokens.size() < settings.outputTokens ? "length" : "stop";
+    }
+
+    private ObjectNode chunk(String id, JsonNode request, String field, String value, String finishReason) {
+        ObjectNode chunk = MAPPER.createObjectNode()
+                .put("id", id)
+                .put("object", "chat.completion.chunk")
+                .put("created", System.currentTimeMillis() / 1_000)
+                .put("model", request.path("model").asText(settings.model));
+        ObjectNode choice = chunk.putArray("choices").addObject().put("index", 0);
+        ObjectNode delta = choice.putObject("delta");
+        if (field != null) delta.put(field, value);
+        if (finishReason == null) choice.putNull("finish_reason");
+        else choice.put("finish_reason", finishReason);
+        return chunk;
+    }
+
+    private static void usage(ObjectNode usage, JsonNode request, int completionTokens) {
+        int promptTokens = 0;
+        for (JsonNode message : request.path("messages")) {
+            promptTokens += estimateTokens(message.path("content").toString());
+        }
+        usage.put("prompt_tokens", promptTokens)
+                .put("completion_tokens", completionTokens)
+                .put("total_tokens", promptTokens + completionTokens);
+    }
+
+    private static int estimateTokens(String text) {
+        return Math.max(1, TokenCounter.INSTANCE.count(text));
+    }
+
+    private long millisFor(int tokens) {
+        return (long) (tokens * 1_000 / settings.tokensPerSecond);
+    }
+
+    private static void event(OutputStream out, ObjectNode data) throws IOException {
+        out.write(("data: " + MAPPER.writeValueAsString(data) + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String code, String message) throws IOException {
+        ObjectNode body = MAPPER.createObjectNode();
+        body.putObject("error").put("message", message).put("type", code).put("code", code);
+        sendJson(exchange, status, body);
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, JsonNode body) throws IOException {
+        byte[] bytes = MAPPER.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    static final class Builder {
+        private int port;
+        private String model = "stub-model";
+        private Duration firstTokenDelay = Duration.ofMillis(300);
+        private double tokensPerSecond = 50;
+        private int outputTokens = 128;
+        private double errorRate;
+        private double rateLimitRate;
+        private long seed = 42;
+
+        private Builder() {
+        }
+
+        /**
+         * 0 (the default) picks a free port.
+         */
+        Builder port(int port) {
+            this.port = port;
+            return this;
+        }
+
+        Builder model(String model) {
+            this.model = model;
+            return this;
+        }
+
+        Builder firstTokenDelay(Duration firstTokenDelay) {
+            this.firstTokenDelay = firstTokenDelay;
+            return this;
+        }
+
+        Builder tokensPerSecond(double tokensPerSecond) {
+            if (tokensPerSecond <= 0) throw new IllegalArgumentException("tokensPerSecond must be positive");
+            this.tokensPerSecond = tokensPerSecond;
+            return this;
+        }
+
+        Builder outputTokens(int outputTokens) {
+            this.outputTokens = outputTokens;
+            return this;
+        }
+
+        /**
+         * Share of requests (0..1) answered with HTTP 500.
+         */
+        Builder errorRate(double errorRate) {
+            this.errorRate = errorRate;
+            return this;
+        }
+
+        /**
+         * Share of requests (0..1) answered with HTTP 429.
+         */
+        Builder rateLimitRate(double rateLimitRate) {
+            this.rateLimitRate = rateLimitRate;
+            return this;
+        }
+
+        Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        OpenAiStubServer start() throws IOException {
+            return new OpenAiStubServer(this);
+        }
+    }
+}
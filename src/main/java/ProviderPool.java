@@ -0,0 +1,126 @@
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * <h2>ProviderPool</h2>
+ * <p>
+ * An ordered set of interchangeable LLM backends plus the policy that decides which one
+ * serves a request and when a hedged (duplicate) request is sent to the runner-up.
+ * Used by {@link RoutingChatModel} and {@link RoutingStreamingChatModel}.
+ * </p>
+ * <b>Routing rules:</b>
+ * <ul>
+ * <li>Healthy providers are tried before unhealthy ones (see {@link ProviderStats#isHealthy()})</li>
+ * <li>Among healthy providers the lowest median latency wins; providers without samples are tried first</li>
+ * <li>The hedge delay is the primary's latency at {@code hedgePercentile}, clamped to [min, max]</li>
+ * </ul>
+ *
+ * @param <M> The model type, {@code ChatModel} or {@code StreamingChatModel}.
+ */
+class ProviderPool<M> {
+
+    record Provider<M>(String name, M model, ProviderStats stats) {
+    }
+
+    private final List<Provider<M>> providers;
+    private final double hedgePercentile;
+    private final Duration minHedgeDelay;
+    private final Duration maxHedgeDelay;
+    private final int minSamples;
+
+    private ProviderPool(Builder<M> builder) {
+        if (builder.providers.isEmpty()) {
+            throw new IllegalArgumentException("At least one provider is required");
+        }
+        this.providers = builder.providers.stream()
+                .map(p -> new Provider<>(p.name(), p.model(), new ProviderStats(p.name(), builder.coolDown)))
+                .toList();
+        this.hedgePercentile = builder.hedgePercentile;
+        this.minHedgeDelay = builder.minHedgeDelay;
+        this.maxHedgeDelay = builder.maxHedgeDelay;
+        this.minSamples = builder.minSamples;
+    }
+
+    static <M> Builder<M> builder() {
+        return new Builder<>();
+    }
+
+    List<Provider<M>> providers() {
+        return providers;
+    }
+
+    /**
+     * Providers in the order they should be tried for the next request.
+     */
+    List<Provider<M>> ranked() {
+        List<Provider<M>> ranked = new ArrayList<>(providers);
+        ranked.sort(Comparator
+                .comparing((Provider<M> p) -> !p.stats().isHealthy())
+                .thenComparingLong(p -> p.stats().percentileNanos(50)));
+        return ranked;
+    }
+
+    /**
+     * How long to wait on {@code primary} before hedging to the next provider.
+     */
+    long hedgeDelayNanos(Provider<M> primary) {
+        if (primary.stats().sampleCount() < minSamples) {
+            return maxHedgeDelay.toNanos();
+        }
+        long observed = primary.stats().percentileNanos(hedgePercentile);
+        return Math.max(minHedgeDelay.toNanos(), Math.min(maxHedgeDelay.toNanos(), observed));
+    }
+
+    @Override
+    public String toString() {
+        return providers.stream().map(p -> p.stats().toString()).toList().toString();
+    }
+
+    static final class Builder<M> {
+        private final List<Provider<M>> providers = new ArrayList<>();
+        private double hedgePercentile = 95;
+        private Duration minHedgeDelay = Duration.ofMillis(250);
+        private Duration maxHedgeDelay = Duration.ofSeconds(5);
+        private Duration coolDown = Duration.ofSeconds(30);
+        private int minSamples = 10;
+
+        Builder<M> provider(String name, M model) {
+            providers.add(new Provider<>(name, model, null));
+            return this;
+        }
+
+        Builder<M> hedgePercentile(double hedgePercentile) {
+            this.hedgePercentile = hedgePercentile;
+            return this;
+        }
+
+        Builder<M> minHedgeDelay(Duration minHedgeDelay) {
+            this.minHedgeDelay = minHedgeDelay;
+            return this;
+        }
+
+        /**
+         * Upper bound of the hedge delay; also used until a provider has {@code minSamples} samples.
+         */
+        Builder<M> maxHedgeDelay(Duration maxHedgeDelay) {
+            this.maxHedgeDelay = maxHedgeDelay;
+            return this;
+        }
+
+        Builder<M> coolDown(Duration coolDown) {
+            this.coolDown = coolDown;
+            return this;
+        }
+
+        Builder<M> minSamples(int minSamples) {
+            this.minSamples = minSamples;
+            return this;
+        }
+
+        ProviderPool<M> build() {
+            return new ProviderPool<>(this);
+        }
+    }
+}
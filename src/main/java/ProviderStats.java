@@ -0,0 +1,84 @@
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <h2>ProviderStats</h2>
+ * <p>
+ * Health and latency bookkeeping for one LLM backend behind a routing model.
+ * Latency goes into a {@link LatencyHistogram} (µs), errors into an exponentially weighted
+ * error rate. A simple circuit breaker takes a provider out of rotation after repeated
+ * failures and lets it back in after a cool-down.
+ * </p>
+ */
+class ProviderStats {
+
+    // Weight of the newest outcome in the error rate (roughly the last ~10 calls)
+    private static final double ERROR_ALPHA = 0.2;
+    private static final double UNHEALTHY_ERROR_RATE = 0.5;
+    private static final int MAX_CONSECUTIVE_FAILURES = 3;
+
+    private final String name;
+    private final Duration coolDown;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final AtomicLong errorRateBits = new AtomicLong(Double.doubleToLongBits(0.0));
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long lastFailureNanos;
+
+    ProviderStats(String name, Duration coolDown) {
+        this.name = name;
+        this.coolDown = coolDown;
+    }
+
+    String name() {
+        return name;
+    }
+
+    void recordSuccess(long latencyNanos) {
+        latency.record(latencyNanos / 1_000);
+        consecutiveFailures.set(0);
+        updateErrorRate(0.0);
+    }
+
+    void recordFailure() {
+        consecutiveFailures.incrementAndGet();
+        lastFailureNanos = System.nanoTime();
+        updateErrorRate(1.0);
+    }
+
+    double errorRate() {
+        return Double.longBitsToDouble(errorRateBits.get());
+    }
+
+    /**
+     * A provider is healthy unless it keeps failing; once the cool-down has passed it gets another chance.
+     */
+    boolean isHealthy() {
+        boolean failing = consecutiveFailures.get() >= MAX_CONSECUTIVE_FAILURES || errorRate() >= UNHEALTHY_ERROR_RATE;
+        return !failing || System.nanoTime() - lastFailureNanos > coolDown.toNanos();
+    }
+
+    long sampleCount() {
+        return latency.count();
+    }
+
+    /**
+     * Latency at the given percentile in nanoseconds, or 0 if nothing has been recorded yet.
+     */
+    long percentileNanos(double percentile) {
+        return latency.percentile(percentile) * 1_000;
+    }
+
+    private void updateErrorRate(double outcome) {
+        errorRateBits.updateAndGet(bits -> {
+            double current = Double.longBitsToDouble(bits);
+            return Double.doubleToLongBits(current + ERROR_ALPHA * (outcome - current));
+        });
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[p50=%dms p95=%dms errors=%.0f%% healthy=%s]", name,
+                percentileNanos(50) / 1_000_000, percentileNanos(95) / 1_000_000, errorRate() * 100, isHealthy());
+    }
+}
@@ -0,0 +1,95 @@
+import dev.langchain4j.exception.InvalidRequestException;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.TokenUsage;
+
+/**
+ * <h2>RateLimitedChatModel</h2>
+ * <p>
+ * A {@link ChatModel} that asks an {@link AdaptiveRateLimiter} for admission before every call.
+ * A 429 from the provider is fed back to the limiter and the call is queued again, so retries
+ * wait for quota instead of hammering the provider on a fixed schedule.
+ * </p>
+ * A request whose estimated size exceeds the minute token budget can never be admitted by the
+ * provider, so it fails with an {@link InvalidRequestException} before any round trip.
+ * The wrapped model should be built with {@code maxRetries(0)}: retrying is done here.
+ */
+class RateLimitedChatModel implements ChatModel {
+
+    static final int DEFAULT_OUTPUT_RESERVATION = 1024;
+
+    private final ChatModel delegate;
+    private final AdaptiveRateLimiter limiter;
+    private final int maxAttempts;
+
+    RateLimitedChatModel(ChatModel delegate, AdaptiveRateLimiter limiter, int maxAttempts) {
+        this.delegate = delegate;
+        this.limiter = limiter;
+        this.maxAttempts = maxAttempts;
+    }
+
+    AdaptiveRateLimiter limiter() {
+        return limiter;
+    }
+
+    @Override
+    public ChatResponse doChat(ChatRequest request) {
+        int estimate = estimateTokens(request);
+        checkFits(request, estimate, limiter);
+        for (int attempt = 1; ; attempt++) {
+            AdaptiveRateLimiter.Permit permit;
+            try {
+                permit = limiter.acquire(estimate);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for " + limiter.name() + " quota", e);
+            }
+
+            try {
+                ChatResponse response = delegate.chat(request);
+                permit.success(totalTokens(response.tokenUsage()));
+                return response;
+            } catch (RuntimeException e) {
+                if (!AdaptiveRateLimiter.isRateLimit(e)) {
+                    permit.failed();
+                    throw e;
+                }
+                permit.rateLimited();
+                if (attempt >= maxAttempts) throw e;
+            }
+        }
+    }
+
+    /**
+     * Prompt tokens ({@link TokenCounter}) plus the requested (or default) number of output tokens.
+     */
+    static int estimateTokens(ChatRequest request) {
+        return TokenCounter.INSTANCE.estimateTokenCountInMessages(request.messages()) + outputReservation(request);
+    }
+
+    /**
+     * Fails fast if the prompt plus the output reservation is larger than the limiter's minute budget.
+     */
+    static void checkFits(ChatRequest request, int estimate, AdaptiveRateLimiter limiter) {
+        if (estimate > limiter.tokensPerMinute()) {
+            throw new InvalidRequestException("Request of about %d prompt + %d output tokens exceeds the %s limit of %d tokens"
+                    .formatted(estimate - outputReservation(request), outputReservation(request),
+                            limiter.name(), limiter.tokensPerMinute()));
+        }
+    }
+
+    private static int outputReservation(ChatRequest request) {
+        Integer maxOutput = request.parameters() == null ? null : request.parameters().maxOutputTokens();
+        return maxOutput == null ? DEFAULT_OUTPUT_RESERVATION : maxOutput;
+    }
+
+    static int totalTokens(TokenUsage usage) {
+        return usage == null || usage.totalTokenCount() == null ? -1 : usage.totalTokenCount();
+    }
+
+    @Override
+    public String toString() {
+        return "RateLimitedChatModel" + limiter;
+    }
+}
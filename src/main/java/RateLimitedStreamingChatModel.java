@@ -0,0 +1,128 @@
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.PartialResponse;
+import dev.langchain4j.model.chat.response.PartialResponseContext;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import dev.langchain4j.model.chat.response.StreamingHandle;
+
+/**
+ * <h2>RateLimitedStreamingChatModel</h2>
+ * <p>
+ * Streaming counterpart of {@link RateLimitedChatModel}. Waiting for admission happens on a
+ * virtual thread, so {@code chat(...)} returns immediately like any other streaming model.
+ * A 429 that arrives before the first token is retried once quota is available again;
+ * after the first token the error is passed on, because the caller has already seen output.
+ * Requests too large for the token budget are reported to the handler without being sent.
+ * A stream cancelled through its {@link StreamingHandle} gets no further callback, so the handle
+ * handed downstream releases the permit itself.
+ * </p>
+ */
+class RateLimitedStreamingChatModel implements StreamingChatModel {
+
+    private final StreamingChatModel delegate;
+    private final AdaptiveRateLimiter limiter;
+    private final int maxAttempts;
+
+    RateLimitedStreamingChatModel(StreamingChatModel delegate, AdaptiveRateLimiter limiter, int maxAttempts) {
+        this.delegate = delegate;
+        this.limiter = limiter;
+        this.maxAttempts = maxAttempts;
+    }
+
+    AdaptiveRateLimiter limiter() {
+        return limiter;
+    }
+
+    @Override
+    public void doChat(ChatRequest request, StreamingChatResponseHandler handler) {
+        int estimate = RateLimitedChatModel.estimateTokens(request);
+        try {
+            RateLimitedChatModel.checkFits(request, estimate, limiter);
+        } catch (RuntimeException e) {
+            handler.onError(e);
+            return;
+        }
+        Thread.ofVirtual().name("rate-limited-stream").start(() -> attempt(request, handler, estimate, 1));
+    }
+
+    private void attempt(ChatRequest request, StreamingChatResponseHandler handler, int estimate, int attempt) {
+        AdaptiveRateLimiter.Permit permit;
+        try {
+            permit = limiter.acquire(estimate);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            handler.onError(e);
+            return;
+        }
+
+        try {
+            delegate.chat(request, new StreamingChatResponseHandler() {
+                private volatile boolean streaming;
+                private StreamingHandle delegateHandle;
+                private PartialResponseContext releasingContext;
+
+                @Override
+                public void onPartialResponse(PartialResponse partialResponse, PartialResponseContext context) {
+                    streaming = true;
+                    if (context.streamingHandle() != delegateHandle) {
+                        delegateHandle = context.streamingHandle();
+                        releasingContext = new PartialResponseContext(new ReleasingHandle(delegateHandle, permit));
+                    }
+                    handler.onPartialResponse(partialResponse, releasingContext);
+                }
+
+                @Override
+                public void onPartialResponse(String partialResponse) {
+                    streaming = true;
+                    handler.onPartialResponse(partialResponse);
+                }
+
+                @Override
+                public void onCompleteResponse(ChatResponse completeResponse) {
+                    permit.success(RateLimitedChatModel.totalTokens(completeResponse.tokenUsage()));
+                    handler.onCompleteResponse(completeResponse);
+                }
+
+                @Override
+                public void onError(Throwable error) {
+                    if (!AdaptiveRateLimiter.isRateLimit(error)) {
+                        permit.failed();
+                        handler.onError(error);
+                        return;
+                    }
+                    permit.rateLimited();
+                    if (streaming || attempt >= maxAttempts) {
+                        handler.onError(error);
+                    } else {
+                        Thread.ofVirtual().name("rate-limited-stream").start(() -> attempt(request, handler, estimate, attempt + 1));
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            permit.failed();
+            handler.onError(e);
+        }
+    }
+
+    /**
+     * Cancels the provider stream and releases its permit; the permit ignores every release after the first.
+     */
+    private record ReleasingHandle(StreamingHandle delegate, AdaptiveRateLimiter.Permit permit) implements StreamingHandle {
+        @Override
+        public void cancel() {
+            delegate.cancel();
+            permit.cancelled();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return delegate.isCancelled();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RateLimitedStreamingChatModel" + limiter;
+    }
+}
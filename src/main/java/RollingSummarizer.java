@@ -0,0 +1,156 @@
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatModel;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <h2>RollingSummarizer</h2>
+ * <p>
+ * Keeps a running summary of a file that is still being written, such as a meeting transcript or a
+ * log. It remembers the byte offset it has processed up to; every update reads only the bytes that
+ * were appended since and sends them to the model together with the previous summary, so the cost
+ * of an update follows the size of the delta, not the size of the file.
+ * </p>
+ * <b>Features:</b>
+ * <ul>
+ * <li>Only complete lines are consumed; a line still being written waits for the next update</li>
+ * <li>A file that shrinks (truncated or rotated) starts a fresh summary</li>
+ * <li>Deltas above {@code maxDeltaTokens} are condensed with {@link MapReduceSummarizer} before being folded in</li>
+ * </ul>
+ */
+class RollingSummarizer {
+
+    private static final SystemMessage SYSTEM = SystemMessage.from("You are an expert text summarizer.");
+
+    private static final CompiledTemplate FIRST_TEMPLATE = CompiledTemplate.compile("""
+            Please create a summary from the following text at a {{level}} level,
+            using a clear, concise paragraph that captures the core ideas,
+            emphasizes key themes, and provides actionable insights.
+            The text is the beginning of a document that is still being written.
+            Respond in {{language}}.
+
+            {{text}}
+            """);
+
+    private static final CompiledTemplate UPDATE_TEMPLATE = CompiledTemplate.compile("""
+            Below is a {{level}} summary of a document that is still being written, followed by
+            the text that was appended since. Return the updated summary at the same level:
+            integrate new facts and decisions, revise points the new text changes, and keep it
+            about as concise as before. Respond in {{language}}.
+
+            Current summary:
+            {{summary}}
+
+            New text:
+            {{text}}
+            """);
+
+    /**
+     * Outcome of one update; {@code bytesRead} is 0 when nothing new was complete yet.
+     */
+    record Update(long bytesRead, long offset, boolean restarted, String summary, long millis) {
+    }
+
+    private final ChatModel model;
+    private final MapReduceSummarizer mapReduce;
+    private final int maxDeltaTokens;
+    private final Path file;
+    private final String level;
+    private final String language;
+
+    private long offset;
+    private String summary = "";
+
+    /**
+     * @param maxDeltaTokens Largest delta sent as-is; bigger ones (e.g. the first read of a long file) go through map-reduce.
+     */
+    RollingSummarizer(ChatModel model, MapReduceSummarizer mapReduce, int maxDeltaTokens,
+                      Path file, String level, String language) {
+        this.model = model;
+        this.mapReduce = mapReduce;
+        this.maxDeltaTokens = maxDeltaTokens;
+        this.file = file;
+        this.level = level;
+        this.language = language;
+    }
+
+    /**
+     * Folds everything appended since the last call into the summary.
+     */
+    synchronized Update update() throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        boolean restarted = false;
+        byte[] delta;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < offset) {
+                offset = 0;
+                summary = "";
+                restarted = true;
+            }
+            delta = readCompleteLines(channel, offset, size);
+        }
+        if (delta.length == 0) {
+            return new Update(0, offset, restarted, summary, 0);
+        }
+
+        String text = new String(delta, StandardCharsets.UTF_8);
+        if (!text.isBlank()) {
+            if (mapReduce.countTokens(text) > maxDeltaTokens) {
+                text = mapReduce.summarize(text, "detailed", language, MapReduceSummarizer.Progress.NONE).summary();
+            }
+            String prompt = summary.isEmpty()
+                    ? FIRST_TEMPLATE.render("level", level, "language", language, "text", text)
+                    : UPDATE_TEMPLATE.render("level", level, "language", language, "summary", summary, "text", text);
+            summary = model.chat(List.of(SYSTEM, UserMessage.from(prompt))).aiMessage().text();
+        }
+        offset += delta.length;
+        return new Update(delta.length, offset, restarted, summary, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Reads {@code [from, size)} and cuts it after the last newline, so neither a line nor a
+     * multi-byte character is split between two updates.
+     */
+    private static byte[] readCompleteLines(FileChannel channel, long from, long size) throws IOException {
+        long length = size - from;
+        if (length <= 0) return new byte[0];
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Appended text too large for one update: " + length + " bytes");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) length);
+        long position = from;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) break;
+            position += read;
+        }
+        byte[] bytes = buffer.array();
+        int end = buffer.position();
+        while (end > 0 && bytes[end - 1] != '\n') {
+            end--;
+        }
+        return end == bytes.length ? bytes : Arrays.copyOf(bytes, end);
+    }
+
+    synchronized long offset() {
+        return offset;
+    }
+
+    synchronized String summary() {
+        return summary;
+    }
+
+    Path file() {
+        return file;
+    }
+}
@@ -0,0 +1,131 @@
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h2>RoutingChatModel</h2>
+ * <p>
+ * A {@link ChatModel} that spreads requests over several providers (Groq, OpenAI, Gemini, ...).
+ * Each request goes to the fastest healthy provider. If no answer arrives within that
+ * provider's p95 latency, a hedged copy is sent to the runner-up; the first successful
+ * answer wins and the other call is cancelled (its thread is interrupted).
+ * </p>
+ * Failures fail over to the next provider immediately and count against the provider's health.
+ */
+class RoutingChatModel implements ChatModel {
+
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final ProviderPool<ChatModel> pool;
+
+    RoutingChatModel(ProviderPool<ChatModel> pool) {
+        this.pool = pool;
+    }
+
+    ProviderPool<ChatModel> pool() {
+        return pool;
+    }
+
+    /**
+     * One call to one provider. Completed attempts report themselves on the shared queue.
+     */
+    private static final class Attempt {
+        final ProviderPool.Provider<ChatModel> provider;
+        volatile Future<?> future;
+        volatile boolean cancelled;
+        volatile ChatResponse response;
+        volatile Throwable error;
+
+        Attempt(ProviderPool.Provider<ChatModel> provider) {
+            this.provider = provider;
+        }
+
+        void cancel() {
+            cancelled = true;
+            future.cancel(true);
+        }
+    }
+
+    @Override
+    public ChatResponse doChat(ChatRequest request) {
+        List<ProviderPool.Provider<ChatModel>> ranked = pool.ranked();
+        BlockingQueue<Attempt> completed = new LinkedBlockingQueue<>();
+        List<Attempt> running = new ArrayList<>();
+
+        int next = 0;
+        running.add(launch(ranked.get(next++), request, completed));
+        long hedgeAt = System.nanoTime() + pool.hedgeDelayNanos(ranked.get(0));
+        boolean hedged = false;
+        Throwable lastError = null;
+
+        try {
+            while (!running.isEmpty()) {
+                Attempt done = hedged
+                        ? completed.take()
+                        : completed.poll(hedgeAt - System.nanoTime(), TimeUnit.NANOSECONDS);
+
+                if (done == null) {
+                    // The primary is slower than its p95: race it against the runner-up
+                    if (next < ranked.size()) {
+                        running.add(launch(ranked.get(next++), request, completed));
+                    }
+                    hedged = true;
+                    continue;
+                }
+
+                running.remove(done);
+                if (done.error == null) {
+                    running.forEach(Attempt::cancel);
+                    return done.response;
+                }
+
+                lastError = done.error;
+                if (running.isEmpty() && next < ranked.size()) {
+                    ProviderPool.Provider<ChatModel> fallback = ranked.get(next++);
+                    running.add(launch(fallback, request, completed));
+                    hedgeAt = System.nanoTime() + pool.hedgeDelayNanos(fallback);
+                    hedged = false;
+                }
+            }
+        } catch (InterruptedException e) {
+            running.forEach(Attempt::cancel);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a provider", e);
+        }
+
+        if (lastError instanceof RuntimeException runtimeException) throw runtimeException;
+        throw new RuntimeException("All providers failed", lastError);
+    }
+
+    private Attempt launch(ProviderPool.Provider<ChatModel> provider, ChatRequest request,
+                           BlockingQueue<Attempt> completed) {
+        Attempt attempt = new Attempt(provider);
+        attempt.future = EXECUTOR.submit(() -> {
+            long start = System.nanoTime();
+            try {
+                attempt.response = provider.model().chat(request);
+                provider.stats().recordSuccess(System.nanoTime() - start);
+            } catch (Throwable t) {
+                attempt.error = t;
+                // A hedging loser is not the provider's fault
+                if (!attempt.cancelled) provider.stats().recordFailure();
+            }
+            completed.add(attempt);
+        });
+        return attempt;
+    }
+
+    @Override
+    public String toString() {
+        return "RoutingChatModel" + pool;
+    }
+}
@@ -0,0 +1,217 @@
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.PartialResponse;
+import dev.langchain4j.model.chat.response.PartialResponseContext;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h2>RoutingStreamingChatModel</h2>
+ * <p>
+ * The streaming counterpart of {@link RoutingChatModel}. Latency is measured as time to first
+ * token: if the primary has not produced a token within its p95 TTFT, the request is hedged to
+ * the runner-up. Whichever stream delivers a token first owns the response; the other stream
+ * is cancelled through its {@code StreamingHandle} as soon as it produces anything.
+ * </p>
+ */
+class RoutingStreamingChatModel implements StreamingChatModel {
+
+    private static final ScheduledExecutorService HEDGE_TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "hedge-timer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final ProviderPool<StreamingChatModel> pool;
+
+    RoutingStreamingChatModel(ProviderPool<StreamingChatModel> pool) {
+        this.pool = pool;
+    }
+
+    ProviderPool<StreamingChatModel> pool() {
+        return pool;
+    }
+
+    @Override
+    public void doChat(ChatRequest request, StreamingChatResponseHandler handler) {
+        new HedgedStream(pool.ranked(), request, handler).start();
+    }
+
+    /**
+     * State of one routed request: which attempts are running and which one (if any) has won.
+     */
+    private final class HedgedStream {
+        private final List<ProviderPool.Provider<StreamingChatModel>> ranked;
+        private final ChatRequest request;
+        private final StreamingChatResponseHandler downstream;
+        private int next;
+        private int running;
+        private Attempt winner;
+        private boolean finished;
+        // Only the timer of the latest primary may hedge; a fallback replaces the failed primary's timer
+        private ScheduledFuture<?> hedgeTimer;
+        private int hedgeGeneration;
+
+        HedgedStream(List<ProviderPool.Provider<StreamingChatModel>> ranked, ChatRequest request,
+                     StreamingChatResponseHandler downstream) {
+            this.ranked = ranked;
+            this.request = request;
+            this.downstream = downstream;
+        }
+
+        void start() {
+            Attempt primary;
+            synchronized (this) {
+                primary = prepareNext();
+            }
+            scheduleHedge(primary.provider);
+            primary.launch();
+        }
+
+        private synchronized void scheduleHedge(ProviderPool.Provider<StreamingChatModel> primary) {
+            if (hedgeTimer != null) hedgeTimer.cancel(false);
+            int generation = ++hedgeGeneration;
+            hedgeTimer = HEDGE_TIMER.schedule(() -> {
+                Attempt hedge;
+                synchronized (this) {
+                    // Also checked here: the old timer may already be running when it is cancelled
+                    if (generation != hedgeGeneration || winner != null || finished || next >= ranked.size()) return;
+                    hedge = prepareNext();
+                }
+                hedge.launch();
+            }, pool.hedgeDelayNanos(primary), TimeUnit.NANOSECONDS);
+        }
+
+        private Attempt prepareNext() {
+            running++;
+            return new Attempt(ranked.get(next++));
+        }
+
+        /**
+         * Returns true if the attempt owns the response, claiming it if nobody has yet.
+         */
+        private synchronized boolean claim(Attempt attempt) {
+            if (winner == null && !finished) winner = attempt;
+            return winner == attempt;
+        }
+
+        /**
+         * A losing attempt was cancelled or finished after the winner: it no longer counts as running.
+         * Cancelled streams get no further callback, so this is the only place their slot is returned.
+         */
+        private synchronized void onAttemptDropped(Attempt attempt) {
+            if (attempt.ended) return;
+            attempt.ended = true;
+            running--;
+        }
+
+        private void onAttemptFailed(Attempt attempt, Throwable error) {
+            Attempt fallback = null;
+            boolean propagate = false;
+            synchronized (this) {
+                if (attempt.ended) return;
+                attempt.ended = true;
+                running--;
+                if (winner == attempt) {
+                    finished = true;
+                    propagate = true;
+                } else if (winner == null && running == 0 && !finished) {
+                    if (next < ranked.size()) {
+                        fallback = prepareNext();
+                    } else {
+                        finished = true;
+                        propagate = true;
+                    }
+                }
+            }
+            if (fallback != null) {
+                scheduleHedge(fallback.provider);
+                fallback.launch();
+            } else if (propagate) {
+                downstream.onError(error);
+            }
+        }
+
+        private final class Attempt implements StreamingChatResponseHandler {
+            final ProviderPool.Provider<StreamingChatModel> provider;
+            final long startNanos = System.nanoTime();
+            boolean firstToken = true;
+            volatile boolean cancelled;
+            // Guarded by the HedgedStream: set once the attempt has left the running count
+            boolean ended;
+
+            Attempt(ProviderPool.Provider<StreamingChatModel> provider) {
+                this.provider = provider;
+            }
+
+            void launch() {
+                try {
+                    provider.model().chat(request, this);
+                } catch (RuntimeException e) {
+                    onError(e);
+                }
+            }
+
+            @Override
+            public void onPartialResponse(PartialResponse partialResponse, PartialResponseContext context) {
+                if (!claim(this)) {
+                    if (!cancelled) {
+                        cancelled = true;
+                        // Also releases the loser's rate-limiter permit (see RateLimitedStreamingChatModel)
+                        context.streamingHandle().cancel();
+                        onAttemptDropped(this);
+                    }
+                    return;
+                }
+                recordFirstToken();
+                downstream.onPartialResponse(partialResponse, context);
+            }
+
+            @Override
+            public void onPartialResponse(String partialResponse) {
+                // Only used by providers without cancellation support; a loser's tokens are dropped
+                if (!claim(this)) return;
+                recordFirstToken();
+                downstream.onPartialResponse(partialResponse);
+            }
+
+            @Override
+            public void onCompleteResponse(ChatResponse completeResponse) {
+                if (!claim(this)) {
+                    onAttemptDropped(this);
+                    return;
+                }
+                recordFirstToken();
+                synchronized (HedgedStream.this) {
+                    finished = true;
+                }
+                downstream.onCompleteResponse(completeResponse);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                // A cancelled hedging loser is not the provider's fault
+                if (!cancelled) provider.stats().recordFailure();
+                onAttemptFailed(this, error);
+            }
+
+            private void recordFirstToken() {
+                if (firstToken) {
+                    firstToken = false;
+                    provider.stats().recordSuccess(System.nanoTime() - startNanos);
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RoutingStreamingChatModel" + pool;
+    }
+}
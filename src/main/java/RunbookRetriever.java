@@ -0,0 +1,172 @@
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.TokenCountEstimator;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.retriever.ContentRetriever;
+import dev.langchain4j.rag.query.Query;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * <h2>RunbookRetriever</h2>
+ * <p>
+ * A {@link ContentRetriever} over a directory of internal runbooks. Documents are ingested with
+ * {@link TextSimilarityRanker}, embedded locally with {@link HashingEmbeddingModel} and stored in a
+ * {@link SegmentIndex}. The index and a {@link SegmentSnapshot} of the segments are cached next to the
+ * documents and rebuilt only when a file changes; a cached corpus is memory-mapped, not re-parsed, and
+ * only the segments a query returns are ever decoded.
+ * </p>
+ * <b>Per query:</b>
+ * <ul>
+ * <li>Top-K search over the index (no network call)</li>
+ * <li>Segments below the minimum score are dropped</li>
+ * <li>Segments are added best-first until the token budget is spent; the budget is never exceeded</li>
+ * <li>Latency is recorded in the {@code retrieval} stage timer of {@link LatencyMetrics}; the index
+ * search alone as a {@link FlightEvents.RankingEvent}</li>
+ * </ul>
+ */
+class RunbookRetriever implements ContentRetriever {
+
+    static final String CACHE_FILE = ".guru-index.bin";
+    static final String SNAPSHOT_FILE = ".guru-segments.snap";
+
+    private static final String CACHE_PREFIX = ".guru-";
+    private static final int CACHE_MAGIC = 0x52_42_4B_32; // "RBK2"
+
+    private final EmbeddingModel embeddingModel;
+    private final TokenCountEstimator tokenCounter;
+    private final SegmentIndex index;
+    private final List<TextSegment> segments;
+    private final int topK;
+    private final int tokenBudget;
+    private final double minScore;
+    private final LatencyHistogram latency = LatencyMetrics.timer("retrieval");
+
+    RunbookRetriever(EmbeddingModel embeddingModel, TokenCountEstimator tokenCounter, SegmentIndex index,
+                     List<TextSegment> segments, int topK, int tokenBudget, double minScore) {
+        this.embeddingModel = embeddingModel;
+        this.tokenCounter = tokenCounter;
+        this.index = index;
+        this.segments = segments;
+        this.topK = topK;
+        this.tokenBudget = tokenBudget;
+        this.minScore = minScore;
+    }
+
+    /**
+     * Loads the cached index for the directory, or ingests and indexes it if the cache is missing or stale.
+     */
+    static RunbookRetriever open(Path directory, EmbeddingModel embeddingModel, TokenCountEstimator tokenCounter,
+                                 int topK, int tokenBudget, double minScore) throws IOException {
+        Path cache = directory.resolve(CACHE_FILE);
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        String fingerprint = fingerprint(directory, embeddingModel);
+
+        if (Files.isRegularFile(cache) && Files.isRegularFile(snapshot)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cache), 1 << 16))) {
+                if (in.readInt() == CACHE_MAGIC && in.readUTF().equals(fingerprint)) {
+                    SegmentIndex index = SegmentIndex.readFrom(in);
+                    SegmentSnapshot segments = SegmentSnapshot.open(snapshot);
+                    if (segments.size() == index.size()) {
+                        return new RunbookRetriever(embeddingModel, tokenCounter, index, segments.segments(),
+                                topK, tokenBudget, minScore);
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Rebuilding runbook index: " + e.getMessage());
+            }
+        }
+
+        List<TextSegment> segments = TextSimilarityRanker.fetchUniqueTextSegmentsFromDirectory(directory.toString());
+        List<float[]> vectors = FlightEvents.embedAll(embeddingModel, segments).content().stream().map(Embedding::vector).toList();
+        SegmentIndex index = SegmentIndex.build(vectors);
+
+        // The index file goes last: its fingerprint marks the pair as complete
+        SegmentSnapshot.write(snapshot, segments);
+        Path temp = cache.resolveSibling(CACHE_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(CACHE_MAGIC);
+            out.writeUTF(fingerprint);
+            index.writeTo(out);
+        }
+        Files.move(temp, cache, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new RunbookRetriever(embeddingModel, tokenCounter, index, segments, topK, tokenBudget, minScore);
+    }
+
+    int size() {
+        return segments.size();
+    }
+
+    @Override
+    public List<Content> retrieve(Query query) {
+        long start = System.nanoTime();
+        try {
+            float[] vector = embeddingModel.embed(query.text()).content().vector();
+            List<Content> contents = new ArrayList<>(topK);
+            int remaining = tokenBudget;
+            FlightEvents.RankingEvent event = new FlightEvents.RankingEvent();
+            event.begin();
+            List<SegmentIndex.Hit> hits = index.search(vector, topK);
+            event.end();
+            if (event.shouldCommit()) {
+                event.source = "index";
+                event.candidates = segments.size();
+                event.topK = topK;
+                event.dimension = vector.length;
+                event.commit();
+            }
+            for (SegmentIndex.Hit hit : hits) {
+                if (hit.score() < minScore) break;
+                TextSegment segment = segments.get(hit.id());
+                int tokens = tokenCounter.estimateTokenCountInText(segment.text());
+                // A segment that does not fit is skipped; a shorter, lower-ranked one may still fit
+                if (tokens > remaining) continue;
+                remaining -= tokens;
+                contents.add(Content.from(segment));
+            }
+            return contents;
+        } finally {
+            latency.record((System.nanoTime() - start) / 1_000);
+        }
+    }
+
+    /**
+     * Names, sizes and modification times of the indexed files plus the embedding model and segment size.
+     */
+    private static String fingerprint(Path directory, EmbeddingModel embeddingModel) throws IOException {
+        StringBuilder sb = new StringBuilder(embeddingModel.modelName())
+                .append('|').append(TextSimilarityRanker.MAX_SEGMENT_CHARS);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(Files::isRegularFile).sorted().toList()) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(CACHE_PREFIX)) continue;
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                sb.append('|').append(name)
+                        .append(':').append(attributes.size())
+                        .append(':').append(attributes.lastModifiedTime().toMillis());
+            }
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
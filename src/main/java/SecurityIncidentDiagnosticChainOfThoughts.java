@@ -1,10 +1,12 @@
 import dev.langchain4j.model.chat.ChatModel;
-import dev.langchain4j.model.openai.OpenAiChatModel;
 
 /**
  * SecurityIncidentDiagnostic: An IT Security Incident Response tool using LangChain4j.
  * This class uses a Chain-of-Thought (CoT) approach to diagnose security vulnerabilities
  * and suggest immediate remediation steps.
+ *
+ * <p>With {@code consistency.samples} above 1 the analysis is sampled that many times in parallel
+ * and decided by a {@link SelfConsistencyVoter}, which stops as soon as a majority agrees.
  */
 public class SecurityIncidentDiagnosticChainOfThoughts {
 
@@ -20,7 +22,12 @@ public class SecurityIncidentDiagnosticChainOfThoughts {
             3. Containment & Remediation: Provide a concise final answer including the likely exploit type (e.g., SQLi, RCE, XSS) and the first technical step to stop the threat.
             """;
 
-    public static void main(String[] args) {
+    private static final int SAMPLES =
+            Integer.parseInt(ModelRegistry.config("consistency.samples", "CONSISTENCY_SAMPLES", "1"));
+    private static final double TEMPERATURE =
+            Double.parseDouble(ModelRegistry.config("consistency.temperature", "CONSISTENCY_TEMPERATURE", "0.7"));
+
+    public static void main(String[] args) throws InterruptedException {
 
         //Define the Security Incident Background
         String incidentBackground = """
@@ -40,16 +47,38 @@ public class SecurityIncidentDiagnosticChainOfThoughts {
         // Combine the instructions, background, and task into a single prompt
         String finalPrompt = String.format("%s\n%s\n%s", SYSTEM_PROMPT, incidentBackground, taskDescription);
 
-        //Initialize the ChatModel (Configured for Groq/Llama-3)
-        ChatModel chatModel = OpenAiChatModel.builder()
-                .apiKey(System.getenv("GROQ_API_KEY")) // Ensure this environment variable is set
-                .baseUrl("https://api.groq.com/openai/v1")
-                .modelName("llama-3.3-70b-versatile")
-                .build();
+        //Initialize the ChatModel (Groq/Llama-3, routed with any other configured providers)
+        ChatModel chatModel = ModelRegistry.chatModel();
+
+        if (SAMPLES > 1) {
+            vote(chatModel, finalPrompt);
+            return;
+        }
 
         //Execute the call and display the structured security analysis
         System.out.println("--- IT Security Incident Analysis ---");
         String response = chatModel.chat(finalPrompt);
         System.out.println(response);
     }
+
+    /**
+     * Samples the analysis in parallel and prints the agreed exploit type, containment step and vote.
+     */
+    private static void vote(ChatModel chatModel, String finalPrompt) throws InterruptedException {
+        System.out.printf("--- IT Security Incident Analysis (%d samples, temperature %.1f) ---%n", SAMPLES, TEMPERATURE);
+        SelfConsistencyVoter.Outcome outcome = new SelfConsistencyVoter(chatModel, SAMPLES, TEMPERATURE).vote(finalPrompt);
+
+        System.out.println("Exploit type:     " + outcome.exploit());
+        System.out.println("Containment step: " + outcome.containment());
+        System.out.printf("Vote: %d of %d samples%s | %d answered, %d cancelled | %d ms%n",
+                outcome.votes(), outcome.requested(), outcome.majority() ? " (majority)" : " (plurality only)",
+                outcome.samples().size(), outcome.cancelled(), outcome.millis());
+        for (SelfConsistencyVoter.Sample sample : outcome.samples()) {
+            System.out.printf("  sample %d: %-28s %5d ms%n", sample.index() + 1, sample.exploit(), sample.millis());
+        }
+        outcome.samples().stream()
+                .filter(s -> outcome.exploit() != null && outcome.exploit().equals(s.exploit()))
+                .findFirst()
+                .ifPresent(s -> System.out.println("\n" + s.text()));
+    }
 }
\ No newline at end of file
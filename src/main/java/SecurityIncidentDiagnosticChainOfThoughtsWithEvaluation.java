@@ -1,10 +1,20 @@
 import dev.langchain4j.model.chat.ChatModel;
-import dev.langchain4j.model.openai.OpenAiChatModel;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * SecurityIncidentDiagnostic: An IT Security Incident Response tool using LangChain4j.
  * This class uses a Chain-of-Thought (CoT) approach with a secondary "Jury" LLM 
  * to validate the analysis before final output.
+ *
+ * <p>Given an incident file (first argument or {@code incidents.file}), all incidents are triaged
+ * through an {@link IncidentPipeline}, with analyst and jury running as concurrent stages.
  */
 public class SecurityIncidentDiagnosticChainOfThoughtsWithEvaluation {
 
@@ -41,13 +51,36 @@ public class SecurityIncidentDiagnosticChainOfThoughtsWithEvaluation {
             Then, provide a brief bulleted list explaining your decision.
             """;
 
-    public static void main(String[] args) {
+    // Replaces step 1 when IndicatorExtractor has already listed the indicators
+    private static final String EXTRACTED_INDICATORS_NOTE = """
+            Note: Step 1 has been done locally. The background ends with the extracted indicators instead of raw
+            log lines; in step 1 only name the indicators that matter, in one line, rather than re-extracting them.
+            """;
+
+    private static final String TASK_DESCRIPTION =
+            "Task: Identify the likely exploit type and the first technical containment step.";
+
+    private static final int ANALYST_WORKERS =
+            Integer.parseInt(ModelRegistry.config("incidents.analyst.workers", "INCIDENTS_ANALYST_WORKERS", "4"));
+    private static final int JURY_WORKERS =
+            Integer.parseInt(ModelRegistry.config("incidents.jury.workers", "INCIDENTS_JURY_WORKERS", "2"));
+    private static final int QUEUE_CAPACITY =
+            Integer.parseInt(ModelRegistry.config("incidents.queue.capacity", "INCIDENTS_QUEUE_CAPACITY", "16"));
+
+    private static final boolean EXTRACT_INDICATORS = Boolean.parseBoolean(
+            ModelRegistry.config("incidents.extract.indicators", "INCIDENTS_EXTRACT_INDICATORS", "true"));
+    private static final IndicatorExtractor EXTRACTOR = new IndicatorExtractor();
+    private static final LatencyHistogram EXTRACTION_LATENCY = LatencyMetrics.timer("indicator_extraction");
+
+    public static void main(String[] args) throws Exception {
         //Initialize the ChatModel
-        ChatModel chatModel = OpenAiChatModel.builder()
-                .apiKey(System.getenv("GROQ_API_KEY"))
-                .baseUrl("https://api.groq.com/openai/v1")
-                .modelName("llama-3.3-70b-versatile")
-                .build();
+        ChatModel chatModel = ModelRegistry.chatModel();
+
+        String incidentsFile = args.length > 0 ? args[0] : ModelRegistry.config("incidents.file", "INCIDENTS_FILE", "");
+        if (!incidentsFile.isBlank()) {
+            triage(chatModel, Path.of(incidentsFile));
+            return;
+        }
 
         //Define the Security Incident Background
         String incidentBackground = """
@@ -59,29 +92,111 @@ public class SecurityIncidentDiagnosticChainOfThoughtsWithEvaluation {
                 but data exfiltration is suspected.
                 """;
 
-        String taskDescription = "Task: Identify the likely exploit type and the first technical containment step.";
-
         //GENERATION
-        String initialPrompt = String.format("%s\n%s\n%s", ANALYST_PROMPT, incidentBackground, taskDescription);
-        String analystReport = chatModel.chat(initialPrompt);
+        String analystReport = analyze(chatModel, incidentBackground);
 
         System.out.println("PHASE 1: SOC ANALYST REPORT\n");
         System.out.println(analystReport);
         System.out.println("\n" + "=".repeat(50) + "\n");
 
         //EVALUATION (The Jury)
-        String juryPrompt = String.format(JURY_PROMPT_TEMPLATE, analystReport);
-        String juryVerdict = chatModel.chat(juryPrompt);
+        String juryVerdict = evaluate(chatModel, analystReport);
 
         System.out.println("PHASE 2: JURY VERDICT");
         System.out.println(juryVerdict);
 
         //FINAL DECISION
         System.out.println("\n" + "=".repeat(50));
-        if (juryVerdict.trim().startsWith("VERDICT: APPROVED")) {
+        if (IncidentPipeline.isApproved(juryVerdict)) {
             System.out.println("[RESULT] Analysis verified. Proceeding with remediation.");
         } else {
             System.out.println("[RESULT] Analysis rejected. Check for logic errors or hallucinations.");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Runs every incident of the file through the analyst/jury pipeline and prints one line per
+     * verdict, a status line every few seconds and the per-stage report at the end.
+     */
+    private static void triage(ChatModel chatModel, Path file) throws Exception {
+        List<IncidentPipeline.Incident> incidents = IncidentPipeline.readIncidents(file);
+        Path outputDir = Path.of(ModelRegistry.config("incidents.output.dir", "INCIDENTS_OUTPUT_DIR", "incident-reports"));
+        Files.createDirectories(outputDir);
+        System.out.printf("Triaging %d incident(s) from %s: %d analyst / %d jury workers, queues of %d%n",
+                incidents.size(), file, ANALYST_WORKERS, JURY_WORKERS, QUEUE_CAPACITY);
+
+        IncidentPipeline pipeline = new IncidentPipeline(
+                incident -> analyze(chatModel, incident.background()),
+                report -> evaluate(chatModel, report),
+                ANALYST_WORKERS, JURY_WORKERS, QUEUE_CAPACITY,
+                verdict -> record(outputDir, verdict));
+
+        ScheduledExecutorService status = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().factory());
+        status.scheduleAtFixedRate(() -> System.out.println("[status] " + pipeline.status()), 5, 5, TimeUnit.SECONDS);
+        try (pipeline) {
+            for (IncidentPipeline.Incident incident : incidents) {
+                pipeline.submit(incident);
+            }
+        } finally {
+            status.shutdownNow();
+        }
+        IncidentPipeline.printReport(System.out, pipeline.report());
+    }
+
+    private static void record(Path outputDir, IncidentPipeline.Verdict verdict) {
+        String id = verdict.incident().id();
+        if (verdict.error() != null) {
+            System.out.printf("[%s] FAILED %s%n", id, verdict.error());
+            return;
+        }
+        System.out.printf("[%s] %s%n", id, verdict.approved() ? "APPROVED" : "REJECTED");
+        Path report = outputDir.resolve(verdict.incident().fileName() + ".md").normalize();
+        if (!report.startsWith(outputDir.normalize())) {
+            System.err.printf("[%s] report path outside %s, not written%n", id, outputDir);
+            return;
+        }
+        try {
+            Files.writeString(report, """
+                    # %s
+
+                    ## Analyst report
+                    %s
+
+                    ## Jury verdict
+                    %s
+                    """.formatted(id, verdict.analysis(), verdict.verdict()));
+        } catch (IOException e) {
+            System.err.printf("[%s] could not write report: %s%n", id, e.getMessage());
+        }
+    }
+
+    /**
+     * Phase 1: the analyst's chain-of-thought report for one incident background.
+     */
+    static String analyze(ChatModel chatModel, String incidentBackground) {
+        return chatModel.chat(analystPrompt(incidentBackground, EXTRACT_INDICATORS));
+    }
+
+    /**
+     * The analyst prompt. With {@code extractIndicators}, raw log lines in the background are replaced
+     * by the indicators {@link IndicatorExtractor} finds in them; a background without log lines is used as is.
+     */
+    static String analystPrompt(String incidentBackground, boolean extractIndicators) {
+        if (extractIndicators) {
+            long start = System.nanoTime();
+            IndicatorExtractor.Compaction compaction = EXTRACTOR.compact(incidentBackground);
+            EXTRACTION_LATENCY.record((System.nanoTime() - start) / 1_000);
+            if (compaction.removedLines() > 0) {
+                return String.format("%s%s\n%s\n%s", ANALYST_PROMPT, EXTRACTED_INDICATORS_NOTE, compaction.text(), TASK_DESCRIPTION);
+            }
+        }
+        return String.format("%s\n%s\n%s", ANALYST_PROMPT, incidentBackground, TASK_DESCRIPTION);
+    }
+
+    /**
+     * Phase 2: the jury's verdict on an analyst report.
+     */
+    static String evaluate(ChatModel chatModel, String analystReport) {
+        return chatModel.chat(String.format(JURY_PROMPT_TEMPLATE, analystReport));
+    }
+}
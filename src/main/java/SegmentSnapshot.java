@@ -0,0 +1,311 @@
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.segment.TextSegment;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.UUID;
+
+/**
+ * <h2>SegmentSnapshot</h2>
+ * <p>
+ * A memory-mapped, read-only store of ingested {@link TextSegment}s. Opening a snapshot maps the file
+ * and reads a fixed-size header; nothing else is decoded until a segment is asked for, so a corpus of
+ * millions of segments is available in milliseconds instead of being re-parsed by the document readers.
+ * </p>
+ * <b>Layout</b> (big-endian, sections in this order):
+ * <ul>
+ * <li>Header – magic, version, counts and the offset of every section</li>
+ * <li>String table – {@code count + 1} offsets followed by UTF-8 bytes; metadata keys and string values
+ * are stored once each, however many segments share them</li>
+ * <li>Metadata entries – 16 bytes each: key id, value type, value (string id or numeric bits)</li>
+ * <li>Offset index – 16 bytes per segment plus a sentinel: text offset, text length, first entry</li>
+ * <li>Text – the UTF-8 segment texts, in regions of {@code 2^regionBits} bytes that no text crosses,
+ * so every region is one mapping and corpora beyond 2 GB need no special casing</li>
+ * </ul>
+ * Decoded keys and string values are cached per snapshot. A snapshot is replaced by writing a new file
+ * and moving it over the old one, never rewritten in place, because other processes may have it mapped.
+ */
+final class SegmentSnapshot {
+
+    private static final int MAGIC = 0x53_53_4E_50; // "SSNP"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int ENTRY_BYTES = 16;
+    private static final int INDEX_BYTES = 16;
+    static final int DEFAULT_REGION_BITS = 30;
+
+    private static final int TYPE_STRING = 0;
+    private static final int TYPE_INTEGER = 1;
+    private static final int TYPE_LONG = 2;
+    private static final int TYPE_FLOAT = 3;
+    private static final int TYPE_DOUBLE = 4;
+    private static final int TYPE_UUID = 5;
+
+    private final int size;
+    private final int regionBits;
+    private final ByteBuffer tables;       // header, strings, entries and index
+    private final ByteBuffer[] regions;    // text
+    private final int stringsAt;
+    private final int stringBytesAt;
+    private final int entriesAt;
+    private final int indexAt;
+    private final String[] strings;        // decoded on first use
+
+    private SegmentSnapshot(int size, int stringCount, int regionBits, ByteBuffer tables, ByteBuffer[] regions,
+                            int stringsAt, int entriesAt, int indexAt) {
+        this.size = size;
+        this.regionBits = regionBits;
+        this.tables = tables;
+        this.regions = regions;
+        this.stringsAt = stringsAt;
+        this.stringBytesAt = stringsAt + (stringCount + 1) * Integer.BYTES;
+        this.entriesAt = entriesAt;
+        this.indexAt = indexAt;
+        this.strings = new String[stringCount];
+    }
+
+    /**
+     * Writes the segments to {@code file} through a temporary sibling and an atomic move.
+     */
+    static void write(Path file, List<TextSegment> segments) throws IOException {
+        write(file, segments, DEFAULT_REGION_BITS);
+    }
+
+    static void write(Path file, List<TextSegment> segments, int regionBits) throws IOException {
+        long regionSize = 1L << regionBits;
+        Map<String, Integer> stringIds = new LinkedHashMap<>();
+        List<long[]> entries = new ArrayList<>();
+        byte[][] texts = new byte[segments.size()][];
+        long[] textOffsets = new long[segments.size() + 1];
+        int[] firstEntries = new int[segments.size() + 1];
+
+        long textPosition = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            TextSegment segment = segments.get(i);
+            firstEntries[i] = entries.size();
+            for (Map.Entry<String, Object> entry : segment.metadata().toMap().entrySet()) {
+                entries.add(entry(stringIds, entry.getKey(), entry.getValue()));
+            }
+            byte[] text = segment.text().getBytes(StandardCharsets.UTF_8);
+            if (text.length > regionSize) {
+                throw new IllegalArgumentException("Segment " + i + " is larger than a region of " + regionSize + " bytes");
+            }
+            // Pad to the next region rather than let a text straddle two mappings
+            if ((textPosition & (regionSize - 1)) + text.length > regionSize) {
+                textPosition = (textPosition + regionSize - 1) & -regionSize;
+            }
+            texts[i] = text;
+            textOffsets[i] = textPosition;
+            textPosition += text.length;
+        }
+        textOffsets[segments.size()] = textPosition;
+        firstEntries[segments.size()] = entries.size();
+
+        byte[][] strings = new byte[stringIds.size()][];
+        int stringBytes = 0;
+        int s = 0;
+        for (String string : stringIds.keySet()) {
+            strings[s] = string.getBytes(StandardCharsets.UTF_8);
+            stringBytes += strings[s++].length;
+        }
+
+        long stringsAt = HEADER_BYTES;
+        long entriesAt = stringsAt + (strings.length + 1L) * Integer.BYTES + stringBytes;
+        long indexAt = entriesAt + (long) entries.size() * ENTRY_BYTES;
+        long textAt = indexAt + (segments.size() + 1L) * INDEX_BYTES;
+        textAt = (textAt + 7) & -8;
+        if (textAt > Integer.MAX_VALUE) throw new IllegalArgumentException("Too many segments for one snapshot");
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(segments.size());
+            out.writeInt(strings.length);
+            out.writeInt(entries.size());
+            out.writeInt(regionBits);
+            out.writeLong(stringsAt);
+            out.writeLong(entriesAt);
+            out.writeLong(indexAt);
+            out.writeLong(textAt);
+            out.writeLong(textPosition);
+            out.write(new byte[HEADER_BYTES - out.size()]);
+
+            int offset = 0;
+            for (byte[] string : strings) {
+                out.writeInt(offset);
+                offset += string.length;
+            }
+            out.writeInt(offset);
+            for (byte[] string : strings) out.write(string);
+
+            for (long[] entry : entries) {
+                out.writeInt((int) entry[0]);
+                out.writeInt((int) entry[1]);
+                out.writeLong(entry[2]);
+            }
+            for (int i = 0; i <= segments.size(); i++) {
+                out.writeLong(textOffsets[i]);
+                out.writeInt(i < segments.size() ? texts[i].length : 0);
+                out.writeInt(firstEntries[i]);
+            }
+            out.write(new byte[(int) (textAt - indexAt - (segments.size() + 1L) * INDEX_BYTES)]);
+
+            long written = 0;
+            for (int i = 0; i < texts.length; i++) {
+                if (textOffsets[i] > written) {
+                    out.write(new byte[(int) (textOffsets[i] - written)]);
+                    written = textOffsets[i];
+                }
+                out.write(texts[i]);
+                written += texts[i].length;
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static long[] entry(Map<String, Integer> stringIds, String key, Object value) {
+        int keyId = stringIds.computeIfAbsent(key, k -> stringIds.size());
+        return switch (value) {
+            case String string -> new long[]{keyId, TYPE_STRING, stringIds.computeIfAbsent(string, k -> stringIds.size())};
+            case Integer number -> new long[]{keyId, TYPE_INTEGER, number};
+            case Long number -> new long[]{keyId, TYPE_LONG, number};
+            case Float number -> new long[]{keyId, TYPE_FLOAT, Float.floatToIntBits(number)};
+            case Double number -> new long[]{keyId, TYPE_DOUBLE, Double.doubleToLongBits(number)};
+            case UUID uuid -> new long[]{keyId, TYPE_UUID, stringIds.computeIfAbsent(uuid.toString(), k -> stringIds.size())};
+            default -> throw new IllegalArgumentException("Unsupported metadata type for '" + key + "': " + value.getClass());
+        };
+    }
+
+    /**
+     * Maps a snapshot. Only the header is read; segments are decoded when they are accessed.
+     */
+    static SegmentSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) throw new IOException("Not a segment snapshot: " + file);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining()) channel.read(header, header.position());
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("Not a segment snapshot: " + file);
+            }
+            int size = header.getInt(8);
+            int stringCount = header.getInt(12);
+            int regionBits = header.getInt(20);
+            long stringsAt = header.getLong(24);
+            long entriesAt = header.getLong(32);
+            long indexAt = header.getLong(40);
+            long textAt = header.getLong(48);
+            long textLength = header.getLong(56);
+            if (textAt > Integer.MAX_VALUE || textAt + textLength != channel.size()) {
+                throw new IOException("Truncated segment snapshot: " + file);
+            }
+
+            MappedByteBuffer tables = channel.map(FileChannel.MapMode.READ_ONLY, 0, textAt);
+            long regionSize = 1L << regionBits;
+            ByteBuffer[] regions = new ByteBuffer[(int) ((textLength + regionSize - 1) >>> regionBits)];
+            for (int r = 0; r < regions.length; r++) {
+                long start = (long) r << regionBits;
+                regions[r] = channel.map(FileChannel.MapMode.READ_ONLY, textAt + start, Math.min(regionSize, textLength - start));
+            }
+            return new SegmentSnapshot(size, stringCount, regionBits, tables, regions,
+                    (int) stringsAt, (int) entriesAt, (int) indexAt);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * The text of segment {@code i}, decoded from the mapping on every call.
+     */
+    String text(int i) {
+        int record = indexRecord(i);
+        long offset = tables.getLong(record);
+        int length = tables.getInt(record + 8);
+        if (length == 0) return "";
+        byte[] bytes = new byte[length];
+        regions[(int) (offset >>> regionBits)].get((int) (offset & ((1L << regionBits) - 1)), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    Metadata metadata(int i) {
+        int record = indexRecord(i);
+        int from = tables.getInt(record + 12);
+        int to = tables.getInt(record + INDEX_BYTES + 12);
+        Map<String, Object> values = new HashMap<>();
+        for (int e = from; e < to; e++) {
+            int at = entriesAt + e * ENTRY_BYTES;
+            String key = string(tables.getInt(at));
+            long value = tables.getLong(at + 8);
+            values.put(key, switch (tables.getInt(at + 4)) {
+                case TYPE_STRING -> string((int) value);
+                case TYPE_INTEGER -> (int) value;
+                case TYPE_LONG -> value;
+                case TYPE_FLOAT -> Float.intBitsToFloat((int) value);
+                case TYPE_DOUBLE -> Double.longBitsToDouble(value);
+                case TYPE_UUID -> UUID.fromString(string((int) value));
+                default -> throw new IllegalStateException("Corrupt metadata entry " + e);
+            });
+        }
+        return Metadata.from(values);
+    }
+
+    TextSegment segment(int i) {
+        return TextSegment.from(text(i), metadata(i));
+    }
+
+    /**
+     * A read-only list view; each {@code get} decodes one segment.
+     */
+    List<TextSegment> segments() {
+        return new Segments();
+    }
+
+    private int indexRecord(int i) {
+        if (i < 0 || i >= size) throw new IndexOutOfBoundsException(i);
+        return indexAt + i * INDEX_BYTES;
+    }
+
+    private String string(int id) {
+        String string = strings[id];
+        if (string == null) {
+            // Racing threads decode the same immutable value, so the unsynchronised cache is safe
+            int start = tables.getInt(stringsAt + id * Integer.BYTES);
+            int end = tables.getInt(stringsAt + (id + 1) * Integer.BYTES);
+            byte[] bytes = new byte[end - start];
+            tables.get(stringBytesAt + start, bytes);
+            string = new String(bytes, StandardCharsets.UTF_8);
+            strings[id] = string;
+        }
+        return string;
+    }
+
+    private final class Segments extends AbstractList<TextSegment> implements RandomAccess {
+        @Override
+        public TextSegment get(int index) {
+            return segment(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <h2>SelfConsistencyVoter</h2>
+ * <p>
+ * Self-consistency for incident analysis: the same prompt is sampled several times in parallel,
+ * each answer's exploit type and containment step are extracted, and the exploit type most samples
+ * agree on wins. As soon as one exploit type holds a strict majority of the requested samples the
+ * vote is decided, and the requests still running are cancelled, so a clear case costs little more
+ * than the latency of the fastest majority of calls.
+ * </p>
+ * <b>Features:</b>
+ * <ul>
+ * <li>Samples run concurrently on virtual threads, with a configurable temperature for diversity</li>
+ * <li>Exploit types are normalised (e.g. "Log4Shell" and "JNDI injection" count as one vote)</li>
+ * <li>Falls back to the plurality when no majority forms; failed samples simply cast no vote</li>
+ * </ul>
+ */
+class SelfConsistencyVoter {
+
+    /**
+     * Appended to the analyst prompt so every sample ends with machine-readable answers.
+     */
+    static final String ANSWER_FORMAT = """
+
+            End your response with exactly these two lines:
+            EXPLOIT: <the likely exploit type, in a few words>
+            CONTAINMENT: <the first technical containment step, in one sentence>
+            """;
+
+    private static final Pattern EXPLOIT_LINE = Pattern.compile("(?im)^\\W*exploit(?: type)?\\W*:\\s*(.+)$");
+    private static final Pattern CONTAINMENT_LINE = Pattern.compile("(?im)^\\W*containment(?: step)?\\W*:\\s*(.+)$");
+
+    // Keyword pattern -> canonical exploit type; the first match wins, so specific ones come first
+    private static final Map<Pattern, String> EXPLOIT_SYNONYMS = new LinkedHashMap<>();
+
+    static {
+        synonym("jndi injection (log4shell)", "log4shell", "log4j", "jndi", "ldap injection");
+        synonym("sql injection", "sql injection", "sqli");
+        synonym("xss", "cross.site scripting", "xss");
+        synonym("ssrf", "server.side request forgery", "ssrf");
+        synonym("insecure deserialization", "deseriali[sz]\\w*");
+        synonym("credential attack", "credential stuffing", "brute.force", "password spray\\w*");
+        synonym("ransomware", "ransomware");
+        synonym("command injection", "command injection", "os injection");
+        synonym("remote code execution", "remote code execution", "rce");
+    }
+
+    private static void synonym(String canonical, String... keywords) {
+        for (String keyword : keywords) {
+            EXPLOIT_SYNONYMS.put(Pattern.compile("\\b" + keyword + "\\b"), canonical);
+        }
+    }
+
+    /**
+     * One model answer and what was extracted from it; {@code exploit} is null if nothing was found.
+     */
+    record Sample(int index, String text, String exploit, String containment, long millis) {
+    }
+
+    /**
+     * Result of a vote. {@code majority} tells whether the winner holds more than half of the
+     * requested samples; {@code cancelled} counts requests stopped because the vote was already decided.
+     */
+    record Outcome(String exploit, String containment, int votes, int requested, boolean majority,
+                   int cancelled, List<Sample> samples, long millis) {
+    }
+
+    private record Failure(int index, RuntimeException error) {
+    }
+
+    private final ChatModel model;
+    private final int samples;
+    private final double temperature;
+    private final LatencyHistogram sampleLatency = LatencyMetrics.timer("consistency_sample");
+    private final LatencyHistogram voteLatency = LatencyMetrics.timer("consistency_vote");
+
+    SelfConsistencyVoter(ChatModel model, int samples, double temperature) {
+        if (samples < 1) throw new IllegalArgumentException("At least one sample is required");
+        this.model = model;
+        this.samples = samples;
+        this.temperature = temperature;
+    }
+
+    /**
+     * Samples the prompt (with {@link #ANSWER_FORMAT} appended) until a majority agrees or all samples are in.
+     *
+     * @throws IllegalStateException If every sample failed.
+     */
+    Outcome vote(String prompt) throws InterruptedException {
+        long start = System.nanoTime();
+        ChatRequest request = ChatRequest.builder()
+                .messages(UserMessage.from(prompt + ANSWER_FORMAT))
+                .temperature(temperature)
+                .build();
+        int majority = samples / 2 + 1;
+
+        LinkedBlockingQueue<Object> finished = new LinkedBlockingQueue<>();
+        List<Sample> collected = new ArrayList<>();
+        Map<String, Integer> votes = new HashMap<>();
+        String winner = null;
+        RuntimeException lastError = null;
+        int cancelled = 0;
+
+        // Not closed with try-with-resources: close() would wait for the calls we are about to cancel
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            List<Future<?>> futures = new ArrayList<>(samples);
+            for (int i = 0; i < samples; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> {
+                    long sampleStart = System.nanoTime();
+                    try {
+                        String text = model.chat(request).aiMessage().text();
+                        long micros = (System.nanoTime() - sampleStart) / 1_000;
+                        sampleLatency.record(micros);
+                        finished.add(new Sample(index, text, exploitType(text), containment(text), micros / 1_000));
+                    } catch (RuntimeException e) {
+                        finished.add(new Failure(index, e));
+                    }
+                }));
+            }
+
+            // A sample is queued just before its future completes, so reported ones are not cancelled
+            boolean[] reported = new boolean[samples];
+            for (int received = 0; received < samples; received++) {
+                Object next = finished.take();
+                if (next instanceof Failure failure) {
+                    reported[failure.index()] = true;
+                    lastError = failure.error();
+                    continue;
+                }
+                Sample sample = (Sample) next;
+                reported[sample.index()] = true;
+                collected.add(sample);
+                if (sample.exploit() != null && votes.merge(sample.exploit(), 1, Integer::sum) >= majority) {
+                    winner = sample.exploit();
+                    break;
+                }
+            }
+
+            if (winner != null) {
+                for (int i = 0; i < samples; i++) {
+                    if (!reported[i] && futures.get(i).cancel(true)) cancelled++;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (collected.isEmpty()) {
+            throw new IllegalStateException("All " + samples + " samples failed", lastError);
+        }
+        if (winner == null) {
+            // No majority: the plurality wins, ties go to the exploit type that was seen first
+            int best = 0;
+            for (Sample sample : collected) {
+                int count = sample.exploit() == null ? 0 : votes.get(sample.exploit());
+                if (count > best) {
+                    best = count;
+                    winner = sample.exploit();
+                }
+            }
+        }
+
+        String chosen = winner;
+        String containment = collected.stream()
+                .filter(s -> chosen != null && chosen.equals(s.exploit()) && s.containment() != null)
+                .map(Sample::containment)
+                .findFirst()
+                .orElse(null);
+        int winnerVotes = winner == null ? 0 : votes.get(winner);
+        long micros = (System.nanoTime() - start) / 1_000;
+        voteLatency.record(micros);
+        return new Outcome(winner, containment, winnerVotes, samples, winnerVotes >= majority, cancelled,
+                List.copyOf(collected), micros / 1_000);
+    }
+
+    /**
+     * The normalised exploit type of an answer: the {@code EXPLOIT:} line if present, otherwise the
+     * first known exploit keyword anywhere in the text; {@code null} if neither is found.
+     */
+    static String exploitType(String text) {
+        Matcher line = EXPLOIT_LINE.matcher(text);
+        String candidate = line.find() ? line.group(1) : null;
+        String canonical = canonical(candidate != null ? candidate : text);
+        if (canonical != null) return canonical;
+        if (candidate == null) return null;
+        String normalized = candidate.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+        return normalized.isEmpty() ? null : normalized;
+    }
+
+    private static String canonical(String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (Map.Entry<Pattern, String> entry : EXPLOIT_SYNONYMS.entrySet()) {
+            if (entry.getKey().matcher(lower).find()) return entry.getValue();
+        }
+        return null;
+    }
+
+    static String containment(String text) {
+        Matcher line = CONTAINMENT_LINE.matcher(text);
+        return line.find() ? line.group(1).strip() : null;
+    }
+}
@@ -0,0 +1,88 @@
+import dev.langchain4j.model.chat.ChatModel;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * SiemLogTriage: scans web-server/SIEM logs for attack indicators and escalates only the resulting
+ * incidents to the analyst and jury, so the number of LLM calls follows the number of incidents,
+ * not the number of log lines.
+ *
+ * <p>Usage: {@code SiemLogTriage <log file>}. With {@code siem.follow.seconds} set, the file is
+ * tailed and every scan only covers the lines appended since the previous one.
+ */
+public class SiemLogTriage {
+
+    private static final int THREADS = Integer.parseInt(ModelRegistry.config("siem.threads", "SIEM_THREADS",
+            String.valueOf(Runtime.getRuntime().availableProcessors())));
+    private static final long MIN_SCORE =
+            Long.parseLong(ModelRegistry.config("siem.min.score", "SIEM_MIN_SCORE", "20"));
+    private static final int MAX_ESCALATIONS =
+            Integer.parseInt(ModelRegistry.config("siem.max.escalations", "SIEM_MAX_ESCALATIONS", "5"));
+    private static final long FOLLOW_SECONDS =
+            Long.parseLong(ModelRegistry.config("siem.follow.seconds", "SIEM_FOLLOW_SECONDS", "0"));
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Usage: SiemLogTriage <log file>");
+            return;
+        }
+        Path file = Path.of(args[0]);
+        LogScanner scanner = new LogScanner(LogScanner.DEFAULT_INDICATORS, THREADS);
+        ChatModel chatModel = ModelRegistry.chatModel();
+
+        long offset = 0;
+        long lines = 0;
+        do {
+            LogScanner.ScanResult result = scanner.scan(file, offset, lines);
+            offset = result.endOffset();
+            lines = result.restarted() ? result.lines() : lines + result.lines();
+            if (result.bytes() > 0) {
+                printScan(file, result);
+                escalate(chatModel, file, result.incidents());
+            }
+            if (FOLLOW_SECONDS > 0) Thread.sleep(FOLLOW_SECONDS * 1_000);
+        } while (FOLLOW_SECONDS > 0);
+
+        System.out.println("\n" + LatencyMetrics.report());
+    }
+
+    private static void printScan(Path file, LogScanner.ScanResult result) {
+        System.out.printf("%n--- [LOG SCAN] %s ---%n", file.getFileName());
+        System.out.printf("%,d lines, %.1f MB in %d ms (%.0f MB/s on %d threads) | %,d matching lines | %d source(s)%n",
+                result.lines(), result.bytes() / 1e6, result.nanos() / 1_000_000, result.megabytesPerSecond(),
+                THREADS, result.matchedLines(), result.incidents().size());
+        for (LogScanner.Incident incident : result.incidents()) {
+            System.out.printf("  %-15s score %6d | %,6d lines (%d-%d) | %s%n", incident.source(), incident.score(),
+                    incident.matchedLines(), incident.firstLine(), incident.lastLine(), incident.indicators());
+        }
+    }
+
+    /**
+     * Sends the highest-scoring incidents through the analyst/jury pipeline.
+     */
+    private static void escalate(ChatModel chatModel, Path file, List<LogScanner.Incident> incidents) throws InterruptedException {
+        List<LogScanner.Incident> aboveThreshold = incidents.stream()
+                .filter(i -> i.score() >= MIN_SCORE)
+                .toList();
+        List<LogScanner.Incident> escalated = aboveThreshold.stream()
+                .limit(MAX_ESCALATIONS)
+                .toList();
+        System.out.printf("Escalating %d incident(s) with score >= %d to the analyst (%d below the threshold, %d over the limit of %d)%n",
+                escalated.size(), MIN_SCORE, incidents.size() - aboveThreshold.size(),
+                aboveThreshold.size() - escalated.size(), MAX_ESCALATIONS);
+        if (escalated.isEmpty()) return;
+
+        try (IncidentPipeline pipeline = new IncidentPipeline(
+                incident -> SecurityIncidentDiagnosticChainOfThoughtsWithEvaluation.analyze(chatModel, incident.background()),
+                report -> SecurityIncidentDiagnosticChainOfThoughtsWithEvaluation.evaluate(chatModel, report),
+                Math.min(4, escalated.size()), 2, 16,
+                verdict -> System.out.printf("%n=== %s: %s ===%n%s%n", verdict.incident().id(),
+                        verdict.error() != null ? "FAILED " + verdict.error() : verdict.approved() ? "APPROVED" : "REJECTED",
+                        verdict.analysis() == null ? "" : verdict.analysis()))) {
+            for (LogScanner.Incident incident : escalated) {
+                pipeline.submit(new IncidentPipeline.Incident("SIEM-" + incident.source(), incident.background(file)));
+            }
+        }
+    }
+}
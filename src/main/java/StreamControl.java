@@ -0,0 +1,263 @@
+import dev.langchain4j.model.chat.response.PartialResponse;
+import dev.langchain4j.model.chat.response.PartialResponseContext;
+import dev.langchain4j.model.chat.response.StreamingHandle;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * <h2>StreamControl</h2>
+ * <p>
+ * Early termination for one streamed response. A stream can be stopped by the user, by a
+ * per-request deadline or by a stop sequence in the generated text; in every case the provider's
+ * {@link StreamingHandle} is cancelled, which closes the HTTP response, so the model stops
+ * generating and nobody pays for tokens that would be thrown away. The caller's wait ends at once,
+ * without a completion callback from the model.
+ * </p>
+ * <b>Features:</b>
+ * <ul>
+ * <li>Thread-safe {@link #cancel}: from the console thread, the deadline timer or the callback itself</li>
+ * <li>Stop sequences are found across chunk boundaries; text that might start one is held back,
+ * so the stop sequence itself is never displayed</li>
+ * <li>Tokens saved – the unused part of the output budget – are counted per reason in
+ * {@link LatencyMetrics} and emitted as {@link FlightEvents.StreamCancelledEvent}</li>
+ * </ul>
+ * The handle only arrives with the first partial response: a stream cancelled before that is
+ * released immediately, and its connection is closed as soon as the first token shows up.
+ */
+final class StreamControl {
+
+    /**
+     * Why a stream was stopped early.
+     */
+    enum Reason {
+        /** The user pressed the interrupt key or typed the stop command. */
+        INTERRUPTED,
+        /** The user asked a new question while the answer was still streaming. */
+        SUPERSEDED,
+        /** The console input was closed. */
+        DISCONNECTED,
+        /** The per-request deadline passed. */
+        DEADLINE,
+        /** A stop sequence appeared in the generated text. */
+        STOP_SEQUENCE;
+
+        /**
+         * Whether the user stopped the answer; text received but not yet shown is then dropped as well.
+         */
+        boolean byUser() {
+            return this == INTERRUPTED || this == SUPERSEDED || this == DISCONNECTED;
+        }
+    }
+
+    /**
+     * An early termination: tokens received until then and the output budget they left unused.
+     */
+    record Cancellation(Reason reason, int outputTokens, int tokensSaved, long millis) {
+    }
+
+    private static final ScheduledExecutorService DEADLINES = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "stream-deadline");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final int maxTokens;
+    private final List<String> stopSequences;
+    private final long startNanos = System.nanoTime();
+    private final CountDownLatch done = new CountDownLatch(1);
+    private final FlightEvents.StreamCancelledEvent event = new FlightEvents.StreamCancelledEvent();
+    private final ScheduledFuture<?> deadline;
+
+    // Guarded by this; the count is also read when another thread cancels
+    private final StringBuilder held = new StringBuilder();
+    private volatile int outputTokens;
+
+    private volatile StreamingHandle handle;
+    private volatile Cancellation cancellation;
+    private boolean finished;
+
+    private StreamControl(int maxTokens, Duration deadline, List<String> stopSequences) {
+        this.maxTokens = maxTokens;
+        this.stopSequences = stopSequences.stream().filter(s -> !s.isEmpty()).toList();
+        event.begin();
+        this.deadline = deadline.isZero() || deadline.isNegative() ? null
+                : DEADLINES.schedule(() -> cancel(Reason.DEADLINE), deadline.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Starts controlling a stream; the deadline counts from now.
+     *
+     * @param maxTokens     Output budget of the request, the basis for the tokens saved.
+     * @param deadline      Time until the stream is cancelled; zero for none.
+     * @param stopSequences Texts that end the answer; they are not shown themselves.
+     */
+    static StreamControl start(int maxTokens, Duration deadline, List<String> stopSequences) {
+        return new StreamControl(maxTokens, deadline, stopSequences);
+    }
+
+    /**
+     * Takes a partial response on the model's callback thread and hands the part of it that can be
+     * shown now to {@code display}: nothing while text is held back for a possible stop sequence or
+     * once the stream is cancelled. Display happens under the same lock as {@link #cancel}, so text
+     * accepted before a cancellation – including the text before a stop sequence – is always
+     * displayed before the waiter is released.
+     */
+    void accept(PartialResponse partialResponse, PartialResponseContext context, Consumer<String> display) {
+        handle = context.streamingHandle();
+        synchronized (this) {
+            if (cancellation == null) {
+                if (show(partialResponse.text(), display)) cancel(Reason.STOP_SEQUENCE);
+                return;
+            }
+        }
+        // Cancelled before the handle was known, or a chunk that was already on its way
+        handle.cancel();
+    }
+
+    /**
+     * The model finished on its own: the text still held back goes to {@code display}.
+     *
+     * @return {@code false} if the stream had been cancelled, in which case the caller has already
+     * wrapped up the turn.
+     */
+    boolean complete(Consumer<String> display) {
+        return finish(display);
+    }
+
+    /**
+     * The stream failed. Returns {@code false} if it had been cancelled, in which case the error is
+     * just the closed connection and should not be reported.
+     */
+    boolean fail() {
+        return finish(text -> { });
+    }
+
+    /**
+     * Stops the stream unless it has already ended.
+     *
+     * @return {@code true} if this call stopped it.
+     */
+    boolean cancel(Reason reason) {
+        Cancellation result;
+        synchronized (this) {
+            if (finished) return false;
+            finished = true;
+            int tokens = outputTokens;
+            result = new Cancellation(reason, tokens, Math.max(0, maxTokens - tokens),
+                    (System.nanoTime() - startNanos) / 1_000_000);
+            cancellation = result;
+        }
+        StreamingHandle current = handle;
+        if (current != null) current.cancel();
+        if (deadline != null) deadline.cancel(false);
+        record(result);
+        done.countDown();
+        return true;
+    }
+
+    /**
+     * How the stream was stopped early, or {@code null} if it was not.
+     */
+    Cancellation cancellation() {
+        return cancellation;
+    }
+
+    /**
+     * Waits until the stream has completed, failed or been cancelled.
+     *
+     * @return {@code false} if the timeout elapsed first.
+     */
+    boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        return done.await(timeout, unit);
+    }
+
+    void await() throws InterruptedException {
+        done.await();
+    }
+
+    private boolean finish(Consumer<String> display) {
+        synchronized (this) {
+            if (finished) return false;
+            finished = true;
+            if (!held.isEmpty()) display.accept(held.toString());
+            held.setLength(0);
+        }
+        if (deadline != null) deadline.cancel(false);
+        done.countDown();
+        return true;
+    }
+
+    /**
+     * Counts the text and displays what cannot be the start of a stop sequence.
+     *
+     * @return {@code true} if a stop sequence was found; the text before it has been displayed.
+     */
+    private boolean show(String text, Consumer<String> display) {
+        outputTokens += TokenCounter.INSTANCE.count(text);
+        if (stopSequences.isEmpty()) {
+            if (!text.isEmpty()) display.accept(text);
+            return false;
+        }
+        held.append(text);
+        int stop = firstStop();
+        int shown = stop >= 0 ? stop : held.length() - longestStopPrefix();
+        if (shown > 0) display.accept(held.substring(0, shown));
+        if (stop >= 0) {
+            held.setLength(0);
+            return true;
+        }
+        held.delete(0, shown);
+        return false;
+    }
+
+    private int firstStop() {
+        int first = -1;
+        for (String stop : stopSequences) {
+            int at = held.indexOf(stop);
+            if (at >= 0 && (first < 0 || at < first)) first = at;
+        }
+        return first;
+    }
+
+    // Length of the longest tail of the held text that is the beginning of a stop sequence
+    private int longestStopPrefix() {
+        int longest = 0;
+        for (String stop : stopSequences) {
+            for (int length = Math.min(stop.length() - 1, held.length()); length > longest; length--) {
+                if (endsWith(stop, length)) {
+                    longest = length;
+                    break;
+                }
+            }
+        }
+        return longest;
+    }
+
+    private boolean endsWith(String stop, int length) {
+        int offset = held.length() - length;
+        for (int i = 0; i < length; i++) {
+            if (held.charAt(offset + i) != stop.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private void record(Cancellation result) {
+        String reason = result.reason().name().toLowerCase();
+        LatencyMetrics.counter("stream_cancelled_" + reason).increment();
+        LatencyMetrics.counter("stream_tokens_saved").add(result.tokensSaved());
+        event.end();
+        if (event.shouldCommit()) {
+            event.reason = reason;
+            event.outputTokens = result.outputTokens();
+            event.tokensSaved = result.tokensSaved();
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * <h2>StreamingCompletion</h2>
+ * <p>
+ * Runs one streaming request for callers that still want a blocking result, such as batch jobs:
+ * every partial response is handed to a consumer as it arrives (file, console, ...), the turn is
+ * timed with {@link LatencyMetrics}, and the call returns once the response is complete.
+ * </p>
+ */
+final class StreamingCompletion {
+
+    /**
+     * Complete response plus the timings of the turn.
+     */
+    record Result(ChatResponse response, LatencyMetrics.TurnSummary summary) {
+        String text() {
+            return response.aiMessage().text();
+        }
+    }
+
+    private StreamingCompletion() {
+    }
+
+    /**
+     * Streams the request and blocks until the model has finished.
+     *
+     * @param onToken Receives every partial response, in order, on the model's callback thread.
+     * @throws InterruptedException If the caller is interrupted while waiting.
+     * @throws RuntimeException     The model's error, unwrapped.
+     */
+    static Result stream(StreamingChatModel model, List<ChatMessage> messages, Consumer<String> onToken,
+                         LatencyMetrics.Turn turn) throws InterruptedException {
+        CompletableFuture<Result> result = new CompletableFuture<>();
+        model.chat(ChatRequest.builder().messages(messages).build(), new StreamingChatResponseHandler() {
+            @Override
+            public void onPartialResponse(String partialResponse) {
+                turn.onToken();
+                onToken.accept(partialResponse);
+            }
+
+            @Override
+            public void onCompleteResponse(ChatResponse completeResponse) {
+                result.complete(new Result(completeResponse, turn.complete(completeResponse)));
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                result.completeExceptionally(error);
+            }
+        });
+
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
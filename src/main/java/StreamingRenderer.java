@@ -0,0 +1,239 @@
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * <h2>StreamingRenderer</h2>
+ * <p>
+ * Decouples terminal rendering from the LLM callback thread. Partial responses are handed
+ * over through a bounded queue and drawn by a dedicated virtual thread, so typing effects
+ * (sleeps and flushes) never stall the HTTP client that is reading the network stream.
+ * </p>
+ * <b>Features:</b>
+ * <ul>
+ * <li>Bounded token queue with a catch-up mode when the display falls behind</li>
+ * <li>Pluggable {@link Pacer} for teletype or human-like typing effects</li>
+ * <li>Batched writes: characters are flushed once per frame instead of once per character</li>
+ * <li>Separate network and display timings, so TTFT reflects the model and not the animation</li>
+ * <li>{@link #abort()} drops what is still queued when the user interrupts the answer</li>
+ * </ul>
+ */
+class StreamingRenderer {
+
+    /**
+     * Decides how long the renderer waits after drawing a character.
+     */
+    @FunctionalInterface
+    interface Pacer {
+        Pacer NONE = c -> 0;
+
+        long delayMillis(char c);
+
+        static Pacer fixed(long delayMs) {
+            return c -> delayMs;
+        }
+    }
+
+    /**
+     * Timing snapshot of one streamed response, captured with {@link System#nanoTime()}.
+     * Receipt times come from the callback thread, display times from the renderer thread.
+     */
+    record StreamTimings(long startNanos,
+                         long firstTokenReceivedNanos,
+                         long lastTokenReceivedNanos,
+                         long firstTokenDisplayedNanos,
+                         long displayCompletedNanos,
+                         int tokenCount) {
+
+        /** Time to first token as seen on the network. */
+        long ttftMillis() {
+            return firstTokenReceivedNanos == 0 ? -1 : (firstTokenReceivedNanos - startNanos) / 1_000_000;
+        }
+
+        /** Time until the model finished sending, independent of any typing effect. */
+        long networkMillis() {
+            return lastTokenReceivedNanos == 0 ? -1 : (lastTokenReceivedNanos - startNanos) / 1_000_000;
+        }
+
+        /** Time until the last character was drawn on the terminal. */
+        long displayMillis() {
+            return displayCompletedNanos == 0 ? -1 : (displayCompletedNanos - startNanos) / 1_000_000;
+        }
+    }
+
+    private static final int DEFAULT_CAPACITY = 4096;
+
+    // Characters whose combined delay stays below one frame are written together
+    private static final long FRAME_MILLIS = 16;
+
+    // Identity-compared marker that tells the renderer the stream has ended
+    private static final String END = new String("<end-of-stream>");
+
+    private final PrintStream out;
+    private final Pacer pacer;
+    private final BlockingQueue<String> queue;
+    private final Thread worker;
+
+    private final long startNanos = System.nanoTime();
+    private volatile long firstTokenReceivedNanos;
+    private volatile long lastTokenReceivedNanos;
+    private volatile long firstTokenDisplayedNanos;
+    private volatile long displayCompletedNanos;
+    private volatile int tokenCount;
+    private volatile boolean catchUp;
+    private volatile boolean aborted;
+
+    private StreamingRenderer(PrintStream out, Pacer pacer, int capacity) {
+        this.out = out;
+        this.pacer = pacer;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.worker = Thread.ofVirtual().name("stream-renderer").start(this::drain);
+    }
+
+    /**
+     * Starts a renderer for a single response. The request start time is taken now.
+     */
+    static StreamingRenderer start(PrintStream out, Pacer pacer) {
+        return new StreamingRenderer(out, pacer, DEFAULT_CAPACITY);
+    }
+
+    static StreamingRenderer start(PrintStream out, Pacer pacer, int capacity) {
+        return new StreamingRenderer(out, pacer, capacity);
+    }
+
+    /**
+     * Accepts a partial response. Safe to call from the model callback thread: it only
+     * blocks if the queue is full, and in that case the renderer stops pacing to catch up.
+     */
+    void onToken(String token) {
+        if (aborted) return;
+        long now = System.nanoTime();
+        if (firstTokenReceivedNanos == 0) {
+            firstTokenReceivedNanos = now;
+        }
+        lastTokenReceivedNanos = now;
+        tokenCount++;
+        enqueue(token);
+    }
+
+    /**
+     * Signals that the model has finished (successfully or not). Rendering continues
+     * until every queued token has been drawn.
+     */
+    void complete() {
+        if (aborted) return;
+        if (lastTokenReceivedNanos == 0) {
+            lastTokenReceivedNanos = System.nanoTime();
+        }
+        enqueue(END);
+    }
+
+    /**
+     * Ends rendering now: text that has not been drawn yet is dropped and later tokens are ignored.
+     */
+    void abort() {
+        if (aborted) return;
+        aborted = true;
+        queue.clear();
+        enqueue(END);
+    }
+
+    /**
+     * Blocks the caller until every queued token has been drawn.
+     */
+    void awaitRendered() {
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits at most {@code timeout} for every queued token to be drawn.
+     *
+     * @return {@code true} if rendering has finished.
+     */
+    boolean awaitRendered(Duration timeout) throws InterruptedException {
+        return worker.join(timeout);
+    }
+
+    StreamTimings timings() {
+        return new StreamTimings(startNanos, firstTokenReceivedNanos, lastTokenReceivedNanos,
+                firstTokenDisplayedNanos, displayCompletedNanos, tokenCount);
+    }
+
+    private void enqueue(String token) {
+        if (queue.offer(token)) return;
+        catchUp = true;
+        try {
+            queue.put(token);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Renderer loop: takes every token that is available, then writes it in frame-sized batches.
+     */
+    private void drain() {
+        List<String> batch = new ArrayList<>();
+        StringBuilder frame = new StringBuilder(256);
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch);
+
+                for (String token : batch) {
+                    if (token == END) {
+                        flush(frame);
+                        displayCompletedNanos = System.nanoTime();
+                        return;
+                    }
+                    if (!aborted) render(token, frame);
+                }
+                batch.clear();
+                flush(frame);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void render(String token, StringBuilder frame) throws InterruptedException {
+        if (pacer == Pacer.NONE || catchUp) {
+            frame.append(token);
+            return;
+        }
+
+        long pending = 0;
+        for (int i = 0; i < token.length() && !aborted; i++) {
+            char c = token.charAt(i);
+            frame.append(c);
+            pending += pacer.delayMillis(c);
+
+            if (pending >= FRAME_MILLIS) {
+                flush(frame);
+                Thread.sleep(pending);
+                pending = 0;
+            }
+        }
+        if (pending > 0) {
+            flush(frame);
+            Thread.sleep(pending);
+        }
+    }
+
+    private void flush(StringBuilder frame) {
+        if (frame.isEmpty()) return;
+        if (firstTokenDisplayedNanos == 0) {
+            firstTokenDisplayedNanos = System.nanoTime();
+        }
+        out.append(frame);
+        out.flush();
+        frame.setLength(0);
+    }
+}
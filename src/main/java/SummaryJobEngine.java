@@ -0,0 +1,280 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * <h2>SummaryJobEngine</h2>
+ * <p>
+ * Runs summarization jobs in the background so the CLI never waits on the model. Every file becomes
+ * a job with its own ID; jobs wait in a priority queue and are picked up by a fixed number of
+ * virtual-thread workers. Each result is written to its own file while it is being produced.
+ * </p>
+ * <b>Features:</b>
+ * <ul>
+ * <li>Single files or whole directories per submission</li>
+ * <li>Bounded concurrency: at most {@code workers} jobs run at once</li>
+ * <li>Higher priority first, FIFO within a priority</li>
+ * <li>Batch report (docs/min, p50/p95 latency) once the queue drains</li>
+ * <li>Statuses of the last {@value #MAX_FINISHED} finished jobs are kept; older ones are forgotten</li>
+ * </ul>
+ */
+class SummaryJobEngine implements AutoCloseable {
+
+    /**
+     * Produces the summary for one job. Text written to {@code output} lands in the job's result
+     * file right away, so streaming tasks can write tokens as they arrive.
+     */
+    @FunctionalInterface
+    interface Task {
+        void summarize(Job job, Writer output) throws Exception;
+    }
+
+    enum Status { QUEUED, RUNNING, DONE, FAILED }
+
+    /**
+     * A submitted job. {@code sequence} keeps FIFO order within one priority.
+     */
+    record Job(String id, long sequence, Path file, String level, String language, int priority) {
+    }
+
+    /**
+     * Throughput of one batch: everything processed between the engine going busy and going idle again.
+     */
+    record BatchReport(int completed, int failed, long elapsedMillis, double docsPerMinute, long p50Millis, long p95Millis) {
+
+        void print(PrintStream out) {
+            print(out, null);
+        }
+
+        /**
+         * @param details Extra lines from the caller (e.g. cache statistics), or {@code null}.
+         */
+        void print(PrintStream out, String details) {
+            out.printf("%n--- [BATCH REPORT] ---%n");
+            out.printf("Documents: %d done, %d failed in %.1f s%n", completed, failed, elapsedMillis / 1000.0);
+            out.printf("Throughput: %.1f docs/min | latency p50 %d ms | p95 %d ms%n", docsPerMinute, p50Millis, p95Millis);
+            if (details != null) out.println(details);
+            out.println("----------------------");
+        }
+    }
+
+    private static final Comparator<Job> ORDER = Comparator.comparingInt(Job::priority).reversed()
+            .thenComparingLong(Job::sequence);
+
+    static final int MAX_FINISHED = 1_000;
+
+    // Wakes a worker so it can exit; sorts after every real job
+    private static final Job POISON = new Job("poison", Long.MAX_VALUE, null, null, null, Integer.MIN_VALUE);
+
+    private final Task task;
+    private final Path outputDir;
+    private final PrintStream out;
+    private final Supplier<String> reportDetails;
+    private final PriorityBlockingQueue<Job> queue = new PriorityBlockingQueue<>(64, ORDER);
+    private final Map<String, Status> statuses = new ConcurrentHashMap<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    // Batch accounting, reset whenever the engine goes idle
+    private final Object batchLock = new Object();
+    private int pending;
+    private int completed;
+    private int failed;
+    private long batchStartNanos;
+    private LatencyHistogram batchLatency = new LatencyHistogram();
+    private BatchReport lastReport;
+    // Finished job IDs, oldest first; their statuses are dropped beyond MAX_FINISHED
+    private final ArrayDeque<String> finishedIds = new ArrayDeque<>();
+
+    SummaryJobEngine(Task task, Path outputDir, int workers, PrintStream out) {
+        this(task, outputDir, workers, out, () -> null);
+    }
+
+    /**
+     * @param reportDetails Appended to every batch report, e.g. cache hit rates.
+     */
+    SummaryJobEngine(Task task, Path outputDir, int workers, PrintStream out, Supplier<String> reportDetails) {
+        this.task = task;
+        this.outputDir = outputDir;
+        this.out = out;
+        this.reportDetails = reportDetails;
+        for (int i = 0; i < workers; i++) {
+            this.workers.add(Thread.ofVirtual().name("summary-worker-" + i).start(this::work));
+        }
+    }
+
+    /**
+     * Queues one job per file. A directory contributes its regular files (non-recursive, sorted).
+     *
+     * @return The IDs of the queued jobs, in submission order.
+     */
+    List<String> submit(Path fileOrDirectory, String level, String language, int priority) throws IOException {
+        List<Path> files;
+        if (Files.isDirectory(fileOrDirectory)) {
+            try (Stream<Path> stream = Files.list(fileOrDirectory)) {
+                files = stream.filter(Files::isRegularFile)
+                        .filter(f -> !f.getFileName().toString().startsWith("."))
+                        .sorted()
+                        .toList();
+            }
+        } else if (Files.isRegularFile(fileOrDirectory)) {
+            files = List.of(fileOrDirectory);
+        } else {
+            throw new IOException("No such file or directory: " + fileOrDirectory);
+        }
+
+        // Counted up front, so a fast worker cannot drain the batch while the rest is still being queued
+        synchronized (batchLock) {
+            if (pending == 0 && !files.isEmpty()) {
+                batchStartNanos = System.nanoTime();
+            }
+            pending += files.size();
+        }
+        List<String> ids = new ArrayList<>(files.size());
+        for (Path file : files) {
+            long seq = sequence.incrementAndGet();
+            Job job = new Job("job-%04d".formatted(seq), seq, file, level, language, priority);
+            statuses.put(job.id(), Status.QUEUED);
+            queue.add(job);
+            ids.add(job.id());
+        }
+        return ids;
+    }
+
+    /**
+     * The status of a job, or {@code null} if it is unknown or finished too long ago to be remembered.
+     */
+    Status status(String jobId) {
+        return statuses.get(jobId);
+    }
+
+    Map<String, Status> statuses() {
+        return Map.copyOf(statuses);
+    }
+
+    int queued() {
+        return queue.size();
+    }
+
+    /**
+     * Blocks until every submitted job has finished and returns the report of the last batch.
+     */
+    BatchReport awaitIdle() throws InterruptedException {
+        synchronized (batchLock) {
+            while (pending > 0) {
+                batchLock.wait();
+            }
+            return lastReport;
+        }
+    }
+
+    Path outputFile(Job job) {
+        return outputDir.resolve(job.id() + "-" + job.file().getFileName() + ".summary.md");
+    }
+
+    private void work() {
+        try {
+            while (true) {
+                Job job = queue.take();
+                if (job == POISON) return;
+                run(job);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run(Job job) {
+        statuses.put(job.id(), Status.RUNNING);
+        // Model calls of this job (including map-reduce threads) queue fairly against other jobs
+        AdaptiveRateLimiter.CALLER.set(job.id());
+        long start = System.nanoTime();
+        boolean ok = false;
+        Path target = outputFile(job);
+        try {
+            Files.createDirectories(outputDir);
+            try (Writer output = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+                task.summarize(job, output);
+            }
+            ok = true;
+            out.printf("%n[%s] %s done in %d ms -> %s%n", job.id(), job.file().getFileName(),
+                    (System.nanoTime() - start) / 1_000_000, target);
+        } catch (Exception e) {
+            out.printf("%n[%s] %s failed: %s%n", job.id(), job.file().getFileName(), e.getMessage());
+            // A half-written summary would look like a finished one
+            try {
+                Files.deleteIfExists(target);
+            } catch (IOException ignored) {
+            }
+        } finally {
+            AdaptiveRateLimiter.CALLER.remove();
+            statuses.put(job.id(), ok ? Status.DONE : Status.FAILED);
+            finish(job, ok, (System.nanoTime() - start) / 1_000);
+        }
+    }
+
+    private void finish(Job job, boolean ok, long latencyMicros) {
+        BatchReport report = null;
+        synchronized (batchLock) {
+            finishedIds.add(job.id());
+            if (finishedIds.size() > MAX_FINISHED) {
+                statuses.remove(finishedIds.poll());
+            }
+            if (ok) {
+                completed++;
+                batchLatency.record(latencyMicros);
+            } else {
+                failed++;
+            }
+            if (--pending == 0) {
+                report = batchReport();
+                lastReport = report;
+                completed = 0;
+                failed = 0;
+                batchLatency = new LatencyHistogram();
+                batchLock.notifyAll();
+            }
+        }
+        if (report != null) {
+            report.print(out, reportDetails.get());
+        }
+    }
+
+    private BatchReport batchReport() {
+        long elapsedNanos = System.nanoTime() - batchStartNanos;
+        long elapsedMillis = elapsedNanos / 1_000_000;
+        // Nanosecond precision, so a sub-millisecond batch does not report zero throughput
+        double docsPerMinute = elapsedNanos == 0 ? 0 : completed * 60e9 / elapsedNanos;
+        LatencyHistogram.Snapshot s = batchLatency.snapshot();
+        return new BatchReport(completed, failed, elapsedMillis, docsPerMinute, s.p50() / 1_000, s.p95() / 1_000);
+    }
+
+    /**
+     * Lets queued jobs finish, then stops the workers. If the calling thread is interrupted it stops
+     * waiting, leaves the remaining jobs to the workers and keeps its interrupt flag set.
+     */
+    @Override
+    public void close() {
+        workers.forEach(w -> queue.add(POISON));
+        try {
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
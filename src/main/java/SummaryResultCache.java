@@ -0,0 +1,186 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * <h2>SummaryResultCache</h2>
+ * <p>
+ * Disk-backed store of finished summaries, so asking for the same document at the same level and
+ * language again costs a file read instead of an LLM call. Entries are keyed by a SHA-256 over the
+ * document text, level, language, model and prompt template version; changing any of them is a miss.
+ * </p>
+ * <b>Features:</b>
+ * <ul>
+ * <li>One file per entry, written atomically, so a crash never leaves a truncated summary</li>
+ * <li>LRU eviction under a size cap; recency is the file's modification time and survives restarts</li>
+ * <li>Hit, miss and eviction counters</li>
+ * </ul>
+ */
+class SummaryResultCache {
+
+    private static final String SUFFIX = ".summary";
+
+    private final Path directory;
+    private final long maxBytes;
+    // Access-ordered: key -> size in bytes, least recently used first
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Opens the cache directory, creating it if needed, and indexes existing entries oldest first.
+     */
+    SummaryResultCache(Path directory, long maxBytes) throws IOException {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(directory);
+
+        record Existing(String key, long size, FileTime modified) {
+        }
+        List<Existing> existing;
+        try (Stream<Path> files = Files.list(directory)) {
+            existing = files.filter(f -> f.getFileName().toString().endsWith(SUFFIX))
+                    .map(f -> {
+                        try {
+                            BasicFileAttributes attributes = Files.readAttributes(f, BasicFileAttributes.class);
+                            String name = f.getFileName().toString();
+                            return new Existing(name.substring(0, name.length() - SUFFIX.length()),
+                                    attributes.size(), attributes.lastModifiedTime());
+                        } catch (IOException e) {
+                            return null;
+                        }
+                    })
+                    .filter(e -> e != null)
+                    .sorted(Comparator.comparing(Existing::modified))
+                    .toList();
+        }
+        synchronized (this) {
+            existing.forEach(e -> {
+                entries.put(e.key(), e.size());
+                usedBytes += e.size();
+            });
+            evict();
+        }
+    }
+
+    /**
+     * Cache key for one summary request. Level and language are compared case-insensitively.
+     */
+    static String key(String content, String level, String language, String model, String templateVersion) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(content.getBytes(StandardCharsets.UTF_8));
+            for (String part : List.of(level.trim().toLowerCase(Locale.ROOT), language.trim().toLowerCase(Locale.ROOT),
+                    model, templateVersion)) {
+                digest.update((byte) 0);
+                digest.update(part.getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the cached summary, or {@code null} on a miss.
+     */
+    synchronized String get(String key) {
+        if (entries.get(key) != null) {
+            Path file = file(key);
+            try {
+                String summary = Files.readString(file, StandardCharsets.UTF_8);
+                Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+                hits.increment();
+                return summary;
+            } catch (IOException e) {
+                // Deleted or unreadable behind our back: forget it and treat as a miss
+                usedBytes -= entries.remove(key);
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    synchronized void put(String key, String summary) throws IOException {
+        byte[] bytes = summary.getBytes(StandardCharsets.UTF_8);
+        // A single summary larger than the whole cache is not kept
+        if (bytes.length > maxBytes) return;
+
+        Path temp = Files.createTempFile(directory, key, ".tmp");
+        Files.write(temp, bytes);
+        Files.move(temp, file(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        Long previous = entries.put(key, (long) bytes.length);
+        if (previous != null) usedBytes -= previous;
+        usedBytes += bytes.length;
+        evict();
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator();
+        while (usedBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            it.remove();
+            usedBytes -= eldest.getValue();
+            evictions.increment();
+            try {
+                Files.deleteIfExists(file(eldest.getKey()));
+            } catch (IOException ignored) {
+                // Re-indexed on the next start and evicted again
+            }
+        }
+    }
+
+    private Path file(String key) {
+        return directory.resolve(key + SUFFIX);
+    }
+
+    synchronized long usedBytes() {
+        return usedBytes;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+
+    long evictions() {
+        return evictions.sum();
+    }
+
+    double hitRate() {
+        long total = hits() + misses();
+        return total == 0 ? 0.0 : (double) hits() / total;
+    }
+
+    @Override
+    public String toString() {
+        return "SummaryResultCache[entries=%d, used=%d KB, hits=%d, misses=%d, hitRate=%.0f%%, evictions=%d]".formatted(
+                size(), usedBytes() / 1024, hits(), misses(), 100 * hitRate(), evictions());
+    }
+}
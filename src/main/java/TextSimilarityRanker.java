@@ -0,0 +1,182 @@
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.DocumentSplitter;
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.document.splitter.DocumentSplitters;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * <h2>TextSimilarityRanker</h2>
+ * <p>
+ * Ingests a directory of mixed documents (TXT, MD, CSV, JSON, PDF, DOCX) into
+ * {@link TextSegment}s and ranks them against a query by cosine similarity of their embeddings.
+ * </p>
+ * <b>Ingestion:</b>
+ * <ul>
+ * <li>Each file is read by the matching {@code *ContentReader}</li>
+ * <li>The text is split recursively into segments of at most {@value #MAX_SEGMENT_CHARS} characters</li>
+ * <li>Every segment carries the source {@code file_name} as metadata; duplicate texts are dropped</li>
+ * <li>Reads, embedding and the similarity scan are recorded as {@link FlightEvents}</li>
+ * </ul>
+ */
+public class TextSimilarityRanker {
+
+    static final int MAX_SEGMENT_CHARS = 500;
+    private static final int SEGMENT_OVERLAP_CHARS = 50;
+
+    private static final DocumentSplitter SPLITTER = DocumentSplitters.recursive(MAX_SEGMENT_CHARS, SEGMENT_OVERLAP_CHARS);
+
+    public static void main(String[] args) {
+        String directory = args.length > 0 ? args[0] : System.getProperty("user.dir") + "/src/main/resources/";
+        List<TextSegment> segments = fetchUniqueTextSegmentsFromDirectory(directory);
+        System.out.printf("Loaded %d unique segments from %s%n", segments.size(), directory);
+
+        EmbeddingModel model = new HashingEmbeddingModel();
+        try (Scanner scanner = new Scanner(System.in)) {
+            while (true) {
+                System.out.print("\nQuery> ");
+                String query = scanner.nextLine().trim();
+                if (query.isBlank() || query.equalsIgnoreCase("exit")) break;
+
+                rankSegments(model, query, segments).entrySet().stream()
+                        .limit(5)
+                        .forEach(e -> System.out.printf("%.4f  [%s] %s%n", e.getValue(),
+                                e.getKey().metadata().getString(Document.FILE_NAME), e.getKey().text()));
+            }
+        }
+    }
+
+    /**
+     * Reads every supported file in the directory (non-recursive) into unique text segments.
+     *
+     * @param directory Path of the directory to ingest.
+     * @return Segments in file-name order, or an empty list if the directory cannot be read.
+     */
+    public static List<TextSegment> fetchUniqueTextSegmentsFromDirectory(String directory) {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(Path.of(directory))) {
+            files = stream.filter(Files::isRegularFile).sorted().toList();
+        } catch (IOException e) {
+            System.err.println("Error reading directory: " + e.getMessage());
+            return List.of();
+        }
+
+        Set<String> seen = new LinkedHashSet<>();
+        List<TextSegment> segments = new ArrayList<>();
+        for (Path file : files) {
+            List<String> lines = readContent(file);
+            String text = String.join("\n", lines).trim();
+            if (text.isEmpty()) continue;
+
+            Metadata metadata = Metadata.from(Document.FILE_NAME, file.getFileName().toString());
+            for (TextSegment segment : SPLITTER.split(Document.from(text, metadata))) {
+                if (seen.add(segment.text())) {
+                    segments.add(segment);
+                }
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * Dispatches a file to its reader based on the extension. Files with an unknown extension, and
+     * files that cannot be read, yield no lines.
+     */
+    static List<String> readContent(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        FlightEvents.ContentReadEvent event = new FlightEvents.ContentReadEvent();
+        event.begin();
+        List<String> lines = read(file, name);
+        event.end();
+        if (event.shouldCommit()) {
+            long characters = 0;
+            for (String line : lines) characters += line.length();
+            event.file = file.getFileName().toString();
+            event.format = name.substring(name.lastIndexOf('.') + 1);
+            event.bytes = file.toFile().length();
+            event.lines = lines.size();
+            event.characters = characters;
+            event.commit();
+        }
+        return lines;
+    }
+
+    private static List<String> read(Path file, String name) {
+        try {
+            if (name.endsWith(".md")) return MarkdownContentReader.read(file);
+            if (name.endsWith(".csv")) return CsvContentReader.read(file);
+            if (name.endsWith(".json")) return JsonContentReader.read(file);
+            if (name.endsWith(".pdf")) return PdfContentReader.read(file);
+            if (name.endsWith(".docx")) return WordContentReader.read(file);
+            if (name.endsWith(".txt") || name.endsWith(".log")) return Files.readAllLines(file, StandardCharsets.UTF_8);
+            return List.of();
+        } catch (Exception e) {
+            System.err.println("Skipping " + file.getFileName() + ": " + e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * Embeds the query and all segments, then scores each segment by cosine similarity.
+     *
+     * @return Segments mapped to their score, highest score first.
+     */
+    public static Map<TextSegment, Double> rankSegments(EmbeddingModel model, String query, List<TextSegment> segments) {
+        if (segments.isEmpty()) return Map.of();
+
+        float[] queryVector = model.embed(query).content().vector();
+        List<Embedding> embeddings = FlightEvents.embedAll(model, segments).content();
+
+        FlightEvents.RankingEvent event = new FlightEvents.RankingEvent();
+        event.begin();
+        double[] scores = IntStream.range(0, segments.size())
+                .mapToDouble(i -> calculateCosineSimilarity(queryVector, embeddings.get(i).vector()))
+                .toArray();
+        event.end();
+        if (event.shouldCommit()) {
+            event.source = "rankSegments";
+            event.candidates = segments.size();
+            event.topK = segments.size();
+            event.dimension = queryVector.length;
+            event.commit();
+        }
+
+        Map<TextSegment, Double> ranked = new LinkedHashMap<>();
+        IntStream.range(0, segments.size()).boxed()
+                .sorted((a, b) -> Double.compare(scores[b], scores[a]))
+                .forEach(i -> ranked.put(segments.get(i), scores[i]));
+        return ranked;
+    }
+
+    /**
+     * Cosine similarity of two vectors; 0.0 if either of them is a zero vector.
+     */
+    public static double calculateCosineSimilarity(float[] a, float[] b) {
+        double dot = 0.0;
+        double normA = 0.0;
+        double normB = 0.0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        if (normA == 0.0 || normB == 0.0) return 0.0;
+        return dot / (Math.sqrt(normA) * Math.sqrt(normB));
+    }
+}
@@ -2,84 +2,337 @@ import dev.langchain4j.data.message.ChatMessage;
 import dev.langchain4j.data.message.SystemMessage;
 import dev.langchain4j.data.message.UserMessage;
 import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.StreamingChatModel;
 import dev.langchain4j.model.chat.response.ChatResponse;
-import dev.langchain4j.model.input.Prompt;
-import dev.langchain4j.model.input.PromptTemplate;
-import dev.langchain4j.model.openai.OpenAiChatModel;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
-import java.util.concurrent.*;
+import java.util.function.Consumer;
 
 /**
  * TextSummarizer provides an interactive CLI tool to summarize text files
  * using an LLM. Users specify the file, summarization level, and output language.
  *
  * <p>Enhanced version: multithreaded, benchmark-enabled, and scalable.
- * Can handle multiple summarization requests concurrently.
+ * Files and whole directories are queued as jobs in a {@link SummaryJobEngine}; results are
+ * written to files and a throughput report is printed when a batch drains. Files larger than
+ * {@code summarizer.single.prompt.tokens} (counted locally with {@link TokenCounter}) are summarized with
+ * {@link MapReduceSummarizer}; a single prompt is never built from more text than that.
+ * With {@code summarizer.stream} (default on) the answer is streamed into the output file as it is
+ * generated, and every job reports its time to first token and tokens/s.
+ * The extractive and ultra-brief levels are served in-process by {@link ExtractiveSummarizer}.
+ * The {@code watch} command keeps a {@link RollingSummarizer} summary of a growing file up to date.
  */
 public class TextSummarizer {
 
-    private static final String RESOURCE_DIR = System.getProperty("user.dir") + "/src/main/resources/";
+    // Compiled once; rendering is a single pass with no template parsing
+    private static final CompiledTemplate SUMMARY_TEMPLATE = CompiledTemplate.compile("""
+            Please create a summary from the following text at a {{level}} level,
+            using a clear, concise paragraph that captures the core ideas,
+            emphasizes key themes, and provides actionable insights.
+            Respond in {{language}}. {{file}}
+            """);
 
-    // Thread pool for concurrent summarization requests
-    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
-            Runtime.getRuntime().availableProcessors()
-    );
+    // Repeated summaries of the same file (e.g. at several levels) are served from memory
+    private static final FileContentCache FILE_CACHE = new FileContentCache(
+            Long.parseLong(ModelRegistry.config("summarizer.cache.mb", "SUMMARIZER_CACHE_MB", "256")) << 20);
 
-    public static void main(String[] args) throws IOException {
-        SystemMessage systemMessage = SystemMessage.from("You are an expert text summarizer.");
+    private static final int SINGLE_PROMPT_TOKENS =
+            Integer.parseInt(ModelRegistry.config("summarizer.single.prompt.tokens", "SUMMARIZER_SINGLE_PROMPT_TOKENS", "6000"));
+    // Text beyond the single-prompt budget is cut off before the prompt is built, never sent
+    private static final String TRUNCATION_MARKER = "\n[... truncated to fit the prompt budget]";
+    private static final int CHUNK_TOKENS =
+            Integer.parseInt(ModelRegistry.config("summarizer.chunk.tokens", "SUMMARIZER_CHUNK_TOKENS", "3000"));
+    private static final int MAX_CONCURRENCY =
+            Integer.parseInt(ModelRegistry.config("summarizer.max.concurrency", "SUMMARIZER_MAX_CONCURRENCY", "4"));
 
-        ChatModel chatModel = OpenAiChatModel.builder()
-                .apiKey(System.getenv("GROQ_API_KEY"))
-                .baseUrl("https://api.groq.com/openai/v1")
-                .modelName("llama-3.3-70b-versatile")
-                .build();
+    private static final int WORKERS =
+            Integer.parseInt(ModelRegistry.config("summarizer.workers", "SUMMARIZER_WORKERS", "4"));
 
-        List<ChatMessage> systemMessages = List.of(systemMessage);
+    private static final boolean STREAM =
+            Boolean.parseBoolean(ModelRegistry.config("summarizer.stream", "SUMMARIZER_STREAM", "true"));
+    // Tokens of concurrent jobs interleave on the console, so echoing is meant for one worker
+    private static final boolean ECHO =
+            Boolean.parseBoolean(ModelRegistry.config("summarizer.echo", "SUMMARIZER_ECHO", "false"));
 
-        Scanner scanner = new Scanner(System.in);
+    private static final String SESSION_ID = "summarizer";
 
-        while (true) {
-            String fileName = getUserInput(scanner, "File> ");
-            String summaryLevel = getUserInput(scanner, "Level> ");
-            String language = getUserInput(scanner, "Language> ");
+    // Sentence selection needs no model; only the abstractive levels go to the LLM
+    private static final boolean LOCAL_EXTRACTIVE =
+            Boolean.parseBoolean(ModelRegistry.config("summarizer.local.extractive", "SUMMARIZER_LOCAL_EXTRACTIVE", "true"));
+    private static final ExtractiveSummarizer EXTRACTIVE = new ExtractiveSummarizer();
 
-            if (fileName.isBlank() || summaryLevel.isBlank() || language.isBlank()) {
-                System.out.println("All inputs are required. Please try again.");
-                continue;
-            }
+    // Finished summaries on disk, kept under build/ so they are never committed; 0 disables the cache
+    private static final long RESULT_CACHE_MB =
+            Long.parseLong(ModelRegistry.config("summarizer.result.cache.mb", "SUMMARIZER_RESULT_CACHE_MB", "64"));
 
-            // Submit summarization task to thread pool
-            EXECUTOR.submit(() -> {
-                long startTime = System.nanoTime();
-                try {
-                    String promptText = generatePrompt(fileName, summaryLevel, language);
-                    UserMessage userMessage = UserMessage.from(promptText);
+    private static final long WATCH_SECONDS =
+            Long.parseLong(ModelRegistry.config("summarizer.watch.seconds", "SUMMARIZER_WATCH_SECONDS", "5"));
+
+    private static final SystemMessage SYSTEM_MESSAGE = SystemMessage.from("You are an expert text summarizer.");
+
+    public static void main(String[] args) throws Exception {
+        ChatModel chatModel = ModelRegistry.chatModel();
+        StreamingChatModel streamingModel = STREAM ? ModelRegistry.streamingChatModel() : null;
+
+        MapReduceSummarizer mapReduce = new MapReduceSummarizer(chatModel, TokenCounter.INSTANCE, CHUNK_TOKENS, MAX_CONCURRENCY);
+
+        Path outputDir = Path.of(ModelRegistry.config("summarizer.output.dir", "SUMMARIZER_OUTPUT_DIR", resourceDir() + "summaries"));
+        SummaryResultCache resultCache = RESULT_CACHE_MB > 0 ? new SummaryResultCache(Path.of(ModelRegistry.config(
+                "summarizer.result.cache.dir", "SUMMARIZER_RESULT_CACHE_DIR", System.getProperty("user.dir") + "/build/tmp/summary-cache")),
+                RESULT_CACHE_MB << 20) : null;
+        SummaryJobEngine.Task task = (job, output) ->
+                summarize(chatModel, streamingModel, mapReduce, resultCache, job, output);
+
+        Scanner scanner = new Scanner(System.in);
+        System.out.println("Enter a file or directory, 'status' to list jobs, 'watch' to follow a growing file,");
+        System.out.println("or 'exit' to finish the queue and quit.");
+        System.out.println("Summaries are written to " + outputDir);
+
+        try (SummaryJobEngine engine = new SummaryJobEngine(task, outputDir, WORKERS, System.out,
+                () -> resultCache == null ? null : "Result cache: hit rate %.0f%% (%d hits, %d misses)".formatted(
+                        100 * resultCache.hitRate(), resultCache.hits(), resultCache.misses()))) {
+            while (true) {
+                String fileName = getUserInput(scanner, "File> ");
+                if (fileName.equalsIgnoreCase("exit")) break;
+                if (fileName.equalsIgnoreCase("status")) {
+                    new TreeMap<>(engine.statuses()).forEach((id, status) -> System.out.printf("%s  %s%n", id, status));
+                    continue;
+                }
+                if (fileName.equalsIgnoreCase("watch")) {
+                    watch(scanner, chatModel, mapReduce, outputDir);
+                    continue;
+                }
 
-                    List<ChatMessage> messages = new ArrayList<>(systemMessages);
-                    messages.add(userMessage);
+                String summaryLevel = getUserInput(scanner, "Level> ");
+                String language = getUserInput(scanner, "Language> ");
 
-                    ChatResponse response = chatModel.chat(messages);
+                if (fileName.isBlank() || summaryLevel.isBlank() || language.isBlank()) {
+                    System.out.println("All inputs are required. Please try again.");
+                    continue;
+                }
+                String priority = getUserInput(scanner, "Priority (default 0)> ");
 
-                    long durationMs = (System.nanoTime() - startTime) / 1_000_000;
-                    System.out.println("\n--- Summary ---\n" + response.aiMessage().text());
-                    System.out.println(String.format("[Benchmark] Execution time: %d ms\n", durationMs));
+                try {
+                    List<String> ids = engine.submit(resolve(fileName), summaryLevel, language,
+                            priority.isBlank() ? 0 : Integer.parseInt(priority));
+                    System.out.printf("Queued %d job(s): %s%n", ids.size(),
+                            ids.size() <= 3 ? String.join(", ", ids) : ids.get(0) + " .. " + ids.get(ids.size() - 1));
+                } catch (NumberFormatException e) {
+                    System.out.println("Priority must be a whole number.");
                 } catch (IOException e) {
                     System.err.println("Error reading file: " + e.getMessage());
-                } catch (Exception e) {
-                    System.err.println("Error during summarization: " + e.getMessage());
                 }
-            });
+            }
+            System.out.printf("Waiting for %d queued job(s)...%n", engine.queued());
+            engine.awaitIdle();
+        }
+        System.out.println("\n" + LatencyMetrics.report());
+        System.out.println(FILE_CACHE);
+        if (resultCache != null) System.out.println(resultCache);
+    }
+
+    /**
+     * Re-summarizes a growing file every {@code summarizer.watch.seconds} from the appended text only,
+     * writing the current summary to {@code <file>.rolling.md}, until the user presses Enter.
+     */
+    private static void watch(Scanner scanner, ChatModel chatModel, MapReduceSummarizer mapReduce,
+                              Path outputDir) throws InterruptedException {
+        String fileName = getUserInput(scanner, "Watch file> ");
+        String summaryLevel = getUserInput(scanner, "Level> ");
+        String language = getUserInput(scanner, "Language> ");
+        if (fileName.isBlank() || summaryLevel.isBlank() || language.isBlank()) {
+            System.out.println("All inputs are required. Please try again.");
+            return;
+        }
+        Path file = resolve(fileName);
+        if (!Files.isRegularFile(file)) {
+            System.err.println("Error reading file: no such file " + file);
+            return;
+        }
+
+        RollingSummarizer rolling = new RollingSummarizer(chatModel, mapReduce, SINGLE_PROMPT_TOKENS,
+                file, summaryLevel, language);
+        Path target = outputDir.resolve(file.getFileName() + ".rolling.md");
+        System.out.printf("Watching %s every %d s -> %s. Press Enter to stop.%n", file, WATCH_SECONDS, target);
 
-            try {
-                EXECUTOR.awaitTermination(5, TimeUnit.SECONDS);
-            } catch (InterruptedException e) {
-                throw new RuntimeException(e);
+        Thread poller = Thread.ofVirtual().name("summary-watch").start(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    RollingSummarizer.Update update = rolling.update();
+                    if (update.bytesRead() > 0) {
+                        Files.createDirectories(outputDir);
+                        Files.writeString(target, update.summary(), StandardCharsets.UTF_8);
+                        System.out.printf("[watch] %s+%d bytes (offset %d) summarized in %d ms%n",
+                                update.restarted() ? "file was truncated, restarted | " : "",
+                                update.bytesRead(), update.offset(), update.millis());
+                    }
+                    Thread.sleep(WATCH_SECONDS * 1_000);
+                } catch (InterruptedException e) {
+                    return;
+                } catch (IOException | RuntimeException e) {
+                    System.err.println("[watch] update failed: " + e.getMessage());
+                    try {
+                        Thread.sleep(WATCH_SECONDS * 1_000);
+                    } catch (InterruptedException interrupted) {
+                        return;
+                    }
+                }
             }
+        });
+        scanner.nextLine();
+        poller.interrupt();
+        poller.join();
+        System.out.printf("Stopped watching %s at offset %d.%n", file, rolling.offset());
+    }
+
+    /**
+     * Resolved on use, so a changed working directory (e.g. in tests) is honoured.
+     */
+    private static String resourceDir() {
+        return System.getProperty("user.dir") + "/src/main/resources/";
+    }
+
+    /**
+     * Relative names are looked up in the resource directory, absolute paths are used as-is.
+     */
+    private static Path resolve(String fileName) {
+        Path path = Path.of(fileName);
+        return path.isAbsolute() ? path : Path.of(resourceDir(), fileName);
+    }
+
+    /**
+     * Summarizes one file in a single call, or with map-reduce when it exceeds the single-prompt limit.
+     * Results already in the cache for the same text, level, language, model and prompt are reused.
+     */
+    private static void summarize(ChatModel chatModel, StreamingChatModel streamingModel, MapReduceSummarizer mapReduce,
+                                  SummaryResultCache resultCache, SummaryJobEngine.Job job, Writer output) throws Exception {
+        String content = readDocument(job.file());
+        if (content.isBlank()) {
+            throw new IOException("no readable text");
+        }
+        if (LOCAL_EXTRACTIVE && ExtractiveSummarizer.supports(job.level())) {
+            ExtractiveSummarizer.Result result = EXTRACTIVE.summarize(content, job.level());
+            LatencyMetrics.timer("summary_extractive").record(result.micros());
+            output.write(result.summary());
+            System.out.printf("%n[%s] extractive: %d of %d sentences in %.1f ms, no model call%n",
+                    job.id(), result.selected(), result.sentences(), result.micros() / 1_000.0);
+            return;
         }
+
+        boolean large = mapReduce.countTokens(content) > SINGLE_PROMPT_TOKENS;
+        String key = null;
+        if (resultCache != null) {
+            key = SummaryResultCache.key(content, job.level(), job.language(), generator(chatModel, streamingModel, large),
+                    large ? "map-reduce-" + MapReduceSummarizer.templateVersion() : SUMMARY_TEMPLATE.version());
+            String cached = resultCache.get(key);
+            if (cached != null) {
+                output.write(cached);
+                System.out.printf("%n[%s] served from the result cache, no model call%n", job.id());
+                return;
+            }
+        }
+
+        String summary = generate(chatModel, streamingModel, mapReduce, job, content, large, output);
+        if (key != null) resultCache.put(key, summary);
+    }
+
+    /**
+     * Identity of the model(s) that write the summary, for the cache key: with streaming the final text
+     * comes from the streaming model, and map-reduce also feeds it the notes of the blocking model.
+     */
+    private static String generator(ChatModel chatModel, StreamingChatModel streamingModel, boolean large) {
+        if (streamingModel == null) return LlmProviders.cacheIdentity(chatModel);
+        String streaming = LlmProviders.cacheIdentity(streamingModel);
+        return large ? LlmProviders.cacheIdentity(chatModel) + "+" + streaming : streaming;
+    }
+
+    /**
+     * Calls the model and writes the summary; without a streaming model it is written in one go.
+     */
+    private static String generate(ChatModel chatModel, StreamingChatModel streamingModel, MapReduceSummarizer mapReduce,
+                                   SummaryJobEngine.Job job, String content, boolean large, Writer output) throws Exception {
+        // Started before the map phase, so TTFT is what the user actually waits for
+        LatencyMetrics.Turn turn = streamingModel == null ? null
+                : LatencyMetrics.startTurn(LlmProviders.label(streamingModel), SESSION_ID);
+        Consumer<String> sink = token -> write(output, token);
+
+        if (large) {
+            MapReduceSummarizer.FinalStream stream = turn == null ? null
+                    : new MapReduceSummarizer.FinalStream(streamingModel, sink, turn);
+            MapReduceSummarizer.Result result = summarizeLarge(mapReduce, job, content, stream);
+            if (result.finalTurn() != null) {
+                printStreamStats(job, result.finalTurn());
+            } else {
+                output.write(result.summary());
+            }
+            return result.summary();
+        }
+
+        List<ChatMessage> messages = List.of(SYSTEM_MESSAGE,
+                UserMessage.from(buildPrompt(content, job.level(), job.language())));
+        if (turn != null) {
+            StreamingCompletion.Result result = StreamingCompletion.stream(streamingModel, messages, sink, turn);
+            printStreamStats(job, result.summary());
+            return result.text();
+        }
+        ChatResponse response = chatModel.chat(messages);
+        output.write(response.aiMessage().text());
+        return response.aiMessage().text();
+    }
+
+    /**
+     * Appends a streamed token to the job's file and flushes, so the file can be followed while it grows.
+     */
+    private static void write(Writer output, String token) {
+        try {
+            output.write(token);
+            output.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (ECHO) {
+            System.out.print(token);
+            System.out.flush();
+        }
+    }
+
+    private static void printStreamStats(SummaryJobEngine.Job job, LatencyMetrics.TurnSummary turn) {
+        System.out.printf("%n[%s] TTFT %d ms | %.1f tokens/s (%d tokens)%n",
+                job.id(), turn.ttftMillis(), turn.tokensPerSecond(), turn.outputTokens());
+    }
+
+    /**
+     * Plain text is read as-is; PDF, DOCX, Markdown, CSV and JSON go through their content readers.
+     * Either way the text is cached until the file changes.
+     */
+    private static String readDocument(Path file) throws IOException {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.matches(".*\\.(pdf|docx|md|csv|json)$")) {
+            return FILE_CACHE.read(file, f -> String.join("\n", TextSimilarityRanker.readContent(f)));
+        }
+        return FILE_CACHE.read(file);
+    }
+
+    /**
+     * Summarizes a file that is too large for one prompt and prints per-stage progress and latency.
+     */
+    private static MapReduceSummarizer.Result summarizeLarge(MapReduceSummarizer mapReduce, SummaryJobEngine.Job job,
+                                                             String content, MapReduceSummarizer.FinalStream stream)
+            throws InterruptedException {
+        String fileName = job.file().getFileName().toString();
+        System.out.printf("%n[%s] too large for one prompt, using map-reduce%n", fileName);
+        MapReduceSummarizer.Result result = mapReduce.summarize(content, job.level(), job.language(),
+                (stage, done, total) -> System.out.printf("[%s] %s: %d/%d%n", fileName, stage, done, total), stream);
+
+        System.out.printf("[%s] %d chunks, %d reduce rounds | map %d ms | reduce %d ms%n",
+                fileName, result.chunks(), result.reduceRounds(), result.mapMillis(), result.reduceMillis());
+        return result;
     }
 
     /**
@@ -123,23 +376,19 @@ public class TextSummarizer {
      * @throws IOException If the file cannot be read.
      */
     private static String generatePrompt(String fileName, String summaryLevel, String language) throws IOException {
-        String template = """
-                Please create a summary from the following text at a {{level}} level,
-                using a clear, concise paragraph that captures the core ideas,
-                emphasizes key themes, and provides actionable insights.
-                Respond in {{language}}. {{file}}
-                """;
-
-        PromptTemplate promptTemplate = PromptTemplate.from(template);
-
-        Map<String, Object> variables = new HashMap<>();
-        variables.put("level", summaryLevel);
-        variables.put("language", language);
-        Path filePath = Path.of(RESOURCE_DIR + fileName);
-        variables.put("file", Files.readString(filePath));
-
-        Prompt prompt = promptTemplate.apply(variables);
-        return prompt.text();
+        return buildPrompt(readFile(fileName), summaryLevel, language);
+    }
+
+    private static String readFile(String fileName) throws IOException {
+        return FILE_CACHE.read(resolve(fileName));
+    }
+
+    /**
+     * Fills the summary template with already loaded text, trimmed to {@code summarizer.single.prompt.tokens}.
+     */
+    private static String buildPrompt(String content, String summaryLevel, String language) {
+        String text = TokenCounter.INSTANCE.truncate(content, SINGLE_PROMPT_TOKENS, TRUNCATION_MARKER);
+        return SUMMARY_TEMPLATE.render("level", summaryLevel, "language", language, "file", text);
     }
 
     /**
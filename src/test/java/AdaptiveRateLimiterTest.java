@@ -0,0 +1,211 @@
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.exception.InvalidRequestException;
+import dev.langchain4j.exception.RateLimitException;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.PartialResponse;
+import dev.langchain4j.model.chat.response.PartialResponseContext;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import dev.langchain4j.model.chat.response.StreamingHandle;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveRateLimiterTest {
+
+    @Test
+    @DisplayName("Token budget blocks until the bucket has refilled")
+    void tokensPerMinuteIsEnforced() throws Exception {
+        // 600 tokens/min = 10 tokens/s, starting full
+        AdaptiveRateLimiter limiter = AdaptiveRateLimiter.builder("test")
+                .requestsPerMinute(10_000).tokensPerMinute(600).build();
+
+        limiter.acquire("a", 600).success(-1);
+        long start = System.nanoTime();
+        limiter.acquire("a", 5).success(-1);
+
+        assertThat((System.nanoTime() - start) / 1_000_000).isGreaterThanOrEqualTo(400);
+    }
+
+    @Test
+    @DisplayName("Concurrency grows additively on success and halves on a 429")
+    void aimd() throws Exception {
+        AdaptiveRateLimiter limiter = AdaptiveRateLimiter.builder("test")
+                .requestsPerMinute(1_000_000).tokensPerMinute(100_000_000)
+                .initialConcurrency(4).maxConcurrency(64).build();
+
+        for (int i = 0; i < 8; i++) limiter.acquire("a", 1).success(1);
+        assertThat(limiter.concurrencyLimit()).isBetween(5.5, 6.0);
+
+        limiter.acquire("a", 1).rateLimited();
+        assertThat(limiter.concurrencyLimit()).isBetween(2.75, 3.0);
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Waiting callers are served round-robin, FIFO within a caller")
+    void fairQueuing() throws Exception {
+        AdaptiveRateLimiter limiter = AdaptiveRateLimiter.builder("test")
+                .requestsPerMinute(1_000_000).tokensPerMinute(100_000_000)
+                .initialConcurrency(1).minConcurrency(1).maxConcurrency(1).build();
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        AdaptiveRateLimiter.Permit blocker = limiter.acquire("busy", 1);
+        List<Thread> threads = new ArrayList<>();
+        for (String request : List.of("A1", "A2", "A3", "B1")) {
+            int queuedBefore = limiter.queued();
+            threads.add(Thread.ofVirtual().start(() -> {
+                try {
+                    AdaptiveRateLimiter.Permit permit = limiter.acquire(request.substring(0, 1), 1);
+                    order.add(request);
+                    permit.failed();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            while (limiter.queued() == queuedBefore) Thread.sleep(1);
+        }
+
+        blocker.failed();
+        for (Thread t : threads) t.join();
+
+        assertThat(order).containsExactly("A1", "B1", "A2", "A3");
+    }
+
+    @Test
+    @DisplayName("A 429 is retried through the limiter instead of failing the call")
+    void rateLimitedCallIsRetried() {
+        AtomicInteger calls = new AtomicInteger();
+        ChatModel flaky = new ChatModel() {
+            @Override
+            public ChatResponse doChat(ChatRequest request) {
+                if (calls.incrementAndGet() == 1) throw new RateLimitException("429 Too Many Requests");
+                return ChatResponse.builder().aiMessage(AiMessage.from("ok")).build();
+            }
+        };
+        AdaptiveRateLimiter limiter = AdaptiveRateLimiter.builder("test")
+                .requestsPerMinute(600_000).tokensPerMinute(60_000_000).build();
+
+        ChatResponse response = new RateLimitedChatModel(flaky, limiter, 3).chat(ChatRequest.builder()
+                .messages(UserMessage.from("hello"))
+                .build());
+
+        assertThat(response.aiMessage().text()).isEqualTo("ok");
+        assertThat(calls).hasValue(2);
+        assertThat(limiter.concurrencyLimit()).isLessThan(4);
+    }
+
+    @Test
+    @DisplayName("Other failures are passed through without retrying")
+    void otherErrorsAreNotRetried() {
+        AtomicInteger calls = new AtomicInteger();
+        ChatModel broken = new ChatModel() {
+            @Override
+            public ChatResponse doChat(ChatRequest request) {
+                calls.incrementAndGet();
+                throw new IllegalArgumentException("bad request");
+            }
+        };
+        AdaptiveRateLimiter limiter = AdaptiveRateLimiter.builder("test").build();
+
+        assertThatThrownBy(() -> new RateLimitedChatModel(broken, limiter, 3)
+                .chat(ChatRequest.builder().messages(UserMessage.from("hello")).build()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(calls).hasValue(1);
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("A request larger than the minute token budget fails before reaching the provider")
+    void oversizedRequestIsRejectedLocally() {
+        AtomicInteger calls = new AtomicInteger();
+        ChatModel model = new ChatModel() {
+            @Override
+            public ChatResponse doChat(ChatRequest request) {
+                calls.incrementAndGet();
+                return ChatResponse.builder().aiMessage(AiMessage.from("ok")).build();
+            }
+        };
+        AdaptiveRateLimiter limiter = AdaptiveRateLimiter.builder("test").tokensPerMinute(2_000).build();
+
+        assertThatThrownBy(() -> new RateLimitedChatModel(model, limiter, 3)
+                .chat(ChatRequest.builder().messages(UserMessage.from("firewall rule ".repeat(1_000))).build()))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessageContaining("exceeds the test limit of 2000 tokens");
+        assertThat(calls).hasValue(0);
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Cancelling a stream releases its permit, although the model never calls back again")
+    void cancelledStreamReleasesPermit() throws Exception {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        StreamingChatModel endless = new StreamingChatModel() {
+            @Override
+            public void doChat(ChatRequest request, StreamingChatResponseHandler handler) {
+                StreamingHandle handle = new StreamingHandle() {
+                    @Override
+                    public void cancel() {
+                        cancelled.set(true);
+                    }
+
+                    @Override
+                    public boolean isCancelled() {
+                        return cancelled.get();
+                    }
+                };
+                // Like the real providers: after cancel() neither onCompleteResponse nor onError is called
+                while (!cancelled.get()) {
+                    handler.onPartialResponse(new PartialResponse("token "), new PartialResponseContext(handle));
+                }
+            }
+        };
+        AdaptiveRateLimiter limiter = AdaptiveRateLimiter.builder("test")
+                .requestsPerMinute(1_000_000).tokensPerMinute(100_000_000)
+                .initialConcurrency(1).minConcurrency(1).maxConcurrency(1).build();
+        CompletableFuture<Void> firstToken = new CompletableFuture<>();
+
+        new RateLimitedStreamingChatModel(endless, limiter, 3).chat(
+                ChatRequest.builder().messages(UserMessage.from("hello")).build(), new StreamingChatResponseHandler() {
+                    @Override
+                    public void onPartialResponse(PartialResponse partialResponse, PartialResponseContext context) {
+                        context.streamingHandle().cancel();
+                        context.streamingHandle().cancel();
+                        firstToken.complete(null);
+                    }
+
+                    @Override
+                    public void onCompleteResponse(ChatResponse completeResponse) {
+                    }
+
+                    @Override
+                    public void onError(Throwable error) {
+                    }
+                });
+        firstToken.get(5, TimeUnit.SECONDS);
+
+        assertThat(cancelled).isTrue();
+        CompletableFuture<AdaptiveRateLimiter.Permit> next = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.acquire("b", 1);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        next.get(2, TimeUnit.SECONDS).success(1);
+        assertThat(limiter.inFlight()).isZero();
+    }
+}
@@ -0,0 +1,40 @@
+import dev.langchain4j.model.input.PromptTemplate;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompiledTemplateTest {
+
+    private static final String TEMPLATE = """
+            Summarize at a {{level}} level.
+            Respond in {{language}}. {{file}}
+            """;
+
+    @Test
+    @DisplayName("Renders exactly like LangChain4j's PromptTemplate")
+    void matchesPromptTemplate() {
+        Map<String, Object> values = Map.of("level", "executive", "language", "English", "file", "Some {{text}}.");
+
+        String expected = PromptTemplate.from(TEMPLATE).apply(values).text();
+
+        assertThat(CompiledTemplate.compile(TEMPLATE).render(values)).isEqualTo(expected);
+        assertThat(CompiledTemplate.compile(TEMPLATE).render("level", "executive", "language", "English", "file", "Some {{text}}."))
+                .isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("Placeholders are parsed once, in order, and missing values fail fast")
+    void variablesAndMissingValues() {
+        CompiledTemplate template = CompiledTemplate.compile("{{a}} and {{ b }} and {{a}}");
+
+        assertThat(template.variables()).containsExactly("a", "b", "a");
+        assertThat(template.render("a", 1, "b", 2)).isEqualTo("1 and 2 and 1");
+        assertThatThrownBy(() -> template.render("a", 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("'b'");
+    }
+}
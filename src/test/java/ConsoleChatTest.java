@@ -0,0 +1,129 @@
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.PartialResponse;
+import dev.langchain4j.model.chat.response.PartialResponseContext;
+import dev.langchain4j.model.chat.response.StreamingHandle;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.service.TokenStream;
+import dev.langchain4j.service.tool.ToolExecution;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConsoleChatTest {
+
+    @Test
+    @DisplayName("A stop typed after the model finished ends the paced drawing at once")
+    void stopWhileDrawingCompletedAnswer() throws Exception {
+        PipedOutputStream keyboard = new PipedOutputStream();
+        ConsoleInput console = ConsoleInput.start(new PipedInputStream(keyboard));
+        // About 25 s of typing at 50 ms per character
+        CompletedStream answer = new CompletedStream("Block egress and rotate the keys. ".repeat(15));
+
+        long start = System.nanoTime();
+        CompletableFuture<String> next = CompletableFuture.supplyAsync(() -> ConsoleChat.stream(answer, console,
+                StreamingRenderer.Pacer.fixed(50), "test-model", "console-chat-test", "TEST AUDIT"));
+        assertThat(answer.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        keyboard.write((ConsoleInput.STOP_COMMAND + "\n").getBytes(StandardCharsets.UTF_8));
+        keyboard.flush();
+
+        assertThat(next.get(5, TimeUnit.SECONDS)).isNull();
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(10));
+    }
+
+    @Test
+    @DisplayName("A question typed while an answer is drawn replaces it and is asked next")
+    void questionWhileDrawingIsAskedNext() throws Exception {
+        PipedOutputStream keyboard = new PipedOutputStream();
+        ConsoleInput console = ConsoleInput.start(new PipedInputStream(keyboard));
+        CompletedStream answer = new CompletedStream("Patch the logging library first. ".repeat(15));
+
+        CompletableFuture<String> next = CompletableFuture.supplyAsync(() -> ConsoleChat.stream(answer, console,
+                StreamingRenderer.Pacer.fixed(50), "test-model", "console-chat-test", "TEST AUDIT"));
+        assertThat(answer.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        keyboard.write(" Which port does LDAP use?\n".getBytes(StandardCharsets.UTF_8));
+        keyboard.flush();
+
+        assertThat(next.get(5, TimeUnit.SECONDS)).isEqualTo("Which port does LDAP use?");
+    }
+
+    /**
+     * Delivers the whole answer in one chunk and completes right away, like a fast model.
+     */
+    private static final class CompletedStream implements TokenStream, StreamingHandle {
+        final CountDownLatch completed = new CountDownLatch(1);
+        private final String text;
+        private BiConsumer<PartialResponse, PartialResponseContext> onPartial;
+        private Consumer<ChatResponse> onComplete;
+
+        CompletedStream(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public TokenStream onPartialResponseWithContext(BiConsumer<PartialResponse, PartialResponseContext> handler) {
+            this.onPartial = handler;
+            return this;
+        }
+
+        @Override
+        public TokenStream onPartialResponse(Consumer<String> handler) {
+            return this;
+        }
+
+        @Override
+        public TokenStream onRetrieved(Consumer<List<Content>> handler) {
+            return this;
+        }
+
+        @Override
+        public TokenStream onToolExecuted(Consumer<ToolExecution> handler) {
+            return this;
+        }
+
+        @Override
+        public TokenStream onCompleteResponse(Consumer<ChatResponse> handler) {
+            this.onComplete = handler;
+            return this;
+        }
+
+        @Override
+        public TokenStream onError(Consumer<Throwable> handler) {
+            return this;
+        }
+
+        @Override
+        public TokenStream ignoreErrors() {
+            return this;
+        }
+
+        @Override
+        public void start() {
+            Thread.ofVirtual().start(() -> {
+                onPartial.accept(new PartialResponse(text), new PartialResponseContext(this));
+                onComplete.accept(ChatResponse.builder().aiMessage(AiMessage.from(text)).build());
+                completed.countDown();
+            });
+        }
+
+        @Override
+        public void cancel() {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+    }
+}
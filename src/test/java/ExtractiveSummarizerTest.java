@@ -0,0 +1,65 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExtractiveSummarizerTest {
+
+    private final ExtractiveSummarizer summarizer = new ExtractiveSummarizer();
+
+    private static final String TEXT = """
+            The payment service failed after the database migration.
+            Engineers traced the payment failure to a missing database index.
+            The cafeteria will serve pasta on Thursday.
+            Adding the index restored the payment service within minutes.
+            The team will review the database migration checklist next week.
+            """;
+
+    @Test
+    @DisplayName("Only the extractive and ultra-brief levels are served locally")
+    void supportsExtractiveLevels() {
+        assertThat(ExtractiveSummarizer.supports("Extractive (verbatim)")).isTrue();
+        assertThat(ExtractiveSummarizer.supports("ultra brief")).isTrue();
+        assertThat(ExtractiveSummarizer.supports("Ultra-brief")).isTrue();
+        assertThat(ExtractiveSummarizer.supports("abstractive")).isFalse();
+        assertThrows(IllegalArgumentException.class, () -> summarizer.summarize(TEXT, "executive"));
+    }
+
+    @Test
+    @DisplayName("Central sentences win, are verbatim and keep document order")
+    void selectsCentralSentencesInOrder() {
+        ExtractiveSummarizer.Result result = summarizer.summarize(TEXT, 2);
+        List<String> sentences = summarizer.sentences(TEXT);
+
+        assertThat(result.sentences()).isEqualTo(5);
+        assertThat(result.summary()).doesNotContain("cafeteria");
+        String[] picked = result.summary().split("(?<=\\.) ");
+        assertThat(picked).hasSize(2);
+        assertThat(sentences).containsSubsequence(Arrays.asList(picked));
+
+        ExtractiveSummarizer.Result brief = summarizer.summarize(TEXT, "ultra-brief");
+        assertThat(brief.selected()).isEqualTo(1);
+        assertThat(sentences).contains(brief.summary());
+    }
+
+    @Test
+    @DisplayName("Large documents are ranked in parallel and scores stay a distribution")
+    void ranksLargeDocuments() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 2_000; i++) {
+            sb.append("Server ").append(i % 50).append(" reported latency spike number ").append(i).append(". ");
+        }
+        List<String> sentences = summarizer.sentences(sb.toString());
+
+        double[] scores = summarizer.rank(sentences);
+
+        assertThat(sentences).hasSizeGreaterThan(ExtractiveSummarizer.PARALLEL_THRESHOLD);
+        assertThat(Arrays.stream(scores).sum()).isCloseTo(1.0, offset(1e-6));
+        assertThat(summarizer.summarize(sb.toString(), "extractive").selected()).isEqualTo(15);
+    }
+}
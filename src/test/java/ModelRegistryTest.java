@@ -0,0 +1,39 @@
+import dev.langchain4j.http.client.jdk.JdkHttpClientBuilder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ModelRegistryTest {
+
+    @Test
+    @DisplayName("Models are built once and reused")
+    void modelsAreSingletons() {
+        assertThat(ModelRegistry.chatModel()).isSameAs(ModelRegistry.chatModel());
+        assertThat(ModelRegistry.streamingChatModel()).isSameAs(ModelRegistry.streamingChatModel());
+    }
+
+    @Test
+    @DisplayName("Every HTTP client builder hands out the same pooled JDK client")
+    void buildersShareOneJdkClient() {
+        JdkHttpClientBuilder first = (JdkHttpClientBuilder) ModelRegistry.httpClientBuilders().get();
+        JdkHttpClientBuilder second = (JdkHttpClientBuilder) ModelRegistry.httpClientBuilders().get();
+
+        assertThat(first).isNotSameAs(second);
+        assertThat(first.httpClientBuilder().build())
+                .isSameAs(second.httpClientBuilder().build())
+                .isSameAs(ModelRegistry.sharedHttpClient());
+    }
+
+    @Test
+    @DisplayName("System properties take precedence over defaults")
+    void configLookup() {
+        System.setProperty("registry.test.value", "42");
+        try {
+            assertThat(ModelRegistry.config("registry.test.value", "REGISTRY_TEST_VALUE", "7")).isEqualTo("42");
+            assertThat(ModelRegistry.config("registry.test.missing", "REGISTRY_TEST_MISSING", "7")).isEqualTo("7");
+        } finally {
+            System.clearProperty("registry.test.value");
+        }
+    }
+}
@@ -0,0 +1,116 @@
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import dev.langchain4j.model.openai.OpenAiChatModel;
+import dev.langchain4j.model.openai.OpenAiEmbeddingModel;
+import dev.langchain4j.model.openai.OpenAiStreamingChatModel;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OpenAiStubServerTest {
+
+    @Test
+    @DisplayName("Blocking completions take the first-token delay plus the token time and report usage")
+    void blockingCompletion() throws Exception {
+        try (OpenAiStubServer stub = OpenAiStubServer.builder()
+                .firstTokenDelay(Duration.ofMillis(100)).tokensPerSecond(200).outputTokens(20).start()) {
+            ChatModel model = chatModel(stub);
+
+            long start = System.nanoTime();
+            ChatResponse response = model.chat(ChatRequest.builder()
+                    .messages(UserMessage.from("Which port does LDAP use?"))
+                    .build());
+            long millis = (System.nanoTime() - start) / 1_000_000;
+
+            assertThat(response.aiMessage().text()).startsWith("the incident shows");
+            assertThat(response.tokenUsage().outputTokenCount()).isEqualTo(20);
+            assertThat(response.tokenUsage().inputTokenCount()).isPositive();
+            assertThat(millis).isGreaterThanOrEqualTo(200);
+        }
+    }
+
+    @Test
+    @DisplayName("Streams tokens after the first-token delay at the configured rate")
+    void streamsTokens() throws Exception {
+        try (OpenAiStubServer stub = OpenAiStubServer.builder()
+                .firstTokenDelay(Duration.ofMillis(150)).tokensPerSecond(100).outputTokens(10).start()) {
+            StreamingChatModel model = OpenAiStreamingChatModel.builder()
+                    .baseUrl(stub.baseUrl()).apiKey("stub").modelName("stub-model").build();
+            List<Long> arrivals = new CopyOnWriteArrayList<>();
+            CompletableFuture<ChatResponse> done = new CompletableFuture<>();
+            long start = System.nanoTime();
+
+            model.chat("Summarize the incident", new StreamingChatResponseHandler() {
+                @Override
+                public void onPartialResponse(String partialResponse) {
+                    arrivals.add((System.nanoTime() - start) / 1_000_000);
+                }
+
+                @Override
+                public void onCompleteResponse(ChatResponse completeResponse) {
+                    done.complete(completeResponse);
+                }
+
+                @Override
+                public void onError(Throwable error) {
+                    done.completeExceptionally(error);
+                }
+            });
+            ChatResponse response = done.get(10, TimeUnit.SECONDS);
+
+            assertThat(arrivals).hasSize(10);
+            assertThat(arrivals.get(0)).isGreaterThanOrEqualTo(150);
+            // The last of 10 tokens at 100/s is due 90 ms after the first
+            assertThat(arrivals.get(9)).isGreaterThanOrEqualTo(150 + 90);
+            assertThat(response.aiMessage().text().split(" ")).hasSize(10);
+            assertThat(stub.stats()).contains("1 streamed");
+        }
+    }
+
+    @Test
+    @DisplayName("Injects 429s and server errors at the configured rates")
+    void injectsFailures() throws Exception {
+        try (OpenAiStubServer limited = OpenAiStubServer.builder().firstTokenDelay(Duration.ZERO).rateLimitRate(1).start();
+             OpenAiStubServer failing = OpenAiStubServer.builder().firstTokenDelay(Duration.ZERO).errorRate(1).start()) {
+            assertThatThrownBy(() -> chatModel(limited).chat("hello"))
+                    .satisfies(e -> assertThat(AdaptiveRateLimiter.isRateLimit(e)).isTrue());
+            assertThatThrownBy(() -> chatModel(failing).chat("hello"))
+                    .satisfies(e -> assertThat(AdaptiveRateLimiter.isRateLimit(e)).isFalse());
+            assertThat(limited.stats()).contains("1 with 429");
+            assertThat(failing.stats()).contains("1 failed with 500");
+        }
+    }
+
+    @Test
+    @DisplayName("Serves deterministic embeddings")
+    void embeddings() throws Exception {
+        try (OpenAiStubServer stub = OpenAiStubServer.builder().firstTokenDelay(Duration.ZERO).start()) {
+            OpenAiEmbeddingModel model = OpenAiEmbeddingModel.builder()
+                    .baseUrl(stub.baseUrl()).apiKey("stub").modelName("stub-embedding").maxRetries(0).build();
+
+            Embedding first = model.embed("ldap lookup from the web server").content();
+            Embedding second = model.embed("ldap lookup from the web server").content();
+
+            assertThat(first.dimension()).isEqualTo(HashingEmbeddingModel.DEFAULT_DIMENSION);
+            assertThat(first.vector()).containsExactly(second.vector());
+        }
+    }
+
+    private static ChatModel chatModel(OpenAiStubServer stub) {
+        return OpenAiChatModel.builder()
+                .baseUrl(stub.baseUrl()).apiKey("stub").modelName("stub-model").maxRetries(0).build();
+    }
+}
@@ -0,0 +1,101 @@
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RollingSummarizerTest {
+
+    /**
+     * Records every prompt and answers with "summary N".
+     */
+    private static class RecordingChatModel implements ChatModel {
+        final List<String> prompts = new CopyOnWriteArrayList<>();
+
+        @Override
+        public ChatResponse doChat(ChatRequest request) {
+            prompts.add(((UserMessage) request.messages().get(1)).singleText());
+            return ChatResponse.builder().aiMessage(AiMessage.from("summary " + prompts.size())).build();
+        }
+    }
+
+    @TempDir
+    Path tempDir;
+
+    private RollingSummarizer rolling(RecordingChatModel model, Path file) {
+        return new RollingSummarizer(model, new MapReduceSummarizer(model, WordTokenCounter.INSTANCE, 1_000, 1), 1_000,
+                file, "executive", "English");
+    }
+
+    private static void append(Path file, String text) throws Exception {
+        Files.writeString(file, text, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Test
+    @DisplayName("Updates send only the appended lines together with the previous summary")
+    void sendsOnlyTheDelta() throws Exception {
+        Path transcript = tempDir.resolve("meeting.txt");
+        append(transcript, "Alice: we ship on Friday.\n");
+        RecordingChatModel model = new RecordingChatModel();
+        RollingSummarizer rolling = rolling(model, transcript);
+
+        RollingSummarizer.Update first = rolling.update();
+        append(transcript, "Bob: QA needs one more day.\n");
+        RollingSummarizer.Update second = rolling.update();
+
+        assertThat(first.summary()).isEqualTo("summary 1");
+        assertThat(second.summary()).isEqualTo("summary 2");
+        assertThat(second.offset()).isEqualTo(Files.size(transcript));
+        assertThat(model.prompts.get(1))
+                .contains("summary 1", "Bob: QA needs one more day.")
+                .doesNotContain("Alice");
+    }
+
+    @Test
+    @DisplayName("A line still being written waits, and unchanged files cost no call")
+    void waitsForCompleteLines() throws Exception {
+        Path log = tempDir.resolve("app.log");
+        append(log, "INFO started\nWARN disk at 9");
+        RecordingChatModel model = new RecordingChatModel();
+        RollingSummarizer rolling = rolling(model, log);
+
+        rolling.update();
+        RollingSummarizer.Update idle = rolling.update();
+        append(log, "5%\n");
+        rolling.update();
+
+        assertThat(idle.bytesRead()).isZero();
+        assertThat(model.prompts).hasSize(2);
+        assertThat(model.prompts.get(0)).contains("INFO started").doesNotContain("WARN");
+        assertThat(model.prompts.get(1)).contains("WARN disk at 95%");
+    }
+
+    @Test
+    @DisplayName("A truncated file starts a fresh summary")
+    void restartsAfterTruncation() throws Exception {
+        Path log = tempDir.resolve("rotated.log");
+        append(log, "old line one\nold line two\n");
+        RecordingChatModel model = new RecordingChatModel();
+        RollingSummarizer rolling = rolling(model, log);
+        rolling.update();
+
+        Files.writeString(log, "new\n", StandardCharsets.UTF_8);
+        RollingSummarizer.Update update = rolling.update();
+
+        assertThat(update.restarted()).isTrue();
+        assertThat(update.offset()).isEqualTo(4);
+        assertThat(model.prompts.get(1)).contains("new").doesNotContain("Current summary");
+    }
+}
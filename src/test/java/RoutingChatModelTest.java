@@ -0,0 +1,309 @@
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.PartialResponse;
+import dev.langchain4j.model.chat.response.PartialResponseContext;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import dev.langchain4j.model.chat.response.StreamingHandle;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RoutingChatModelTest {
+
+    /**
+     * Local stub provider that answers with its own name after a fixed delay.
+     */
+    private static class StubChatModel implements ChatModel {
+        private final String name;
+        private final long delayMs;
+        private final boolean failing;
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicBoolean interrupted = new AtomicBoolean();
+
+        StubChatModel(String name, long delayMs, boolean failing) {
+            this.name = name;
+            this.delayMs = delayMs;
+            this.failing = failing;
+        }
+
+        @Override
+        public ChatResponse doChat(ChatRequest request) {
+            calls.incrementAndGet();
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+                throw new RuntimeException(e);
+            }
+            if (failing) throw new RuntimeException(name + " is down");
+            return ChatResponse.builder().aiMessage(AiMessage.from(name)).build();
+        }
+    }
+
+    /**
+     * Streaming stub that emits its name as tokens after a first-token delay and supports cancellation.
+     * A failing stub reports an error after the delay instead.
+     */
+    private static class StubStreamingChatModel implements StreamingChatModel {
+        private final String name;
+        private final long firstTokenDelayMs;
+        private final boolean failing;
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        final AtomicInteger calls = new AtomicInteger();
+
+        StubStreamingChatModel(String name, long firstTokenDelayMs) {
+            this(name, firstTokenDelayMs, false);
+        }
+
+        StubStreamingChatModel(String name, long firstTokenDelayMs, boolean failing) {
+            this.name = name;
+            this.firstTokenDelayMs = firstTokenDelayMs;
+            this.failing = failing;
+        }
+
+        @Override
+        public void doChat(ChatRequest request, StreamingChatResponseHandler handler) {
+            calls.incrementAndGet();
+            if (failing) {
+                CompletableFuture.runAsync(() -> handler.onError(new RuntimeException(name + " is down")),
+                        CompletableFuture.delayedExecutor(firstTokenDelayMs, TimeUnit.MILLISECONDS));
+                return;
+            }
+            StreamingHandle handle = new StreamingHandle() {
+                @Override
+                public void cancel() {
+                    cancelled.set(true);
+                }
+
+                @Override
+                public boolean isCancelled() {
+                    return cancelled.get();
+                }
+            };
+            CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < 3 && !cancelled.get(); i++) {
+                    handler.onPartialResponse(new PartialResponse(name + i + " "), new PartialResponseContext(handle));
+                }
+                if (!cancelled.get()) {
+                    handler.onCompleteResponse(ChatResponse.builder().aiMessage(AiMessage.from(name)).build());
+                }
+            }, CompletableFuture.delayedExecutor(firstTokenDelayMs, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    private static ChatRequest request() {
+        return ChatRequest.builder().messages(UserMessage.from("ping")).build();
+    }
+
+    @Test
+    @DisplayName("Should send requests to the fastest provider once latencies are known")
+    void routesToFastestProvider() {
+        StubChatModel slow = new StubChatModel("slow", 60, false);
+        StubChatModel fast = new StubChatModel("fast", 5, false);
+        RoutingChatModel router = new RoutingChatModel(ProviderPool.<ChatModel>builder()
+                .provider("slow", slow)
+                .provider("fast", fast)
+                .maxHedgeDelay(Duration.ofSeconds(5))
+                .build());
+
+        // Warm-up: both providers are unknown, so each gets sampled
+        router.chat(request());
+        router.chat(request());
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(router.chat(request()).aiMessage().text()).isEqualTo("fast");
+        }
+        assertThat(slow.calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should hedge to the runner-up when the primary is slow and cancel the loser")
+    void hedgesSlowPrimary() {
+        StubChatModel stuck = new StubChatModel("stuck", 5_000, false);
+        StubChatModel backup = new StubChatModel("backup", 20, false);
+        RoutingChatModel router = new RoutingChatModel(ProviderPool.<ChatModel>builder()
+                .provider("stuck", stuck)
+                .provider("backup", backup)
+                .maxHedgeDelay(Duration.ofMillis(100))
+                .build());
+
+        long start = System.nanoTime();
+        ChatResponse response = router.chat(request());
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(response.aiMessage().text()).isEqualTo("backup");
+        assertThat(elapsedMs).isLessThan(1_000);
+        assertThat(backup.calls.get()).isEqualTo(1);
+
+        // The losing call is interrupted rather than left running
+        await(stuck.interrupted);
+        assertThat(stuck.interrupted.get()).isTrue();
+    }
+
+    private static void await(AtomicBoolean flag) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (!flag.get() && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+
+    @Test
+    @DisplayName("Should fail over immediately and mark failing providers unhealthy")
+    void failsOverOnError() {
+        StubChatModel broken = new StubChatModel("broken", 0, true);
+        StubChatModel healthy = new StubChatModel("healthy", 5, false);
+        RoutingChatModel router = new RoutingChatModel(ProviderPool.<ChatModel>builder()
+                .provider("broken", broken)
+                .provider("healthy", healthy)
+                .build());
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(router.chat(request()).aiMessage().text()).isEqualTo("healthy");
+        }
+
+        ProviderStats brokenStats = router.pool().providers().get(0).stats();
+        assertThat(brokenStats.isHealthy()).isFalse();
+        assertThat(broken.calls.get()).isLessThan(5);
+    }
+
+    @Test
+    @DisplayName("Should surface the error when every provider fails")
+    void allProvidersFail() {
+        RoutingChatModel router = new RoutingChatModel(ProviderPool.<ChatModel>builder()
+                .provider("a", new StubChatModel("a", 0, true))
+                .provider("b", new StubChatModel("b", 0, true))
+                .build());
+
+        assertThatThrownBy(() -> router.chat(request())).hasMessageContaining("is down");
+    }
+
+    @Test
+    @DisplayName("Streaming: the first stream to produce a token wins, the other is cancelled")
+    void streamingHedgeCancelsLoser() throws Exception {
+        StubStreamingChatModel slow = new StubStreamingChatModel("slow", 400);
+        StubStreamingChatModel quick = new StubStreamingChatModel("quick", 10);
+        RoutingStreamingChatModel router = new RoutingStreamingChatModel(ProviderPool.<StreamingChatModel>builder()
+                .provider("slow", slow)
+                .provider("quick", quick)
+                .maxHedgeDelay(Duration.ofMillis(50))
+                .build());
+
+        List<String> tokens = new CopyOnWriteArrayList<>();
+        CompletableFuture<ChatResponse> done = new CompletableFuture<>();
+        router.chat(request(), new StreamingChatResponseHandler() {
+            @Override
+            public void onPartialResponse(String partialResponse) {
+                tokens.add(partialResponse);
+            }
+
+            @Override
+            public void onCompleteResponse(ChatResponse completeResponse) {
+                done.complete(completeResponse);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                done.completeExceptionally(error);
+            }
+        });
+
+        assertThat(done.get(2, TimeUnit.SECONDS).aiMessage().text()).isEqualTo("quick");
+        assertThat(tokens).containsExactly("quick0 ", "quick1 ", "quick2 ");
+
+        // The slow stream is cancelled as soon as it emits its first token
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (!slow.cancelled.get() && System.nanoTime() < deadline) Thread.sleep(10);
+        assertThat(slow.cancelled.get()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Streaming: a cancelled hedge loser returns its rate-limiter permit")
+    void streamingHedgeLoserReleasesPermit() throws Exception {
+        AdaptiveRateLimiter limiter = AdaptiveRateLimiter.builder("slow")
+                .requestsPerMinute(1_000_000).tokensPerMinute(100_000_000)
+                .initialConcurrency(1).minConcurrency(1).maxConcurrency(1).build();
+        StubStreamingChatModel slow = new StubStreamingChatModel("slow", 400);
+        RoutingStreamingChatModel router = new RoutingStreamingChatModel(ProviderPool.<StreamingChatModel>builder()
+                .provider("slow", new RateLimitedStreamingChatModel(slow, limiter, 1))
+                .provider("quick", new StubStreamingChatModel("quick", 10))
+                .maxHedgeDelay(Duration.ofMillis(50))
+                .build());
+
+        CompletableFuture<ChatResponse> done = new CompletableFuture<>();
+        router.chat(request(), new StreamingChatResponseHandler() {
+            @Override
+            public void onCompleteResponse(ChatResponse completeResponse) {
+                done.complete(completeResponse);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                done.completeExceptionally(error);
+            }
+        });
+
+        assertThat(done.get(2, TimeUnit.SECONDS).aiMessage().text()).isEqualTo("quick");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while ((!slow.cancelled.get() || limiter.inFlight() > 0) && System.nanoTime() < deadline) Thread.sleep(10);
+
+        assertThat(slow.cancelled.get()).isTrue();
+        assertThat(limiter.inFlight()).isZero();
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.acquire("next", 1);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }).get(2, TimeUnit.SECONDS).success(1);
+    }
+
+    @Test
+    @DisplayName("Streaming: a primary that fails before its hedge delay does not leave its hedge timer armed")
+    void streamingFailoverCancelsHedgeTimer() throws Exception {
+        // The primary fails at 100 ms; its timer would hedge at 200 ms, before the fallback's first
+        // token at 250 ms, while the fallback's own timer is only due at 300 ms
+        StubStreamingChatModel failing = new StubStreamingChatModel("failing", 100, true);
+        StubStreamingChatModel fallback = new StubStreamingChatModel("fallback", 150);
+        StubStreamingChatModel third = new StubStreamingChatModel("third", 10);
+        RoutingStreamingChatModel router = new RoutingStreamingChatModel(ProviderPool.<StreamingChatModel>builder()
+                .provider("failing", failing)
+                .provider("fallback", fallback)
+                .provider("third", third)
+                .maxHedgeDelay(Duration.ofMillis(200))
+                .build());
+
+        CompletableFuture<ChatResponse> done = new CompletableFuture<>();
+        router.chat(request(), new StreamingChatResponseHandler() {
+            @Override
+            public void onCompleteResponse(ChatResponse completeResponse) {
+                done.complete(completeResponse);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                done.completeExceptionally(error);
+            }
+        });
+
+        assertThat(done.get(2, TimeUnit.SECONDS).aiMessage().text()).isEqualTo("fallback");
+        // Give the fallback's timer time to come due as well
+        Thread.sleep(200);
+        assertThat(failing.calls.get()).isEqualTo(1);
+        assertThat(fallback.calls.get()).isEqualTo(1);
+        assertThat(third.calls.get()).isZero();
+    }
+}
@@ -0,0 +1,118 @@
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.TokenCountEstimator;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.query.Query;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+class SegmentIndexTest {
+
+    // One token per character keeps budget arithmetic obvious in assertions
+    private static final TokenCountEstimator CHARACTER_TOKENS = new TokenCountEstimator() {
+        @Override
+        public int estimateTokenCountInText(String text) {
+            return text.length();
+        }
+
+        @Override
+        public int estimateTokenCountInMessage(ChatMessage message) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int estimateTokenCountInMessages(Iterable<ChatMessage> messages) {
+            throw new UnsupportedOperationException();
+        }
+    };
+
+    private static List<float[]> randomVectors(int count, int dimension, long seed) {
+        Random random = new Random(seed);
+        List<float[]> vectors = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            float[] v = new float[dimension];
+            for (int d = 0; d < dimension; d++) v[d] = (float) random.nextGaussian();
+            vectors.add(v);
+        }
+        return vectors;
+    }
+
+    @Test
+    @DisplayName("Small corpora are searched exactly and ranked like the brute-force cosine scan")
+    void exactSearchMatchesBruteForce() {
+        List<float[]> vectors = randomVectors(2_000, 64, 1);
+        SegmentIndex index = SegmentIndex.build(vectors);
+        float[] query = vectors.get(123);
+
+        List<SegmentIndex.Hit> hits = index.search(query, 5);
+
+        assertThat(hits).hasSize(5);
+        assertThat(hits.get(0).id()).isEqualTo(123);
+        assertThat(hits.get(0).score()).isCloseTo(1.0, offset(0.02));
+        assertThat(hits).isSortedAccordingTo((a, b) -> Double.compare(b.score(), a.score()));
+    }
+
+    @Test
+    @DisplayName("Inverted lists still find a vector's own entry above the exact-search limit")
+    void invertedListsFindNearestNeighbour() {
+        List<float[]> vectors = randomVectors(SegmentIndex.EXACT_SEARCH_LIMIT * 2, 32, 2);
+        SegmentIndex index = SegmentIndex.build(vectors);
+
+        int found = 0;
+        for (int id = 0; id < vectors.size(); id += 997) {
+            if (index.search(vectors.get(id), 1).get(0).id() == id) found++;
+        }
+        assertThat(found).isEqualTo((vectors.size() + 996) / 997);
+    }
+
+    @Test
+    @DisplayName("An index survives a write/read round trip")
+    void serializationRoundTrip() throws Exception {
+        List<float[]> vectors = randomVectors(500, 16, 3);
+        SegmentIndex index = SegmentIndex.build(vectors);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.writeTo(new DataOutputStream(bytes));
+        SegmentIndex copy = SegmentIndex.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertThat(copy.size()).isEqualTo(500);
+        assertThat(copy.search(vectors.get(7), 3)).isEqualTo(index.search(vectors.get(7), 3));
+    }
+
+    @Test
+    @DisplayName("The retriever respects the token budget and caches the index next to the documents")
+    void retrieverHonoursBudgetAndCaches(@TempDir Path dir) throws Exception {
+        Files.writeString(dir.resolve("vpn.txt"), "To reset the VPN token, open the self-service portal and re-enrol MFA.");
+        Files.writeString(dir.resolve("printer.txt"), "Printer queues are cleared from the print server console.");
+
+        // Only the first hit (71 characters) fits into an 80-token budget
+        RunbookRetriever retriever = RunbookRetriever.open(dir, new HashingEmbeddingModel(), CHARACTER_TOKENS, 5, 80, 0.0);
+        List<Content> contents = retriever.retrieve(Query.from("How do I reset my VPN token?"));
+
+        assertThat(contents).hasSize(1);
+        TextSegment top = contents.get(0).textSegment();
+        assertThat(top.metadata().getString(Document.FILE_NAME)).isEqualTo("vpn.txt");
+        assertThat(dir.resolve(RunbookRetriever.CACHE_FILE)).exists();
+        assertThat(dir.resolve(RunbookRetriever.SNAPSHOT_FILE)).exists();
+
+        RunbookRetriever cached = RunbookRetriever.open(dir, new HashingEmbeddingModel(), CHARACTER_TOKENS, 5, 80, 0.0);
+        assertThat(cached.size()).isEqualTo(2);
+        assertThat(cached.retrieve(Query.from("How do I reset my VPN token?")).get(0).textSegment()).isEqualTo(top);
+        assertThat(LatencyMetrics.timer("retrieval").count()).isPositive();
+    }
+}
@@ -0,0 +1,96 @@
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.segment.TextSegment;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SegmentSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Segments and every metadata type survive a write/open round trip")
+    void roundTrip() throws Exception {
+        UUID id = UUID.fromString("4b0e7a4c-2d1f-4c59-9e3b-0f5d8c1a2b3c");
+        List<TextSegment> segments = List.of(
+                TextSegment.from("Restart the VPN gateway, then re-enrol MFA.", Metadata.from(Map.of(
+                        Document.FILE_NAME, "vpn.md", "page", 3, "offset", 1L << 40,
+                        "score", 0.25f, "weight", 0.125, "id", id))),
+                TextSegment.from("Grüße aus Zürich – 東京のサーバー 🚀"),
+                TextSegment.from("Printer queues are cleared from the print server console.",
+                        Metadata.from(Document.FILE_NAME, "printer.txt")));
+        Path file = dir.resolve("corpus.snap");
+
+        SegmentSnapshot.write(file, segments);
+        SegmentSnapshot snapshot = SegmentSnapshot.open(file);
+
+        assertThat(snapshot.size()).isEqualTo(3);
+        assertThat(snapshot.segments()).containsExactlyElementsOf(segments);
+        assertThat(snapshot.metadata(0).getInteger("page")).isEqualTo(3);
+        assertThat(snapshot.metadata(0).getUUID("id")).isEqualTo(id);
+        assertThat(snapshot.text(1)).isEqualTo("Grüße aus Zürich – 東京のサーバー 🚀");
+        assertThatThrownBy(() -> snapshot.segment(3)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    @DisplayName("Metadata keys and shared values are stored once in the string table")
+    void stringsAreInterned() throws Exception {
+        List<TextSegment> segments = IntStream.range(0, 1_000)
+                .mapToObj(i -> TextSegment.from("Segment " + i, Metadata.from(Document.FILE_NAME, "shared-runbook.md")))
+                .toList();
+        Path file = dir.resolve("corpus.snap");
+
+        SegmentSnapshot.write(file, segments);
+
+        String bytes = new String(Files.readAllBytes(file), StandardCharsets.ISO_8859_1);
+        assertThat(bytes.split("shared-runbook.md", -1)).hasSize(2);
+        assertThat(bytes.split(Document.FILE_NAME, -1)).hasSize(2);
+        assertThat(SegmentSnapshot.open(file).segment(999).metadata().getString(Document.FILE_NAME))
+                .isEqualTo("shared-runbook.md");
+    }
+
+    @Test
+    @DisplayName("Texts never straddle a region, so many small mappings read back correctly")
+    void smallRegions() throws Exception {
+        List<TextSegment> segments = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            segments.add(TextSegment.from("segment-" + i + " " + "x".repeat(i % 50)));
+        }
+        Path file = dir.resolve("regions.snap");
+
+        SegmentSnapshot.write(file, segments, 6);
+
+        assertThat(SegmentSnapshot.open(file).segments()).containsExactlyElementsOf(segments);
+        assertThatThrownBy(() -> SegmentSnapshot.write(file, List.of(TextSegment.from("y".repeat(65))), 6))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Files that are not complete snapshots are rejected on open")
+    void rejectsForeignAndTruncatedFiles() throws Exception {
+        Path foreign = Files.writeString(dir.resolve("foreign.snap"), "not a snapshot at all, but long enough to hold a header");
+        assertThatThrownBy(() -> SegmentSnapshot.open(foreign)).isInstanceOf(IOException.class);
+
+        Path file = dir.resolve("corpus.snap");
+        SegmentSnapshot.write(file, List.of(TextSegment.from("Rotate the certificate before it expires.")));
+        byte[] bytes = Files.readAllBytes(file);
+        Path truncated = Files.write(dir.resolve("truncated.snap"), Arrays.copyOf(bytes, bytes.length - 5));
+        assertThatThrownBy(() -> SegmentSnapshot.open(truncated)).isInstanceOf(IOException.class);
+    }
+}
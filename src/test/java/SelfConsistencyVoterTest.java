@@ -0,0 +1,98 @@
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SelfConsistencyVoterTest {
+
+    /**
+     * Hands out the scripted answers in call order; answers after the script hang until interrupted.
+     */
+    private static class ScriptedChatModel implements ChatModel {
+        private final List<String> answers;
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicInteger interrupted = new AtomicInteger();
+
+        ScriptedChatModel(String... answers) {
+            this.answers = Arrays.asList(answers);
+        }
+
+        @Override
+        public ChatResponse doChat(ChatRequest request) {
+            int call = calls.getAndIncrement();
+            if (call >= answers.size()) {
+                try {
+                    Thread.sleep(60_000);
+                } catch (InterruptedException e) {
+                    interrupted.incrementAndGet();
+                    throw new RuntimeException(e);
+                }
+            }
+            String answer = answers.get(call);
+            if (answer == null) throw new IllegalStateException("provider error");
+            return ChatResponse.builder().aiMessage(AiMessage.from(answer)).build();
+        }
+    }
+
+    private static String answer(String exploit) {
+        return "1. Indicators ...\n2. Analysis ...\nEXPLOIT: " + exploit + "\nCONTAINMENT: Block outbound LDAP.";
+    }
+
+    @Test
+    @DisplayName("Exploit types are read from the answer line and normalised")
+    void extractsAndNormalises() {
+        assertThat(SelfConsistencyVoter.exploitType(answer("Log4Shell (CVE-2021-44228)"))).isEqualTo("jndi injection (log4shell)");
+        assertThat(SelfConsistencyVoter.exploitType(answer("JNDI Injection"))).isEqualTo("jndi injection (log4shell)");
+        assertThat(SelfConsistencyVoter.exploitType("The attacker used SQLi on the orders API.")).isEqualTo("sql injection");
+        assertThat(SelfConsistencyVoter.exploitType(answer("Zero-day in the portal!"))).isEqualTo("zero day in the portal");
+        assertThat(SelfConsistencyVoter.exploitType("Check the resource limits.")).isNull();
+        assertThat(SelfConsistencyVoter.containment(answer("XSS"))).isEqualTo("Block outbound LDAP.");
+    }
+
+    @Test
+    @DisplayName("A majority stops the vote and cancels the requests still running")
+    void stopsEarlyOnMajority() throws Exception {
+        ScriptedChatModel model = new ScriptedChatModel(answer("Log4Shell"), answer("JNDI injection"), answer("Log4j RCE"));
+        SelfConsistencyVoter voter = new SelfConsistencyVoter(model, 5, 0.7);
+
+        SelfConsistencyVoter.Outcome outcome = voter.vote("analyse");
+
+        assertThat(outcome.exploit()).isEqualTo("jndi injection (log4shell)");
+        assertThat(outcome.majority()).isTrue();
+        assertThat(outcome.votes()).isEqualTo(3);
+        assertThat(outcome.samples()).hasSize(3);
+        assertThat(outcome.cancelled()).isEqualTo(2);
+        assertThat(outcome.containment()).isEqualTo("Block outbound LDAP.");
+        assertThat(outcome.millis()).isLessThan(30_000);
+    }
+
+    @Test
+    @DisplayName("Without a majority the plurality wins and failed samples cast no vote")
+    void fallsBackToPlurality() throws Exception {
+        ScriptedChatModel model = new ScriptedChatModel(answer("SQL injection"), null, answer("XSS"), answer("sqli"), answer("SSRF"));
+        SelfConsistencyVoter.Outcome outcome = new SelfConsistencyVoter(model, 5, 0.7).vote("analyse");
+
+        assertThat(outcome.exploit()).isEqualTo("sql injection");
+        assertThat(outcome.votes()).isEqualTo(2);
+        assertThat(outcome.majority()).isFalse();
+        assertThat(outcome.samples()).hasSize(4);
+    }
+
+    @Test
+    @DisplayName("A vote in which every sample failed is an error")
+    void allSamplesFailed() {
+        ScriptedChatModel model = new ScriptedChatModel(null, null, null);
+        assertThatThrownBy(() -> new SelfConsistencyVoter(model, 3, 0.7).vote("analyse"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("All 3 samples failed");
+    }
+}
@@ -0,0 +1,150 @@
+import dev.langchain4j.model.chat.response.PartialResponse;
+import dev.langchain4j.model.chat.response.PartialResponseContext;
+import dev.langchain4j.model.chat.response.StreamingHandle;
+import dev.langchain4j.model.openai.OpenAiStreamingChatModel;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StreamControlTest {
+
+    @Test
+    @DisplayName("A stop sequence split across chunks ends the stream and is never shown")
+    void stopSequenceAcrossChunks() {
+        StreamControl control = StreamControl.start(1024, Duration.ZERO, List.of("\n\nUser:"));
+        Handle handle = new Handle();
+
+        StringBuilder shown = new StringBuilder();
+        for (String chunk : List.of("Block outbound ", "LDAP.\n", "\nUs", "er: and then?", " more")) {
+            control.accept(new PartialResponse(chunk), handle.context(), shown::append);
+        }
+
+        assertThat(shown).hasToString("Block outbound LDAP.");
+        assertThat(handle.cancels.get()).isPositive();
+        StreamControl.Cancellation cancellation = control.cancellation();
+        assertThat(cancellation.reason()).isEqualTo(StreamControl.Reason.STOP_SEQUENCE);
+        assertThat(cancellation.tokensSaved()).isEqualTo(1024 - cancellation.outputTokens());
+        assertThat(control.complete(shown::append)).isFalse();
+        assertThat(shown).hasToString("Block outbound LDAP.");
+    }
+
+    @Test
+    @DisplayName("Text before a stop sequence is displayed before the waiting thread is released")
+    void stopSequenceTextIsDisplayedBeforeRelease() throws Exception {
+        StreamControl control = StreamControl.start(1024, Duration.ZERO, List.of("User:"));
+        StringBuffer shown = new StringBuffer();
+        CompletableFuture<String> seenByWaiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                control.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return shown.toString();
+        });
+
+        control.accept(new PartialResponse("Isolate the host. User: next?"), new Handle().context(), text -> {
+            try {
+                // A slow display, such as a renderer whose queue is full
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            shown.append(text);
+        });
+
+        assertThat(seenByWaiter.get(5, TimeUnit.SECONDS)).isEqualTo("Isolate the host. ");
+        assertThat(control.cancellation().reason()).isEqualTo(StreamControl.Reason.STOP_SEQUENCE);
+    }
+
+    @Test
+    @DisplayName("Text held back for a possible stop sequence is released when the model finishes")
+    void heldTextIsFlushedOnCompletion() {
+        StreamControl control = StreamControl.start(1024, Duration.ZERO, List.of("###"));
+        Handle handle = new Handle();
+
+        StringBuilder shown = new StringBuilder();
+        control.accept(new PartialResponse("Rotate keys #"), handle.context(), shown::append);
+        control.accept(new PartialResponse("#"), handle.context(), shown::append);
+
+        assertThat(shown).hasToString("Rotate keys ");
+        assertThat(control.complete(shown::append)).isTrue();
+        assertThat(shown).hasToString("Rotate keys ##");
+        assertThat(control.cancellation()).isNull();
+        assertThat(control.cancel(StreamControl.Reason.INTERRUPTED)).isFalse();
+        assertThat(handle.cancels.get()).isZero();
+    }
+
+    @Test
+    @DisplayName("A deadline releases the waiter at once and cancels the handle when the first token arrives")
+    void deadlineBeforeFirstToken() throws Exception {
+        StreamControl control = StreamControl.start(1024, Duration.ofMillis(50), List.of());
+        Handle handle = new Handle();
+
+        assertThat(control.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(control.cancellation().reason()).isEqualTo(StreamControl.Reason.DEADLINE);
+        assertThat(control.cancellation().tokensSaved()).isEqualTo(1024);
+
+        StringBuilder shown = new StringBuilder();
+        control.accept(new PartialResponse("late"), handle.context(), shown::append);
+        assertThat(shown).isEmpty();
+        assertThat(handle.cancels.get()).isEqualTo(1);
+        assertThat(control.fail()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Cancelling an assistant's answer closes the HTTP stream, so the server stops generating")
+    void cancelAbortsHttpStream() throws Exception {
+        try (OpenAiStubServer stub = OpenAiStubServer.builder()
+                .firstTokenDelay(Duration.ZERO).tokensPerSecond(100).outputTokens(500).start()) {
+            ITAssistant.Assistant assistant = ITAssistant.createAssistant(OpenAiStreamingChatModel.builder()
+                    .baseUrl(stub.baseUrl()).apiKey("stub").modelName("stub-model").build(), null);
+            StreamControl control = StreamControl.start(500, Duration.ZERO, List.of());
+            AtomicInteger chunks = new AtomicInteger();
+            CompletableFuture<Void> completed = new CompletableFuture<>();
+
+            assistant.doChat("Which port does LDAP use?")
+                    .onPartialResponseWithContext((partial, context) -> {
+                        chunks.incrementAndGet();
+                        control.accept(partial, context, text -> { });
+                    })
+                    .onCompleteResponse(response -> completed.complete(null))
+                    .onError(e -> control.fail())
+                    .start();
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (chunks.get() < 10 && System.nanoTime() < deadline) Thread.sleep(10);
+            assertThat(control.cancel(StreamControl.Reason.INTERRUPTED)).isTrue();
+
+            while (stub.aborted() == 0 && System.nanoTime() < deadline) Thread.sleep(10);
+            assertThat(stub.aborted()).isEqualTo(1);
+            assertThat(stub.unsentTokens()).isGreaterThan(400);
+            assertThat(control.cancellation().outputTokens()).isBetween(10, 100);
+            assertThat(completed).isNotDone();
+        }
+    }
+
+    private static final class Handle implements StreamingHandle {
+        final AtomicInteger cancels = new AtomicInteger();
+
+        PartialResponseContext context() {
+            return new PartialResponseContext(this);
+        }
+
+        @Override
+        public void cancel() {
+            cancels.incrementAndGet();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancels.get() > 0;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StreamingRendererTest {
+
+    @Test
+    @DisplayName("Should render every token in order")
+    void rendersTokensInOrder() {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        StreamingRenderer renderer = StreamingRenderer.start(new PrintStream(buffer, true, StandardCharsets.UTF_8),
+                StreamingRenderer.Pacer.NONE);
+
+        renderer.onToken("Zero ");
+        renderer.onToken("Trust ");
+        renderer.onToken("always.");
+        renderer.complete();
+        renderer.awaitRendered();
+
+        assertThat(buffer.toString(StandardCharsets.UTF_8)).isEqualTo("Zero Trust always.");
+        assertThat(renderer.timings().tokenCount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Pacing should not block the callback thread or inflate network timings")
+    void pacingDoesNotBlockCallbackThread() {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        StreamingRenderer renderer = StreamingRenderer.start(new PrintStream(buffer, true, StandardCharsets.UTF_8),
+                StreamingRenderer.Pacer.fixed(20));
+
+        long before = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            renderer.onToken("abcde");
+        }
+        renderer.complete();
+        long callbackMillis = (System.nanoTime() - before) / 1_000_000;
+
+        renderer.awaitRendered();
+        StreamingRenderer.StreamTimings timings = renderer.timings();
+
+        // 50 characters at 20ms each take ~1s to display, handing them over must be near-instant
+        assertThat(callbackMillis).isLessThan(200);
+        assertThat(timings.networkMillis()).isLessThan(200);
+        assertThat(timings.displayMillis()).isGreaterThanOrEqualTo(900);
+        assertThat(buffer.toString(StandardCharsets.UTF_8)).hasSize(50);
+    }
+
+    @Test
+    @DisplayName("A full queue should switch the renderer into catch-up mode instead of dropping tokens")
+    void fullQueueCatchesUp() {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        StreamingRenderer renderer = StreamingRenderer.start(new PrintStream(buffer, true, StandardCharsets.UTF_8),
+                StreamingRenderer.Pacer.fixed(50), 2);
+
+        for (int i = 0; i < 100; i++) {
+            renderer.onToken("x");
+        }
+        renderer.complete();
+        renderer.awaitRendered();
+
+        assertThat(buffer.toString(StandardCharsets.UTF_8)).hasSize(100);
+    }
+}
